@@ -1,10 +1,19 @@
 package in.codefarm.saga.config;
 
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import in.codefarm.saga.fanout.SagaFanOut;
+import in.codefarm.saga.filtering.SagaEventDeserializer;
+import in.codefarm.saga.filtering.SkippedEventFilterStrategy;
+import in.codefarm.saga.tracing.SagaTracingProducerInterceptor;
+import in.codefarm.saga.tracing.SagaTracingRecordInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 import tools.jackson.databind.json.JsonMapper;
 import tools.jackson.databind.SerializationFeature;
 import in.codefarm.saga.event.EventWrapper;
@@ -15,6 +24,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +34,12 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${saga.exactly-once.enabled:false}")
+    private boolean exactlyOnceEnabled;
+
+    @Value("${saga.exactly-once.transaction-id-prefix:saga-tx-}")
+    private String transactionIdPrefix;
+
     @Bean
     public ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -36,37 +52,127 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.LINGER_MS_CONFIG, 10);
 
         JacksonJsonSerializer<EventWrapper<?>> serializer = new JacksonJsonSerializer<>();
-        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), serializer);
+        var factory = new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), serializer);
+
+        // Exactly-once mode: listener containers run each record in a Kafka transaction,
+        // sends from inside a listener join it (prefix must be unique per application instance)
+        if (exactlyOnceEnabled) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
     }
     
     @Bean
     public KafkaTemplate<String, EventWrapper<?>> eventWrapperKafkaTemplate(
-        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory
+        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory,
+        SagaTracingProducerInterceptor sagaTracingProducerInterceptor
     ) {
-        return new KafkaTemplate<>(eventWrapperProducerFactory);
+        var template = new KafkaTemplate<>(eventWrapperProducerFactory);
+        // Sends outside a listener (e.g. REST controllers) still use a plain idempotent producer
+        template.setAllowNonTransactional(true);
+        // Saga latency headers (origin + hop send time) on every event
+        template.setProducerInterceptor(sagaTracingProducerInterceptor);
+        return template;
     }
 
 
     @Bean
-    public ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory() {
+    public ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory(JsonMapper jsonMapper) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
 
-        JacksonJsonDeserializer<EventWrapper<?>> deserializer =
-                new JacksonJsonDeserializer<>(EventWrapper.class);
-        deserializer.addTrustedPackages("*");
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), deserializer);
+        // Exactly-once mode: offsets are committed through the producer transaction,
+        // and only committed (non-aborted) records are visible to the listeners
+        if (exactlyOnceEnabled) {
+            configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
+
+        // Deserializer set by class (not instance) so each consumer gets its own, configured with
+        // the listener's group.id - it skips parsing records the group's header filter rejects
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SagaEventDeserializer.class);
+        configProps.put(SagaEventDeserializer.JSON_MAPPER_CONFIG, jsonMapper);
+        return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> eventWrapperKafkaListenerContainerFactory(
-            ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory
+            ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory,
+            ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory,
+            ProcessedEventStore processedEventStore,
+            SagaTracingRecordInterceptor sagaTracingRecordInterceptor
     ) {
         ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(eventWrapperConsumerFactory);
+        // Per-hop and end-to-end saga latency, origin carried to the events the listener sends
+        factory.setRecordInterceptor(sagaTracingRecordInterceptor);
+        // Drop records the deserializer skipped (header filter) before the listener is invoked
+        factory.setRecordFilterStrategy(new SkippedEventFilterStrategy());
+        factory.setAckDiscarded(true);
+
+        if (exactlyOnceEnabled) {
+            // Consume-transform-produce in one Kafka transaction: the container begins the transaction,
+            // listener sends join it, and the consumed offset is sent to the same transaction on commit.
+            // Not registered as a bean so the JPA transaction manager stays the default one.
+            factory.getContainerProperties().setKafkaAwareTransactionManager(
+                    new KafkaTransactionManager<>(eventWrapperProducerFactory));
+        }
+
+        // Keep the dedup store partition-scoped: rebuild what we gain, drop what we lose
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsRevoked(consumer.groupMetadata().groupId(), partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsRevoked(consumer.groupMetadata().groupId(), partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsAssigned(consumer.groupMetadata().groupId(), partitions,
+                        topic -> consumer.partitionsFor(topic).size());
+            }
+        });
+        return factory;
+    }
+
+    /**
+     * Container factory for the single-fetch fan-out consumer (see SagaFanOut). Its group has no header
+     * filter, so each record is parsed once for all handlers; offsets per handler group are kept by SagaFanOut.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> fanOutKafkaListenerContainerFactory(
+            ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory,
+            SagaTracingRecordInterceptor sagaTracingRecordInterceptor,
+            SagaFanOut sagaFanOut
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventWrapperConsumerFactory);
+        factory.setRecordInterceptor(sagaTracingRecordInterceptor);
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                sagaFanOut.onPartitionsRevoked(partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                sagaFanOut.onPartitionsRevoked(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                sagaFanOut.onPartitionsAssigned(consumer, partitions);
+            }
+        });
         return factory;
     }
 
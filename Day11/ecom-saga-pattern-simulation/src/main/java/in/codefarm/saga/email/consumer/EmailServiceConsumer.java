@@ -3,6 +3,7 @@ package in.codefarm.saga.email.consumer;
 import tools.jackson.databind.json.JsonMapper;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.InventoryReservedEvent;
+import in.codefarm.saga.fanout.SagaFanOut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -17,14 +18,17 @@ public class EmailServiceConsumer {
     
     private final JsonMapper jsonMapper;
     
-    public EmailServiceConsumer(JsonMapper jsonMapper) {
+    public EmailServiceConsumer(JsonMapper jsonMapper, SagaFanOut sagaFanOut) {
         this.jsonMapper = jsonMapper;
+        sagaFanOut.register("inventory", "email-service-group",
+            (wrapper, partition) -> handleInventoryReserved(wrapper));
     }
     
     @KafkaListener(
         topics = "inventory",
         groupId = "email-service-group",
-        containerFactory = "eventWrapperKafkaListenerContainerFactory"
+        containerFactory = "eventWrapperKafkaListenerContainerFactory",
+        autoStartup = "#{!@sagaFanOut.enabled}"
     )
     public void handleInventoryReserved(@Payload EventWrapper<?> wrapper) {
         try {
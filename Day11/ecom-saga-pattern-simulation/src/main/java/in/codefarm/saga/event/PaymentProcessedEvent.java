@@ -9,7 +9,10 @@ public record PaymentProcessedEvent(
     String customerId,
     BigDecimal amount,
     String status,  // "SUCCESS" or "FAILED"
-    LocalDateTime processedAt
+    LocalDateTime processedAt,
+    // Carried over from OrderPlaced so the inventory service can reserve stock without an order lookup
+    String productId,
+    Integer quantity
 ) {
 }
 
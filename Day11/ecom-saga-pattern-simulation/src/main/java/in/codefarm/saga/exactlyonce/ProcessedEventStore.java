@@ -0,0 +1,246 @@
+package in.codefarm.saga.exactlyonce;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Local dedup store used by the saga consumers instead of an idempotency SELECT per message.
+ *
+ * Each listener registers a store under its consumer group with the topic it consumes and a loader
+ * returning the keys it has already processed (e.g. orderIds from the payments table).
+ * State is kept per assigned partition - a bloom filter of every processed key plus a small LRU of
+ * recently committed keys. Lookups answer:
+ * - NOT_PROCESSED: the bloom filter has never seen the key - no DB round trip needed (the common case)
+ * - PROCESSED: the key was committed recently - a redelivered duplicate, skip it
+ * - UNKNOWN: the filter says "maybe" (or the store is disabled / partition not owned) - fall back to the indexed DB check
+ *
+ * Keys go into the bloom filter as soon as they are processed, since a rolled back attempt may
+ * still have committed its DB write; they enter the LRU only when the surrounding transaction commits.
+ * Partition state is rebuilt from the loader on assignment and dropped on revocation.
+ */
+@Component
+public class ProcessedEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventStore.class);
+
+    public enum Status { PROCESSED, NOT_PROCESSED, UNKNOWN }
+
+    /**
+     * Loads the processed keys of the given partitions, grouped by partition.
+     */
+    @FunctionalInterface
+    public interface KeyLoader {
+        Map<Integer, List<String>> load(Set<Integer> partitions, int partitionCount);
+    }
+
+    private final boolean enabled;
+    private final int recentKeysPerPartition;
+    private final int expectedKeysPerPartition;
+    private final double falsePositiveRate;
+    private final Map<String, Store> stores = new ConcurrentHashMap<>();
+
+    public ProcessedEventStore(
+        @Value("${saga.exactly-once.local-dedup.enabled:false}") boolean enabled,
+        @Value("${saga.exactly-once.local-dedup.recent-keys-per-partition:10000}") int recentKeysPerPartition,
+        @Value("${saga.exactly-once.local-dedup.expected-keys-per-partition:100000}") int expectedKeysPerPartition,
+        @Value("${saga.exactly-once.local-dedup.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.enabled = enabled;
+        this.recentKeysPerPartition = recentKeysPerPartition;
+        this.expectedKeysPerPartition = expectedKeysPerPartition;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Loader for stores whose dedup key is also the Kafka record key and whose table does not
+     * record the source partition: keys are bucketed with the default partitioner (murmur2 of the key).
+     * Reads every key once per rebalance (not per partition) and only keeps those of the assigned partitions.
+     */
+    public static KeyLoader byRecordKey(Supplier<? extends Collection<String>> allKeys) {
+        return (partitions, partitionCount) -> {
+            Map<Integer, List<String>> keys = new HashMap<>();
+            for (String key : allKeys.get()) {
+                int partition = partitionFor(key, partitionCount);
+                if (partitions.contains(partition)) {
+                    keys.computeIfAbsent(partition, p -> new ArrayList<>()).add(key);
+                }
+            }
+            return keys;
+        };
+    }
+
+    static int partitionFor(String key, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    /**
+     * Register the store of a consumer group. Partition state is built when partitions of the topic are assigned.
+     */
+    public void register(String groupId, String topic, KeyLoader loader) {
+        stores.put(groupId, new Store(groupId, topic, loader));
+    }
+
+    public Status lookup(String groupId, int partition, String key) {
+        if (!enabled) {
+            return Status.UNKNOWN;
+        }
+        PartitionState state = partitionState(groupId, partition);
+        return state == null ? Status.UNKNOWN : state.lookup(key);
+    }
+
+    /**
+     * Record a processed key. Inside a transaction the key becomes "recent" on commit only.
+     */
+    public void markProcessed(String groupId, int partition, String key) {
+        if (!enabled) {
+            return;
+        }
+        PartitionState state = partitionState(groupId, partition);
+        if (state == null) {
+            return;
+        }
+
+        state.addToFilter(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        state.addRecent(key);
+                    }
+                }
+            });
+        } else {
+            state.addRecent(key);
+        }
+    }
+
+    /**
+     * Called from the rebalance listener - rebuilds the state of newly assigned partitions.
+     */
+    public void onPartitionsAssigned(String groupId, Collection<TopicPartition> partitions,
+                                     ToIntFunction<String> partitionCounts) {
+        Store store = stores.get(groupId);
+        if (!enabled || store == null) {
+            return;
+        }
+        Set<Integer> assigned = partitions.stream()
+            .filter(tp -> tp.topic().equals(store.topic))
+            .map(TopicPartition::partition)
+            .collect(Collectors.toSet());
+        if (!assigned.isEmpty()) {
+            store.rebuild(assigned, partitionCounts.applyAsInt(store.topic));
+        }
+    }
+
+    /**
+     * Called from the rebalance listener - drops the state of revoked or lost partitions.
+     */
+    public void onPartitionsRevoked(String groupId, Collection<TopicPartition> partitions) {
+        Store store = stores.get(groupId);
+        if (store == null) {
+            return;
+        }
+        partitions.stream()
+            .filter(tp -> tp.topic().equals(store.topic))
+            .forEach(tp -> store.partitions.remove(tp.partition()));
+    }
+
+    /**
+     * Rebuild every owned partition from its loader, e.g. after the backing tables were cleared.
+     */
+    public void invalidateAll() {
+        stores.values().forEach(store -> {
+            if (!store.partitions.isEmpty()) {
+                store.rebuild(Set.copyOf(store.partitions.keySet()), store.partitionCount);
+            }
+        });
+    }
+
+    private PartitionState partitionState(String groupId, int partition) {
+        Store store = stores.get(groupId);
+        return store == null ? null : store.partitions.get(partition);
+    }
+
+    private final class Store {
+
+        private final String groupId;
+        private final String topic;
+        private final KeyLoader loader;
+        private final Map<Integer, PartitionState> partitions = new ConcurrentHashMap<>();
+        private volatile int partitionCount;
+
+        Store(String groupId, String topic, KeyLoader loader) {
+            this.groupId = groupId;
+            this.topic = topic;
+            this.loader = loader;
+        }
+
+        void rebuild(Set<Integer> assigned, int partitionCount) {
+            this.partitionCount = partitionCount;
+            Map<Integer, List<String>> keys = new HashMap<>(loader.load(assigned, partitionCount));
+            for (Integer partition : assigned) {
+                var state = new PartitionState(
+                    BloomFilter.create(expectedKeysPerPartition, falsePositiveRate), recentKeysPerPartition);
+                List<String> partitionKeys = keys.getOrDefault(partition, List.of());
+                partitionKeys.forEach(state::addToFilter);
+                partitions.put(partition, state);
+                log.info("Rebuilt dedup store: {} - Partition: {}-{}, Keys: {}", groupId, topic, partition, partitionKeys.size());
+            }
+        }
+    }
+
+    private static final class PartitionState {
+
+        private final BloomFilter filter;
+        private final LinkedHashMap<String, Boolean> recent;
+
+        PartitionState(BloomFilter filter, int maxRecentKeys) {
+            this.filter = filter;
+            this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > maxRecentKeys;
+                }
+            };
+        }
+
+        synchronized Status lookup(String key) {
+            if (!filter.mightContain(key)) {
+                return Status.NOT_PROCESSED;
+            }
+            return recent.containsKey(key) ? Status.PROCESSED : Status.UNKNOWN;
+        }
+
+        synchronized void addToFilter(String key) {
+            filter.put(key);
+        }
+
+        synchronized void addRecent(String key) {
+            recent.put(key, Boolean.TRUE);
+        }
+    }
+}
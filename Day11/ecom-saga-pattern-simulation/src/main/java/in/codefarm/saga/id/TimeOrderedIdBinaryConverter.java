@@ -0,0 +1,23 @@
+package in.codefarm.saga.id;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a TimeOrderedIds string as a 16-byte binary column instead of a 26-36 character VARCHAR.
+ * Only for columns that never hold ids from elsewhere (payments.paymentId, inventory_reservations.reservationId
+ * are generated by their services) - any other string is rejected.
+ */
+@Converter
+public class TimeOrderedIdBinaryConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String id) {
+        return id == null ? null : TimeOrderedIds.toBytes(id);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : TimeOrderedIds.fromBytes(bytes);
+    }
+}
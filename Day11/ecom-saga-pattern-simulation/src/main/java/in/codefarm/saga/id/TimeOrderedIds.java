@@ -0,0 +1,134 @@
+package in.codefarm.saga.id;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time-ordered 128-bit ids for orderId, transactionId, paymentId and reservationId (UUIDv7 layout).
+ *
+ * Layout: 48-bit Unix epoch milliseconds | version 7 | 12-bit counter | variant | 62 random bits.
+ * The counter starts at a random value below 2048 every millisecond and is incremented for each id
+ * in the same millisecond, so ids from one instance are strictly increasing.
+ *
+ * String form: 26 Crockford base32 characters (0-9, A-Z without I, L, O, U). The characters sort
+ * like the 128 bits, so inserts into the existing VARCHAR indexes (orders.orderId, payments.orderId, ...)
+ * append to the right-most leaf instead of a random page, and each key is 10 bytes shorter than a UUID string.
+ * Binary form: 16 bytes, see TimeOrderedIdBinaryConverter for the columns that only hold generated ids.
+ */
+public final class TimeOrderedIds {
+
+    public static final int STRING_LENGTH = 26;
+    public static final int BINARY_LENGTH = 16;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+    private static final int MAX_COUNTER = 0xFFF;
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private static long lastMillis;
+    private static int counter;
+
+    private TimeOrderedIds() {
+    }
+
+    /**
+     * A new id in its string form.
+     */
+    public static String newId() {
+        return encode(newUuid());
+    }
+
+    public static UUID newUuid() {
+        long millis;
+        int sequence;
+        synchronized (TimeOrderedIds.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = ThreadLocalRandom.current().nextInt(MAX_COUNTER / 2);
+            } else if (++counter > MAX_COUNTER) {
+                // Counter exhausted (or the clock went back): borrow the next millisecond
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        long msb = (millis << 16) | (0x7L << 12) | sequence;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Millisecond timestamp an id was generated at.
+     */
+    public static long timestampOf(String id) {
+        return decode(id).getMostSignificantBits() >>> 16;
+    }
+
+    public static String encode(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        char[] chars = new char[STRING_LENGTH];
+        // 26 x 5 bits = 130: the first character only carries the top 3 bits
+        for (int i = STRING_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (lsb & 0x1F)];
+            lsb = (lsb >>> 5) | (msb << 59);
+            msb >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    public static UUID decode(String id) {
+        if (id == null || id.length() != STRING_LENGTH) {
+            throw new IllegalArgumentException("Not a time-ordered id: " + id);
+        }
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < STRING_LENGTH; i++) {
+            char c = id.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0 || (i == 0 && value > 7)) {
+                throw new IllegalArgumentException("Not a time-ordered id: " + id);
+            }
+            msb = (msb << 5) | (lsb >>> 59);
+            lsb = (lsb << 5) | value;
+        }
+        return new UUID(msb, lsb);
+    }
+
+    public static byte[] toBytes(String id) {
+        UUID uuid = decode(id);
+        byte[] bytes = new byte[BINARY_LENGTH];
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) msb;
+            bytes[i + 8] = (byte) lsb;
+            msb >>>= 8;
+            lsb >>>= 8;
+        }
+        return bytes;
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        if (bytes.length != BINARY_LENGTH) {
+            throw new IllegalArgumentException("Expected " + BINARY_LENGTH + " bytes, got " + bytes.length);
+        }
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (bytes[i] & 0xFF);
+            lsb = (lsb << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return encode(new UUID(msb, lsb));
+    }
+}
@@ -4,43 +4,62 @@ import tools.jackson.databind.json.JsonMapper;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.PaymentProcessedEvent;
 import in.codefarm.saga.event.InventoryReservedEvent;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import in.codefarm.saga.fanout.SagaFanOut;
+import in.codefarm.saga.inventory.ledger.StockLedger;
 import in.codefarm.saga.inventory.service.InventoryService;
 import in.codefarm.saga.inventory.service.InventoryEventProducer;
+import in.codefarm.saga.id.TimeOrderedIds;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Component
 public class InventoryServiceConsumer {
     
     private static final Logger log = LoggerFactory.getLogger(InventoryServiceConsumer.class);
+    private static final String DEDUP_STORE = "inventory-service-group";
     
     private final InventoryService inventoryService;
     private final InventoryEventProducer inventoryEventProducer;
     private final JsonMapper jsonMapper;
+    private final ProcessedEventStore processedEventStore;
+    private final StockLedger stockLedger;
     
     public InventoryServiceConsumer(
         InventoryService inventoryService,
+        StockLedger stockLedger,
         InventoryEventProducer inventoryEventProducer,
-       JsonMapper jsonMapper
+       JsonMapper jsonMapper,
+       ProcessedEventStore processedEventStore,
+       SagaFanOut sagaFanOut
     ) {
         this.inventoryService = inventoryService;
+        this.stockLedger = stockLedger;
         this.inventoryEventProducer = inventoryEventProducer;
         this.jsonMapper = jsonMapper;
+        this.processedEventStore = processedEventStore;
+        processedEventStore.register(DEDUP_STORE, "payments", ProcessedEventStore.byRecordKey(inventoryService::findAllOrderIds));
+        sagaFanOut.register("payments", "inventory-service-group", this::handlePaymentProcessed);
     }
     
     @KafkaListener(
         topics = "payments",
         groupId = "inventory-service-group",
-        containerFactory = "eventWrapperKafkaListenerContainerFactory"
+        containerFactory = "eventWrapperKafkaListenerContainerFactory",
+        autoStartup = "#{!@sagaFanOut.enabled}"
     )
-    public void handlePaymentProcessed(@Payload EventWrapper<?> wrapper) {
+    public void handlePaymentProcessed(
+            @Payload EventWrapper<?> wrapper,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition
+    ) {
         try {
             String eventType = wrapper.metadata().eventType();
             
@@ -64,31 +83,42 @@ public class InventoryServiceConsumer {
                 event.orderId(), transactionId);
             
             // Idempotency check
-            var existingReservation = inventoryService.findByOrderId(event.orderId());
-            if (existingReservation.isPresent()) {
-                log.warn("Inventory already reserved for order: {} - skipping (idempotency)", event.orderId());
+            if (isAlreadyProcessed(partition, event.orderId())) {
+                log.warn("Inventory already reserved for order: {} - republishing the stored result (idempotency)", event.orderId());
+                republishStoredResult(event.orderId(), transactionId);
                 return;
             }
             
             boolean reservationSuccess = reserveInventory(event);
-            String reservationId = UUID.randomUUID().toString();
+            String reservationId = TimeOrderedIds.newId();
             
-            // Save reservation to database
-            inventoryService.reserveInventory(
-                reservationId,
-                event.orderId(),
-                "product-123",  // Would come from order
-                event.amount().intValue(),  // Simplified
-                reservationSuccess ? "RESERVED" : "UNAVAILABLE",
-                transactionId
-            );
+            // Save reservation to database - units taken from the ledger go back if the row is not committed
+            try {
+                inventoryService.reserveInventory(
+                    reservationId,
+                    event.orderId(),
+                    event.productId(),
+                    event.quantity(),
+                    reservationSuccess ? "RESERVED" : "UNAVAILABLE",
+                    transactionId
+                );
+            } catch (RuntimeException e) {
+                if (reservationSuccess) {
+                    stockLedger.release(event.productId(), event.quantity());
+                }
+                throw e;
+            }
+            if (reservationSuccess) {
+                stockLedger.confirm(event.productId(), event.quantity());
+            }
+            processedEventStore.markProcessed(DEDUP_STORE, partition, event.orderId());
             
             // Publish result
             var inventoryEvent = new InventoryReservedEvent(
                 reservationId,
                 event.orderId(),
-                "product-123",
-                event.amount().intValue(),
+                event.productId(),
+                event.quantity(),
                 reservationSuccess ? "RESERVED" : "UNAVAILABLE",
                 LocalDateTime.now()
             );
@@ -107,9 +137,9 @@ public class InventoryServiceConsumer {
                 String transactionId = wrapper.metadata().transactionId();
                 
                 var failureEvent = new InventoryReservedEvent(
-                    UUID.randomUUID().toString(),
+                    TimeOrderedIds.newId(),
                     event.orderId(),
-                    "product-123",
+                    event.productId(),
                     0,
                     "UNAVAILABLE",
                     LocalDateTime.now()
@@ -122,14 +152,49 @@ public class InventoryServiceConsumer {
         }
     }
     
+    /**
+     * The reservation row is committed before its result is published, so a redelivery after a crash in
+     * between lands here: publish the result again from the stored reservation instead of leaving the saga
+     * waiting.
+     */
+    private void republishStoredResult(String orderId, String transactionId) {
+        var reservation = inventoryService.findByOrderId(orderId);
+        if (reservation.isEmpty()) {
+            return;
+        }
+        var stored = reservation.get();
+        var inventoryEvent = new InventoryReservedEvent(
+            stored.getReservationId(),
+            stored.getOrderId(),
+            stored.getProductId(),
+            stored.getQuantity(),
+            stored.getStatus(),
+            stored.getReservedAt()
+        );
+        inventoryEventProducer.sendInventoryReservedEvent(inventoryEvent, transactionId);
+    }
+    
+    /**
+     * Ask the local dedup store first; only hit the database when it cannot answer.
+     */
+    private boolean isAlreadyProcessed(int partition, String orderId) {
+        var status = processedEventStore.lookup(DEDUP_STORE, partition, orderId);
+        if (status != ProcessedEventStore.Status.UNKNOWN) {
+            return status == ProcessedEventStore.Status.PROCESSED;
+        }
+        return inventoryService.findByOrderId(orderId).isPresent();
+    }
+    
     private boolean reserveInventory(PaymentProcessedEvent event) {
-        // Simulate inventory reservation logic
-        // In real system: check stock, reserve items, update database
+        // Events published before productId/quantity were added to PaymentProcessed carry neither
+        if (event.productId() == null || event.quantity() == null || event.quantity() <= 0) {
+            log.warn("Inventory reservation failed: no product/quantity on PaymentProcessed for order {}", event.orderId());
+            return false;
+        }
         
-        // Simulate failure: If amount > 500, inventory is unavailable (high demand scenario)
-        if (event.amount().compareTo(java.math.BigDecimal.valueOf(500)) > 0) {
-            log.warn("Inventory reservation failed: Order amount {} exceeds available inventory capacity (max 500)", 
-                event.amount());
+        if (!stockLedger.reserve(event.productId(), event.quantity())) {
+            log.warn("Inventory reservation failed: {} x {} requested, {} available", 
+                event.productId(), event.quantity(), stockLedger.available(event.productId()));
             return false;
         }
         
@@ -0,0 +1,82 @@
+package in.codefarm.saga.inventory.ledger;
+
+import in.codefarm.saga.inventory.service.InventoryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the StockLedger and the database in step, off the listener threads:
+ * 1. Startup: available = initial stock - units of the RESERVED reservations already committed
+ * 2. Every reconcile-interval-ms: the counters are compared with inventory_reservations; products that moved
+ *    during the DB read are skipped, a drift that persists over two rounds is corrected (see StockLedger.reconcile)
+ */
+@Component
+public class StockLedgerSync {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerSync.class);
+
+    private final StockLedger stockLedger;
+    private final InventoryService inventoryService;
+    private final ScheduledExecutorService executor;
+
+    public StockLedgerSync(
+        StockLedger stockLedger,
+        InventoryService inventoryService,
+        @Value("${inventory.stock.reconcile-interval-ms:30000}") long reconcileIntervalMs
+    ) {
+        this.stockLedger = stockLedger;
+        this.inventoryService = inventoryService;
+
+        Map<String, Long> reserved = inventoryService.reservedUnitsByProduct();
+        reserved.forEach(stockLedger::restore);
+        log.info("Stock ledger restored from {} reserved product(s)", reserved.size());
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-ledger-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::reconcileSafely, reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void reconcile() {
+        Map<String, Long> versions = new HashMap<>();
+        stockLedger.products().forEach(productId -> versions.put(productId, stockLedger.beginReconcile(productId)));
+        Map<String, Long> reserved = inventoryService.reservedUnitsByProduct();
+        Set<String> products = new HashSet<>(reserved.keySet());
+        products.addAll(versions.keySet());
+        for (String productId : products) {
+            // Products first seen in the DB have no version from before the read - they take part next round
+            long drift = stockLedger.reconcile(productId, reserved.getOrDefault(productId, 0L),
+                versions.getOrDefault(productId, StockLedger.UNSETTLED));
+            if (drift != 0) {
+                log.warn("Stock ledger drift corrected - ProductId: {}, Correction: {}, Available: {}",
+                    productId, drift, stockLedger.available(productId));
+            }
+        }
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("Stock reconciliation failed - retried on the next interval: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -7,6 +7,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -44,5 +47,19 @@ public class InventoryService {
     public Optional<InventoryReservationEntity> findByOrderId(String orderId) {
         return reservationRepository.findByOrderId(orderId);
     }
+    
+    public List<String> findAllOrderIds() {
+        return reservationRepository.findAllOrderIds();
+    }
+    
+    /**
+     * Units held by RESERVED reservations, per productId.
+     */
+    public Map<String, Long> reservedUnitsByProduct() {
+        Map<String, Long> reserved = new HashMap<>();
+        reservationRepository.sumReservedQuantityByProduct()
+            .forEach(row -> reserved.put(row.getProductId(), row.getQuantity()));
+        return reserved;
+    }
 }
 
@@ -1,5 +1,6 @@
 package in.codefarm.saga.order.service;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventMetadata;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.OrderPlacedEvent;
@@ -40,7 +41,7 @@ public class OrderEventProducer {
             payload.orderId(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(ORDERS_TOPIC, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(ORDERS_TOPIC, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
@@ -69,7 +70,7 @@ public class OrderEventProducer {
             payload.orderId(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(ORDERS_TOPIC, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(ORDERS_TOPIC, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
@@ -1,17 +1,27 @@
 package in.codefarm.saga.payment.entity;
 
+import in.codefarm.saga.id.TimeOrderedIdBinaryConverter;
+import in.codefarm.saga.id.TimeOrderedIds;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_order_id", columnList = "orderId", unique = true),
+    @Index(name = "idx_payments_payment_id", columnList = "paymentId", unique = true)
+})
 public class PaymentEntity {
     
+    // Pooled sequence (one round trip per 50 ids) - IDENTITY would disable JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     
+    // Generated by the service (TimeOrderedIds) - stored as 16 bytes
+    @Convert(converter = TimeOrderedIdBinaryConverter.class)
+    @Column(length = TimeOrderedIds.BINARY_LENGTH)
     private String paymentId;
     private String orderId;
     private String customerId;
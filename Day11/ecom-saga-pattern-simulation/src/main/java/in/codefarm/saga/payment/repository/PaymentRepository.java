@@ -2,13 +2,18 @@ package in.codefarm.saga.payment.repository;
 
 import in.codefarm.saga.payment.entity.PaymentEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
     Optional<PaymentEntity> findByPaymentId(String paymentId);
     Optional<PaymentEntity> findByOrderId(String orderId);
+    
+    @Query("select p.orderId from PaymentEntity p")
+    List<String> findAllOrderIds();
 }
 
@@ -0,0 +1,36 @@
+package in.codefarm.saga.tracing;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Saga latency headers, carried as 8-byte big-endian epoch millis:
+ * - saga-origin-ts: when the saga's first event was sent, copied onto every downstream event
+ * - saga-hop-ts: when this record was sent
+ */
+final class SagaTraceHeaders {
+
+    static final String ORIGIN_TIMESTAMP = "saga-origin-ts";
+    static final String HOP_TIMESTAMP = "saga-hop-ts";
+
+    private SagaTraceHeaders() {
+    }
+
+    /**
+     * @return the header value, or -1 if it is missing or malformed
+     */
+    static long read(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    static void write(Headers headers, String name, long value) {
+        headers.remove(name);
+        headers.add(name, ByteBuffer.allocate(Long.BYTES).putLong(value).array());
+    }
+}
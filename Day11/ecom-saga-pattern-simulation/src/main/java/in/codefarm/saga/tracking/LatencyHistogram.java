@@ -0,0 +1,88 @@
+package in.codefarm.saga.tracking;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram (milliseconds) - constant memory, lock-free record().
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public final class LatencyHistogram {
+
+    private static final long[] BUCKET_BOUNDS_MS = {
+        1, 2, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 300_000
+    };
+
+    /**
+     * Point-in-time view of a histogram. Buckets map each upper bound (ms) to its count, -1 = overflow.
+     */
+    public record Snapshot(
+        long count,
+        double meanMs,
+        long maxMs,
+        long p50Ms,
+        long p95Ms,
+        long p99Ms,
+        Map<Long, Long> buckets
+    ) {
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMs = new AtomicLong();
+    private final AtomicLong maxMs = new AtomicLong();
+
+    public void record(long latencyMs) {
+        long value = Math.max(latencyMs, 0);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && value > BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sumMs.addAndGet(value);
+        maxMs.accumulateAndGet(value, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = counts.get(i);
+            total += bucketCounts[i];
+        }
+        long max = maxMs.get();
+        Map<Long, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            if (bucketCounts[i] > 0) {
+                buckets.put(i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : -1L, bucketCounts[i]);
+            }
+        }
+        return new Snapshot(
+            total,
+            total == 0 ? 0 : (double) sumMs.get() / count.get(),
+            max,
+            percentile(bucketCounts, total, 0.50, max),
+            percentile(bucketCounts, total, 0.95, max),
+            percentile(bucketCounts, total, 0.99, max),
+            buckets
+        );
+    }
+
+    private static long percentile(long[] bucketCounts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], max) : max;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,70 @@
+package in.codefarm.saga.tracking;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel - O(1) schedule, and each tick only looks at one slot instead of every pending deadline.
+ *
+ * A deadline lands in slot (deadline / tickMs) mod wheelSize; deadlines more than one rotation away
+ * stay in their slot and are skipped until their rotation comes round. Entries are never removed early:
+ * callers cancel lazily by ignoring stale entries when they fire. Not thread-safe.
+ */
+final class TimerWheel<T> {
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Entry<T>>[] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long tickMs, int wheelSize, long startMs) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickMs = tickMs;
+        this.mask = wheelSize - 1;
+        this.slots = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    void schedule(T item, long deadlineMs) {
+        // Deadlines already behind the wheel fire on the next advance
+        long tick = Math.max(deadlineMs / tickMs, currentTick);
+        slots[(int) (tick & mask)].add(new Entry<>(item, deadlineMs));
+        size++;
+    }
+
+    /**
+     * Fire every entry whose deadline is at or before nowMs.
+     */
+    void advance(long nowMs, Consumer<T> expired) {
+        long nowTick = nowMs / tickMs;
+        // A full rotation visits every slot, so a longer gap needs no more iterations than that
+        long ticks = Math.min(nowTick - currentTick, mask);
+        for (long tick = nowTick - ticks; tick <= nowTick; tick++) {
+            Iterator<Entry<T>> entries = slots[(int) (tick & mask)].iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.deadlineMs() <= nowMs) {
+                    entries.remove();
+                    size--;
+                    expired.accept(entry.item());
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private record Entry<T>(T item, long deadlineMs) {
+    }
+}
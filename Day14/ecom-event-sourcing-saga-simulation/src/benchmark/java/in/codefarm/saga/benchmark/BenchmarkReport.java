@@ -0,0 +1,84 @@
+package in.codefarm.saga.benchmark;
+
+import in.codefarm.saga.tracking.LatencyHistogram;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of one benchmark run, written as JSON (for trend tooling) and plain text (for humans)
+ * to benchmark.report-dir. Latency is arrival (intended start) to the last saga hop.
+ */
+record BenchmarkReport(
+    Instant finishedAt,
+    BenchmarkSettings.EntryPoint entryPoint,
+    int offeredOrdersPerSecond,
+    long measurementSeconds,
+    long submitted,
+    long accepted,
+    long rejected,
+    long completed,
+    double completionRatio,
+    double sustainedOrdersPerSecond,
+    LatencyHistogram.Snapshot endToEndLatency,
+    long maxScheduleLagMs,
+    Map<String, Long> maxConsumerLag,
+    Map<String, Long> finalConsumerLag
+) {
+
+    /**
+     * @return one message per threshold this run missed, empty when it passed
+     */
+    List<String> violations(BenchmarkSettings settings) {
+        List<String> violations = new ArrayList<>();
+        if (completionRatio < settings.minCompletionRatio()) {
+            violations.add("completion ratio %.4f < %.4f".formatted(completionRatio, settings.minCompletionRatio()));
+        }
+        if (settings.minThroughput() > 0 && sustainedOrdersPerSecond < settings.minThroughput()) {
+            violations.add("throughput %.1f orders/s < %.1f".formatted(sustainedOrdersPerSecond, settings.minThroughput()));
+        }
+        if (settings.maxP99Ms() > 0 && endToEndLatency.p99Ms() > settings.maxP99Ms()) {
+            violations.add("p99 latency %d ms > %d ms".formatted(endToEndLatency.p99Ms(), settings.maxP99Ms()));
+        }
+        return violations;
+    }
+
+    String summary() {
+        return """
+            Saga benchmark (%s, offered %d orders/s for %d s)
+              orders:     submitted=%d accepted=%d rejected=%d completed=%d (%.2f%%)
+              throughput: %.1f orders/s sustained
+              latency:    p50=%d ms p95=%d ms p99=%d ms max=%d ms mean=%.1f ms
+              load gen:   max schedule lag %d ms
+              lag (max):  %s
+              lag (end):  %s
+            """.formatted(
+            entryPoint, offeredOrdersPerSecond, measurementSeconds,
+            submitted, accepted, rejected, completed, completionRatio * 100,
+            sustainedOrdersPerSecond,
+            endToEndLatency.p50Ms(), endToEndLatency.p95Ms(), endToEndLatency.p99Ms(),
+            endToEndLatency.maxMs(), endToEndLatency.meanMs(),
+            maxScheduleLagMs,
+            maxConsumerLag,
+            finalConsumerLag);
+    }
+
+    Path write(String reportDir) throws IOException {
+        Path dir = Path.of(reportDir);
+        Files.createDirectories(dir);
+        String name = "saga-benchmark-" + entryPoint.name().toLowerCase();
+        JsonMapper jsonMapper = JsonMapper.builder()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+        Files.writeString(dir.resolve(name + ".json"), jsonMapper.writeValueAsString(this));
+        Files.writeString(dir.resolve(name + ".txt"), summary());
+        return dir.resolve(name + ".json");
+    }
+}
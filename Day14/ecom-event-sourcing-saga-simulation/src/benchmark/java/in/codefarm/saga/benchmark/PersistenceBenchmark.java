@@ -0,0 +1,159 @@
+package in.codefarm.saga.benchmark;
+
+import in.codefarm.saga.id.TimeOrderedIds;
+import in.codefarm.saga.inventory.entity.InventoryReservationEntity;
+import in.codefarm.saga.inventory.repository.InventoryReservationRepository;
+import in.codefarm.saga.order.entity.OrderEntity;
+import in.codefarm.saga.order.repository.OrderRepository;
+import in.codefarm.saga.payment.entity.PaymentEntity;
+import in.codefarm.saga.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert and lookup throughput of the saga tables at benchmark.persistence-rows rows (default 1M) on H2:
+ * - batched inserts: saveAll of benchmark.persistence-chunk orders, payments and reservations per transaction
+ *   (pooled sequence ids + hibernate.jdbc.batch_size)
+ * - single inserts: one save per transaction, like one saga message
+ * - lookups: findByOrderId / findByPaymentId on random existing keys, served by the unique indexes
+ *
+ * <p>Uses a file database under build/ so 1M rows per table do not have to fit in the heap.
+ * Not part of {@code test}/{@code check} - run it with {@code ./gradlew persistenceBenchmark -Dbenchmark.persistence-rows=1000000}.
+ * Results go to the log and to benchmark.report-dir/persistence-benchmark.txt.
+ */
+@SpringBootTest(
+    properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/persistence-benchmark/saga",
+        "logging.level.in.codefarm.saga=WARN"
+    }
+)
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Persistence Benchmark")
+class PersistenceBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceBenchmark.class);
+
+    // Keys kept in memory for the lookup phase - a sample, not all rows
+    private static final int LOOKUP_KEY_SAMPLE = 100_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InventoryReservationRepository reservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<String> orderIds = new ArrayList<>();
+    private final List<String> paymentIds = new ArrayList<>();
+
+    @Test
+    @DisplayName("Should report inserts and lookups per second at the configured table size")
+    void runBenchmark() throws Exception {
+        int rows = Integer.getInteger("benchmark.persistence-rows", 1_000_000);
+        int chunk = Integer.getInteger("benchmark.persistence-chunk", 1_000);
+        int singleRows = Integer.getInteger("benchmark.persistence-single-rows", 10_000);
+        int lookups = Integer.getInteger("benchmark.persistence-lookups", 100_000);
+        String reportDir = System.getProperty("benchmark.report-dir", "build/reports/saga-benchmark");
+        log.warn("Persistence benchmark starting - rows={} chunk={} single={} lookups={}", rows, chunk, singleRows, lookups);
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < rows; inserted += chunk) {
+            int size = Math.min(chunk, rows - inserted);
+            transactionTemplate.executeWithoutResult(status -> insertChunk(size, rows));
+        }
+        double batchedRowsPerSecond = perSecond(3L * rows, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < singleRows; i++) {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(1, rows));
+        }
+        double singleRowsPerSecond = perSecond(3L * singleRows, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            String orderId = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+            assertThat(orderRepository.findByOrderId(orderId)).isPresent();
+            assertThat(paymentRepository.findByOrderId(orderId)).isPresent();
+            assertThat(reservationRepository.findByOrderId(orderId)).isPresent();
+        }
+        double orderIdLookupsPerSecond = perSecond(3L * lookups, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            String paymentId = paymentIds.get(ThreadLocalRandom.current().nextInt(paymentIds.size()));
+            assertThat(paymentRepository.findByPaymentId(paymentId)).isPresent();
+        }
+        double paymentIdLookupsPerSecond = perSecond(lookups, System.nanoTime() - start);
+
+        assertThat(orderRepository.count()).isEqualTo((long) rows + singleRows);
+
+        String summary = """
+            Persistence benchmark (%,d rows per table)
+              batched inserts: %,.0f rows/s (saveAll, %,d orders + payments + reservations per transaction)
+              single inserts:  %,.0f rows/s (one save per transaction, %,d orders + payments + reservations)
+              lookups:         %,.0f /s by orderId (orders, payments, reservations)
+                               %,.0f /s by paymentId
+            """.formatted(rows + singleRows, batchedRowsPerSecond, chunk, singleRowsPerSecond, singleRows,
+            orderIdLookupsPerSecond, paymentIdLookupsPerSecond);
+        log.warn("{}", summary);
+        write(reportDir, summary);
+    }
+
+    private void insertChunk(int size, int rows) {
+        List<OrderEntity> orders = new ArrayList<>(size);
+        List<PaymentEntity> payments = new ArrayList<>(size);
+        List<InventoryReservationEntity> reservations = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            String orderId = TimeOrderedIds.newId();
+            String paymentId = TimeOrderedIds.newId();
+            String transactionId = TimeOrderedIds.newId();
+            orders.add(new OrderEntity(orderId, "customer-" + i, "product-" + (i % 100), 1, BigDecimal.TEN, now, transactionId));
+            payments.add(new PaymentEntity(paymentId, orderId, "customer-" + i, BigDecimal.TEN, "SUCCESS", now, transactionId));
+            reservations.add(new InventoryReservationEntity(TimeOrderedIds.newId(), orderId, "product-" + (i % 100), 1,
+                "RESERVED", now, transactionId));
+            // Uniform sample of the keys for the lookup phase
+            if (ThreadLocalRandom.current().nextInt(rows) < LOOKUP_KEY_SAMPLE) {
+                orderIds.add(orderId);
+                paymentIds.add(paymentId);
+            }
+        }
+        orderRepository.saveAll(orders);
+        paymentRepository.saveAll(payments);
+        reservationRepository.saveAll(reservations);
+    }
+
+    private static double perSecond(long operations, long elapsedNanos) {
+        return operations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    private static void write(String reportDir, String summary) throws IOException {
+        Path dir = Path.of(reportDir);
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("persistence-benchmark.txt"), summary);
+    }
+}
@@ -0,0 +1,234 @@
+package in.codefarm.saga.benchmark;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.order.controller.OrderController;
+import in.codefarm.saga.order.service.OrderEventProducer;
+import in.codefarm.saga.order.service.OrderService;
+import in.codefarm.saga.tracking.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Saga throughput benchmark: offers a fixed order arrival rate (open loop) to the full saga
+ * (Order → Payment → Inventory → Email) against EmbeddedKafka, and reports sustained orders/s,
+ * end-to-end latency percentiles and consumer lag of every saga listener group.
+ *
+ * <p>Not part of {@code test}/{@code check} - run it explicitly, e.g.
+ * {@code ./gradlew sagaBenchmark -Dbenchmark.rate=500 -Dbenchmark.entry-point=controller -Dbenchmark.max-p99-ms=2500}.
+ * The run fails when a configured threshold is missed (see {@link BenchmarkSettings}).
+ *
+ * <p>Orders arriving during the warmup period are sent but not measured. All orders use amounts and
+ * quantities that take the happy path, so every accepted order should reach the inventory topic.
+ */
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        // Per-record INFO logging would dominate the measured cost
+        "logging.level.in.codefarm.saga=WARN",
+        "saga.tracking.step-timeout-ms=600000"
+    }
+)
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Saga Throughput Benchmark")
+class SagaThroughputBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaThroughputBenchmark.class);
+
+    private static final List<String> SAGA_GROUPS = List.of(
+        "payment-service-group",
+        "inventory-service-group",
+        "email-service-group",
+        "order-service-compensation-group",
+        "payment-service-compensation-group"
+    );
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderEventProducer orderEventProducer;
+
+    @Autowired
+    private ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory;
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    // orderId -> intended arrival (System.nanoTime()) of accepted, measured orders
+    private final Map<String, Long> arrivals = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Test
+    @DisplayName("Should sustain the offered order rate through the complete saga")
+    void runBenchmark() throws Exception {
+        var settings = BenchmarkSettings.fromSystemProperties();
+        log.warn("Saga benchmark starting - {}", settings);
+
+        try (var probe = new SagaCompletionProbe(eventWrapperConsumerFactory);
+             var lagSampler = new ConsumerLagSampler(kafkaAdmin.getConfigurationProperties(), SAGA_GROUPS)) {
+            probe.awaitAssignment(Duration.ofSeconds(30));
+            lagSampler.start(1_000);
+
+            var generator = new OpenLoopLoadGenerator(settings.ordersPerSecond(), settings.submitThreads());
+            long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            long measureFromNanos = startNanos + settings.warmup().toNanos();
+            long measureUntilNanos = measureFromNanos + settings.measurement().toNanos();
+
+            generator.run(startNanos, settings.totalOrders(), (sequence, intendedStart) -> {
+                boolean measured = intendedStart >= measureFromNanos;
+                if (measured) {
+                    submitted.incrementAndGet();
+                }
+                String orderId;
+                try {
+                    orderId = submit(settings.entryPoint(), sequence);
+                } catch (Exception e) {
+                    orderId = null;
+                }
+                if (!measured) {
+                    return;
+                }
+                if (orderId == null) {
+                    rejected.incrementAndGet();
+                } else {
+                    accepted.incrementAndGet();
+                    arrivals.put(orderId, intendedStart);
+                }
+            });
+
+            awaitDrain(probe, settings.drainTimeout());
+            lagSampler.sample();
+
+            var report = buildReport(settings, probe, generator, lagSampler, measureFromNanos, measureUntilNanos);
+            var path = report.write(settings.reportDir());
+            log.warn("Saga benchmark finished - report written to {}\n{}", path.toAbsolutePath(), report.summary());
+
+            assertThat(report.violations(settings)).as("benchmark thresholds").isEmpty();
+        }
+    }
+
+    /**
+     * @return the orderId when the order entered the saga, null when it was rejected
+     */
+    private String submit(BenchmarkSettings.EntryPoint entryPoint, long sequence) throws Exception {
+        String customerId = "bench-customer-" + (sequence % 1_000);
+        String productId = "bench-product-" + (sequence % 100);
+        // Within the inventory capacity (500) and payment limit (1000), so every order takes the happy path
+        BigDecimal amount = BigDecimal.valueOf(10 + sequence % 490);
+
+        return switch (entryPoint) {
+            case CONTROLLER -> {
+                var body = jsonMapper.writeValueAsString(
+                    new OrderController.OrderRequest(customerId, productId, 1, amount));
+                var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+                var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 201) {
+                    yield null;
+                }
+                yield jsonMapper.readValue(response.body(), OrderController.OrderResponse.class).orderId();
+            }
+            case PRODUCER -> {
+                String orderId = UUID.randomUUID().toString();
+                String transactionId = UUID.randomUUID().toString();
+                orderService.createOrder(orderId, customerId, productId, 1, amount, transactionId);
+                orderEventProducer.sendOrderPlacedEvent(
+                    new OrderPlacedEvent(orderId, customerId, productId, 1, amount, LocalDateTime.now()),
+                    transactionId);
+                yield orderId;
+            }
+        };
+    }
+
+    private void awaitDrain(SagaCompletionProbe probe, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (arrivals.keySet().stream().allMatch(orderId -> probe.completedAt(orderId) != null)) {
+                return;
+            }
+            Thread.sleep(250);
+        }
+        log.warn("Saga benchmark drain timed out after {} - reporting partial completion", timeout);
+    }
+
+    private BenchmarkReport buildReport(BenchmarkSettings settings, SagaCompletionProbe probe,
+                                        OpenLoopLoadGenerator generator, ConsumerLagSampler lagSampler,
+                                        long measureFromNanos, long measureUntilNanos) {
+        var latency = new LatencyHistogram();
+        long completed = 0;
+        long completedInWindow = 0;
+        for (var arrival : arrivals.entrySet()) {
+            Long completedAt = probe.completedAt(arrival.getKey());
+            if (completedAt == null) {
+                continue;
+            }
+            completed++;
+            latency.record(TimeUnit.NANOSECONDS.toMillis(completedAt - arrival.getValue()));
+            if (completedAt >= measureFromNanos && completedAt < measureUntilNanos) {
+                completedInWindow++;
+            }
+        }
+        long acceptedOrders = accepted.get();
+        double windowSeconds = (measureUntilNanos - measureFromNanos) / 1e9;
+        return new BenchmarkReport(
+            Instant.now(),
+            settings.entryPoint(),
+            settings.ordersPerSecond(),
+            settings.measurement().toSeconds(),
+            submitted.get(),
+            acceptedOrders,
+            rejected.get(),
+            completed,
+            acceptedOrders == 0 ? 0 : (double) completed / acceptedOrders,
+            completedInWindow / windowSeconds,
+            latency.snapshot(),
+            generator.maxScheduleLagMs(),
+            lagSampler.maxLag(),
+            lagSampler.lastLag()
+        );
+    }
+}
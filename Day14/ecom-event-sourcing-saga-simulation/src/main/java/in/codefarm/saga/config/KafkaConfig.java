@@ -1,6 +1,7 @@
 package in.codefarm.saga.config;
 
 import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.tracing.SagaTracingProducerInterceptor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.TopicConfig;
@@ -25,6 +26,12 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
     
+    @Value("${saga.exactly-once.enabled:false}")
+    private boolean exactlyOnceEnabled;
+    
+    @Value("${saga.exactly-once.transaction-id-prefix:saga-tx-}")
+    private String transactionIdPrefix;
+    
     @Bean
     public JsonMapper jsonMapper() {
         return JsonMapper.builder()
@@ -56,14 +63,27 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JacksonJsonSerializer.class);
         
         // Create factory with config and serializer
-        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), serializer);
+        var factory = new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), serializer);
+        
+        // Exactly-once mode: listener containers run each record in a Kafka transaction,
+        // sends from inside a listener join it (prefix must be unique per application instance)
+        if (exactlyOnceEnabled) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
     }
     
     @Bean
     public KafkaTemplate<String, EventWrapper<?>> eventWrapperKafkaTemplate(
-        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory
+        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory,
+        SagaTracingProducerInterceptor sagaTracingProducerInterceptor
     ) {
-        return new KafkaTemplate<>(eventWrapperProducerFactory);
+        var template = new KafkaTemplate<>(eventWrapperProducerFactory);
+        // Sends outside a listener (e.g. REST controllers) still use a plain idempotent producer
+        template.setAllowNonTransactional(true);
+        // Saga latency headers (origin + hop send time) on every event
+        template.setProducerInterceptor(sagaTracingProducerInterceptor);
+        return template;
     }
     
     // ========== Topic Configuration ==========
@@ -0,0 +1,281 @@
+package in.codefarm.saga.fanout;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import in.codefarm.saga.filtering.SagaEventFilter;
+import in.codefarm.saga.filtering.SagaEventFilters;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Single-fetch fan-out for the topics read by several co-located consumer groups
+ * (inventory: payment compensation + email, payments: inventory + order compensation).
+ *
+ * One container (SagaFanOutListener, saga-fanout-group) fetches and deserializes each record once
+ * and dispatches it to every handler registered for its topic whose SagaEventFilter accepts the headers.
+ * The per-group @KafkaListeners stay declared but are not started while fan-out is enabled.
+ *
+ * Each handler keeps its own offsets under its original group id:
+ * 1. The next offset per partition is tracked in memory - records below it are not dispatched to it again
+ * 2. Positions are committed to the handler's group with the Admin client every commit-interval-ms
+ *    and before partitions are revoked (the groups have no members, so their offsets can be altered)
+ * 3. On assignment the handler positions are loaded from the committed offsets (beginning of the
+ *    partition if none) and the fan-out consumer seeks to the lowest one
+ * So switching between fan-out and the per-group listeners resumes every group where it stopped.
+ *
+ * A failing handler does not advance its group's position and the failure is rethrown, so the
+ * container error handler redelivers the record - groups that already handled it skip it by position.
+ * While handler offsets cannot be committed, dispatch fails too, so positions never run ahead of
+ * the committed offsets by more than what was dispatched before the first failed commit.
+ *
+ * Disabled in exactly-once mode - a transaction can only commit the offsets of its own group.
+ */
+@Component
+public class SagaFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaFanOut.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 30;
+
+    /**
+     * A fanned-out listener method.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(EventWrapper<?> wrapper, int partition);
+    }
+
+    private record Registration(String groupId, SagaEventFilter filter, Handler handler,
+                                Map<TopicPartition, Long> positions, Map<TopicPartition, Long> committed) {
+    }
+
+    private final boolean enabled;
+    private final KafkaAdmin kafkaAdmin;
+    private final ProcessedEventStore processedEventStore;
+    private final Map<String, List<Registration>> registrations = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService committer;
+    private volatile Exception commitFailure;
+    private Admin admin;
+
+    public SagaFanOut(
+        @Value("${saga.fanout.enabled:false}") boolean fanOutEnabled,
+        @Value("${saga.exactly-once.enabled:false}") boolean exactlyOnceEnabled,
+        @Value("${saga.fanout.commit-interval-ms:1000}") long commitIntervalMs,
+        KafkaAdmin kafkaAdmin,
+        ProcessedEventStore processedEventStore
+    ) {
+        this.enabled = fanOutEnabled && !exactlyOnceEnabled;
+        this.kafkaAdmin = kafkaAdmin;
+        this.processedEventStore = processedEventStore;
+        if (!enabled) {
+            this.committer = null;
+            return;
+        }
+        this.committer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-fanout-committer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.committer.scheduleWithFixedDelay(this::commitSafely, commitIntervalMs, commitIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Saga fan-out enabled - commitIntervalMs: {}", commitIntervalMs);
+    }
+
+    /**
+     * Used by the listeners' autoStartup expressions: the fan-out container or the per-group ones run.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Register a consumer group's listener method for a fanned-out topic.
+     * Its header filter is the one the group's own deserializer would apply (SagaEventFilters).
+     */
+    public void register(String topic, String groupId, Handler handler) {
+        registrations.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>())
+            .add(new Registration(groupId, SagaEventFilters.forGroup(groupId), handler,
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Dispatch a record to every registered group that has not handled it yet.
+     *
+     * @throws IllegalStateException if a handler failed (after the other groups got the record)
+     *         or the handler offsets could not be committed
+     */
+    public void dispatch(ConsumerRecord<String, EventWrapper<?>> record) {
+        if (commitFailure != null) {
+            try {
+                commit();
+            } catch (Exception e) {
+                throw new IllegalStateException("Saga fan-out: handler offsets cannot be committed", e);
+            }
+        }
+        TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+        IllegalStateException failure = null;
+        for (Registration registration : registrations.getOrDefault(record.topic(), List.of())) {
+            Long position = registration.positions().get(tp);
+            if (position != null && record.offset() < position) {
+                continue; // already handled by this group (before a rewind or a redelivery)
+            }
+            if (record.value() != null
+                && (registration.filter() == null || registration.filter().accepts(record.headers()))) {
+                try {
+                    registration.handler().handle(record.value(), record.partition());
+                } catch (Exception e) {
+                    log.error("Saga fan-out: {} failed on {}@{}", registration.groupId(), tp, record.offset(), e);
+                    if (failure == null) {
+                        failure = new IllegalStateException("Saga fan-out: " + registration.groupId() +
+                            " failed on " + tp + "@" + record.offset(), e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                    continue; // position stays, the redelivered record goes to this group again
+                }
+            }
+            registration.positions().put(tp, record.offset() + 1);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Called from the fan-out container's rebalance listener.
+     */
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+        Map<String, List<TopicPartition>> byTopic = partitions.stream()
+            .collect(Collectors.groupingBy(TopicPartition::topic));
+        Map<TopicPartition, Long> seekTo = new HashMap<>();
+        try {
+            for (var entry : byTopic.entrySet()) {
+                for (Registration registration : registrations.getOrDefault(entry.getKey(), List.of())) {
+                    Map<TopicPartition, OffsetAndMetadata> committed = admin()
+                        .listConsumerGroupOffsets(registration.groupId())
+                        .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    for (TopicPartition tp : entry.getValue()) {
+                        OffsetAndMetadata offset = committed.get(tp);
+                        long position = offset != null ? offset.offset() : beginning.get(tp);
+                        registration.positions().put(tp, position);
+                        registration.committed().put(tp, position);
+                        seekTo.merge(tp, position, Math::min);
+                    }
+                }
+            }
+            seekTo.forEach(consumer::seek);
+            log.info("Saga fan-out: assigned {} - resuming at {}", partitions, seekTo);
+        } catch (Exception e) {
+            // Without the group offsets every record from the fan-out group's position is dispatched
+            log.error("Saga fan-out: could not load the handler group offsets for {}", partitions, e);
+            forEachRegistration(registration -> partitions.forEach(registration.positions()::remove));
+        }
+        forEachRegistration(registration -> processedEventStore.onPartitionsAssigned(
+            registration.groupId(), partitions, topic -> consumer.partitionsFor(topic).size()));
+    }
+
+    /**
+     * Called from the fan-out container's rebalance listener - commits the handler positions
+     * of the partitions before they move to another instance.
+     */
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        if (!commitSafely()) {
+            log.error("Saga fan-out: handler positions of {} not committed before revocation - " +
+                "the new owner redelivers from the last committed offsets", partitions);
+        }
+        forEachRegistration(registration -> {
+            partitions.forEach(tp -> {
+                registration.positions().remove(tp);
+                registration.committed().remove(tp);
+            });
+            processedEventStore.onPartitionsRevoked(registration.groupId(), partitions);
+        });
+    }
+
+    /**
+     * Commit every handler position that moved since the last commit to the handler's own group.
+     */
+    public synchronized void commit() throws Exception {
+        try {
+            commitPositions();
+            commitFailure = null;
+        } catch (Exception e) {
+            commitFailure = e;
+            throw e;
+        }
+    }
+
+    private void commitPositions() throws Exception {
+        for (List<Registration> topicRegistrations : registrations.values()) {
+            for (Registration registration : topicRegistrations) {
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                registration.positions().forEach((tp, position) -> {
+                    if (!position.equals(registration.committed().get(tp))) {
+                        offsets.put(tp, new OffsetAndMetadata(position));
+                    }
+                });
+                if (offsets.isEmpty()) {
+                    continue;
+                }
+                admin().alterConsumerGroupOffsets(registration.groupId(), offsets)
+                    .all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                offsets.forEach((tp, offset) -> registration.committed().put(tp, offset.offset()));
+            }
+        }
+    }
+
+    private void forEachRegistration(java.util.function.Consumer<Registration> action) {
+        registrations.values().forEach(topicRegistrations -> topicRegistrations.forEach(action));
+    }
+
+    /**
+     * @return false if the commit failed - dispatch then fails until a commit succeeds
+     */
+    private boolean commitSafely() {
+        try {
+            commit();
+            return true;
+        } catch (Exception e) {
+            log.error("Saga fan-out: committing handler offsets failed - dispatch paused until it succeeds", e);
+            return false;
+        }
+    }
+
+    private synchronized Admin admin() {
+        if (admin == null) {
+            admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return admin;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (committer == null) {
+            return;
+        }
+        committer.shutdownNow();
+        commitSafely();
+        if (admin != null) {
+            admin.close();
+        }
+    }
+}
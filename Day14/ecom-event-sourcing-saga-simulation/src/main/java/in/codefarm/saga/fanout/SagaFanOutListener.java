@@ -0,0 +1,30 @@
+package in.codefarm.saga.fanout;
+
+import in.codefarm.saga.event.EventWrapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The one consumer of the fanned-out topics - each record is fetched and deserialized once,
+ * then SagaFanOut hands it to the listener method of every co-located group.
+ */
+@Component
+public class SagaFanOutListener {
+
+    private final SagaFanOut sagaFanOut;
+
+    public SagaFanOutListener(SagaFanOut sagaFanOut) {
+        this.sagaFanOut = sagaFanOut;
+    }
+
+    @KafkaListener(
+        topics = {"inventory", "payments"},
+        groupId = "saga-fanout-group",
+        containerFactory = "fanOutKafkaListenerContainerFactory",
+        autoStartup = "#{@sagaFanOut.enabled}"
+    )
+    public void onRecord(ConsumerRecord<String, EventWrapper<?>> record) {
+        sagaFanOut.dispatch(record);
+    }
+}
@@ -0,0 +1,58 @@
+package in.codefarm.saga.filtering;
+
+import in.codefarm.saga.event.EventWrapper;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+
+/**
+ * EventWrapper value deserializer that only parses the records its consumer group handles.
+ *
+ * Configured by class name (not as an instance), so Kafka creates one per consumer and passes it
+ * that consumer's config - including the group.id of the @KafkaListener. A record rejected by the
+ * group's SagaEventFilter is returned as a null value without touching its bytes;
+ * SkippedEventFilterStrategy then drops it before the listener is invoked.
+ * The application's JsonMapper is passed in through the consumer config under JSON_MAPPER_CONFIG.
+ */
+public class SagaEventDeserializer implements Deserializer<EventWrapper<?>> {
+
+    public static final String JSON_MAPPER_CONFIG = "saga.event-deserializer.json-mapper";
+
+    private JacksonJsonDeserializer<EventWrapper<?>> delegate;
+    private SagaEventFilter filter;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (!(configs.get(JSON_MAPPER_CONFIG) instanceof JsonMapper jsonMapper)) {
+            throw new IllegalStateException("SagaEventDeserializer needs a JsonMapper under " + JSON_MAPPER_CONFIG);
+        }
+        this.delegate = new JacksonJsonDeserializer<>(EventWrapper.class, jsonMapper);
+        this.delegate.addTrustedPackages("*");
+        Object groupId = configs.get(ConsumerConfig.GROUP_ID_CONFIG);
+        this.filter = groupId == null ? null : SagaEventFilters.forGroup(groupId.toString());
+    }
+
+    @Override
+    public EventWrapper<?> deserialize(String topic, byte[] data) {
+        return delegate.deserialize(topic, data);
+    }
+
+    @Override
+    public EventWrapper<?> deserialize(String topic, Headers headers, byte[] data) {
+        if (filter != null && !filter.accepts(headers)) {
+            return null;
+        }
+        return delegate.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        if (delegate != null) {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package in.codefarm.saga.filtering;
+
+import in.codefarm.saga.event.EventHeaders;
+import org.apache.kafka.common.header.Headers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which saga events a listener handles, decided from the routing headers only (see EventHeaders).
+ * Maps each accepted event type to its accepted statuses - an empty set accepts any status.
+ * Records without a type header (sent before the headers existed) are always accepted,
+ * the listener's own checks still apply to them.
+ */
+public record SagaEventFilter(Map<String, Set<String>> accepted) {
+
+    public static SagaEventFilter accept(String eventType, String... statuses) {
+        return new SagaEventFilter(Map.of(eventType, Set.of(statuses)));
+    }
+
+    public SagaEventFilter or(String eventType, String... statuses) {
+        Map<String, Set<String>> merged = new HashMap<>(accepted);
+        merged.put(eventType, Set.of(statuses));
+        return new SagaEventFilter(Map.copyOf(merged));
+    }
+
+    public boolean accepts(Headers headers) {
+        String eventType = EventHeaders.read(headers, EventHeaders.EVENT_TYPE);
+        if (eventType == null) {
+            return true;
+        }
+        Set<String> statuses = accepted.get(eventType);
+        if (statuses == null) {
+            return false;
+        }
+        if (statuses.isEmpty()) {
+            return true;
+        }
+        // Set.of rejects contains(null)
+        String status = EventHeaders.read(headers, EventHeaders.EVENT_STATUS);
+        return status != null && statuses.contains(status);
+    }
+}
@@ -0,0 +1,198 @@
+package in.codefarm.saga.inventory.ledger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available units per productId, held in memory so a reservation is a compare-and-set instead of a
+ * DB read plus row lock.
+ *
+ * Every product gets a slot in one long array, padded to its own cache line so products reserved by
+ * different listener threads never share a line. A slot holds:
+ * - available: units that can still be reserved; reserve() only CASes it down while it stays >= 0,
+ *   so concurrent partitions cannot oversell
+ * - in flight: units reserved here but not yet committed to inventory_reservations (confirm / release);
+ *   raised before available drops and lowered after it is given back, so units are never missing from both
+ * - version: bumped after every reserve / confirm / release, lets reconcile() tell the slot moved
+ * - last drift: difference seen by the previous reconciliation round
+ *
+ * Products start at inventory.stock.default-available units unless listed in inventory.stock.initial
+ * (productId:units,...). The RESERVED rows of inventory_reservations are the ledger's persistent state:
+ * every reservation is committed there by the listener, the ledger is rebuilt from them at startup and
+ * reconciled against them periodically. The counters are per
+ * instance, so they are authoritative only while one instance reserves a given product.
+ */
+@Component
+public class StockLedger {
+
+    // 64-byte cache line / 8-byte long
+    private static final int STRIDE = 8;
+    private static final int AVAILABLE = 0;
+    private static final int IN_FLIGHT = 1;
+    private static final int LAST_DRIFT = 2;
+    private static final int VERSION = 3;
+
+    /** beginReconcile() result for a product that is not settled - the round skips it. */
+    public static final long UNSETTLED = -1;
+
+    private final int capacity;
+    private final long defaultAvailable;
+    private final Map<String, Long> initialStock;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicLongArray cells;
+
+    public StockLedger(
+        @Value("${inventory.stock.max-products:4096}") int capacity,
+        @Value("${inventory.stock.default-available:1000000}") long defaultAvailable,
+        @Value("${inventory.stock.initial:}") String initialStock
+    ) {
+        this.capacity = capacity;
+        this.defaultAvailable = defaultAvailable;
+        this.initialStock = parseInitialStock(initialStock);
+        this.cells = new AtomicLongArray(capacity * STRIDE);
+    }
+
+    /**
+     * Take quantity units of the product if that many are available.
+     *
+     * @return false (and nothing taken) when fewer than quantity units are available
+     */
+    public boolean reserve(String productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        int base = base(productId);
+        cells.getAndAdd(base + IN_FLIGHT, quantity);
+        long current;
+        do {
+            current = cells.get(base + AVAILABLE);
+            if (current < quantity) {
+                cells.getAndAdd(base + IN_FLIGHT, -quantity);
+                return false;
+            }
+        } while (!cells.compareAndSet(base + AVAILABLE, current, current - quantity));
+        cells.incrementAndGet(base + VERSION);
+        return true;
+    }
+
+    /**
+     * A reservation taken by reserve() has been committed to inventory_reservations.
+     */
+    public void confirm(String productId, int quantity) {
+        int base = base(productId);
+        cells.getAndAdd(base + IN_FLIGHT, -quantity);
+        cells.incrementAndGet(base + VERSION);
+    }
+
+    /**
+     * Give back a reservation taken by reserve() that could not be committed.
+     */
+    public void release(String productId, int quantity) {
+        int base = base(productId);
+        cells.getAndAdd(base + AVAILABLE, quantity);
+        cells.getAndAdd(base + IN_FLIGHT, -quantity);
+        cells.incrementAndGet(base + VERSION);
+    }
+
+    public long available(String productId) {
+        Integer slot = slots.get(productId);
+        return slot == null ? initialAvailable(productId) : cells.get(slot * STRIDE + AVAILABLE);
+    }
+
+    public long initialAvailable(String productId) {
+        return initialStock.getOrDefault(productId, defaultAvailable);
+    }
+
+    /**
+     * Set the available units from the reservations already committed (startup, before any reserve()).
+     */
+    public void restore(String productId, long reservedUnits) {
+        int base = base(productId);
+        cells.set(base + AVAILABLE, initialAvailable(productId) - reservedUnits);
+        cells.incrementAndGet(base + VERSION);
+    }
+
+    /**
+     * Start a reconciliation round for the product - call before reading inventory_reservations.
+     *
+     * @return the slot version to hand to reconcile(), or UNSETTLED while a reservation is in flight
+     *         (its row may be committed but not yet confirmed, which would count it twice)
+     */
+    public long beginReconcile(String productId) {
+        int base = base(productId);
+        long version = cells.get(base + VERSION);
+        return cells.get(base + IN_FLIGHT) == 0 ? version : UNSETTLED;
+    }
+
+    /**
+     * Compare the product with the units committed to inventory_reservations.
+     *
+     * The DB query and the counters are not read atomically, so the round only counts when nothing moved:
+     * no reservation in flight before (beginReconcile) or after the query, and the same version. Anything
+     * committed before the query started was confirmed before beginReconcile(), so the query saw it; anything
+     * reserved, confirmed or released since bumped the version. A drift is then real in either direction and
+     * is applied once two consecutive rounds saw the same value.
+     *
+     * @param version what beginReconcile() returned before the DB read
+     * @return the drift both rounds agreed on (now applied), 0 when there is none or the round was skipped
+     */
+    public long reconcile(String productId, long reservedUnits, long version) {
+        int base = base(productId);
+        long available = cells.get(base + AVAILABLE);
+        if (version == UNSETTLED || cells.get(base + IN_FLIGHT) != 0 || cells.get(base + VERSION) != version) {
+            return 0;
+        }
+        long drift = initialAvailable(productId) - reservedUnits - available;
+        long lastDrift = cells.getAndSet(base + LAST_DRIFT, drift);
+        if (drift == 0 || drift != lastDrift) {
+            return 0;
+        }
+        cells.getAndAdd(base + AVAILABLE, drift);
+        cells.set(base + LAST_DRIFT, 0);
+        return drift;
+    }
+
+    public Iterable<String> products() {
+        return slots.keySet();
+    }
+
+    private int base(String productId) {
+        Integer slot = slots.get(productId);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(productId, this::allocate);
+        }
+        return slot * STRIDE;
+    }
+
+    private int allocate(String productId) {
+        int slot = nextSlot.getAndIncrement();
+        if (slot >= capacity) {
+            nextSlot.decrementAndGet();
+            throw new IllegalStateException("Stock ledger is full (" + capacity + " products) - raise inventory.stock.max-products");
+        }
+        cells.set(slot * STRIDE + AVAILABLE, initialAvailable(productId));
+        return slot;
+    }
+
+    private static Map<String, Long> parseInitialStock(String initialStock) {
+        Map<String, Long> stock = new HashMap<>();
+        for (String entry : initialStock.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected productId:units in inventory.stock.initial, got: " + entry);
+            }
+            stock.put(entry.substring(0, separator).trim(), Long.parseLong(entry.substring(separator + 1).trim()));
+        }
+        return stock;
+    }
+}
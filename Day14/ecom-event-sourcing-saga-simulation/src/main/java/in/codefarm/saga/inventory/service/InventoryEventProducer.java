@@ -1,5 +1,6 @@
 package in.codefarm.saga.inventory.service;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventMetadata;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.InventoryReservedEvent;
@@ -41,7 +42,7 @@ public class InventoryEventProducer {
             payload.orderId(), payload.status(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(TOPIC_NAME, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(TOPIC_NAME, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
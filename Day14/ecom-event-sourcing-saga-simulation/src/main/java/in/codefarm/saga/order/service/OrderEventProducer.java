@@ -1,5 +1,6 @@
 package in.codefarm.saga.order.service;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventMetadata;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.OrderPlacedEvent;
@@ -42,7 +43,7 @@ public class OrderEventProducer {
             payload.orderId(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(ORDERS_TOPIC, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(ORDERS_TOPIC, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
@@ -72,7 +73,7 @@ public class OrderEventProducer {
             payload.orderId(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(ORDERS_TOPIC, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(ORDERS_TOPIC, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
@@ -1,5 +1,6 @@
 package in.codefarm.saga.payment.service;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventMetadata;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.PaymentProcessedEvent;
@@ -43,7 +44,7 @@ public class PaymentEventProducer {
             payload.orderId(), payload.status(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(PAYMENT_TOPIC, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(PAYMENT_TOPIC, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
@@ -73,7 +74,7 @@ public class PaymentEventProducer {
             payload.orderId(), transactionId);
         
         CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(PAYMENT_TOPIC, payload.orderId(), event);
+            kafkaTemplate.send(EventHeaders.record(PAYMENT_TOPIC, payload.orderId(), event));
         
         future.thenAccept(result -> {
             var recordMetadata = result.getRecordMetadata();
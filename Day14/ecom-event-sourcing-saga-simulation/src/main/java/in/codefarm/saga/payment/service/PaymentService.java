@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -45,6 +46,10 @@ public class PaymentService {
         return paymentRepository.findByOrderId(orderId);
     }
     
+    public List<String> findAllOrderIds() {
+        return paymentRepository.findAllOrderIds();
+    }
+    
     @Transactional
     public void refundPayment(String orderId) {
         paymentRepository.findByOrderId(orderId).ifPresent(payment -> {
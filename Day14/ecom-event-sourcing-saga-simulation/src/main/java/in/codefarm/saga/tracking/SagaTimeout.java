@@ -0,0 +1,13 @@
+package in.codefarm.saga.tracking;
+
+/**
+ * A saga that made no progress within the step timeout.
+ */
+public record SagaTimeout(
+    String transactionId,
+    String orderId,
+    SagaStage stage,
+    long startedAtMs,
+    long timedOutAtMs
+) {
+}
@@ -0,0 +1,129 @@
+package in.codefarm.saga.tracking;
+
+import in.codefarm.saga.event.OrderCancelledEvent;
+import in.codefarm.saga.event.PaymentRefundedEvent;
+import in.codefarm.saga.inventory.service.InventoryService;
+import in.codefarm.saga.order.service.OrderEventProducer;
+import in.codefarm.saga.order.service.OrderService;
+import in.codefarm.saga.payment.service.PaymentEventProducer;
+import in.codefarm.saga.payment.service.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reacts to stuck sagas. With compensate-on-timeout the saga is rolled back through the same
+ * compensations the choreography uses:
+ * - AWAITING_PAYMENT: cancel the order and publish OrderCancelled
+ * - AWAITING_INVENTORY: refund the payment and publish PaymentRefunded (the order service then cancels the order)
+ * The tracker only sees events, so the database is checked first: a saga whose next step was already
+ * done (payment row, reservation row) or compensated is left alone.
+ * Stuck compensations (AWAITING_REFUND, AWAITING_CANCELLATION) are only alerted - they need an operator.
+ * The most recent timeouts are kept for GET /api/sagas/timeouts.
+ */
+@Component
+public class SagaTimeoutHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaTimeoutHandler.class);
+
+    private final OrderService orderService;
+    private final OrderEventProducer orderEventProducer;
+    private final PaymentService paymentService;
+    private final PaymentEventProducer paymentEventProducer;
+    private final InventoryService inventoryService;
+    private final boolean compensateOnTimeout;
+    private final int maxRecentTimeouts;
+    private final Deque<SagaTimeout> recentTimeouts = new ArrayDeque<>();
+
+    public SagaTimeoutHandler(
+        OrderService orderService,
+        OrderEventProducer orderEventProducer,
+        PaymentService paymentService,
+        PaymentEventProducer paymentEventProducer,
+        InventoryService inventoryService,
+        @Value("${saga.tracking.compensate-on-timeout:false}") boolean compensateOnTimeout,
+        @Value("${saga.tracking.max-recent-timeouts:1000}") int maxRecentTimeouts
+    ) {
+        this.orderService = orderService;
+        this.orderEventProducer = orderEventProducer;
+        this.paymentService = paymentService;
+        this.paymentEventProducer = paymentEventProducer;
+        this.inventoryService = inventoryService;
+        this.compensateOnTimeout = compensateOnTimeout;
+        this.maxRecentTimeouts = maxRecentTimeouts;
+    }
+
+    public void onTimeout(SagaTimeout timeout) {
+        synchronized (recentTimeouts) {
+            recentTimeouts.addFirst(timeout);
+            if (recentTimeouts.size() > maxRecentTimeouts) {
+                recentTimeouts.removeLast();
+            }
+        }
+        if (!compensateOnTimeout) {
+            return;
+        }
+        try {
+            switch (timeout.stage()) {
+                case AWAITING_PAYMENT -> cancelOrder(timeout);
+                case AWAITING_INVENTORY -> refundPayment(timeout);
+                default -> log.error("Saga compensation stuck - TransactionId: {}, OrderId: {}, Stage: {} - manual action needed",
+                    timeout.transactionId(), timeout.orderId(), timeout.stage());
+            }
+        } catch (Exception e) {
+            log.error("Saga timeout compensation failed - TransactionId: {}, OrderId: {}",
+                timeout.transactionId(), timeout.orderId(), e);
+        }
+    }
+
+    /**
+     * Most recent timeouts first.
+     */
+    public List<SagaTimeout> recentTimeouts(int limit) {
+        synchronized (recentTimeouts) {
+            return recentTimeouts.stream().limit(limit).toList();
+        }
+    }
+
+    private void cancelOrder(SagaTimeout timeout) {
+        var order = orderService.findByOrderId(timeout.orderId());
+        if (order.isEmpty() || !"PENDING".equals(order.get().getStatus())
+                || paymentService.findByOrderId(timeout.orderId()).isPresent()) {
+            log.warn("Saga timed out waiting for payment but the order moved on - not cancelling - OrderId: {}, TransactionId: {}",
+                timeout.orderId(), timeout.transactionId());
+            return;
+        }
+        String reason = "Saga timed out waiting for payment";
+        orderService.cancelOrder(timeout.orderId(), reason);
+        orderEventProducer.sendOrderCancelledEvent(
+            new OrderCancelledEvent(timeout.orderId(), reason, LocalDateTime.now()), timeout.transactionId());
+        log.info("Saga timeout compensated - order cancelled - OrderId: {}, TransactionId: {}",
+            timeout.orderId(), timeout.transactionId());
+    }
+
+    private void refundPayment(SagaTimeout timeout) {
+        var payment = paymentService.findByOrderId(timeout.orderId());
+        if (payment.isEmpty()) {
+            log.error("Saga timed out waiting for inventory but no payment found - OrderId: {}, TransactionId: {}",
+                timeout.orderId(), timeout.transactionId());
+            return;
+        }
+        if (!"SUCCESS".equals(payment.get().getStatus()) || inventoryService.findByOrderId(timeout.orderId()).isPresent()) {
+            log.warn("Saga timed out waiting for inventory but the payment is {} - not refunding - OrderId: {}, TransactionId: {}",
+                payment.get().getStatus(), timeout.orderId(), timeout.transactionId());
+            return;
+        }
+        paymentService.refundPayment(timeout.orderId());
+        paymentEventProducer.sendPaymentRefundedEvent(
+            new PaymentRefundedEvent(payment.get().getPaymentId(), timeout.orderId(), payment.get().getAmount(), LocalDateTime.now()),
+            timeout.transactionId());
+        log.info("Saga timeout compensated - payment refunded - OrderId: {}, TransactionId: {}",
+            timeout.orderId(), timeout.transactionId());
+    }
+}
@@ -0,0 +1,79 @@
+package in.codefarm.saga.tracking;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.InventoryReservedEvent;
+import in.codefarm.saga.event.PaymentProcessedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds the orders, payments and inventory streams into the saga tracker.
+ * One consumer group for all three topics: they are keyed and partitioned by orderId alike,
+ * so each instance sees every step of the sagas on its partitions.
+ * Sagas of revoked partitions are handed over: the new owner tracks them, this instance forgets them.
+ */
+@Component
+public class SagaTrackingConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaTrackingConsumer.class);
+
+    private final SagaTracker sagaTracker;
+    private final JsonMapper jsonMapper;
+
+    public SagaTrackingConsumer(SagaTracker sagaTracker, @Qualifier("consumerJsonMapper") JsonMapper jsonMapper) {
+        this.sagaTracker = sagaTracker;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @KafkaListener(
+        topics = {"orders", "payments", "inventory"},
+        groupId = "saga-tracking-group",
+        containerFactory = "eventWrapperKafkaListenerContainerFactory",
+        autoStartup = "${saga.tracking.enabled:true}"
+    )
+    public void track(ConsumerRecord<String, EventWrapper<?>> record) {
+        EventWrapper<?> wrapper = record.value();
+        try {
+            SagaStep step = stepOf(wrapper);
+            if (step == null) {
+                return;
+            }
+            long eventTimeMs = wrapper.metadata().timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            sagaTracker.record(wrapper.metadata().transactionId(), record.key(), record.partition(), step, eventTimeMs);
+        } catch (Exception e) {
+            log.error("Saga tracking: could not record {} - TransactionId: {}",
+                wrapper.metadata().eventType(), wrapper.metadata().transactionId(), e);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        sagaTracker.forgetPartitions(partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet()));
+    }
+
+    private SagaStep stepOf(EventWrapper<?> wrapper) {
+        return switch (wrapper.metadata().eventType()) {
+            case "OrderPlaced" -> SagaStep.ORDER_PLACED;
+            case "PaymentProcessed" -> "FAILED".equals(
+                jsonMapper.convertValue(wrapper.payload(), PaymentProcessedEvent.class).status())
+                ? SagaStep.PAYMENT_FAILED : SagaStep.PAYMENT_SUCCEEDED;
+            case "InventoryReserved" -> "RESERVED".equals(
+                jsonMapper.convertValue(wrapper.payload(), InventoryReservedEvent.class).status())
+                ? SagaStep.INVENTORY_RESERVED : SagaStep.INVENTORY_UNAVAILABLE;
+            case "PaymentRefunded" -> SagaStep.PAYMENT_REFUNDED;
+            case "OrderCancelled" -> SagaStep.ORDER_CANCELLED;
+            default -> null;
+        };
+    }
+}
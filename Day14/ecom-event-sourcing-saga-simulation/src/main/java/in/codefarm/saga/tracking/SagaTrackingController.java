@@ -0,0 +1,45 @@
+package in.codefarm.saga.tracking;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Saga health: tracker counters, step latency histograms, stage of one saga and recent timeouts.
+ */
+@RestController
+@RequestMapping("/api/sagas")
+public class SagaTrackingController {
+
+    private static final int MAX_TIMEOUTS = 1000;
+
+    private final SagaTracker sagaTracker;
+    private final SagaTimeoutHandler timeoutHandler;
+
+    public SagaTrackingController(SagaTracker sagaTracker, SagaTimeoutHandler timeoutHandler) {
+        this.sagaTracker = sagaTracker;
+        this.timeoutHandler = timeoutHandler;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<SagaTracker.SagaStats> stats() {
+        return ResponseEntity.ok(sagaTracker.stats());
+    }
+
+    @GetMapping("/timeouts")
+    public ResponseEntity<List<SagaTimeout>> timeouts(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(timeoutHandler.recentTimeouts(Math.min(Math.max(limit, 0), MAX_TIMEOUTS)));
+    }
+
+    @GetMapping("/{transactionId}")
+    public ResponseEntity<SagaStage> stage(@PathVariable String transactionId) {
+        return sagaTracker.stageOf(transactionId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -334,7 +334,7 @@ class SagaPatternIntegrationTest {
     void shouldHandleInventoryFailureAndTriggerCompensation() {
         String transactionId = TestEventBuilder.generateTransactionId();
         OrderPlacedEvent orderEvent = TestEventBuilder.orderPlacedEventWithAmount(
-            BigDecimal.valueOf(600.00)  // > 500 will fail inventory reservation
+            BigDecimal.valueOf(600.00)  // inventory failure is injected below
         );
         EventWrapper<OrderPlacedEvent> orderWrapper = TestEventBuilder.wrapOrderPlaced(orderEvent, transactionId);
         
@@ -66,7 +66,9 @@ public class TestEventBuilder {
             customerId,
             amount,
             "SUCCESS",
-            LocalDateTime.now()
+            LocalDateTime.now(),
+            "product-456",
+            2
         );
     }
     
@@ -86,7 +88,9 @@ public class TestEventBuilder {
             customerId,
             amount,
             "FAILED",
-            LocalDateTime.now()
+            LocalDateTime.now(),
+            "product-456",
+            2
         );
     }
     
@@ -1,14 +1,17 @@
 package in.codefarm.saga.unit;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.OrderPlacedEvent;
 import in.codefarm.saga.order.service.OrderEventProducer;
 import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -32,18 +35,15 @@ class OrderEventProducerTest {
     @InjectMocks
     private OrderEventProducer orderEventProducer;
     
-    private ArgumentCaptor<EventWrapper<?>> eventWrapperCaptor;
-    private ArgumentCaptor<String> topicCaptor;
-    private ArgumentCaptor<String> keyCaptor;
+    private ArgumentCaptor<ProducerRecord<String, EventWrapper<?>>> recordCaptor;
     
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        eventWrapperCaptor = ArgumentCaptor.forClass(EventWrapper.class);
-        topicCaptor = ArgumentCaptor.forClass(String.class);
-        keyCaptor = ArgumentCaptor.forClass(String.class);
+        recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
         
         SendResult<String, EventWrapper<?>> sendResult = new SendResult<>(null, null);
-        lenient().when(kafkaTemplate.send(anyString(), anyString(), any(EventWrapper.class)))
+        lenient().when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, EventWrapper<?>>>any()))
             .thenReturn(CompletableFuture.completedFuture(sendResult));
     }
     
@@ -55,16 +55,14 @@ class OrderEventProducerTest {
         
         orderEventProducer.sendOrderPlacedEvent(orderEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(
-            topicCaptor.capture(),
-            keyCaptor.capture(),
-            eventWrapperCaptor.capture()
-        );
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
         
-        assertThat(topicCaptor.getValue()).isEqualTo("orders");
-        assertThat(keyCaptor.getValue()).isEqualTo(orderEvent.orderId());
+        assertThat(recordCaptor.getValue().topic()).isEqualTo("orders");
+        assertThat(recordCaptor.getValue().key()).isEqualTo(orderEvent.orderId());
+        assertThat(EventHeaders.read(recordCaptor.getValue().headers(), EventHeaders.EVENT_TYPE))
+            .isEqualTo("OrderPlaced");
         
-        EventWrapper<?> capturedWrapper = eventWrapperCaptor.getValue();
+        EventWrapper<?> capturedWrapper = recordCaptor.getValue().value();
         assertThat(capturedWrapper.metadata().eventType()).isEqualTo("OrderPlaced");
         assertThat(capturedWrapper.metadata().eventVersion()).isEqualTo("1.0");
         assertThat(capturedWrapper.metadata().source()).isEqualTo("order-service");
@@ -75,7 +73,7 @@ class OrderEventProducerTest {
     @Test
     @DisplayName("Should handle Kafka send failure gracefully")
     void shouldHandleSendFailureGracefully() {
-        when(kafkaTemplate.send(anyString(), anyString(), any(EventWrapper.class)))
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, EventWrapper<?>>>any()))
             .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka send failed")));
         
         String transactionId = TestEventBuilder.generateTransactionId();
@@ -83,7 +81,7 @@ class OrderEventProducerTest {
         
         orderEventProducer.sendOrderPlacedEvent(orderEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any(EventWrapper.class));
+        verify(kafkaTemplate, times(1)).send(ArgumentMatchers.<ProducerRecord<String, EventWrapper<?>>>any());
     }
     
     @Test
@@ -98,16 +96,12 @@ class OrderEventProducerTest {
             transactionId
         );
         
-        verify(kafkaTemplate, times(1)).send(
-            topicCaptor.capture(),
-            keyCaptor.capture(),
-            eventWrapperCaptor.capture()
-        );
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
         
-        assertThat(topicCaptor.getValue()).isEqualTo("orders");
-        assertThat(keyCaptor.getValue()).isEqualTo(orderId);
+        assertThat(recordCaptor.getValue().topic()).isEqualTo("orders");
+        assertThat(recordCaptor.getValue().key()).isEqualTo(orderId);
         
-        EventWrapper<?> capturedWrapper = eventWrapperCaptor.getValue();
+        EventWrapper<?> capturedWrapper = recordCaptor.getValue().value();
         assertThat(capturedWrapper.metadata().eventType()).isEqualTo("OrderCancelled");
         assertThat(capturedWrapper.metadata().source()).isEqualTo("order-service");
         assertThat(capturedWrapper.metadata().transactionId()).isEqualTo(transactionId);
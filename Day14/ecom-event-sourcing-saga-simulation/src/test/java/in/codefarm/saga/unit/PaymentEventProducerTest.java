@@ -1,10 +1,12 @@
 package in.codefarm.saga.unit;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.PaymentProcessedEvent;
 import in.codefarm.saga.event.PaymentRefundedEvent;
 import in.codefarm.saga.payment.service.PaymentEventProducer;
 import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -35,16 +37,15 @@ class PaymentEventProducerTest {
     @InjectMocks
     private PaymentEventProducer paymentEventProducer;
     
-    private ArgumentCaptor<EventWrapper<?>> eventWrapperCaptor;
-    private ArgumentCaptor<String> topicCaptor;
+    private ArgumentCaptor<ProducerRecord<String, EventWrapper<?>>> recordCaptor;
     
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        eventWrapperCaptor = ArgumentCaptor.forClass(EventWrapper.class);
-        topicCaptor = ArgumentCaptor.forClass(String.class);
+        recordCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
         
         SendResult<String, EventWrapper<?>> sendResult = new SendResult<>(null, null);
-        when(kafkaTemplate.send(anyString(), anyString(), any(EventWrapper.class)))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenReturn(CompletableFuture.completedFuture(sendResult));
     }
     
@@ -60,18 +61,18 @@ class PaymentEventProducerTest {
         
         paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(
-            topicCaptor.capture(),
-            anyString(),
-            eventWrapperCaptor.capture()
-        );
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
         
-        assertThat(topicCaptor.getValue()).isEqualTo("payments");
+        assertThat(recordCaptor.getValue().topic()).isEqualTo("payments");
         
-        EventWrapper<?> capturedWrapper = eventWrapperCaptor.getValue();
+        EventWrapper<?> capturedWrapper = recordCaptor.getValue().value();
         assertThat(capturedWrapper.metadata().eventType()).isEqualTo("PaymentProcessed");
         assertThat(capturedWrapper.metadata().source()).isEqualTo("payment-service");
         assertThat(capturedWrapper.metadata().transactionId()).isEqualTo(transactionId);
+        assertThat(EventHeaders.read(recordCaptor.getValue().headers(), EventHeaders.EVENT_TYPE))
+            .isEqualTo("PaymentProcessed");
+        assertThat(EventHeaders.read(recordCaptor.getValue().headers(), EventHeaders.EVENT_STATUS))
+            .isEqualTo("SUCCESS");
     }
     
     @Test
@@ -86,13 +87,15 @@ class PaymentEventProducerTest {
         
         paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), eventWrapperCaptor.capture());
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
         
-        EventWrapper<?> capturedWrapper = eventWrapperCaptor.getValue();
+        EventWrapper<?> capturedWrapper = recordCaptor.getValue().value();
         assertThat(capturedWrapper.metadata().eventType()).isEqualTo("PaymentProcessed");
         
         PaymentProcessedEvent capturedEvent = (PaymentProcessedEvent) capturedWrapper.payload();
         assertThat(capturedEvent.status()).isEqualTo("FAILED");
+        assertThat(EventHeaders.read(recordCaptor.getValue().headers(), EventHeaders.EVENT_STATUS))
+            .isEqualTo("FAILED");
     }
     
     @Test
@@ -107,15 +110,11 @@ class PaymentEventProducerTest {
         
         paymentEventProducer.sendPaymentRefundedEvent(refundEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(
-            topicCaptor.capture(),
-            anyString(),
-            eventWrapperCaptor.capture()
-        );
+        verify(kafkaTemplate, times(1)).send(recordCaptor.capture());
         
-        assertThat(topicCaptor.getValue()).isEqualTo("payments");
+        assertThat(recordCaptor.getValue().topic()).isEqualTo("payments");
         
-        EventWrapper<?> capturedWrapper = eventWrapperCaptor.getValue();
+        EventWrapper<?> capturedWrapper = recordCaptor.getValue().value();
         assertThat(capturedWrapper.metadata().eventType()).isEqualTo("PaymentRefunded");
         assertThat(capturedWrapper.metadata().source()).isEqualTo("payment-service");
     }
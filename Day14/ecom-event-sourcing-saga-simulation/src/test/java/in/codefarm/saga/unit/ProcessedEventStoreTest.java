@@ -0,0 +1,139 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.exactlyonce.BloomFilter;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Processed Event Store Unit Tests")
+class ProcessedEventStoreTest {
+
+    private static final String GROUP = "payment-service-group";
+    private static final String TOPIC = "orders";
+
+    private final List<String> persistedOrderIds = new ArrayList<>();
+    private ProcessedEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        persistedOrderIds.clear();
+        store = new ProcessedEventStore(true, 2, 1000, 0.01);
+        store.register(GROUP, TOPIC, ProcessedEventStore.byRecordKey(() -> persistedOrderIds));
+    }
+
+    @Test
+    @DisplayName("Should answer NOT_PROCESSED for unseen keys without a DB check")
+    void shouldReportUnseenKeyAsNotProcessed() {
+        assign(0);
+
+        assertThat(store.lookup(GROUP, 0, "order-1")).isEqualTo(ProcessedEventStore.Status.NOT_PROCESSED);
+    }
+
+    @Test
+    @DisplayName("Should answer PROCESSED for recently processed keys")
+    void shouldReportRecentKeyAsProcessed() {
+        assign(0);
+
+        store.markProcessed(GROUP, 0, "order-1");
+
+        assertThat(store.lookup(GROUP, 0, "order-1")).isEqualTo(ProcessedEventStore.Status.PROCESSED);
+    }
+
+    @Test
+    @DisplayName("Should count lookup outcomes per consumer group")
+    void shouldCountLookups() {
+        assign(0);
+        store.markProcessed(GROUP, 0, "order-1");
+
+        store.lookup(GROUP, 0, "order-1");
+        store.lookup(GROUP, 0, "order-2");
+        store.lookup(GROUP, 1, "order-3");
+
+        assertThat(store.stats(GROUP)).isEqualTo(new ProcessedEventStore.Stats(1, 1, 1));
+        assertThat(store.stats("other-group")).isEqualTo(new ProcessedEventStore.Stats(0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the DB once a key has left the recent-keys LRU")
+    void shouldReportEvictedKeyAsUnknown() {
+        assign(0);
+
+        store.markProcessed(GROUP, 0, "order-1");
+        store.markProcessed(GROUP, 0, "order-2");
+        store.markProcessed(GROUP, 0, "order-3");
+
+        assertThat(store.lookup(GROUP, 0, "order-1")).isEqualTo(ProcessedEventStore.Status.UNKNOWN);
+        assertThat(store.lookup(GROUP, 0, "order-3")).isEqualTo(ProcessedEventStore.Status.PROCESSED);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the filter from persisted keys on partition assignment")
+    void shouldRebuildFromLoaderOnAssignment() {
+        persistedOrderIds.add("order-1");
+
+        assign(0);
+
+        // Persisted keys are "maybe" - the indexed DB check decides
+        assertThat(store.lookup(GROUP, 0, "order-1")).isEqualTo(ProcessedEventStore.Status.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Should only load keys that hash to the assigned partitions")
+    void shouldScopeKeysToAssignedPartitions() {
+        for (int i = 0; i < 50; i++) {
+            persistedOrderIds.add(UUID.randomUUID().toString());
+        }
+        Map<Integer, List<String>> loaded = ProcessedEventStore.byRecordKey(() -> persistedOrderIds)
+            .load(Set.of(1), 3);
+
+        assertThat(loaded.keySet()).containsOnly(1);
+        assertThat(loaded.get(1)).isSubsetOf(persistedOrderIds).hasSizeLessThan(persistedOrderIds.size());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the DB for partitions that are not owned")
+    void shouldReportUnknownForRevokedPartition() {
+        assign(0);
+        store.markProcessed(GROUP, 0, "order-1");
+
+        store.onPartitionsRevoked(GROUP, List.of(new TopicPartition(TOPIC, 0)));
+
+        assertThat(store.lookup(GROUP, 0, "order-1")).isEqualTo(ProcessedEventStore.Status.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Bloom filter should never report a false negative")
+    void bloomFilterShouldHaveNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = UUID.randomUUID().toString();
+            keys.add(key);
+            filter.put(key);
+        }
+
+        assertThat(keys).allMatch(filter::mightContain);
+
+        long falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    private void assign(int partition) {
+        store.onPartitionsAssigned(GROUP, List.of(new TopicPartition(TOPIC, partition)), topic -> 1);
+    }
+}
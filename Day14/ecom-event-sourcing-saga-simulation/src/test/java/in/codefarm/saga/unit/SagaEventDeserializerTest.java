@@ -0,0 +1,115 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.event.EventHeaders;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.filtering.SagaEventDeserializer;
+import in.codefarm.saga.filtering.SkippedEventFilterStrategy;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Saga Event Deserializer Unit Tests")
+class SagaEventDeserializerTest {
+
+    // Not JSON - parsing it would throw, so a null result proves the value was never parsed
+    private static final byte[] UNPARSEABLE = "not-json".getBytes(StandardCharsets.UTF_8);
+
+    private final SagaEventDeserializer deserializer = new SagaEventDeserializer();
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    @Test
+    @DisplayName("Should skip OrderCancelled for the payment service without parsing it")
+    void shouldSkipFilteredEventWithoutParsing() {
+        configure("payment-service-group");
+
+        assertThat(deserializer.deserialize("orders", headers("OrderCancelled", null), UNPARSEABLE)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should skip payments the inventory service does not handle by status")
+    void shouldSkipByStatus() {
+        configure("inventory-service-group");
+
+        assertThat(deserializer.deserialize("payments", headers("PaymentProcessed", "FAILED"), UNPARSEABLE)).isNull();
+        assertThat(deserializer.deserialize("payments", headers("PaymentRefunded", null), UNPARSEABLE)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should parse events the group handles")
+    void shouldParseAcceptedEvent() {
+        configure("inventory-service-group");
+        var event = TestEventBuilder.wrapPaymentProcessed(
+            TestEventBuilder.paymentProcessedSuccess("order-1", "customer-1", BigDecimal.TEN),
+            TestEventBuilder.generateTransactionId());
+        Headers headers = headers("PaymentProcessed", "SUCCESS");
+
+        EventWrapper<?> parsed = deserializer.deserialize("payments", headers, serialize(event));
+
+        assertThat(parsed).isNotNull();
+        assertThat(parsed.metadata().eventType()).isEqualTo("PaymentProcessed");
+    }
+
+    @Test
+    @DisplayName("Should parse every event for groups without a filter and untagged events")
+    void shouldParseUnfilteredEvents() {
+        var event = TestEventBuilder.wrapOrderPlaced(
+            TestEventBuilder.defaultOrderPlacedEvent(), TestEventBuilder.generateTransactionId());
+
+        configure("saga-tracking-group");
+        assertThat(deserializer.deserialize("orders", headers("OrderCancelled", null), serialize(event))).isNotNull();
+
+        configure("payment-service-group");
+        assertThat(deserializer.deserialize("orders", new RecordHeaders(), serialize(event))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should discard only the records the deserializer skipped")
+    void shouldDiscardSkippedRecords() {
+        var filter = new SkippedEventFilterStrategy();
+        var skipped = new ConsumerRecord<String, EventWrapper<?>>("orders", 0, 0L, "order-1", null);
+        skipped.headers().add(EventHeaders.EVENT_TYPE, "OrderCancelled".getBytes(StandardCharsets.UTF_8));
+        var delivered = new ConsumerRecord<String, EventWrapper<?>>("orders", 0, 1L, "order-1",
+            TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), "tx-1"));
+
+        assertThat(filter.filter(skipped)).isTrue();
+        assertThat(filter.filter(delivered)).isFalse();
+    }
+
+    private void configure(String groupId) {
+        deserializer.configure(Map.of(
+            ConsumerConfig.GROUP_ID_CONFIG, groupId,
+            SagaEventDeserializer.JSON_MAPPER_CONFIG, JsonMapper.builder().build()), false);
+    }
+
+    private static Headers headers(String eventType, String status) {
+        Headers headers = new RecordHeaders();
+        headers.add(EventHeaders.EVENT_TYPE, eventType.getBytes(StandardCharsets.UTF_8));
+        if (status != null) {
+            headers.add(EventHeaders.EVENT_STATUS, status.getBytes(StandardCharsets.UTF_8));
+        }
+        return headers;
+    }
+
+    private static byte[] serialize(EventWrapper<?> event) {
+        try (var serializer = new JacksonJsonSerializer<EventWrapper<?>>()) {
+            return serializer.serialize("payments", event);
+        }
+    }
+}
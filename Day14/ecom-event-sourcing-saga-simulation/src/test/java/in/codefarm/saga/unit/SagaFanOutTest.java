@@ -0,0 +1,113 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.event.EventHeaders;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.fanout.SagaFanOut;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Saga Fan-Out Unit Tests")
+class SagaFanOutTest {
+
+    private SagaFanOut sagaFanOut;
+    private List<String> refunds;
+    private List<String> emails;
+
+    @BeforeEach
+    void setUp() {
+        // Disabled: no committer thread or Admin client, dispatching works the same
+        sagaFanOut = new SagaFanOut(false, false, 1000, null, null);
+        refunds = new ArrayList<>();
+        emails = new ArrayList<>();
+        sagaFanOut.register("inventory", "payment-service-compensation-group",
+            (wrapper, partition) -> refunds.add(wrapper.metadata().transactionId()));
+        sagaFanOut.register("inventory", "email-service-group",
+            (wrapper, partition) -> emails.add(wrapper.metadata().transactionId()));
+    }
+
+    @Test
+    @DisplayName("Should dispatch a record only to the groups whose filter accepts it")
+    void shouldDispatchByGroupFilter() {
+        sagaFanOut.dispatch(inventoryRecord(0, "tx-reserved", "RESERVED"));
+        sagaFanOut.dispatch(inventoryRecord(1, "tx-unavailable", "UNAVAILABLE"));
+
+        assertThat(emails).containsExactly("tx-reserved");
+        assertThat(refunds).containsExactly("tx-unavailable");
+    }
+
+    @Test
+    @DisplayName("Should dispatch untagged records to every group")
+    void shouldDispatchUntaggedRecordsToEveryGroup() {
+        sagaFanOut.dispatch(untaggedInventoryRecord(0, "tx-untagged"));
+
+        assertThat(emails).containsExactly("tx-untagged");
+        assertThat(refunds).containsExactly("tx-untagged");
+    }
+
+    @Test
+    @DisplayName("Should rethrow a handler failure and redeliver the record only to the failed group")
+    void shouldRetryOnlyTheFailedGroup() {
+        var fanOut = new SagaFanOut(false, false, 1000, null, null);
+        List<String> attempts = new ArrayList<>();
+        fanOut.register("inventory", "payment-service-compensation-group", (wrapper, partition) -> {
+            attempts.add(wrapper.metadata().transactionId());
+            if (attempts.size() == 1) {
+                throw new IllegalStateException("boom");
+            }
+        });
+        fanOut.register("inventory", "email-service-group",
+            (wrapper, partition) -> emails.add(wrapper.metadata().transactionId()));
+        var record = untaggedInventoryRecord(0, "tx-1");
+
+        assertThatThrownBy(() -> fanOut.dispatch(record))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("payment-service-compensation-group")
+            .hasRootCauseMessage("boom");
+        assertThat(emails).as("the other groups still get the record").containsExactly("tx-1");
+
+        // Container redelivery of the same record
+        fanOut.dispatch(record);
+
+        assertThat(attempts).containsExactly("tx-1", "tx-1");
+        assertThat(emails).containsExactly("tx-1");
+    }
+
+    @Test
+    @DisplayName("Should not dispatch records of other topics")
+    void shouldIgnoreOtherTopics() {
+        var record = new ConsumerRecord<String, EventWrapper<?>>("payments", 0, 0L, "order-1",
+            TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), "tx-1"));
+
+        sagaFanOut.dispatch(record);
+
+        assertThat(emails).isEmpty();
+        assertThat(refunds).isEmpty();
+    }
+
+    private static ConsumerRecord<String, EventWrapper<?>> untaggedInventoryRecord(long offset, String transactionId) {
+        return new ConsumerRecord<>("inventory", 0, offset, "order-" + offset,
+            TestEventBuilder.wrapInventoryReserved(
+                TestEventBuilder.inventoryReserved("order-" + offset, "product-123", 1), transactionId));
+    }
+
+    private static ConsumerRecord<String, EventWrapper<?>> inventoryRecord(long offset, String transactionId, String status) {
+        var event = "RESERVED".equals(status)
+            ? TestEventBuilder.inventoryReserved("order-" + offset, "product-123", 1)
+            : TestEventBuilder.inventoryUnavailable("order-" + offset, "product-123", 1);
+        var record = new ConsumerRecord<String, EventWrapper<?>>("inventory", 0, offset, event.orderId(),
+            TestEventBuilder.wrapInventoryReserved(event, transactionId));
+        record.headers().add(EventHeaders.EVENT_TYPE, "InventoryReserved".getBytes(StandardCharsets.UTF_8));
+        record.headers().add(EventHeaders.EVENT_STATUS, status.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
@@ -0,0 +1,66 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.id.TimeOrderedIds;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Time Ordered Ids Unit Tests")
+class TimeOrderedIdsTest {
+
+    @Test
+    @DisplayName("Should generate 26-character ids that sort in generation order")
+    void shouldGenerateSortedIds() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TimeOrderedIds.newId());
+        }
+
+        assertThat(ids).allSatisfy(id -> assertThat(id).hasSize(TimeOrderedIds.STRING_LENGTH));
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should generate version 7 UUIDs carrying the current time")
+    void shouldCarryTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedIds.newUuid();
+        String id = TimeOrderedIds.encode(uuid);
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(TimeOrderedIds.timestampOf(id)).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Should round trip through the string and binary forms")
+    void shouldRoundTrip() {
+        UUID uuid = TimeOrderedIds.newUuid();
+        String id = TimeOrderedIds.encode(uuid);
+
+        assertThat(TimeOrderedIds.decode(id)).isEqualTo(uuid);
+        assertThat(TimeOrderedIds.decode(id.toLowerCase())).isEqualTo(uuid);
+        assertThat(TimeOrderedIds.toBytes(id)).hasSize(TimeOrderedIds.BINARY_LENGTH);
+        assertThat(TimeOrderedIds.fromBytes(TimeOrderedIds.toBytes(id))).isEqualTo(id);
+    }
+
+    @Test
+    @DisplayName("Should reject strings that are not time-ordered ids")
+    void shouldRejectInvalidIds() {
+        assertThatThrownBy(() -> TimeOrderedIds.decode(UUID.randomUUID().toString()))
+            .isInstanceOf(IllegalArgumentException.class);
+        // 'U' is not in the alphabet, '8' as first character would overflow 128 bits
+        assertThatThrownBy(() -> TimeOrderedIds.decode("0UUUUUUUUUUUUUUUUUUUUUUUUU"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TimeOrderedIds.decode("80000000000000000000000000"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TimeOrderedIds.fromBytes(new byte[8]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,7 +1,9 @@
 package in.codefarm.notification.service.as.consumer.config;
 
+import in.codefarm.notification.service.as.consumer.commit.DatabaseOffsetStore;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
@@ -55,15 +57,26 @@ public class KafkaConsumerConfig {
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
-    // Container factory for auto-commit
+    // Container factory for auto-commit - processed records are committed by the container
+    // every ackCount records or ackTime ms (and before a revoke) instead of once per record
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
-            ConsumerFactory<String, String> autoCommitConsumerFactory
+            ConsumerFactory<String, String> autoCommitConsumerFactory,
+            DatabaseOffsetStore databaseOffsetStore,
+            @Value("${notification.commit.max-pending-records:50}") int maxPendingRecords,
+            @Value("${notification.commit.max-delay-ms:1000}") long maxDelayMs
     ) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(autoCommitConsumerFactory);
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        if (databaseOffsetStore.isEnabled()) {
+            // Offset-store mode: the saved notification row is the position, nothing is acknowledged to Kafka
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        } else {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.COUNT_TIME);
+            factory.getContainerProperties().setAckCount(maxPendingRecords);
+            factory.getContainerProperties().setAckTime(maxDelayMs);
+        }
         factory.setConcurrency(3); // 3 consumer threads
         return factory;
     }
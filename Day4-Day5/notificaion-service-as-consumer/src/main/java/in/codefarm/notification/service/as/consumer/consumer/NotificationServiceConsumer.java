@@ -1,19 +1,22 @@
 package in.codefarm.notification.service.as.consumer.consumer;
 
+import in.codefarm.notification.service.as.consumer.commit.DatabaseOffsetStore;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.service.NotificationService;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.ObjectMapper;
 
+import java.util.Map;
 import java.util.concurrent.Executors;
 
 @Component
-public class NotificationServiceConsumer {
+public class NotificationServiceConsumer implements ConsumerSeekAware {
     
     private static final Logger log = LoggerFactory.getLogger(NotificationServiceConsumer.class);
     private static final String CONSUMER_GROUP = "notification-service-group";
@@ -21,10 +24,20 @@ public class NotificationServiceConsumer {
     private final NotificationService notificationService;
 
     private final ObjectMapper objectMapper;
+
+    private final DatabaseOffsetStore databaseOffsetStore;
     
-    public NotificationServiceConsumer(NotificationService notificationService, ObjectMapper objectMapper) {
+    public NotificationServiceConsumer(NotificationService notificationService, ObjectMapper objectMapper,
+                                       DatabaseOffsetStore databaseOffsetStore) {
         this.notificationService = notificationService;
         this.objectMapper = objectMapper;
+        this.databaseOffsetStore = databaseOffsetStore;
+    }
+
+    // Offset-store mode: resume from the offsets stored with the notification rows
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        databaseOffsetStore.seekToStoredPositions(CONSUMER_GROUP, assignments.keySet(), callback);
     }
 
     @KafkaListener(
@@ -32,7 +45,7 @@ public class NotificationServiceConsumer {
         groupId = CONSUMER_GROUP,
         containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeAutoCommit(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) throws InterruptedException {
+    public void consumeAutoCommit(ConsumerRecord<String, String> record) throws InterruptedException {
        log.info("event received {}",
            record.value());
 
@@ -56,7 +69,8 @@ public class NotificationServiceConsumer {
             
             log.info("Notification processed successfully for order {} ===",
                 event.orderId());
-            acknowledgment.acknowledge();
+            // Committed by the container with the next count/time commit (or before a revoke).
+            // In offset-store mode the saved row already is the committed position
         } catch (Exception e) {
             log.error("Error processing order {} ===", event.orderId(), e);
             throw e;
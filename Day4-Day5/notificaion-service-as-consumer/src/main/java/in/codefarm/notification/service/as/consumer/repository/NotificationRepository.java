@@ -2,6 +2,7 @@ package in.codefarm.notification.service.as.consumer.repository;
 
 import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,5 +15,8 @@ public interface NotificationRepository extends JpaRepository<NotificationEntity
     List<NotificationEntity> findByStatus(String status);
     List<NotificationEntity> findByConsumerMethod(String consumerMethod);
     long countByStatus(String status);
+
+    @Query("select max(n.offset) from NotificationEntity n where n.consumerGroup = :consumerGroup and n.partition = :partition")
+    Long findLastOffset(String consumerGroup, Integer partition);
 }
 
@@ -66,5 +66,12 @@ public class NotificationService {
         // In real system: call email service
         // emailService.sendConfirmationEmail(event.customerId(), event.orderId(), event.totalAmount());
     }
+    
+    /**
+     * Highest offset stored for the group and partition, null if it has no notifications yet.
+     */
+    public Long findLastStoredOffset(String consumerGroup, int partition) {
+        return notificationRepository.findLastOffset(consumerGroup, partition);
+    }
 }
 
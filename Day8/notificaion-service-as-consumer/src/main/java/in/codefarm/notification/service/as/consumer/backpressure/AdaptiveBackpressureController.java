@@ -0,0 +1,218 @@
+package in.codefarm.notification.service.as.consumer.backpressure;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive backpressure for the record listeners: keeps every poll loop close to target-poll-loop-ms
+ * whatever the downstream latency, instead of relying on a fixed max.poll.records / max.poll.interval.ms pair.
+ *
+ * Installed as the containers' RecordInterceptor, it runs on each consumer thread and:
+ * 1. Measures the processing time of every record (EWMA per consumer thread)
+ * 2. Sizes the effective batch of the next poll loop as target-poll-loop-ms / average record time,
+ *    clamped to [min-batch, max-batch]
+ * 3. Once a loop has used its batch (or its time budget), skips the rest of the fetched records and seeks
+ *    their partitions back to the first skipped offset - they are fetched again by the next poll, so the
+ *    consumer returns to poll() (and stays in the group) long before max.poll.interval.ms
+ * 4. When the average record time goes above pause-threshold-ms (downstream saturated), pauses the consumer's
+ *    partitions through the container for pause-ms and resumes them - the next records probe the downstream
+ *
+ * max.poll.records cannot be changed on a running consumer, so it stays the upper bound of a fetch
+ * and the effective batch is enforced by skipping + seeking. Skipped records are never acknowledged:
+ * only use it on containers committing the consumer position (auto commit) or acknowledged offsets (MANUAL).
+ * COUNT_TIME / BATCH containers commit every record they handed to the listener, skipped ones included.
+ */
+@Component
+public class AdaptiveBackpressureController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBackpressureController.class);
+
+    private final boolean enabled;
+    private final long targetPollLoopMs;
+    private final int minBatch;
+    private final int maxBatch;
+    private final double ewmaAlpha;
+    private final long pauseThresholdMs;
+    private final long pauseMs;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final ThreadLocal<LoopState> loopState = ThreadLocal.withInitial(LoopState::new);
+    private final ScheduledExecutorService resumer;
+
+    public AdaptiveBackpressureController(
+        @Value("${notification.backpressure.enabled:true}") boolean enabled,
+        @Value("${notification.backpressure.target-poll-loop-ms:5000}") long targetPollLoopMs,
+        @Value("${notification.backpressure.min-batch:1}") int minBatch,
+        @Value("${notification.backpressure.max-batch:500}") int maxBatch,
+        @Value("${notification.backpressure.ewma-alpha:0.2}") double ewmaAlpha,
+        @Value("${notification.backpressure.pause-threshold-ms:2000}") long pauseThresholdMs,
+        @Value("${notification.backpressure.pause-ms:5000}") long pauseMs,
+        ObjectProvider<KafkaListenerEndpointRegistry> registry
+    ) {
+        this.enabled = enabled;
+        this.targetPollLoopMs = targetPollLoopMs;
+        this.minBatch = Math.max(1, minBatch);
+        this.maxBatch = Math.max(this.minBatch, maxBatch);
+        this.ewmaAlpha = ewmaAlpha;
+        this.pauseThresholdMs = pauseThresholdMs;
+        this.pauseMs = pauseMs;
+        this.registry = registry;
+        this.resumer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "backpressure-resumer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Adaptive backpressure enabled: {} - targetPollLoopMs: {}, batch: [{}, {}], pauseThresholdMs: {}",
+            enabled, targetPollLoopMs, this.minBatch, this.maxBatch, pauseThresholdMs);
+    }
+
+    /**
+     * The record interceptor to set on a container factory (typed per factory, state is per consumer thread).
+     */
+    public <K, V> RecordInterceptor<K, V> interceptor() {
+        return new RecordInterceptor<>() {
+            @Override
+            public void setupThreadState(Consumer<?, ?> consumer) {
+                startLoop();
+            }
+
+            @Override
+            public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+                return admit(record) ? record : null;
+            }
+
+            @Override
+            public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+                recordProcessed(consumer);
+            }
+
+            @Override
+            public void clearThreadState(Consumer<?, ?> consumer) {
+                endLoop(consumer);
+            }
+        };
+    }
+
+    /**
+     * Effective batch for an average record time - how many records fit in the target poll-loop duration.
+     */
+    int effectiveBatch(double averageRecordMs) {
+        if (averageRecordMs <= 0) {
+            return maxBatch;
+        }
+        long batch = (long) (targetPollLoopMs / averageRecordMs);
+        return (int) Math.max(minBatch, Math.min(maxBatch, batch));
+    }
+
+    private void startLoop() {
+        LoopState state = loopState.get();
+        state.loopStartedAt = 0;
+        state.processed = 0;
+        state.exhausted = false;
+        state.batch = enabled ? effectiveBatch(state.averageRecordMs) : Integer.MAX_VALUE;
+    }
+
+    private boolean admit(ConsumerRecord<?, ?> record) {
+        LoopState state = loopState.get();
+        long now = System.currentTimeMillis();
+        if (state.loopStartedAt == 0) {
+            state.loopStartedAt = now; // not at setupThreadState - the poll wait is not processing time
+        }
+        if (enabled && !state.exhausted && state.processed > 0
+            && (state.processed >= state.batch
+                || now - state.loopStartedAt + state.averageRecordMs > targetPollLoopMs)) {
+            state.exhausted = true;
+        }
+        if (state.exhausted) {
+            // Everything after the first skipped record is skipped too, so per-partition order is kept
+            state.deferred.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+            return false;
+        }
+        state.recordStartedAt = System.nanoTime();
+        return true;
+    }
+
+    private void recordProcessed(Consumer<?, ?> consumer) {
+        LoopState state = loopState.get();
+        if (state.recordStartedAt == 0) {
+            return;
+        }
+        double elapsedMs = (System.nanoTime() - state.recordStartedAt) / 1_000_000.0;
+        state.recordStartedAt = 0;
+        state.processed++;
+        state.averageRecordMs = state.averageRecordMs <= 0
+            ? elapsedMs
+            : ewmaAlpha * elapsedMs + (1 - ewmaAlpha) * state.averageRecordMs;
+        if (enabled && state.averageRecordMs > pauseThresholdMs && !state.exhausted) {
+            state.exhausted = true;
+            pause(consumer, state.averageRecordMs);
+        }
+    }
+
+    private void endLoop(Consumer<?, ?> consumer) {
+        LoopState state = loopState.get();
+        if (!state.deferred.isEmpty()) {
+            state.deferred.forEach(consumer::seek);
+            log.debug("Backpressure: processed {} of the fetched records (batch {}, avg {} ms) - rewound {}",
+                state.processed, state.batch, Math.round(state.averageRecordMs), state.deferred);
+            state.deferred.clear();
+        }
+    }
+
+    private void pause(Consumer<?, ?> consumer, double averageRecordMs) {
+        Set<TopicPartition> partitions = consumer.assignment();
+        List<MessageListenerContainer> containers = containersOf(consumer.groupMetadata().groupId());
+        if (partitions.isEmpty() || containers.isEmpty()) {
+            return;
+        }
+        log.warn("Backpressure: avg record time {} ms above {} ms - pausing {} for {} ms",
+            Math.round(averageRecordMs), pauseThresholdMs, partitions, pauseMs);
+        containers.forEach(container -> partitions.forEach(container::pausePartition));
+        resumer.schedule(() -> {
+            containers.forEach(container -> partitions.forEach(container::resumePartition));
+            log.info("Backpressure: resumed {}", partitions);
+        }, pauseMs, TimeUnit.MILLISECONDS);
+    }
+
+    private List<MessageListenerContainer> containersOf(String groupId) {
+        KafkaListenerEndpointRegistry endpointRegistry = registry.getIfAvailable();
+        if (endpointRegistry == null || groupId == null) {
+            return List.of();
+        }
+        return endpointRegistry.getListenerContainers().stream()
+            .filter(container -> groupId.equals(container.getGroupId()))
+            .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resumer.shutdownNow();
+    }
+
+    private static final class LoopState {
+        private double averageRecordMs;
+        private int batch = Integer.MAX_VALUE;
+        private long loopStartedAt;
+        private long recordStartedAt;
+        private int processed;
+        private boolean exhausted;
+        private final Map<TopicPartition, Long> deferred = new HashMap<>();
+    }
+}
@@ -0,0 +1,70 @@
+package in.codefarm.notification.service.as.consumer.commit;
+
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Offset-store mode: the consumed position lives in the notifications table instead of Kafka.
+ *
+ * Every notification row already carries consumerGroup, kafka_partition and msg_offset and is written
+ * in its own JPA transaction, so the row and the position it represents commit (or roll back) together.
+ * In this mode the container runs with MANUAL acks that are never given, so nothing is committed to Kafka,
+ * and on assignment the listener (ConsumerSeekAware) seeks each partition to the highest stored offset + 1 - no gap between the DB
+ * write and the commit, and no commit round trip. Partitions without rows keep the Kafka position
+ * (auto.offset.reset). A record skipped without a row (e.g. a duplicate order) may be redelivered
+ * after a restart and is skipped again.
+ *
+ * The group's offsets on the broker are not advanced while the mode is on, so the rows must outlive the
+ * process and be shared by every member of the group: the mode refuses to start on an in-memory H2
+ * database or a schema that Hibernate drops on startup (ddl-auto create / create-drop).
+ */
+@Component
+public class DatabaseOffsetStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseOffsetStore.class);
+
+    private final boolean enabled;
+    private final NotificationService notificationService;
+
+    public DatabaseOffsetStore(
+        @Value("${notification.offset-store.enabled:false}") boolean enabled,
+        @Value("${spring.datasource.url:}") String datasourceUrl,
+        @Value("${spring.jpa.hibernate.ddl-auto:}") String ddlAuto,
+        NotificationService notificationService
+    ) {
+        if (enabled && (datasourceUrl.startsWith("jdbc:h2:mem:") || ddlAuto.startsWith("create"))) {
+            throw new IllegalStateException("notification.offset-store.enabled needs a persistent database shared by the group, got "
+                + datasourceUrl + " with ddl-auto=" + ddlAuto + " - the stored offsets would be lost on restart");
+        }
+        this.enabled = enabled;
+        this.notificationService = notificationService;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Called from the listener's onPartitionsAssigned - seeks every partition with stored rows past its last row.
+     */
+    public void seekToStoredPositions(String consumerGroup, Collection<TopicPartition> partitions,
+                                      ConsumerSeekCallback callback) {
+        if (!enabled || consumerGroup == null) {
+            return;
+        }
+        for (TopicPartition tp : partitions) {
+            Long lastOffset = notificationService.findLastStoredOffset(consumerGroup, tp.partition());
+            if (lastOffset != null) {
+                callback.seek(tp.topic(), tp.partition(), lastOffset + 1);
+                log.info("Offset store: {} {} resumes at stored offset {}", consumerGroup, tp, lastOffset + 1);
+            }
+        }
+    }
+}
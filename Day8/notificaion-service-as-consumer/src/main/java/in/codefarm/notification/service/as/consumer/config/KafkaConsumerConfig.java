@@ -1,8 +1,13 @@
 package in.codefarm.notification.service.as.consumer.config;
 
+import in.codefarm.notification.service.as.consumer.backpressure.AdaptiveBackpressureController;
+import in.codefarm.notification.service.as.consumer.commit.DatabaseOffsetStore;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.idempotency.ProcessedEventStore;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -10,9 +15,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,24 +103,41 @@ public class KafkaConsumerConfig {
     // Container factory for auto-commit
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> kafkaListenerContainerFactory(
-            ConsumerFactory<String, OrderPlacedEvent> autoCommitConsumerFactory
+            ConsumerFactory<String, OrderPlacedEvent> autoCommitConsumerFactory,
+            ProcessedEventStore processedEventStore,
+            AdaptiveBackpressureController backpressureController
     ) {
         ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(autoCommitConsumerFactory);
         factory.setConcurrency(3); // 3 consumer threads
+        // Poll loops sized to the measured record time - max.poll.records above is only the fetch cap
+        factory.setRecordInterceptor(backpressureController.interceptor());
+        factory.getContainerProperties().setConsumerRebalanceListener(idempotencyRebalanceListener(processedEventStore));
         return factory;
     }
 
-    // Container factory for manual commit
+    // Container factory for manual commit - processed records are committed by the container
+    // every ackCount records or ackTime ms (and before a revoke) instead of once per record.
+    // No backpressure interceptor: COUNT_TIME also commits the records it skipped
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> manualCommitKafkaListenerContainerFactory(
-            ConsumerFactory<String, OrderPlacedEvent> manualCommitConsumerFactory
+            ConsumerFactory<String, OrderPlacedEvent> manualCommitConsumerFactory,
+            DatabaseOffsetStore databaseOffsetStore,
+            @Value("${notification.commit.max-pending-records:50}") int maxPendingRecords,
+            @Value("${notification.commit.max-delay-ms:1000}") long maxDelayMs
     ) {
         ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(manualCommitConsumerFactory);
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        if (databaseOffsetStore.isEnabled()) {
+            // Offset-store mode: the saved notification row is the position, nothing is acknowledged to Kafka
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        } else {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.COUNT_TIME);
+            factory.getContainerProperties().setAckCount(maxPendingRecords);
+            factory.getContainerProperties().setAckTime(maxDelayMs);
+        }
         factory.setConcurrency(3);
         return factory;
     }
@@ -160,13 +184,38 @@ public class KafkaConsumerConfig {
     // Container factory for payments
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> paymentKafkaListenerContainerFactory(
-        ConsumerFactory<String, Object> paymentConsumerFactory
+        ConsumerFactory<String, Object> paymentConsumerFactory,
+        ProcessedEventStore processedEventStore,
+        AdaptiveBackpressureController backpressureController
     ) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(paymentConsumerFactory);
         factory.setConcurrency(2);
+        factory.setRecordInterceptor(backpressureController.interceptor());
+        factory.getContainerProperties().setConsumerRebalanceListener(idempotencyRebalanceListener(processedEventStore));
         return factory;
     }
+
+    // Keeps the idempotency cache partition-scoped: rebuild what we gain, drop what we lose
+    private ConsumerAwareRebalanceListener idempotencyRebalanceListener(ProcessedEventStore processedEventStore) {
+        return new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsRevoked(consumer.groupMetadata().groupId(), partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsRevoked(consumer.groupMetadata().groupId(), partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsAssigned(consumer.groupMetadata().groupId(), partitions,
+                        topic -> consumer.partitionsFor(topic).size());
+            }
+        };
+    }
 }
 
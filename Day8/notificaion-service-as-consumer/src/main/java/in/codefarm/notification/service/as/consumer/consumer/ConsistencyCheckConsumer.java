@@ -0,0 +1,43 @@
+package in.codefarm.notification.service.as.consumer.consumer;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import in.codefarm.notification.service.as.consumer.service.OrderPaymentConsistencyChecker;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds the orders and payments streams into the consistency checker.
+ * Own consumer groups, so the join sees every event regardless of what the processing consumers do.
+ */
+@Component
+public class ConsistencyCheckConsumer {
+
+    private static final String ORDER_CONSUMER_GROUP = "consistency-check-order-group";
+    private static final String PAYMENT_CONSUMER_GROUP = "consistency-check-payment-group";
+
+    private final OrderPaymentConsistencyChecker consistencyChecker;
+
+    public ConsistencyCheckConsumer(OrderPaymentConsistencyChecker consistencyChecker) {
+        this.consistencyChecker = consistencyChecker;
+    }
+
+    @KafkaListener(
+        topics = "orders",
+        groupId = ORDER_CONSUMER_GROUP,
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consumeOrderPlacedEvent(@Payload OrderPlacedEvent event) {
+        consistencyChecker.onOrder(event);
+    }
+
+    @KafkaListener(
+        topics = "payments",
+        groupId = PAYMENT_CONSUMER_GROUP,
+        containerFactory = "paymentKafkaListenerContainerFactory"
+    )
+    public void consumePaymentProcessedEvent(@Payload PaymentProcessedEvent event) {
+        consistencyChecker.onPayment(event);
+    }
+}
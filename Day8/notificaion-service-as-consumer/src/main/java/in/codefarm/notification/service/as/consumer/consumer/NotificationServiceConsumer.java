@@ -1,13 +1,15 @@
 package in.codefarm.notification.service.as.consumer.consumer;
 
+import in.codefarm.notification.service.as.consumer.commit.DatabaseOffsetStore;
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.annotation.TopicPartition;
-import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.KafkaUtils;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
@@ -16,15 +18,27 @@ import java.util.List;
 import java.util.Map;
 
 @Component
-public class NotificationServiceConsumer {
+public class NotificationServiceConsumer implements ConsumerSeekAware {
     
     private static final Logger log = LoggerFactory.getLogger(NotificationServiceConsumer.class);
     private static final String CONSUMER_GROUP = "notification-service-group";
     
     private final NotificationService notificationService;
+    private final DatabaseOffsetStore databaseOffsetStore;
     
-    public NotificationServiceConsumer(NotificationService notificationService) {
+    public NotificationServiceConsumer(
+        NotificationService notificationService,
+        DatabaseOffsetStore databaseOffsetStore
+    ) {
         this.notificationService = notificationService;
+        this.databaseOffsetStore = databaseOffsetStore;
+    }
+    
+    // Offset-store mode: resume from the offsets stored with the notification rows
+    @Override
+    public void onPartitionsAssigned(Map<org.apache.kafka.common.TopicPartition, Long> assignments,
+                                     ConsumerSeekCallback callback) {
+        databaseOffsetStore.seekToStoredPositions(KafkaUtils.getConsumerGroupId(), assignments.keySet(), callback);
     }
     
     // Scenario 1: Auto-Commit Consumer (Default)
@@ -76,8 +90,7 @@ public class NotificationServiceConsumer {
         @Payload OrderPlacedEvent event,
         @Header(KafkaHeaders.RECEIVED_KEY) String key,
         @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-        @Header(KafkaHeaders.OFFSET) long offset,
-        Acknowledgment acknowledgment
+        @Header(KafkaHeaders.OFFSET) long offset
     ) throws Throwable{
         log.info("=== Manual Commit Consumer: Received OrderPlacedEvent ===");
         log.info("Order ID: {}, Customer: {}, Partition: {}, Offset: {}", 
@@ -99,15 +112,14 @@ public class NotificationServiceConsumer {
                 "manual-commit"
             );
             
-            // Explicitly commit offset after successful processing
-            acknowledgment.acknowledge();
-            
-            log.info("=== Manual Commit Consumer: Order processed and offset committed - Offset: {} ===", 
+            // Returning normally marks the offset processed - the container commits it with the next
+            // count/time commit. In offset-store mode the saved row already is the committed position
+            log.info("=== Manual Commit Consumer: Order processed, offset committed with the next batch - Offset: {} ===", 
                 offset);
             
         } catch (Exception e) {
             log.error("=== Manual Commit Consumer: Error processing order {} ===", event.orderId(), e);
-            // Don't acknowledge - message will be reprocessed
+            // Not marked processed - the error handler seeks back and the message is redelivered
             throw e;
         }
     }
@@ -2,6 +2,7 @@ package in.codefarm.notification.service.as.consumer.consumer;
 
 import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import in.codefarm.notification.service.as.consumer.idempotency.ProcessedEventStore;
 import in.codefarm.notification.service.as.consumer.service.NotificationService;
 import in.codefarm.notification.service.as.consumer.service.PaymentService;
 import org.slf4j.Logger;
@@ -12,6 +13,10 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Component
 public class PaymentServiceConsumer {
     
@@ -21,13 +26,20 @@ public class PaymentServiceConsumer {
     
     private final NotificationService notificationService;
     private final PaymentService paymentService;
+    private final ProcessedEventStore processedEventStore;
     
     public PaymentServiceConsumer(
         NotificationService notificationService,
-        PaymentService paymentService
+        PaymentService paymentService,
+        ProcessedEventStore processedEventStore
     ) {
         this.notificationService = notificationService;
         this.paymentService = paymentService;
+        this.processedEventStore = processedEventStore;
+        processedEventStore.register(ORDER_CONSUMER_GROUP, "orders", (partitions, partitionCount) ->
+            partitions.stream().collect(Collectors.toMap(Function.identity(), notificationService::findOrderIdsByPartition)));
+        processedEventStore.register(PAYMENT_CONSUMER_GROUP, "payments", (partitions, partitionCount) ->
+            partitions.stream().collect(Collectors.toMap(Function.identity(), paymentService::findPaymentIdsByPartition)));
     }
     
     /**
@@ -48,9 +60,9 @@ public class PaymentServiceConsumer {
         log.info("Order received - OrderId: {}, TransactionId: {}, Customer: {}", 
             event.orderId(), event.transactionId(), event.customerId());
         
-        // Idempotency check - check if already processed
-        var existingNotification = notificationService.findByOrderId(event.orderId());
-        if (existingNotification.isPresent()) {
+        // Idempotency check - bloom filter / recent keys first, indexed DB lookup only on "maybe"
+        if (isAlreadyProcessed(ORDER_CONSUMER_GROUP, partition, event.orderId(),
+                () -> notificationService.findByOrderId(event.orderId()).isPresent())) {
             log.warn("Order {} already processed - skipping (idempotency). TransactionId: {}", 
                 event.orderId(), event.transactionId());
             return;
@@ -68,6 +80,7 @@ public class PaymentServiceConsumer {
                 ORDER_CONSUMER_GROUP,
                 "idempotent-order-consumer"
             );
+            processedEventStore.markProcessed(ORDER_CONSUMER_GROUP, partition, event.orderId());
             log.info("Order processed - OrderId: {}, TransactionId: {}", event.orderId(), event.transactionId());
         } catch (Exception e) {
             log.error("Error processing order {} - TransactionId: {}", event.orderId(), event.transactionId(), e);
@@ -95,9 +108,9 @@ public class PaymentServiceConsumer {
         log.info("Payment received - PaymentId: {}, OrderId: {}, TransactionId: {}, Amount: {}", 
             event.paymentId(), event.orderId(), event.transactionId(), event.amount());
         
-        // Idempotency check - check if payment already processed
-        var existingPayment = paymentService.findPaymentByPaymentId(event.paymentId());
-        if (existingPayment.isPresent()) {
+        // Idempotency check - bloom filter / recent keys first, indexed DB lookup only on "maybe"
+        if (isAlreadyProcessed(PAYMENT_CONSUMER_GROUP, partition, event.paymentId(),
+                () -> paymentService.findPaymentByPaymentId(event.paymentId()).isPresent())) {
             log.warn("Payment {} already processed - skipping (idempotency). TransactionId: {}", 
                 event.paymentId(), event.transactionId());
             return;
@@ -106,14 +119,15 @@ public class PaymentServiceConsumer {
         try {
             // Save payment to database
             paymentService.savePayment(event, partition, offset, PAYMENT_CONSUMER_GROUP);
+            processedEventStore.markProcessed(PAYMENT_CONSUMER_GROUP, partition, event.paymentId());
             
             // Check for inconsistency: payment exists but order might not
             // Note: This is a best-effort check. Order event might arrive later (different topic/partition)
-            // For accurate inconsistency detection, use the /inconsistencies endpoint which checks with time delays
+            // For accurate inconsistency detection, use the /api/consistency/inconsistencies endpoint (windowed order/payment join)
             if (!paymentService.hasCorrespondingOrder(event.orderId())) {
                 log.warn("Payment {} saved but order {} not found yet. TransactionId: {}", 
                     event.paymentId(), event.orderId(), event.transactionId());
-                log.warn("Note: Order might arrive later (different topic). Use /inconsistencies endpoint for accurate detection");
+                log.warn("Note: Order might arrive later (different topic). Use /api/consistency/inconsistencies for accurate detection");
             } else {
                 log.info("Consistency check passed - Both payment and order exist for order {}. TransactionId: {}", 
                     event.orderId(), event.transactionId());
@@ -125,5 +139,15 @@ public class PaymentServiceConsumer {
             throw e;
         }
     }
+    
+    /**
+     * Ask the idempotency cache first; only run the DB check when it cannot answer.
+     */
+    private boolean isAlreadyProcessed(String groupId, int partition, String key, BooleanSupplier dbCheck) {
+        var status = processedEventStore.lookup(groupId, partition, key);
+        if (status != ProcessedEventStore.Status.UNKNOWN) {
+            return status == ProcessedEventStore.Status.PROCESSED;
+        }
+        return dbCheck.getAsBoolean();
+    }
 }
-
@@ -0,0 +1,42 @@
+package in.codefarm.notification.service.as.consumer.controller;
+
+import in.codefarm.notification.service.as.consumer.dto.InconsistencyPageResponse;
+import in.codefarm.notification.service.as.consumer.service.OrderPaymentConsistencyChecker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/consistency")
+public class ConsistencyController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final OrderPaymentConsistencyChecker consistencyChecker;
+
+    public ConsistencyController(OrderPaymentConsistencyChecker consistencyChecker) {
+        this.consistencyChecker = consistencyChecker;
+    }
+
+    // Payments whose order did not show up within the grace window, oldest first
+    @GetMapping("/inconsistencies")
+    public ResponseEntity<InconsistencyPageResponse> getInconsistencies(
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "50") int size
+    ) {
+        if (page < 0 || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        return ResponseEntity.ok(new InconsistencyPageResponse(
+            page,
+            pageSize,
+            consistencyChecker.reportedCount(),
+            consistencyChecker.totalReported(),
+            consistencyChecker.unmatchedPaymentCount(),
+            consistencyChecker.findInconsistencies(page, pageSize)
+        ));
+    }
+}
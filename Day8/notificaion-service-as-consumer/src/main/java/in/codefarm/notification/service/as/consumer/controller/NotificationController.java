@@ -0,0 +1,59 @@
+package in.codefarm.notification.service.as.consumer.controller;
+
+import in.codefarm.notification.service.as.consumer.dto.KeysetPage;
+import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import in.codefarm.notification.service.as.consumer.service.NotificationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notifications")
+public class NotificationController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final NotificationService notificationService;
+    private final JsonMapper jsonMapper;
+
+    public NotificationController(NotificationService notificationService, JsonMapper jsonMapper) {
+        this.notificationService = notificationService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @GetMapping
+    public ResponseEntity<KeysetPage<NotificationEntity>> getNotifications(
+        @RequestParam(defaultValue = "0") long afterId,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        List<NotificationEntity> notifications = notificationService.findPage(afterId, pageSize);
+        Long nextAfterId = notifications.size() == pageSize ? notifications.get(notifications.size() - 1).getId() : null;
+        return ResponseEntity.ok(new KeysetPage<>(notifications, nextAfterId));
+    }
+
+    // Full export as newline-delimited JSON, streamed from a DB cursor (constant memory)
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNotifications() {
+        StreamingResponseBody body = out -> notificationService.forEachNotification(notification -> {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(notification));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(body);
+    }
+}
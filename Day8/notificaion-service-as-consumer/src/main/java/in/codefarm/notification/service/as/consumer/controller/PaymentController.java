@@ -0,0 +1,59 @@
+package in.codefarm.notification.service.as.consumer.controller;
+
+import in.codefarm.notification.service.as.consumer.dto.KeysetPage;
+import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
+import in.codefarm.notification.service.as.consumer.service.PaymentService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payments")
+public class PaymentController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final PaymentService paymentService;
+    private final JsonMapper jsonMapper;
+
+    public PaymentController(PaymentService paymentService, JsonMapper jsonMapper) {
+        this.paymentService = paymentService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    @GetMapping
+    public ResponseEntity<KeysetPage<PaymentEntity>> getPayments(
+        @RequestParam(defaultValue = "0") long afterId,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        List<PaymentEntity> payments = paymentService.findPaymentsPage(afterId, pageSize);
+        Long nextAfterId = payments.size() == pageSize ? payments.get(payments.size() - 1).getId() : null;
+        return ResponseEntity.ok(new KeysetPage<>(payments, nextAfterId));
+    }
+
+    // Full export as newline-delimited JSON, streamed from a DB cursor (constant memory)
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPayments() {
+        StreamingResponseBody body = out -> paymentService.forEachPayment(payment -> {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(payment));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(body);
+    }
+}
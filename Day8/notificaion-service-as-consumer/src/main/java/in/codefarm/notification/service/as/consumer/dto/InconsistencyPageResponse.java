@@ -0,0 +1,15 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import in.codefarm.notification.service.as.consumer.dto.InconsistencyResponse.InconsistencyDetail;
+
+import java.util.List;
+
+public record InconsistencyPageResponse(
+    int page,
+    int size,
+    int totalInconsistencies,
+    long totalDetected,
+    int unmatchedPayments,
+    List<InconsistencyDetail> inconsistencies
+) {
+}
@@ -0,0 +1,13 @@
+package in.codefarm.notification.service.as.consumer.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass nextAfterId as afterId to fetch the next page;
+ * null means this was the last page.
+ */
+public record KeysetPage<T>(
+    List<T> items,
+    Long nextAfterId
+) {
+}
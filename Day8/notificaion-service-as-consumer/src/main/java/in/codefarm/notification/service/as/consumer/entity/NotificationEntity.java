@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_order_id", columnList = "orderId"),
+    // Offset-store mode: last stored offset per consumer group and partition
+    @Index(name = "idx_notifications_group_partition_offset", columnList = "consumerGroup, kafka_partition, msg_offset")
+})
 public class NotificationEntity {
     
     @Id
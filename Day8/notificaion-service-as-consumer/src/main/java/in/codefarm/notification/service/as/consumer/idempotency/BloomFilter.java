@@ -0,0 +1,78 @@
+package in.codefarm.notification.service.as.consumer.idempotency;
+
+/**
+ * Minimal bloom filter over string keys.
+ *
+ * mightContain() never returns false for a key that was put(), so a "no" answer can be trusted
+ * without asking the database. A "yes" may be a false positive at roughly the configured rate.
+ *
+ * Not thread-safe - callers synchronize (see ProcessedEventStore).
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+
+    private BloomFilter(int numBits, int numHashes) {
+        this.bits = new long[(numBits + 63) >>> 6];
+        this.numBits = bits.length << 6;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Size the filter for the expected number of keys and target false positive rate.
+     */
+    public static BloomFilter create(int expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("expectedKeys must be positive: " + expectedKeys);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        long numBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / expectedKeys * Math.log(2)));
+        return new BloomFilter((int) Math.min(numBits, Integer.MAX_VALUE - 63), numHashes);
+    }
+
+    public void put(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars, finished with the murmur3 64-bit mixer.
+     * The two halves feed double hashing (h1 + i * h2) for the k bit positions.
+     */
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,11 +1,17 @@
 package in.codefarm.notification.service.as.consumer.repository;
 
 import in.codefarm.notification.service.as.consumer.entity.NotificationEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<NotificationEntity, Long> {
@@ -14,5 +20,22 @@ public interface NotificationRepository extends JpaRepository<NotificationEntity
     List<NotificationEntity> findByStatus(String status);
     List<NotificationEntity> findByConsumerMethod(String consumerMethod);
     long countByStatus(String status);
+
+    @Query("select n.orderId from NotificationEntity n where n.partition = :partition")
+    List<String> findOrderIdsByPartition(Integer partition);
+
+    @Query("select max(n.offset) from NotificationEntity n where n.consumerGroup = :consumerGroup and n.partition = :partition")
+    Long findLastOffset(String consumerGroup, Integer partition);
+
+    // Keyset pagination - seeks past the last seen id instead of scanning OFFSET rows
+    List<NotificationEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Cursor-backed stream for exports - rows are fetched in chunks, never materialized as a list
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select n from NotificationEntity n order by n.id")
+    Stream<NotificationEntity> streamAllByOrderByIdAsc();
 }
 
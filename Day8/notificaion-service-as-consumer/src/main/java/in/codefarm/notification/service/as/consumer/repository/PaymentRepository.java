@@ -2,11 +2,17 @@ package in.codefarm.notification.service.as.consumer.repository;
 
 
 import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
@@ -18,5 +24,19 @@ public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
     List<PaymentEntity> findByCustomerId(String customerId);
 
     List<PaymentEntity> findByStatus(String status);
+
+    @Query("select p.paymentId from PaymentEntity p where p.partition = :partition")
+    List<String> findPaymentIdsByPartition(Integer partition);
+
+    // Keyset pagination - seeks past the last seen id instead of scanning OFFSET rows
+    List<PaymentEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Cursor-backed stream for exports - rows are fetched in chunks, never materialized as a list
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from PaymentEntity p order by p.id")
+    Stream<PaymentEntity> streamAllByOrderByIdAsc();
 }
 
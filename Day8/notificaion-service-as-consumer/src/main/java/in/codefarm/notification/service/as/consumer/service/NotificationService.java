@@ -5,12 +5,16 @@ import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
 import in.codefarm.notification.service.as.consumer.exception.OrderIsInvalid;
 import in.codefarm.notification.service.as.consumer.exception.TransientDownstreamException;
 import in.codefarm.notification.service.as.consumer.repository.NotificationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class NotificationService {
@@ -19,6 +23,9 @@ public class NotificationService {
     
     private final NotificationRepository notificationRepository;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public NotificationService(NotificationRepository notificationRepository) {
         this.notificationRepository = notificationRepository;
     }
@@ -100,8 +107,24 @@ public class NotificationService {
         return notificationRepository.findByOrderId(orderId);
     }
     
-    public List<NotificationEntity> findAll() {
-        return notificationRepository.findAll();
+    /**
+     * One page of notifications with id greater than afterId, in id order.
+     */
+    public List<NotificationEntity> findPage(long afterId, int limit) {
+        return notificationRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+    
+    /**
+     * Visit every notification without loading the table into memory (entities are detached as we go).
+     */
+    @Transactional(readOnly = true)
+    public void forEachNotification(Consumer<NotificationEntity> action) {
+        try (var notifications = notificationRepository.streamAllByOrderByIdAsc()) {
+            notifications.forEach(notification -> {
+                action.accept(notification);
+                entityManager.detach(notification);
+            });
+        }
     }
     
     public List<NotificationEntity> findByCustomerId(String customerId) {
@@ -116,6 +139,17 @@ public class NotificationService {
         return notificationRepository.findByConsumerMethod(consumerMethod);
     }
     
+    public List<String> findOrderIdsByPartition(int partition) {
+        return notificationRepository.findOrderIdsByPartition(partition);
+    }
+    
+    /**
+     * Highest offset stored for the group and partition, null if it has no notifications yet.
+     */
+    public Long findLastStoredOffset(String consumerGroup, int partition) {
+        return notificationRepository.findLastOffset(consumerGroup, partition);
+    }
+    
     public long countByStatus(String status) {
         return notificationRepository.countByStatus(status);
     }
@@ -0,0 +1,204 @@
+package in.codefarm.notification.service.as.consumer.service;
+
+import in.codefarm.notification.service.as.consumer.dto.InconsistencyResponse.InconsistencyDetail;
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuous order/payment consistency check - a windowed join of the orders and payments streams.
+ *
+ * Instead of scanning the notifications and payments tables, only two bounded key sets are kept:
+ * 1. A payment waits up to grace-ms for its OrderPlacedEvent
+ * 2. Seen order ids are remembered for order-retention-ms, capped at max-tracked-orders (oldest dropped
+ *    first), and stay there after a match so a retried or repeated payment for the same order matches too
+ * 3. When a payment's grace window expires it is confirmed with a single DB lookup
+ *    (the order may have been dropped from the set, or consumed before a restart)
+ *    and reported as PAYMENT_WITHOUT_ORDER
+ *
+ * Memory is O(unmatched payments + max-tracked-orders) plus the bounded report; an order arriving after
+ * its payment was reported removes the report entry again.
+ */
+@Component
+public class OrderPaymentConsistencyChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPaymentConsistencyChecker.class);
+    private static final String PAYMENT_WITHOUT_ORDER = "PAYMENT_WITHOUT_ORDER";
+
+    private final PaymentService paymentService;
+    private final long graceMs;
+    private final long orderRetentionMs;
+
+    // Insertion ordered, so expiry only has to look at the head of each map
+    private final LinkedHashMap<String, PendingPayment> unmatchedPayments = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Long> knownOrders;
+    private final LinkedHashMap<String, InconsistencyDetail> reported;
+    private final ScheduledExecutorService sweeper;
+    private long totalReported;
+
+    public OrderPaymentConsistencyChecker(
+        PaymentService paymentService,
+        @Value("${consistency.check.grace-ms:30000}") long graceMs,
+        @Value("${consistency.check.order-retention-ms:300000}") long orderRetentionMs,
+        @Value("${consistency.check.sweep-interval-ms:5000}") long sweepIntervalMs,
+        @Value("${consistency.check.max-tracked-orders:100000}") int maxTrackedOrders,
+        @Value("${consistency.check.max-reported:10000}") int maxReported
+    ) {
+        this.paymentService = paymentService;
+        this.graceMs = graceMs;
+        this.orderRetentionMs = orderRetentionMs;
+        this.knownOrders = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxTrackedOrders;
+            }
+        };
+        this.reported = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, InconsistencyDetail> eldest) {
+                return size() > maxReported;
+            }
+        };
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "consistency-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweepSafely, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Consistency checker started - graceMs: {}, orderRetentionMs: {}", graceMs, orderRetentionMs);
+    }
+
+    public void onOrder(OrderPlacedEvent event) {
+        onOrder(event, System.currentTimeMillis());
+    }
+
+    public void onPayment(PaymentProcessedEvent event) {
+        onPayment(event, System.currentTimeMillis());
+    }
+
+    synchronized void onOrder(OrderPlacedEvent event, long now) {
+        String orderId = event.orderId();
+        rememberOrder(orderId, now);
+        if (unmatchedPayments.remove(orderId) != null) {
+            log.debug("Order {} matched a waiting payment", orderId);
+        } else if (reported.remove(orderId) != null) {
+            log.info("Late order {} arrived after its payment was reported - inconsistency resolved", orderId);
+        }
+    }
+
+    synchronized void onPayment(PaymentProcessedEvent event, long now) {
+        if (knownOrders.containsKey(event.orderId())) {
+            log.debug("Payment {} matched order {}", event.paymentId(), event.orderId());
+            return;
+        }
+        unmatchedPayments.putIfAbsent(event.orderId(), new PendingPayment(event, now));
+    }
+
+    /**
+     * Page through reported inconsistencies, oldest first.
+     */
+    public synchronized List<InconsistencyDetail> findInconsistencies(int page, int size) {
+        return reported.values().stream()
+            .skip((long) page * size)
+            .limit(size)
+            .toList();
+    }
+
+    public synchronized int reportedCount() {
+        return reported.size();
+    }
+
+    public synchronized long totalReported() {
+        return totalReported;
+    }
+
+    public synchronized int unmatchedPaymentCount() {
+        return unmatchedPayments.size();
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("Consistency sweep failed", e);
+        }
+    }
+
+    void sweep(long now) {
+        List<PendingPayment> expired = new ArrayList<>();
+        synchronized (this) {
+            expireHead(knownOrders, now - orderRetentionMs);
+
+            Iterator<PendingPayment> payments = unmatchedPayments.values().iterator();
+            while (payments.hasNext()) {
+                PendingPayment pending = payments.next();
+                if (pending.receivedAt() > now - graceMs) {
+                    break;
+                }
+                payments.remove();
+                expired.add(pending);
+            }
+        }
+
+        // Confirm outside the lock - one indexed lookup per expired payment, not a table scan
+        for (PendingPayment pending : expired) {
+            PaymentProcessedEvent payment = pending.payment();
+            if (paymentService.hasCorrespondingOrder(payment.orderId())) {
+                synchronized (this) {
+                    rememberOrder(payment.orderId(), now);
+                }
+                continue;
+            }
+            var detail = new InconsistencyDetail(
+                PAYMENT_WITHOUT_ORDER,
+                payment.paymentId(),
+                payment.orderId(),
+                payment.customerId(),
+                "No OrderPlacedEvent within " + graceMs + " ms of the payment"
+            );
+            synchronized (this) {
+                if (knownOrders.containsKey(payment.orderId())) {
+                    continue; // order arrived while we were confirming
+                }
+                reported.put(payment.orderId(), detail);
+                totalReported++;
+            }
+            log.warn("Inconsistency detected - PaymentId: {}, OrderId: {}, TransactionId: {}",
+                payment.paymentId(), payment.orderId(), payment.transactionId());
+        }
+    }
+
+    private void rememberOrder(String orderId, long now) {
+        // Re-insert so the entry moves to the tail and expiry stays head-only
+        knownOrders.remove(orderId);
+        knownOrders.put(orderId, now);
+    }
+
+    private static void expireHead(LinkedHashMap<String, Long> entries, long cutoff) {
+        Iterator<Long> timestamps = entries.values().iterator();
+        while (timestamps.hasNext() && timestamps.next() <= cutoff) {
+            timestamps.remove();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private record PendingPayment(PaymentProcessedEvent payment, long receivedAt) {
+    }
+}
@@ -3,13 +3,17 @@ package in.codefarm.notification.service.as.consumer.service;
 import in.codefarm.notification.service.as.consumer.entity.PaymentEntity;
 import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
 import in.codefarm.notification.service.as.consumer.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class PaymentService {
@@ -19,6 +23,9 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final NotificationService notificationService;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public PaymentService(
         PaymentRepository paymentRepository,
         NotificationService notificationService
@@ -58,8 +65,28 @@ public class PaymentService {
         return paymentRepository.findByOrderId(orderId);
     }
     
-    public List<PaymentEntity> findAllPayments() {
-        return paymentRepository.findAll();
+    public List<String> findPaymentIdsByPartition(int partition) {
+        return paymentRepository.findPaymentIdsByPartition(partition);
+    }
+    
+    /**
+     * One page of payments with id greater than afterId, in id order.
+     */
+    public List<PaymentEntity> findPaymentsPage(long afterId, int limit) {
+        return paymentRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+    
+    /**
+     * Visit every payment without loading the table into memory (entities are detached as we go).
+     */
+    @Transactional(readOnly = true)
+    public void forEachPayment(Consumer<PaymentEntity> action) {
+        try (var payments = paymentRepository.streamAllByOrderByIdAsc()) {
+            payments.forEach(payment -> {
+                action.accept(payment);
+                entityManager.detach(payment);
+            });
+        }
     }
     
     public List<PaymentEntity> findPaymentsByCustomerId(String customerId) {
@@ -0,0 +1,131 @@
+package in.codefarm.notification.service.as.consumer.service;
+
+import in.codefarm.notification.service.as.consumer.event.OrderPlacedEvent;
+import in.codefarm.notification.service.as.consumer.event.PaymentProcessedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Order Payment Consistency Checker Unit Tests")
+class OrderPaymentConsistencyCheckerTest {
+
+    private static final long GRACE_MS = 1_000;
+    private static final long ORDER_RETENTION_MS = 10_000;
+
+    @Mock
+    private PaymentService paymentService;
+
+    private OrderPaymentConsistencyChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        // Sweeps are driven by the tests with an explicit clock, the scheduled one never fires
+        checker = new OrderPaymentConsistencyChecker(paymentService, GRACE_MS, ORDER_RETENTION_MS,
+            3_600_000, 100, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        checker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should match a payment that arrives after its order")
+    void shouldMatchOrderFirst() {
+        checker.onOrder(order("order-1"), 0);
+        checker.onPayment(payment("payment-1", "order-1"), 10);
+
+        checker.sweep(GRACE_MS + 10);
+
+        assertThat(checker.unmatchedPaymentCount()).isZero();
+        assertThat(checker.reportedCount()).isZero();
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    @DisplayName("Should match a payment that arrives before its order")
+    void shouldMatchPaymentFirst() {
+        checker.onPayment(payment("payment-1", "order-1"), 0);
+        assertThat(checker.unmatchedPaymentCount()).isEqualTo(1);
+
+        checker.onOrder(order("order-1"), 10);
+        checker.sweep(GRACE_MS + 10);
+
+        assertThat(checker.unmatchedPaymentCount()).isZero();
+        assertThat(checker.reportedCount()).isZero();
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    @DisplayName("Should report a payment without order and resolve it when the order arrives late")
+    void shouldResolveLateOrderAfterReport() {
+        when(paymentService.hasCorrespondingOrder("order-1")).thenReturn(false);
+        checker.onPayment(payment("payment-1", "order-1"), 0);
+
+        checker.sweep(GRACE_MS);
+
+        assertThat(checker.reportedCount()).isEqualTo(1);
+        assertThat(checker.findInconsistencies(0, 10))
+            .singleElement()
+            .satisfies(detail -> assertThat(detail.orderId()).isEqualTo("order-1"));
+
+        checker.onOrder(order("order-1"), GRACE_MS + 10);
+
+        assertThat(checker.reportedCount()).isZero();
+        assertThat(checker.totalReported()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should match a repeated payment for an order that was already matched")
+    void shouldMatchDuplicatePayment() {
+        checker.onOrder(order("order-1"), 0);
+        checker.onPayment(payment("payment-1", "order-1"), 10);
+        checker.onPayment(payment("payment-2", "order-1"), 20);
+
+        checker.sweep(GRACE_MS + 20);
+
+        assertThat(checker.unmatchedPaymentCount()).isZero();
+        assertThat(checker.reportedCount()).isZero();
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    @DisplayName("Should confirm with the DB once the order has left the tracked set")
+    void shouldFallBackToDbAfterOrderExpired() {
+        when(paymentService.hasCorrespondingOrder(anyString())).thenReturn(true);
+        checker.onOrder(order("order-1"), 0);
+        checker.sweep(ORDER_RETENTION_MS);
+
+        checker.onPayment(payment("payment-1", "order-1"), ORDER_RETENTION_MS + 10);
+        checker.sweep(ORDER_RETENTION_MS + GRACE_MS + 10);
+
+        assertThat(checker.reportedCount()).isZero();
+        verify(paymentService).hasCorrespondingOrder("order-1");
+
+        // The DB answer is remembered - the next payment for the order matches in memory
+        checker.onPayment(payment("payment-2", "order-1"), ORDER_RETENTION_MS + GRACE_MS + 20);
+        assertThat(checker.unmatchedPaymentCount()).isZero();
+    }
+
+    private static OrderPlacedEvent order(String orderId) {
+        return new OrderPlacedEvent(orderId, "customer-1", "product-123", 1, BigDecimal.TEN,
+            LocalDateTime.now(), "tx-" + orderId);
+    }
+
+    private static PaymentProcessedEvent payment(String paymentId, String orderId) {
+        return new PaymentProcessedEvent(paymentId, orderId, "customer-1", BigDecimal.TEN, "PROCESSED",
+            LocalDateTime.now(), "tx-" + orderId);
+    }
+}
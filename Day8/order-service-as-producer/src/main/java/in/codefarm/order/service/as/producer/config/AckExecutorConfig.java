@@ -0,0 +1,18 @@
+package in.codefarm.order.service.as.producer.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class AckExecutorConfig {
+
+    // Virtual threads for the work that follows a broker ack (DB writes, next send) and for requests that
+    // still have to block (thread-bound Kafka transactions) - never the producer I/O thread or a Tomcat worker
+    @Bean(destroyMethod = "close")
+    public ExecutorService kafkaAckExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
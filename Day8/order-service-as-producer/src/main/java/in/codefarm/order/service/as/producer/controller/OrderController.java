@@ -1,6 +1,7 @@
 package in.codefarm.order.service.as.producer.controller;
 
 import in.codefarm.order.service.as.producer.entity.OrderEntity;
+import in.codefarm.order.service.as.producer.id.TimeOrderedIds;
 import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
 import in.codefarm.order.service.as.producer.service.OrderEventProducerService;
 import org.slf4j.Logger;
@@ -12,7 +13,8 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -39,13 +41,13 @@ public class OrderController {
     // Helper method to create event from request
     private OrderPlacedEvent createEvent(OrderRequest request) {
         return new OrderPlacedEvent(
-            UUID.randomUUID().toString(),
+            TimeOrderedIds.newId(),
             request.customerId(),
             request.productId(),
             request.quantity(),
             request.totalAmount(),
             LocalDateTime.now(),
-                UUID.randomUUID().toString()
+                TimeOrderedIds.newId()
         );
     }
     
@@ -68,45 +70,34 @@ public class OrderController {
         }
     }
     
-    // Scenario 2: Synchronous Send
+    // Scenario 2: Synchronous Send - responds once the broker acknowledged the record,
+    // without holding a request thread while waiting
     @PostMapping("/synchronous")
-    public ResponseEntity<String> placeOrderSynchronous(@RequestBody OrderRequest request) {
+    public CompletableFuture<ResponseEntity<String>> placeOrderSynchronous(@RequestBody OrderRequest request) {
         log.info("=== REST Endpoint: POST /api/orders/synchronous ===");
         
-        try {
-            var event = createEvent(request);
-            var orderEntity = orderEventProducerService.sendSynchronously(event);
-            
-            return ResponseEntity.status(HttpStatus.CREATED)
+        var event = createEvent(request);
+        return orderEventProducerService.sendAcknowledged(event, null)
+            .thenApply(orderEntity -> ResponseEntity.status(HttpStatus.CREATED)
                 .body("Order placed (synchronous)! Order ID: " + orderEntity.getOrderId() + 
-                      ", DB ID: " + orderEntity.getId());
-        } catch (Exception e) {
-            log.error("Error in synchronous endpoint", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Error: " + e.getMessage());
-        }
+                      ", DB ID: " + orderEntity.getId()))
+            .exceptionally(e -> errorResponse("synchronous", e));
     }
     
     // Scenario 2b: Synchronous Send with Timeout
     @PostMapping("/synchronous-timeout")
-    public ResponseEntity<String> placeOrderSynchronousWithTimeout(
+    public CompletableFuture<ResponseEntity<String>> placeOrderSynchronousWithTimeout(
         @RequestBody OrderRequest request,
         @RequestParam(defaultValue = "5") long timeoutSeconds
     ) {
         log.info("=== REST Endpoint: POST /api/orders/synchronous-timeout (timeout: {}s) ===", timeoutSeconds);
         
-        try {
-            var event = createEvent(request);
-            var orderEntity = orderEventProducerService.sendSynchronouslyWithTimeout(event, timeoutSeconds);
-            
-            return ResponseEntity.status(HttpStatus.CREATED)
+        var event = createEvent(request);
+        return orderEventProducerService.sendAcknowledged(event, timeoutSeconds)
+            .thenApply(orderEntity -> ResponseEntity.status(HttpStatus.CREATED)
                 .body("Order placed (synchronous with timeout)! Order ID: " + orderEntity.getOrderId() + 
-                      ", DB ID: " + orderEntity.getId());
-        } catch (Exception e) {
-            log.error("Error in synchronous-timeout endpoint", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Error: " + e.getMessage());
-        }
+                      ", DB ID: " + orderEntity.getId()))
+            .exceptionally(e -> errorResponse("synchronous-timeout", e));
     }
     
     // Scenario 3: Async with Callback
@@ -231,28 +222,29 @@ public class OrderController {
         }
     }
     
-    // Scenario 7b: Batch Send Synchronously
+    // Scenario 7b: Batch Send Synchronously - responds once every record is acknowledged
     @PostMapping("/batch-synchronous")
-    public ResponseEntity<String> placeOrderBatchSynchronous(@RequestBody List<OrderRequest> requests) {
+    public CompletableFuture<ResponseEntity<String>> placeOrderBatchSynchronous(@RequestBody List<OrderRequest> requests) {
         log.info("=== REST Endpoint: POST /api/orders/batch-synchronous ({} orders) ===", requests.size());
         
-        try {
-            List<OrderPlacedEvent> events = requests.stream()
-                .map(this::createEvent)
-                .collect(Collectors.toList());
-            
-            List<OrderEntity> orderEntities = orderEventProducerService.sendBatchSynchronously(events);
-            
-            return ResponseEntity.status(HttpStatus.CREATED)
+        List<OrderPlacedEvent> events = requests.stream()
+            .map(this::createEvent)
+            .collect(Collectors.toList());
+        
+        return orderEventProducerService.sendBatchAcknowledged(events)
+            .thenApply(orderEntities -> ResponseEntity.status(HttpStatus.CREATED)
                 .body("Batch (synchronous) of " + orderEntities.size() + " orders placed! Order IDs: " + 
                       orderEntities.stream()
                           .map(OrderEntity::getOrderId)
-                          .collect(Collectors.joining(", ")));
-        } catch (Exception e) {
-            log.error("Error in batch-synchronous endpoint", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Error: " + e.getMessage());
-        }
+                          .collect(Collectors.joining(", "))))
+            .exceptionally(e -> errorResponse("batch-synchronous", e));
+    }
+    
+    private ResponseEntity<String> errorResponse(String endpoint, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Error in {} endpoint", endpoint, cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body("Error: " + cause.getMessage());
     }
     
     // Health check endpoint
@@ -4,11 +4,15 @@ import in.codefarm.order.service.as.producer.dto.PaymentResponse;
 import in.codefarm.order.service.as.producer.service.PaymentEventProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -17,63 +21,81 @@ public class PaymentController {
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
     
     private final PaymentEventProducer paymentEventProducer;
+    private final Executor kafkaAckExecutor;
     
-    public PaymentController(PaymentEventProducer paymentEventProducer) {
+    public PaymentController(
+        PaymentEventProducer paymentEventProducer,
+        @Qualifier("kafkaAckExecutor") Executor kafkaAckExecutor
+    ) {
         this.paymentEventProducer = paymentEventProducer;
+        this.kafkaAckExecutor = kafkaAckExecutor;
     }
     
     @PostMapping("/process/non-transactional")
-    public ResponseEntity<PaymentResponse> processPaymentNonTransactionally(
+    public CompletableFuture<ResponseEntity<PaymentResponse>> processPaymentNonTransactionally(
         @RequestBody PaymentRequest request
     ) {
-        try {
-            String transactionId = paymentEventProducer.processPaymentNonTransactionally(
-                request.orderId(),
-                request.customerId(),
-                request.amount()
-            );
-            return ResponseEntity.ok(PaymentResponse.success(request.orderId(), transactionId));
-        } catch (Exception e) {
-            log.error("Non-transactional payment processing failed for order: {}", request.orderId(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(PaymentResponse.error("Payment processing failed: " + e.getMessage(), request.orderId()));
-        }
+        return respond(request, "Non-transactional", paymentEventProducer.processPaymentNonTransactionallyAsync(
+            request.orderId(),
+            request.customerId(),
+            request.amount()
+        ));
     }
     
+    // The Kafka transaction is bound to the calling thread, so it still blocks - on a virtual thread
+    // of kafkaAckExecutor instead of a Tomcat worker
     @PostMapping("/process/transactional")
-    public ResponseEntity<PaymentResponse> processPaymentTransactionally(
+    public CompletableFuture<ResponseEntity<PaymentResponse>> processPaymentTransactionally(
         @RequestBody PaymentRequest request
     ) {
-        try {
-            String transactionId = paymentEventProducer.processPaymentTransactionally(
+        return respond(request, "Transactional", CompletableFuture.supplyAsync(
+            () -> paymentEventProducer.processPaymentTransactionally(
                 request.orderId(),
                 request.customerId(),
                 request.amount()
-            );
-            return ResponseEntity.ok(PaymentResponse.success(request.orderId(), transactionId));
-        } catch (Exception e) {
-            log.error("Transactional payment processing failed for order: {}", request.orderId(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(PaymentResponse.error("Payment processing failed: " + e.getMessage(), request.orderId()));
-        }
+            ),
+            kafkaAckExecutor
+        ));
     }
     
-    @PostMapping("/process")
-    public ResponseEntity<PaymentResponse> processPayment(
+    // Shares one Kafka transaction with other payments arriving in the same batching window
+    @PostMapping("/process/transactional-batch")
+    public CompletableFuture<ResponseEntity<PaymentResponse>> processPaymentTransactionallyBatched(
         @RequestBody PaymentRequest request
     ) {
-        try {
-            String transactionId = paymentEventProducer.processPaymentTransactionally(
+        return paymentEventProducer.processPaymentTransactionallyBatched(
                 request.orderId(),
                 request.customerId(),
                 request.amount()
-            );
-            return ResponseEntity.ok(PaymentResponse.success(request.orderId(), transactionId));
-        } catch (Exception e) {
-            log.error("Payment processing failed for order: {}", request.orderId(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(PaymentResponse.error("Payment processing failed: " + e.getMessage(), request.orderId()));
-        }
+            )
+            .thenApply(transactionId -> ResponseEntity.ok(PaymentResponse.success(request.orderId(), transactionId)))
+            .exceptionally(e -> {
+                log.error("Batched transactional payment processing failed for order: {}", request.orderId(), e);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(PaymentResponse.error("Payment processing failed: " + e.getMessage(), request.orderId()));
+            });
+    }
+    
+    @PostMapping("/process")
+    public CompletableFuture<ResponseEntity<PaymentResponse>> processPayment(
+        @RequestBody PaymentRequest request
+    ) {
+        return processPaymentTransactionally(request);
+    }
+    
+    private CompletableFuture<ResponseEntity<PaymentResponse>> respond(
+        PaymentRequest request,
+        String mode,
+        CompletableFuture<String> transactionId
+    ) {
+        return transactionId
+            .thenApply(id -> ResponseEntity.ok(PaymentResponse.success(request.orderId(), id)))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.error("{} payment processing failed for order: {}", mode, request.orderId(), cause);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(PaymentResponse.error("Payment processing failed: " + cause.getMessage(), request.orderId()));
+            });
     }
     
     public record PaymentRequest(
@@ -19,7 +19,8 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -32,15 +33,18 @@ public class OrderEventProducerService {
     private final KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
 //    private final KafkaTemplate<String, String> kafkaTemplateString;
     private final OrderRepository orderRepository;
+    private final Executor kafkaAckExecutor;
     
     public OrderEventProducerService(
             KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate,
 //            @Qualifier("kafkaTemplateString") KafkaTemplate<String, String> kafkaTemplateString,
-            OrderRepository orderRepository
+            OrderRepository orderRepository,
+            @Qualifier("kafkaAckExecutor") Executor kafkaAckExecutor
     ) {
         this.kafkaTemplate = kafkaTemplate;
 //        this.kafkaTemplateString = kafkaTemplateString;
         this.orderRepository = orderRepository;
+        this.kafkaAckExecutor = kafkaAckExecutor;
     }
     
     // Scenario 1: Fire-and-Forget (Async, No Wait)
@@ -58,66 +62,76 @@ public class OrderEventProducerService {
         return orderEntity;
     }
     
-    // Scenario 2: Synchronous Send (Wait for Result)
-    @Transactional
-    public OrderEntity sendSynchronously(OrderPlacedEvent event) throws Exception {
-        log.info("=== Synchronous Send: Sending order event {} ===", event.orderId());
-        
-        // Save to database
+    // Scenario 2c: Synchronous semantics without blocking - the future completes on the broker ack
+    // (or fails after timeoutSeconds when given). The order row is saved first and deleted again
+    // if the send fails, since no transaction is held open across the send.
+    public CompletableFuture<OrderEntity> sendAcknowledged(OrderPlacedEvent event, Long timeoutSeconds) {
+        log.info("=== Acknowledged Send: Sending order event {} ===", event.orderId());
+
         var orderEntity = saveOrderToDatabase(event);
-        
+        return awaitAcks(List.of(orderEntity), List.of(event), timeoutSeconds)
+            .thenApply(orderEntities -> orderEntity);
+    }
+
+    // Scenario 7c: Batch with synchronous semantics without blocking - all records are sent at once
+    // and the future completes when every one of them is acknowledged
+    public CompletableFuture<List<OrderEntity>> sendBatchAcknowledged(List<OrderPlacedEvent> events) {
+        log.info("=== Batch Acknowledged Send: Sending {} order events ===", events.size());
+
+        List<OrderEntity> orderEntities = new ArrayList<>();
         try {
-            // Send and wait for result (blocks until complete)
-            SendResult<String, OrderPlacedEvent> result = kafkaTemplate
-                .send(TOPIC_NAME, event.orderId(), event)
-                .get(); // .get() blocks until completion
-            
-            var metadata = result.getRecordMetadata();
-            log.info("=== Synchronous Send: Message sent successfully - Topic: {}, Partition: {}, Offset: {} ===",
-                metadata.topic(),
-                metadata.partition(),
-                metadata.offset());
-            
-            return orderEntity;
-            
-        } catch (ExecutionException e) {
-            log.error("=== Synchronous Send: Failed to send message for order {} ===", event.orderId(), e);
-            throw new Exception("Failed to send message", e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("=== Synchronous Send: Interrupted while sending message for order {} ===", event.orderId(), e);
-            throw new Exception("Interrupted", e);
+            for (OrderPlacedEvent event : events) {
+                orderEntities.add(saveOrderToDatabase(event));
+            }
+        } catch (Exception e) {
+            orderRepository.deleteAll(orderEntities);
+            return CompletableFuture.failedFuture(e);
         }
+        return awaitAcks(orderEntities, events, null);
     }
-    
-    // Scenario 2b: Synchronous Send with Timeout
-    @Transactional
-    public OrderEntity sendSynchronouslyWithTimeout(OrderPlacedEvent event, long timeoutSeconds) throws Exception {
-        log.info("=== Synchronous Send (Timeout {}s): Sending order event {} ===", timeoutSeconds, event.orderId());
-        
-        // Save to database
-        var orderEntity = saveOrderToDatabase(event);
-        
+
+    // Sends the events and completes once all are acknowledged; on a failure or timeout the orders are
+    // deleted and the future fails. Continuations run on kafkaAckExecutor, not on the producer I/O thread.
+    private CompletableFuture<List<OrderEntity>> awaitAcks(
+        List<OrderEntity> orderEntities,
+        List<OrderPlacedEvent> events,
+        Long timeoutSeconds
+    ) {
+        List<CompletableFuture<SendResult<String, OrderPlacedEvent>>> futures = new ArrayList<>();
         try {
-            SendResult<String, OrderPlacedEvent> result = kafkaTemplate
-                .send(TOPIC_NAME, event.orderId(), event)
-                .get(timeoutSeconds, TimeUnit.SECONDS); // Wait max timeoutSeconds
-            
-            log.info("=== Synchronous Send (Timeout): Message sent - Offset: {} ===",
-                result.getRecordMetadata().offset());
-            
-            return orderEntity;
-            
-        } catch (TimeoutException e) {
-            log.error("=== Synchronous Send (Timeout): Timeout sending message after {} seconds for order {} ===",
-                timeoutSeconds, event.orderId());
-            throw new Exception("Timeout sending message", e);
-        } catch (ExecutionException | InterruptedException e) {
-            log.error("=== Synchronous Send (Timeout): Error sending message for order {} ===", event.orderId(), e);
-            throw new Exception("Error sending message", e);
+            for (OrderPlacedEvent event : events) {
+                futures.add(kafkaTemplate.send(TOPIC_NAME, event.orderId(), event));
+            }
+        } catch (Exception e) {
+            futures.add(CompletableFuture.failedFuture(e));
         }
+
+        CompletableFuture<Void> acked = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        if (timeoutSeconds != null) {
+            acked = acked.orTimeout(timeoutSeconds, TimeUnit.SECONDS);
+        }
+        return acked.handleAsync((ignored, ex) -> {
+            if (ex == null) {
+                futures.forEach(future -> {
+                    var metadata = future.join().getRecordMetadata();
+                    log.info("=== Acknowledged Send: Message sent successfully - Topic: {}, Partition: {}, Offset: {} ===",
+                        metadata.topic(),
+                        metadata.partition(),
+                        metadata.offset());
+                });
+                return orderEntities;
+            }
+
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            log.error("=== Acknowledged Send: Failed to send {} order event(s), deleting the orders ===",
+                events.size(), cause);
+            orderRepository.deleteAll(orderEntities);
+            throw new CompletionException(cause instanceof TimeoutException
+                ? new Exception("Timeout sending message", cause)
+                : new Exception("Failed to send message", cause));
+        }, kafkaAckExecutor);
     }
-    
+
     // Scenario 3: Async with Callback (Recommended)
     @Transactional
     public OrderEntity sendWithCallback(OrderPlacedEvent event) {
@@ -294,7 +308,7 @@ public class OrderEventProducerService {
         }
         
         // Wait for all to complete
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
             .thenRun(() -> {
                 log.info("=== Batch Send: All {} messages sent successfully ===", events.size());
             })
@@ -307,44 +321,6 @@ public class OrderEventProducerService {
         return orderEntities;
     }
     
-    // Scenario 7b: Batch Send Synchronously
-    @Transactional
-    public List<OrderEntity> sendBatchSynchronously(List<OrderPlacedEvent> events) throws Exception {
-        log.info("=== Batch Send Synchronous: Sending {} order events ===", events.size());
-        
-        List<OrderEntity> orderEntities = new ArrayList<>();
-        List<SendResult<String, OrderPlacedEvent>> results = new ArrayList<>();
-        
-        // Save all to database
-        for (OrderPlacedEvent event : events) {
-            var orderEntity = saveOrderToDatabase(event);
-            orderEntities.add(orderEntity);
-        }
-        
-        log.info("=== Batch Send Synchronous: Saved {} orders to database ===", orderEntities.size());
-        
-        // Send all messages synchronously
-        for (OrderPlacedEvent event : events) {
-            try {
-                SendResult<String, OrderPlacedEvent> result = kafkaTemplate
-                    .send(TOPIC_NAME, event.orderId(), event)
-                    .get();
-                results.add(result);
-                log.info("=== Batch Send Synchronous: Sent order {} - Partition: {}, Offset: {} ===",
-                    event.orderId(),
-                    result.getRecordMetadata().partition(),
-                    result.getRecordMetadata().offset());
-            } catch (Exception e) {
-                log.error("=== Batch Send Synchronous: Failed to send event {} in batch ===",
-                    event.orderId(), e);
-                throw e;
-            }
-        }
-        
-        log.info("=== Batch Send Synchronous: All {} messages sent successfully ===", events.size());
-        return orderEntities;
-    }
-    
     // Helper method to save order to database
     private OrderEntity saveOrderToDatabase(OrderPlacedEvent event) {
         log.debug("Saving order {} to database", event.orderId());
@@ -2,19 +2,21 @@ package in.codefarm.order.service.as.producer.service;
 
 import in.codefarm.order.service.as.producer.event.OrderPlacedEvent;
 import in.codefarm.order.service.as.producer.event.PaymentProcessedEvent;
+import in.codefarm.order.service.as.producer.id.TimeOrderedIds;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 @Service
 public class PaymentEventProducer {
@@ -25,13 +27,19 @@ public class PaymentEventProducer {
     
     private final KafkaTemplate<String, Object> transactionalKafkaTemplate;
     private final KafkaTemplate<String, Object> nonTransactionalKafkaTemplate;
+    private final TransactionalPaymentBatcher transactionalPaymentBatcher;
+    private final Executor kafkaAckExecutor;
     
     public PaymentEventProducer(
         @Qualifier("transactionalKafkaTemplate") KafkaTemplate<String, Object> transactionalKafkaTemplate,
-        @Qualifier("nonTransactionalKafkaTemplate") KafkaTemplate<String, Object> nonTransactionalKafkaTemplate
+        @Qualifier("nonTransactionalKafkaTemplate") KafkaTemplate<String, Object> nonTransactionalKafkaTemplate,
+        TransactionalPaymentBatcher transactionalPaymentBatcher,
+        @Qualifier("kafkaAckExecutor") Executor kafkaAckExecutor
     ) {
         this.transactionalKafkaTemplate = transactionalKafkaTemplate;
         this.nonTransactionalKafkaTemplate = nonTransactionalKafkaTemplate;
+        this.transactionalPaymentBatcher = transactionalPaymentBatcher;
+        this.kafkaAckExecutor = kafkaAckExecutor;
 
         // Log transactional ID if available
         if (transactionalKafkaTemplate.getProducerFactory() instanceof DefaultKafkaProducerFactory) {
@@ -48,21 +56,74 @@ public class PaymentEventProducer {
         String customerId,
         java.math.BigDecimal amount
     ) {
-        String transactionId = UUID.randomUUID().toString();
+        String transactionId = TimeOrderedIds.newId();
         processPayment(orderId, customerId, amount, transactionId, transactionalKafkaTemplate);
         return transactionId;
     }
     
+    /**
+     * Same records and atomicity as processPaymentTransactionally, but the payment shares a
+     * Kafka transaction with other payments submitted in the same batching window.
+     * The returned future completes with the transactionId once that transaction commits.
+     */
+    public CompletableFuture<String> processPaymentTransactionallyBatched(
+        String orderId,
+        String customerId,
+        java.math.BigDecimal amount
+    ) {
+        // Validate before queueing so invalid requests never abort a shared batch
+        if (amount.compareTo(java.math.BigDecimal.ZERO) < 0) {
+            return CompletableFuture.failedFuture(new RuntimeException("Invalid amount - must be positive"));
+        }
+        String transactionId = TimeOrderedIds.newId();
+        return transactionalPaymentBatcher.submit(
+            transactionId,
+            ops -> sendPaymentRecords(orderId, customerId, amount, transactionId, ops)
+        );
+    }
+    
     public String processPaymentNonTransactionally(
         String orderId,
         String customerId,
         java.math.BigDecimal amount
     ) {
-        String transactionId = UUID.randomUUID().toString();
+        String transactionId = TimeOrderedIds.newId();
         processPayment(orderId, customerId, amount, transactionId, nonTransactionalKafkaTemplate);
         return transactionId;
     }
     
+    /**
+     * Non-blocking variant of processPaymentNonTransactionally: the order event is sent once the payment
+     * event is acknowledged (on kafkaAckExecutor, never from the producer I/O thread). The future completes
+     * with the transactionId, or fails where the blocking variant throws.
+     */
+    public CompletableFuture<String> processPaymentNonTransactionallyAsync(
+        String orderId,
+        String customerId,
+        java.math.BigDecimal amount
+    ) {
+        if (amount.compareTo(java.math.BigDecimal.ZERO) < 0) {
+            return CompletableFuture.failedFuture(new RuntimeException("Invalid amount - must be positive"));
+        }
+        String transactionId = TimeOrderedIds.newId();
+        var paymentEvent = createPaymentEvent(orderId, customerId, amount, transactionId);
+        
+        return nonTransactionalKafkaTemplate.send(PAYMENT_TOPIC, paymentEvent.paymentId(), paymentEvent)
+            .thenApplyAsync(result -> {
+                log.debug("Payment event sent - PaymentId: {}, TransactionId: {}, Partition: {}", 
+                    paymentEvent.paymentId(), transactionId, result.getRecordMetadata().partition());
+                
+                var orderEvent = createOrderEvent(orderId, customerId, amount, transactionId);
+                failIfAmountTooLarge(amount);
+                nonTransactionalKafkaTemplate.send(ORDER_TOPIC, orderId, orderEvent)
+                    .thenAccept(orderResult -> log.debug("Order event sent - OrderId: {}, TransactionId: {}, Partition: {}", 
+                        orderId, transactionId, orderResult.getRecordMetadata().partition()));
+                
+                log.info("Payment processing completed - OrderId: {}, TransactionId: {}", orderId, transactionId);
+                return transactionId;
+            }, kafkaAckExecutor);
+    }
+    
     private void processPayment(
         String orderId,
         String customerId,
@@ -77,15 +138,7 @@ public class PaymentEventProducer {
 
         
         // Create payment event
-        var paymentEvent = new PaymentProcessedEvent(
-            UUID.randomUUID().toString(),
-            orderId,
-            customerId,
-            amount,
-            "PROCESSED",
-            java.time.LocalDateTime.now(),
-            transactionId
-        );
+        var paymentEvent = createPaymentEvent(orderId, customerId, amount, transactionId);
         
         // Send payment event
         CompletableFuture<SendResult<String, Object>> paymentFuture = kafkaTemplate.send(
@@ -108,20 +161,10 @@ public class PaymentEventProducer {
         }
 
         // Create order event
-        var orderEvent = new OrderPlacedEvent(
-            orderId,
-            customerId,
-            "product-123",
-            1,
-            amount,
-            java.time.LocalDateTime.now(),
-            transactionId
-        );
+        var orderEvent = createOrderEvent(orderId, customerId, amount, transactionId);
 
         // Simulate failure for large amounts (non-transactional will show inconsistency)
-        if (amount.compareTo(new java.math.BigDecimal("1000")) > 0) {
-            throw new RuntimeException("Amount too large - order event failed");
-        }
+        failIfAmountTooLarge(amount);
 
         // Send order event
         CompletableFuture<SendResult<String, Object>> orderFuture = kafkaTemplate.send(
@@ -137,5 +180,63 @@ public class PaymentEventProducer {
         
         log.info("Payment processing completed - OrderId: {}, TransactionId: {}", orderId, transactionId);
     }
+    
+    /**
+     * Batched variant of processPayment: no blocking get() per record, the enclosing
+     * transaction commit is what flushes and acknowledges both records.
+     */
+    private void sendPaymentRecords(
+        String orderId,
+        String customerId,
+        java.math.BigDecimal amount,
+        String transactionId,
+        KafkaOperations<String, Object> ops
+    ) {
+        var paymentEvent = createPaymentEvent(orderId, customerId, amount, transactionId);
+        ops.send(PAYMENT_TOPIC, paymentEvent.paymentId(), paymentEvent);
+        
+        var orderEvent = createOrderEvent(orderId, customerId, amount, transactionId);
+        failIfAmountTooLarge(amount);
+        ops.send(ORDER_TOPIC, orderId, orderEvent);
+    }
+    
+    private PaymentProcessedEvent createPaymentEvent(
+        String orderId,
+        String customerId,
+        java.math.BigDecimal amount,
+        String transactionId
+    ) {
+        return new PaymentProcessedEvent(
+            TimeOrderedIds.newId(),
+            orderId,
+            customerId,
+            amount,
+            "PROCESSED",
+            java.time.LocalDateTime.now(),
+            transactionId
+        );
+    }
+    
+    private OrderPlacedEvent createOrderEvent(
+        String orderId,
+        String customerId,
+        java.math.BigDecimal amount,
+        String transactionId
+    ) {
+        return new OrderPlacedEvent(
+            orderId,
+            customerId,
+            "product-123",
+            1,
+            amount,
+            java.time.LocalDateTime.now(),
+            transactionId
+        );
+    }
+    
+    private void failIfAmountTooLarge(java.math.BigDecimal amount) {
+        if (amount.compareTo(new java.math.BigDecimal("1000")) > 0) {
+            throw new RuntimeException("Amount too large - order event failed");
+        }
+    }
 }
-
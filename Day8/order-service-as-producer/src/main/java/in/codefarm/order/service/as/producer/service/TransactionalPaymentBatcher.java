@@ -0,0 +1,164 @@
+package in.codefarm.order.service.as.producer.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transactional micro-batcher for payment processing.
+ *
+ * Instead of one Kafka transaction per payment (begin + commit + transaction markers
+ * for every request), payments submitted within a short window are written in ONE
+ * transaction and every caller's future is completed when that transaction commits.
+ *
+ * Atomicity per payment is preserved:
+ * 1. A batch is committed as a whole - either all records are visible to read_committed consumers or none
+ * 2. If the batch transaction aborts, each payment is retried in its own transaction
+ * 3. Only the payments that fail on their own are reported as failed to their callers
+ */
+@Component
+public class TransactionalPaymentBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionalPaymentBatcher.class);
+
+    private final KafkaTemplate<String, Object> transactionalKafkaTemplate;
+    private final BlockingQueue<PendingPayment> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final long lingerMs;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public TransactionalPaymentBatcher(
+        @Qualifier("transactionalKafkaTemplate") KafkaTemplate<String, Object> transactionalKafkaTemplate,
+        @Value("${payment.batch.max-size:100}") int maxBatchSize,
+        @Value("${payment.batch.linger-ms:5}") long lingerMs
+    ) {
+        this.transactionalKafkaTemplate = transactionalKafkaTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMs = lingerMs;
+        this.flusher = new Thread(this::runFlushLoop, "payment-tx-batcher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        log.info("Transactional payment batcher started - maxBatchSize: {}, lingerMs: {}", maxBatchSize, lingerMs);
+    }
+
+    /**
+     * Queue a unit of work for the next transaction.
+     *
+     * @param transactionId The id returned to the caller once the batch commits
+     * @param work Sends the records of ONE payment; throwing aborts the batch
+     * @return future completed with transactionId on commit, or exceptionally if this payment failed
+     */
+    public CompletableFuture<String> submit(String transactionId, Consumer<KafkaOperations<String, Object>> work) {
+        var pending = new PendingPayment(transactionId, work, new CompletableFuture<>());
+        if (!running) {
+            pending.future().completeExceptionally(new IllegalStateException("Payment batcher is shut down"));
+            return pending.future();
+        }
+        queue.add(pending);
+        return pending.future();
+    }
+
+    private void runFlushLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPayment first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+
+                // Linger: collect more payments until the window closes or the batch is full
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingPayment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Never let the flusher die - futures of the failed batch were already completed in flush()
+                log.error("Unexpected error in payment batch flusher", e);
+            }
+        }
+    }
+
+    private void flush(List<PendingPayment> batch) {
+        try {
+            transactionalKafkaTemplate.executeInTransaction(ops -> {
+                for (PendingPayment pending : batch) {
+                    pending.work().accept(ops);
+                }
+                return null;
+            });
+            batch.forEach(p -> p.future().complete(p.transactionId()));
+            log.debug("Committed payment batch - Size: {}", batch.size());
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(e);
+                return;
+            }
+            log.warn("Payment batch of {} aborted, retrying each payment in its own transaction - Error: {}",
+                batch.size(), e.getMessage());
+            retryIndividually(batch);
+        }
+    }
+
+    private void retryIndividually(List<PendingPayment> batch) {
+        for (PendingPayment pending : batch) {
+            try {
+                transactionalKafkaTemplate.executeInTransaction(ops -> {
+                    pending.work().accept(ops);
+                    return null;
+                });
+                pending.future().complete(pending.transactionId());
+            } catch (Exception e) {
+                log.error("Payment transaction aborted - TransactionId: {}", pending.transactionId(), e);
+                pending.future().completeExceptionally(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        PendingPayment pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new IllegalStateException("Payment batcher is shut down"));
+        }
+    }
+
+    private record PendingPayment(
+        String transactionId,
+        Consumer<KafkaOperations<String, Object>> work,
+        CompletableFuture<String> future
+    ) {
+    }
+}
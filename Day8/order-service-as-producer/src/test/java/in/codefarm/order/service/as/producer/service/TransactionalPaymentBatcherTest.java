@@ -0,0 +1,120 @@
+package in.codefarm.order.service.as.producer.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transactional Payment Batcher Unit Tests")
+class TransactionalPaymentBatcherTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private KafkaOperations<String, Object> operations;
+
+    private TransactionalPaymentBatcher batcher;
+
+    // Payments sent inside each executeInTransaction call, in call order (only the flusher thread writes)
+    private final List<List<String>> transactions = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should commit a full batch without waiting for the linger window")
+    void shouldFlushOnBatchSize() throws Exception {
+        runTransactions();
+        batcher = new TransactionalPaymentBatcher(kafkaTemplate, 3, TimeUnit.MINUTES.toMillis(1));
+
+        var first = batcher.submit("tx-1", record("tx-1"));
+        var second = batcher.submit("tx-2", record("tx-2"));
+        var third = batcher.submit("tx-3", record("tx-3"));
+
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+        assertThat(first).isCompletedWithValue("tx-1");
+        assertThat(third).isCompletedWithValue("tx-3");
+        assertThat(transactions).containsExactly(List.of("tx-1", "tx-2", "tx-3"));
+    }
+
+    @Test
+    @DisplayName("Should commit a partial batch once the linger window closes")
+    void shouldFlushOnLinger() throws Exception {
+        runTransactions();
+        batcher = new TransactionalPaymentBatcher(kafkaTemplate, 100, 50);
+
+        long start = System.nanoTime();
+        var future = batcher.submit("tx-1", record("tx-1"));
+
+        assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("tx-1");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(transactions).containsExactly(List.of("tx-1"));
+    }
+
+    @Test
+    @DisplayName("Should retry each payment of an aborted batch in its own transaction")
+    void shouldFallBackToPerRecordTransactions() throws Exception {
+        runTransactions();
+        batcher = new TransactionalPaymentBatcher(kafkaTemplate, 3, TimeUnit.MINUTES.toMillis(1));
+
+        var first = batcher.submit("tx-1", record("tx-1"));
+        var failing = batcher.submit("tx-2", ops -> {
+            throw new IllegalStateException("Amount too large");
+        });
+        var third = batcher.submit("tx-3", record("tx-3"));
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("tx-1");
+        assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("tx-3");
+        assertThat(failing).failsWithin(5, TimeUnit.SECONDS);
+
+        // Batch aborted at tx-2, then one transaction per payment
+        assertThat(transactions).containsExactly(
+            List.of("tx-1"),
+            List.of("tx-1"),
+            List.of(),
+            List.of("tx-3"));
+        verify(kafkaTemplate, times(4)).executeInTransaction(any());
+    }
+
+    /**
+     * Run each transaction callback against the mocked operations, recording the payments it sent;
+     * an exception from the callback propagates like an aborted transaction.
+     */
+    private void runTransactions() {
+        lenient().when(operations.send(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            transactions.get(transactions.size() - 1).add(invocation.getArgument(1));
+            return null;
+        });
+        when(kafkaTemplate.executeInTransaction(any())).thenAnswer(invocation -> {
+            KafkaOperations.OperationsCallback<String, Object, Object> callback = invocation.getArgument(0);
+            transactions.add(new ArrayList<>());
+            return callback.doInOperations(operations);
+        });
+    }
+
+    private static Consumer<KafkaOperations<String, Object>> record(String transactionId) {
+        return ops -> ops.send("payments", transactionId, transactionId);
+    }
+}
@@ -0,0 +1,50 @@
+package in.codefarm.saga.benchmark;
+
+import java.time.Duration;
+
+/**
+ * Benchmark knobs, read from -Dbenchmark.* system properties (passed through by the sagaBenchmark task).
+ * Thresholds of 0 disable the corresponding regression check.
+ */
+record BenchmarkSettings(
+    EntryPoint entryPoint,
+    int ordersPerSecond,
+    Duration warmup,
+    Duration measurement,
+    Duration drainTimeout,
+    int submitThreads,
+    double minThroughput,
+    long maxP99Ms,
+    double minCompletionRatio,
+    String reportDir
+) {
+
+    /**
+     * Where orders enter the saga.
+     * CONTROLLER: POST /api/orders over HTTP (includes servlet + JSON cost)
+     * PRODUCER: OrderService.createOrder + OrderEventProducer.sendOrderPlacedEvent in-process
+     */
+    enum EntryPoint {
+        CONTROLLER,
+        PRODUCER
+    }
+
+    static BenchmarkSettings fromSystemProperties() {
+        return new BenchmarkSettings(
+            EntryPoint.valueOf(System.getProperty("benchmark.entry-point", "producer").toUpperCase()),
+            Integer.getInteger("benchmark.rate", 200),
+            Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 5)),
+            Duration.ofSeconds(Long.getLong("benchmark.duration-seconds", 30)),
+            Duration.ofSeconds(Long.getLong("benchmark.drain-timeout-seconds", 60)),
+            Integer.getInteger("benchmark.submit-threads", 32),
+            Double.parseDouble(System.getProperty("benchmark.min-throughput", "0")),
+            Long.getLong("benchmark.max-p99-ms", 0),
+            Double.parseDouble(System.getProperty("benchmark.min-completion-ratio", "0.99")),
+            System.getProperty("benchmark.report-dir", "build/reports/saga-benchmark")
+        );
+    }
+
+    long totalOrders() {
+        return (long) ordersPerSecond * (warmup.toSeconds() + measurement.toSeconds());
+    }
+}
@@ -0,0 +1,89 @@
+package in.codefarm.saga.benchmark;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Samples consumer lag (log end offset - committed offset, summed over partitions) of the saga
+ * listener groups once per interval. Groups auto-commit every 5 s, so a single sample can
+ * over-state lag by up to one commit interval of traffic; the max over the run is what matters.
+ */
+class ConsumerLagSampler implements AutoCloseable {
+
+    private final Admin admin;
+    private final List<String> groups;
+    private final Map<String, Long> maxLag = new TreeMap<>();
+    private final Map<String, Long> lastLag = new TreeMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().daemon().name("saga-benchmark-lag").unstarted(runnable));
+
+    ConsumerLagSampler(Map<String, Object> adminConfig, List<String> groups) {
+        this.admin = Admin.create(adminConfig);
+        this.groups = groups;
+    }
+
+    void start(long intervalMs) {
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized Map<String, Long> maxLag() {
+        return new TreeMap<>(maxLag);
+    }
+
+    synchronized Map<String, Long> lastLag() {
+        return new TreeMap<>(lastLag);
+    }
+
+    void sample() {
+        try {
+            Map<String, ListConsumerGroupOffsetsSpec> specs = groups.stream()
+                .collect(Collectors.toMap(Function.identity(), group -> new ListConsumerGroupOffsetsSpec()));
+            var committedByGroup = admin.listConsumerGroupOffsets(specs).all().get(5, TimeUnit.SECONDS);
+
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            committedByGroup.values().forEach(committed -> committed.keySet()
+                .forEach(partition -> latest.put(partition, OffsetSpec.latest())));
+            if (latest.isEmpty()) {
+                return;
+            }
+            var endOffsets = admin.listOffsets(latest).all().get(5, TimeUnit.SECONDS);
+
+            synchronized (this) {
+                committedByGroup.forEach((group, committed) -> {
+                    long lag = 0;
+                    for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : committed.entrySet()) {
+                        if (entry.getValue() == null) {
+                            continue;
+                        }
+                        lag += Math.max(endOffsets.get(entry.getKey()).offset() - entry.getValue().offset(), 0);
+                    }
+                    lastLag.put(group, lag);
+                    maxLag.merge(group, lag, Math::max);
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // A missed sample only coarsens the lag series, never fails the run
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        admin.close();
+    }
+}
@@ -0,0 +1,129 @@
+package in.codefarm.saga.benchmark;
+
+import in.codefarm.saga.id.TimeOrderedIds;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput and on-disk size of an indexed id column: random UUID strings (what the services
+ * generated before) versus {@link TimeOrderedIds} as VARCHAR(26) and as BINARY(16).
+ *
+ * <p>Each variant gets its own file-based H2 database with a primary key on the id column, filled in
+ * JDBC batches of benchmark.id-batch rows. Size is the database file after SHUTDOWN COMPACT, i.e. the
+ * table plus its primary key index, reported per row.
+ *
+ * <p>Not part of {@code test}/{@code check} - run it with {@code ./gradlew idBenchmark -Dbenchmark.id-rows=1000000}.
+ * Results go to the log and to benchmark.report-dir/id-insert-benchmark.txt.
+ */
+@DisplayName("Id Insert Benchmark")
+class IdInsertBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(IdInsertBenchmark.class);
+
+    private record Result(String variant, int rows, double rowsPerSecond, long fileBytes) {
+
+        String line() {
+            return "  %-22s %,10.0f rows/s   %,12d bytes   %6.1f bytes/row".formatted(
+                variant, rowsPerSecond, fileBytes, (double) fileBytes / rows);
+        }
+    }
+
+    @TempDir
+    Path databaseDir;
+
+    @Test
+    @DisplayName("Should compare random UUIDs with time-ordered ids on an indexed column")
+    void runBenchmark() throws Exception {
+        int rows = Integer.getInteger("benchmark.id-rows", 200_000);
+        int batch = Integer.getInteger("benchmark.id-batch", 1_000);
+        String reportDir = System.getProperty("benchmark.report-dir", "build/reports/saga-benchmark");
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("random-uuid-varchar", "VARCHAR(36)", rows, batch,
+            (statement, id) -> statement.setString(1, id), () -> UUID.randomUUID().toString()));
+        results.add(run("time-ordered-varchar", "VARCHAR(26)", rows, batch,
+            (statement, id) -> statement.setString(1, id), TimeOrderedIds::newId));
+        results.add(run("time-ordered-binary", "BINARY(16)", rows, batch,
+            (statement, id) -> statement.setBytes(1, TimeOrderedIds.toBytes(id)), TimeOrderedIds::newId));
+
+        StringBuilder summary = new StringBuilder("Id insert benchmark (%,d rows, batches of %,d)%n".formatted(rows, batch));
+        results.forEach(result -> summary.append(result.line()).append(System.lineSeparator()));
+        log.warn("{}", summary);
+        write(reportDir, summary.toString());
+
+        assertThat(results).allSatisfy(result -> assertThat(result.fileBytes()).isPositive());
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement, String id) throws SQLException;
+    }
+
+    private Result run(String variant, String columnType, int rows, int batch, Binder binder, Supplier<String> ids)
+        throws SQLException {
+        String url = "jdbc:h2:file:" + databaseDir.resolve(variant).toAbsolutePath();
+        long elapsedNanos;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement ddl = connection.createStatement()) {
+                ddl.execute("CREATE TABLE ids (id " + columnType + " PRIMARY KEY, created_at BIGINT NOT NULL)");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO ids (id, created_at) VALUES (?, ?)")) {
+                long start = System.nanoTime();
+                for (int i = 1; i <= rows; i++) {
+                    binder.bind(insert, ids.get());
+                    insert.setLong(2, i);
+                    insert.addBatch();
+                    if (i % batch == 0 || i == rows) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                elapsedNanos = System.nanoTime() - start;
+            }
+            try (Statement count = connection.createStatement();
+                 ResultSet resultSet = count.executeQuery("SELECT COUNT(*) FROM ids")) {
+                resultSet.next();
+                assertThat(resultSet.getInt(1)).isEqualTo(rows);
+            }
+            try (Statement shutdown = connection.createStatement()) {
+                shutdown.execute("SHUTDOWN COMPACT");
+            }
+        }
+        long fileBytes = sizeOf(databaseDir.resolve(variant + ".mv.db"));
+        return new Result(variant, rows, rows * 1_000_000_000.0 / elapsedNanos, fileBytes);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the size of " + file, e);
+        }
+    }
+
+    private static void write(String reportDir, String summary) throws IOException {
+        Path dir = Path.of(reportDir);
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("id-insert-benchmark.txt"), summary);
+    }
+}
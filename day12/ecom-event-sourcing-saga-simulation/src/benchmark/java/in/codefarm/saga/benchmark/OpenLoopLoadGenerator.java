@@ -0,0 +1,75 @@
+package in.codefarm.saga.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop arrivals: order i is due at start + i / rate, whether or not earlier orders finished.
+ * The schedule thread only hands orders to a worker pool (unbounded queue), so a slow saga never
+ * delays the next arrival. Each order is measured from its intended arrival time, so time spent
+ * queued behind a stalled system counts as latency instead of being silently skipped.
+ */
+class OpenLoopLoadGenerator {
+
+    /**
+     * Submits one order. intendedStartNanos is the System.nanoTime() the order was due at.
+     */
+    @FunctionalInterface
+    interface OrderSubmitter {
+        void submit(long sequence, long intendedStartNanos) throws Exception;
+    }
+
+    private final int ordersPerSecond;
+    private final int submitThreads;
+    private final AtomicLong submitFailures = new AtomicLong();
+    private final AtomicLong maxScheduleLagNanos = new AtomicLong();
+
+    OpenLoopLoadGenerator(int ordersPerSecond, int submitThreads) {
+        this.ordersPerSecond = ordersPerSecond;
+        this.submitThreads = submitThreads;
+    }
+
+    /**
+     * Runs totalOrders arrivals starting at startNanos and waits for every submit call to return.
+     */
+    void run(long startNanos, long totalOrders, OrderSubmitter submitter) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ordersPerSecond;
+        ExecutorService workers = Executors.newFixedThreadPool(submitThreads);
+        try {
+            for (long i = 0; i < totalOrders; i++) {
+                long due = startNanos + i * intervalNanos;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    maxScheduleLagNanos.accumulateAndGet(-wait, Math::max);
+                }
+                long sequence = i;
+                workers.execute(() -> {
+                    try {
+                        submitter.submit(sequence, due);
+                    } catch (Exception e) {
+                        submitFailures.incrementAndGet();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(5, TimeUnit.MINUTES);
+        }
+    }
+
+    long submitFailures() {
+        return submitFailures.get();
+    }
+
+    /**
+     * How far the schedule thread itself fell behind (should stay near 0, else the rate is not being offered).
+     */
+    long maxScheduleLagMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxScheduleLagNanos.get());
+    }
+}
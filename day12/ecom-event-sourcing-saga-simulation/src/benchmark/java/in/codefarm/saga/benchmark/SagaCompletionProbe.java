@@ -0,0 +1,108 @@
+package in.codefarm.saga.benchmark;
+
+import in.codefarm.saga.event.EventHeaders;
+import in.codefarm.saga.event.EventWrapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Observes the last saga hop: an InventoryReserved record with status RESERVED on the inventory topic is
+ * the point the email service receives the order, so its arrival time ends the order's saga. Any other
+ * status (UNAVAILABLE) starts the compensation instead - those orders are kept apart as unavailable,
+ * neither completed nor still pending.
+ * Reads in its own consumer group, so it sees the same records as email-service-group without
+ * taking partitions away from it. Completion times are keyed by orderId (the record key) and only
+ * matched with arrival times after the run, so a completion seen before its submit returned is not lost.
+ */
+class SagaCompletionProbe implements AutoCloseable {
+
+    static final String GROUP_ID = "saga-benchmark-probe";
+    private static final String INVENTORY_TOPIC = "inventory";
+
+    private final Consumer<String, EventWrapper<?>> consumer;
+    private final Map<String, Long> completedAtNanos = new ConcurrentHashMap<>();
+    private final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicBoolean assigned = new AtomicBoolean();
+    private final Thread pollThread;
+
+    SagaCompletionProbe(ConsumerFactory<String, EventWrapper<?>> consumerFactory) {
+        this.consumer = consumerFactory.createConsumer(GROUP_ID, "probe");
+        this.consumer.subscribe(List.of(INVENTORY_TOPIC));
+        this.pollThread = Thread.ofPlatform().name("saga-benchmark-probe").start(this::pollLoop);
+    }
+
+    /**
+     * Waits until the probe owns its partitions, so no completion is missed at the start of the run.
+     */
+    void awaitAssignment(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!assigned.get() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        if (!assigned.get()) {
+            throw new IllegalStateException("Completion probe got no partitions within " + timeout);
+        }
+    }
+
+    private void pollLoop() {
+        try {
+            while (running.get()) {
+                var records = consumer.poll(Duration.ofMillis(100));
+                long now = System.nanoTime();
+                if (!consumer.assignment().isEmpty()) {
+                    assigned.set(true);
+                }
+                for (ConsumerRecord<String, EventWrapper<?>> record : records) {
+                    if (record.key() == null) {
+                        continue;
+                    }
+                    if ("RESERVED".equals(EventHeaders.read(record.headers(), EventHeaders.EVENT_STATUS))) {
+                        completedAtNanos.putIfAbsent(record.key(), now);
+                    } else {
+                        unavailable.add(record.key());
+                    }
+                }
+            }
+        } finally {
+            consumer.close();
+        }
+    }
+
+    /**
+     * @return when the order's last hop was received (System.nanoTime()), or null if not yet
+     */
+    Long completedAt(String orderId) {
+        return completedAtNanos.get(orderId);
+    }
+
+    /**
+     * @return true if inventory rejected the order, so its saga ends in compensation
+     */
+    boolean unavailable(String orderId) {
+        return unavailable.contains(orderId);
+    }
+
+    int completed() {
+        return completedAtNanos.size();
+    }
+
+    @Override
+    public void close() {
+        running.set(false);
+        try {
+            pollThread.join(Duration.ofSeconds(10));
+        } catch (InterruptedException e) {
+            // The poll loop still stops and closes the consumer on its own
+            Thread.currentThread().interrupt();
+        }
+    }
+}
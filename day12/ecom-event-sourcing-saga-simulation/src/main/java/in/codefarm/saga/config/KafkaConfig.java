@@ -1,6 +1,8 @@
 package in.codefarm.saga.config;
 
 import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.eventsourcing.OrderStateRecord;
+import in.codefarm.saga.tracing.SagaTracingProducerInterceptor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.TopicConfig;
@@ -16,6 +18,7 @@ import org.springframework.kafka.support.serializer.JacksonJsonSerializer;
 import tools.jackson.databind.SerializationFeature;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +28,12 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
     
+    @Value("${saga.exactly-once.enabled:false}")
+    private boolean exactlyOnceEnabled;
+    
+    @Value("${saga.exactly-once.transaction-id-prefix:saga-tx-}")
+    private String transactionIdPrefix;
+    
     @Bean
     public JsonMapper jsonMapper() {
         return JsonMapper.builder()
@@ -56,14 +65,47 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JacksonJsonSerializer.class);
         
         // Create factory with config and serializer
-        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), serializer);
+        var factory = new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), serializer);
+        
+        // Exactly-once mode: listener containers run each record in a Kafka transaction,
+        // sends from inside a listener join it (prefix must be unique per application instance)
+        if (exactlyOnceEnabled) {
+            factory.setTransactionIdPrefix(transactionIdPrefix);
+        }
+        return factory;
     }
     
     @Bean
     public KafkaTemplate<String, EventWrapper<?>> eventWrapperKafkaTemplate(
-        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory
+        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory,
+        SagaTracingProducerInterceptor sagaTracingProducerInterceptor
+    ) {
+        var template = new KafkaTemplate<>(eventWrapperProducerFactory);
+        // Sends outside a listener (e.g. REST controllers) still use a plain idempotent producer
+        template.setAllowNonTransactional(true);
+        // Saga latency headers (origin + hop send time) on every event
+        template.setProducerInterceptor(sagaTracingProducerInterceptor);
+        return template;
+    }
+    
+    /**
+     * Producer for the order-state topic (values are OrderStateRecord JSON written by the projector).
+     * Not transactional even in exactly-once mode: the projector waits for each send before its
+     * order-events record is committed, and a redelivery republishes the same state, which the
+     * compacted topic keeps once.
+     */
+    @Bean
+    public ProducerFactory<String, OrderStateRecord> orderStateProducerFactory(JsonMapper jsonMapper) {
+        Map<String, Object> configProps = baseProducerConfigs();
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JacksonJsonSerializer.class);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), new JacksonJsonSerializer<>(jsonMapper));
+    }
+    
+    @Bean
+    public KafkaTemplate<String, OrderStateRecord> orderStateKafkaTemplate(
+        ProducerFactory<String, OrderStateRecord> orderStateProducerFactory
     ) {
-        return new KafkaTemplate<>(eventWrapperProducerFactory);
+        return new KafkaTemplate<>(orderStateProducerFactory);
     }
     
     // ========== Topic Configuration ==========
@@ -113,5 +155,21 @@ public class KafkaConfig {
             .config(TopicConfig.CLEANUP_POLICY_CONFIG, "delete")  // DELETE policy (NOT compact!)
             .build();
     }
+    
+    /**
+     * Order State Topic - latest OrderState per orderId (current-state view)
+     * Configuration:
+     * - COMPACT cleanup policy - only the newest record per orderId is kept,
+     *   so the topic size follows the number of orders, not the number of events
+     * - Same partition count as order-events
+     */
+    @Bean
+    public NewTopic orderStateTopic() {
+        return TopicBuilder.name("order-state")
+            .partitions(6)
+            .compact()
+            .config(TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.1")  // Compact eagerly, keep bootstrap reads short
+            .config(TopicConfig.SEGMENT_MS_CONFIG, String.valueOf(Duration.ofHours(1).toMillis()))  // Roll segments so they can be compacted
+            .build();
+    }
 }
-
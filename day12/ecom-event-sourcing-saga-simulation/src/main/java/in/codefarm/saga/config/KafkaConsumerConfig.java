@@ -1,7 +1,15 @@
 package in.codefarm.saga.config;
 
 import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import in.codefarm.saga.fanout.SagaFanOut;
+import in.codefarm.saga.filtering.SagaEventDeserializer;
+import in.codefarm.saga.filtering.SkippedEventFilterStrategy;
+import in.codefarm.saga.tracing.SagaTracingRecordInterceptor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,9 +17,13 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.support.serializer.JacksonJsonDeserializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,6 +33,9 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
     
+    @Value("${saga.exactly-once.enabled:false}")
+    private boolean exactlyOnceEnabled;
+    
     @Bean("consumerJsonMapper")
     public JsonMapper consumerJsonMapper() {
         return JsonMapper.builder()
@@ -33,38 +48,157 @@ public class KafkaConsumerConfig {
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        
+        // Exactly-once mode: offsets are committed through the producer transaction,
+        // and only committed (non-aborted) records are visible to the listeners
+        if (exactlyOnceEnabled) {
+            configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
         return configProps;
     }
     
     @Bean
-    public ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory(
-        @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
-        JsonMapper consumerJsonMapper
-    ) {
+    public ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory(JsonMapper consumerJsonMapper) {
         Map<String, Object> configProps = baseConsumerConfigs();
         
-        // Create deserializer with JsonMapper in constructor (Spring Boot 4 expects JsonMapper)
-        JacksonJsonDeserializer<EventWrapper<?>> deserializer = 
-            new JacksonJsonDeserializer<>(EventWrapper.class, consumerJsonMapper);
-        deserializer.addTrustedPackages("*");
-        
-        // Set the deserializer class in config
-        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JacksonJsonDeserializer.class);
+        // Deserializer set by class (not instance) so each consumer gets its own, configured with
+        // the listener's group.id - it skips parsing records the group's header filter rejects
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, SagaEventDeserializer.class);
+        configProps.put(SagaEventDeserializer.JSON_MAPPER_CONFIG, consumerJsonMapper);
         
-        // Create factory with config and deserializer
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), deserializer);
+        return new DefaultKafkaConsumerFactory<>(configProps);
     }
     
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> eventWrapperKafkaListenerContainerFactory(
-        ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory
+        ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory,
+        ProducerFactory<String, EventWrapper<?>> eventWrapperProducerFactory,
+        ProcessedEventStore processedEventStore,
+        SagaTracingRecordInterceptor sagaTracingRecordInterceptor
     ) {
         ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(eventWrapperConsumerFactory);
+        // Per-hop and end-to-end saga latency, origin carried to the events the listener sends
+        factory.setRecordInterceptor(sagaTracingRecordInterceptor);
+        // Drop records the deserializer skipped (header filter) before the listener is invoked
+        factory.setRecordFilterStrategy(new SkippedEventFilterStrategy());
+        factory.setAckDiscarded(true);
+        
+        if (exactlyOnceEnabled) {
+            // Consume-transform-produce in one Kafka transaction: the container begins the transaction,
+            // listener sends join it, and the consumed offset is sent to the same transaction on commit.
+            // Not registered as a bean so the JPA transaction manager stays the default one.
+            factory.getContainerProperties().setKafkaAwareTransactionManager(
+                new KafkaTransactionManager<>(eventWrapperProducerFactory));
+        }
+        
+        // Keep the dedup store partition-scoped: rebuild what we gain, drop what we lose
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsRevoked(consumer.groupMetadata().groupId(), partitions);
+            }
+            
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsRevoked(consumer.groupMetadata().groupId(), partitions);
+            }
+            
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                processedEventStore.onPartitionsAssigned(consumer.groupMetadata().groupId(), partitions,
+                    topic -> consumer.partitionsFor(topic).size());
+            }
+        });
         return factory;
     }
     
+    /**
+     * Container factory for the single-fetch fan-out consumer (see SagaFanOut). Its group has no header
+     * filter, so each record is parsed once for all handlers; offsets per handler group are kept by SagaFanOut.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> fanOutKafkaListenerContainerFactory(
+        ConsumerFactory<String, EventWrapper<?>> eventWrapperConsumerFactory,
+        SagaTracingRecordInterceptor sagaTracingRecordInterceptor,
+        SagaFanOut sagaFanOut
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, EventWrapper<?>> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventWrapperConsumerFactory);
+        factory.setRecordInterceptor(sagaTracingRecordInterceptor);
+        factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                sagaFanOut.onPartitionsRevoked(partitions);
+            }
+    
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                sagaFanOut.onPartitionsRevoked(partitions);
+            }
+    
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                sagaFanOut.onPartitionsAssigned(consumer, partitions);
+            }
+        });
+        return factory;
+    }
+    
+    /**
+     * Consumer factory for bulk replay - one short-lived, assign-only consumer per scanned partition,
+     * so partitions can be replayed in parallel (the shared replayKafkaConsumer is single-threaded).
+     */
+    @Bean("replayConsumerFactory")
+    public ConsumerFactory<String, EventWrapper<?>> replayConsumerFactory(
+        JsonMapper consumerJsonMapper,
+        @Value("${replay.bulk.max-poll-records:2000}") int maxPollRecords
+    ) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        
+        JacksonJsonDeserializer<EventWrapper<?>> deserializer = 
+            new JacksonJsonDeserializer<>(EventWrapper.class, consumerJsonMapper);
+        deserializer.addTrustedPackages("*");
+        
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(), deserializer);
+    }
+    
+    /**
+     * Consumer factory for reading the compacted order-state topic on startup (assign-only, String JSON values).
+     */
+    @Bean("orderStateConsumerFactory")
+    public ConsumerFactory<String, String> orderStateConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+    
+    /**
+     * Consumer factory for the local event store tail consumer (assign-only, raw byte[] values -
+     * events are stored as-is and only decoded when a replay needs them).
+     */
+    @Bean("localEventStoreConsumerFactory")
+    public ConsumerFactory<String, byte[]> localEventStoreConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+    
     /**
      * Kafka Consumer for Event Replay operations.
      * This consumer is configured for replaying events from the beginning.
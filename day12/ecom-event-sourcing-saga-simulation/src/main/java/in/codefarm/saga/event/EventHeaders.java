@@ -0,0 +1,54 @@
+package in.codefarm.saga.event;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Routing fields copied from the event into Kafka headers, so consumers can decide whether
+ * a record is relevant without parsing its JSON value:
+ * - saga-event-type: metadata().eventType(), e.g. "OrderPlaced"
+ * - saga-event-status: payload status where the event has one (PaymentProcessed, InventoryReserved)
+ */
+public final class EventHeaders {
+
+    public static final String EVENT_TYPE = "saga-event-type";
+    public static final String EVENT_STATUS = "saga-event-status";
+
+    private EventHeaders() {
+    }
+
+    /**
+     * Saga event record for the given topic and key, with the routing headers set.
+     */
+    public static ProducerRecord<String, EventWrapper<?>> record(String topic, String key, EventWrapper<?> event) {
+        var record = new ProducerRecord<String, EventWrapper<?>>(topic, key, event);
+        write(record.headers(), EVENT_TYPE, event.metadata().eventType());
+        write(record.headers(), EVENT_STATUS, statusOf(event.payload()));
+        return record;
+    }
+
+    /**
+     * @return the header value, or null if the record does not carry it
+     */
+    public static String read(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static void write(Headers headers, String name, String value) {
+        if (value != null) {
+            headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String statusOf(Object payload) {
+        return switch (payload) {
+            case PaymentProcessedEvent event -> event.status();
+            case InventoryReservedEvent event -> event.status();
+            case null, default -> null;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package in.codefarm.saga.event;
+
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Partition of a record key, computed like the producer's default partitioner (murmur2 of the UTF-8 key),
+ * so a reader can go straight to the partition of an order instead of scanning every partition.
+ */
+public final class EventPartitions {
+
+    private EventPartitions() {
+    }
+
+    public static int partitionFor(String key, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+}
@@ -0,0 +1,22 @@
+package in.codefarm.saga.eventsourcing;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Request DTO for bulk replay - explicit orderIds, or a customerId and/or creation time range.
+ */
+public record BulkReplayRequest(
+    Set<String> orderIds,
+    String customerId,
+    LocalDateTime from,
+    LocalDateTime to
+) {
+    public boolean hasOrderIds() {
+        return orderIds != null && !orderIds.isEmpty();
+    }
+    
+    public boolean hasFilter() {
+        return customerId != null || from != null || to != null;
+    }
+}
@@ -0,0 +1,218 @@
+package in.codefarm.saga.eventsourcing;
+
+import in.codefarm.saga.event.EventPartitions;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.order.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk Replay Service - Reconstructs the state of many orders in one pass over the event store.
+ * 
+ * Instead of one full-topic scan per order:
+ * 1. Orders are grouped by owning partition (events are keyed by orderId)
+ * 2. Each needed partition is scanned once, from the oldest latest-snapshot offset of its orders
+ *    (or the beginning if any order has no snapshot), partitions in parallel
+ * 3. Events are folded into a map of OrderStates, and each partition's states are handed
+ *    to the caller as soon as its scan completes
+ */
+@Service
+public class BulkReplayService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkReplayService.class);
+    private static final String EVENT_STORE_TOPIC = "order-events";
+    private static final int SNAPSHOT_LOOKUP_CHUNK = 1000;
+    
+    private final ConsumerFactory<String, EventWrapper<?>> replayConsumerFactory;
+    private final OrderSnapshotRepository snapshotRepository;
+    private final OrderRepository orderRepository;
+    private final JsonMapper jsonMapper;
+    private final ExecutorService executor;
+    private final int maxOrders;
+    
+    public BulkReplayService(
+        @Qualifier("replayConsumerFactory") ConsumerFactory<String, EventWrapper<?>> replayConsumerFactory,
+        OrderSnapshotRepository snapshotRepository,
+        OrderRepository orderRepository,
+        JsonMapper jsonMapper,
+        @Value("${replay.bulk.parallelism:4}") int parallelism,
+        @Value("${replay.bulk.max-orders:10000}") int maxOrders
+    ) {
+        this.replayConsumerFactory = replayConsumerFactory;
+        this.snapshotRepository = snapshotRepository;
+        this.orderRepository = orderRepository;
+        this.jsonMapper = jsonMapper;
+        this.maxOrders = maxOrders;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "bulk-replay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public int getMaxOrders() {
+        return maxOrders;
+    }
+    
+    /**
+     * Order ids selected by the request - the explicit ids, or the orders matching the filter.
+     * At most maxOrders + 1 ids are returned, so callers can reject oversized requests.
+     */
+    public Set<String> resolveOrderIds(BulkReplayRequest request) {
+        if (request.hasOrderIds()) {
+            return request.orderIds();
+        }
+        return new LinkedHashSet<>(orderRepository.findOrderIds(
+            request.customerId(), request.from(), request.to(), Limit.of(maxOrders + 1)));
+    }
+    
+    /**
+     * Replay the given orders - one scan per owning partition, partitions in parallel.
+     * 
+     * @param orderIds Orders to replay
+     * @param sink Receives the states of one partition at a time, in completion order (called on the caller's thread)
+     */
+    public void replayOrders(Collection<String> orderIds, java.util.function.Consumer<Collection<OrderState>> sink) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        int partitionCount;
+        try (Consumer<String, EventWrapper<?>> consumer = replayConsumerFactory.createConsumer()) {
+            partitionCount = consumer.partitionsFor(EVENT_STORE_TOPIC).size();
+        }
+        
+        Map<String, OrderSnapshot> snapshots = findLatestSnapshots(orderIds);
+        Map<Integer, List<String>> byPartition = orderIds.stream()
+            .collect(Collectors.groupingBy(orderId -> EventPartitions.partitionFor(orderId, partitionCount)));
+        log.info("Bulk replay of {} orders across {} partitions ({} snapshots)", 
+            orderIds.size(), byPartition.size(), snapshots.size());
+        
+        CompletionService<Collection<OrderState>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Collection<OrderState>>> scans = new ArrayList<>();
+        byPartition.forEach((partition, partitionOrderIds) ->
+            scans.add(completionService.submit(() -> replayPartition(partition, partitionOrderIds, snapshots))));
+        
+        try {
+            for (int i = 0; i < scans.size(); i++) {
+                sink.accept(completionService.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk replay interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bulk replay failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            scans.forEach(scan -> scan.cancel(true));
+        }
+    }
+    
+    private Collection<OrderState> replayPartition(int partition, List<String> orderIds, Map<String, OrderSnapshot> snapshots) {
+        Map<String, OrderState> states = new HashMap<>();
+        Map<String, Long> snapshotOffsets = new HashMap<>();
+        long startOffset = Long.MAX_VALUE;
+        boolean fromBeginning = false;
+        for (String orderId : orderIds) {
+            OrderState state = restore(snapshots.get(orderId));
+            if (state == null) {
+                state = new OrderState(orderId, jsonMapper);
+                fromBeginning = true;
+            } else {
+                long snapshotOffset = snapshots.get(orderId).getEventOffset();
+                snapshotOffsets.put(orderId, snapshotOffset);
+                startOffset = Math.min(startOffset, snapshotOffset + 1);
+            }
+            states.put(orderId, state);
+        }
+        
+        var topicPartition = new TopicPartition(EVENT_STORE_TOPIC, partition);
+        int eventsApplied = 0;
+        try (Consumer<String, EventWrapper<?>> consumer = replayConsumerFactory.createConsumer()) {
+            consumer.assign(List.of(topicPartition));
+            if (fromBeginning) {
+                consumer.seekToBeginning(List.of(topicPartition));
+            } else {
+                consumer.seek(topicPartition, startOffset);
+            }
+            long endOffset = consumer.endOffsets(List.of(topicPartition)).get(topicPartition);
+            
+            while (consumer.position(topicPartition) < endOffset) {
+                ConsumerRecords<String, EventWrapper<?>> records = consumer.poll(Duration.ofSeconds(1));
+                if (records.isEmpty()) {
+                    break;
+                }
+                
+                for (ConsumerRecord<String, EventWrapper<?>> record : records) {
+                    OrderState state = states.get(record.key());
+                    if (state == null || record.offset() <= snapshotOffsets.getOrDefault(record.key(), -1L)) {
+                        continue;
+                    }
+                    state.apply(record.value());
+                    eventsApplied++;
+                }
+            }
+        }
+        
+        log.info("Bulk replay of partition {} done - orders: {}, events applied: {}", partition, orderIds.size(), eventsApplied);
+        return states.values();
+    }
+    
+    private Map<String, OrderSnapshot> findLatestSnapshots(Collection<String> orderIds) {
+        Map<String, OrderSnapshot> snapshots = new HashMap<>();
+        List<String> ids = List.copyOf(orderIds);
+        for (int i = 0; i < ids.size(); i += SNAPSHOT_LOOKUP_CHUNK) {
+            snapshotRepository.findLatestByOrderIdIn(ids.subList(i, Math.min(i + SNAPSHOT_LOOKUP_CHUNK, ids.size())))
+                .forEach(snapshot -> snapshots.put(snapshot.getOrderId(), snapshot));
+        }
+        return snapshots;
+    }
+    
+    private OrderState restore(OrderSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            OrderState state = jsonMapper.readValue(snapshot.getStateJson(), OrderState.class);
+            state.setJsonMapper(jsonMapper);
+            return state;
+        } catch (Exception e) {
+            log.warn("Failed to deserialize snapshot for order: {}, replaying from the beginning", snapshot.getOrderId(), e);
+            return null;
+        }
+    }
+    
+    
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,12 @@
+package in.codefarm.saga.eventsourcing;
+
+/**
+ * Thrown when the event store has too many appends in flight (broker lagging) and no slot
+ * became free within event-store.append.max-block-ms.
+ */
+public class EventAppendRejectedException extends RuntimeException {
+    
+    public EventAppendRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,17 +1,30 @@
 package in.codefarm.saga.eventsourcing;
 
+import in.codefarm.saga.event.EventHeaders;
 import in.codefarm.saga.event.EventWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Event Store Service - Publishes all events to order-events topic for event sourcing.
  * This topic serves as the event store where all events are persisted for replay.
+ * 
+ * Saga events are published together with their event store append as one pipelined operation:
+ * 1. Both sends go into the same producer back to back, so they share its batches (linger.ms / batch.size)
+ * 2. In-flight appends are bounded - when the broker lags, callers wait up to max-block-ms for a slot
+ *    and are then rejected with EventAppendRejectedException instead of queueing without limit
+ * 3. The returned future completes once both topics acknowledged, failures are counted, not just logged
+ * Inside a Kafka transaction (exactly-once listeners) both sends join it, so they commit or abort together.
+ * Records carry the event type and status as headers (EventHeaders) so consumers can filter without parsing.
  */
 @Service
 public class EventStoreService {
@@ -20,40 +33,128 @@ public class EventStoreService {
     private static final String EVENT_STORE_TOPIC = "order-events";
     
     private final KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+    private final int maxInFlight;
+    private final long maxBlockMs;
+    private final Semaphore inFlightPermits;
+    private final AtomicLong failedAppends = new AtomicLong();
+    private final AtomicLong rejectedAppends = new AtomicLong();
     
-    public EventStoreService(KafkaTemplate<String, EventWrapper<?>> kafkaTemplate) {
+    public EventStoreService(
+        KafkaTemplate<String, EventWrapper<?>> kafkaTemplate,
+        @Value("${event-store.append.max-in-flight:10000}") int maxInFlight,
+        @Value("${event-store.append.max-block-ms:2000}") long maxBlockMs
+    ) {
         this.kafkaTemplate = kafkaTemplate;
+        this.maxInFlight = maxInFlight;
+        this.maxBlockMs = maxBlockMs;
+        this.inFlightPermits = new Semaphore(maxInFlight);
     }
     
     /**
-     * Append event to event store (order-events topic).
+     * Publish a saga event to its topic and append it to the event store (order-events topic).
      * Key: orderId (ensures all events for same order are in same partition)
      * Value: EventWrapper (contains event metadata and payload)
      * 
+     * @param sagaTopic The saga topic the event is published to (orders, payments, inventory)
      * @param orderId The order ID (used as Kafka key for partitioning)
      * @param event The event wrapper containing metadata and payload
+     * @return Completes when both records are acknowledged, exceptionally if either send failed
+     * @throws EventAppendRejectedException if no in-flight slot became free within max-block-ms
      */
-    public void appendEvent(String orderId, EventWrapper<?> event) {
+    public CompletableFuture<Void> publish(String sagaTopic, String orderId, EventWrapper<?> event) {
+        acquire(orderId, event);
+        try {
+            var sagaSend = kafkaTemplate.send(EventHeaders.record(sagaTopic, orderId, event))
+                .whenComplete((result, ex) -> logResult(sagaTopic, orderId, event, result, ex));
+            var storeSend = kafkaTemplate.send(EventHeaders.record(EVENT_STORE_TOPIC, orderId, event))
+                .whenComplete((result, ex) -> logResult(EVENT_STORE_TOPIC, orderId, event, result, ex));
+            return CompletableFuture.allOf(sagaSend, storeSend)
+                .whenComplete((result, ex) -> inFlightPermits.release());
+        } catch (RuntimeException e) {
+            // Send rejected before reaching the producer buffer (e.g. serialization, metadata timeout)
+            inFlightPermits.release();
+            failedAppends.incrementAndGet();
+            log.error("Failed to publish event - Topic: {}, OrderId: {}, EventType: {}", 
+                sagaTopic, orderId, event.metadata().eventType(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Append event to event store (order-events topic) only.
+     * 
+     * @param orderId The order ID (used as Kafka key for partitioning)
+     * @param event The event wrapper containing metadata and payload
+     * @return Completes when the record is acknowledged
+     * @throws EventAppendRejectedException if no in-flight slot became free within max-block-ms
+     */
+    public CompletableFuture<Void> appendEvent(String orderId, EventWrapper<?> event) {
         log.debug("Appending event to event store - OrderId: {}, EventType: {}", 
             orderId, event.metadata().eventType());
         
-        CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(EVENT_STORE_TOPIC, orderId, event);
-        
-        future.thenAccept(result -> {
-            var recordMetadata = result.getRecordMetadata();
-            log.debug("Event appended to event store - OrderId: {}, EventType: {}, Partition: {}, Offset: {}", 
-                orderId, 
-                event.metadata().eventType(),
-                recordMetadata.partition(), 
-                recordMetadata.offset());
-        });
-        
-        future.exceptionally(ex -> {
+        acquire(orderId, event);
+        try {
+            return kafkaTemplate.send(EventHeaders.record(EVENT_STORE_TOPIC, orderId, event))
+                .whenComplete((result, ex) -> {
+                    inFlightPermits.release();
+                    logResult(EVENT_STORE_TOPIC, orderId, event, result, ex);
+                })
+                .thenApply(result -> null);
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            failedAppends.incrementAndGet();
             log.error("Failed to append event to event store - OrderId: {}, EventType: {}", 
-                orderId, event.metadata().eventType(), ex);
-            return null;
-        });
+                orderId, event.metadata().eventType(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Appends sent but not yet acknowledged by the broker.
+     */
+    public int inFlight() {
+        return maxInFlight - inFlightPermits.availablePermits();
+    }
+    
+    public long failedAppends() {
+        return failedAppends.get();
+    }
+    
+    public long rejectedAppends() {
+        return rejectedAppends.get();
+    }
+    
+    private void acquire(String orderId, EventWrapper<?> event) {
+        boolean acquired;
+        try {
+            acquired = inFlightPermits.tryAcquire(maxBlockMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedAppends.incrementAndGet();
+            log.warn("Event store backpressure - {} appends in flight, rejecting OrderId: {}, EventType: {}", 
+                maxInFlight, orderId, event.metadata().eventType());
+            throw new EventAppendRejectedException(
+                "Event store has " + maxInFlight + " appends in flight, rejected after " + maxBlockMs + " ms");
+        }
+    }
+    
+    private void logResult(String topic, String orderId, EventWrapper<?> event, 
+                           SendResult<String, EventWrapper<?>> result, Throwable ex) {
+        if (ex != null) {
+            failedAppends.incrementAndGet();
+            log.error("Failed to publish event - Topic: {}, OrderId: {}, EventType: {}", 
+                topic, orderId, event.metadata().eventType(), ex);
+            return;
+        }
+        var recordMetadata = result.getRecordMetadata();
+        log.debug("Event published - Topic: {}, OrderId: {}, EventType: {}, Partition: {}, Offset: {}", 
+            topic, 
+            orderId, 
+            event.metadata().eventType(),
+            recordMetadata.partition(), 
+            recordMetadata.offset());
     }
 }
-
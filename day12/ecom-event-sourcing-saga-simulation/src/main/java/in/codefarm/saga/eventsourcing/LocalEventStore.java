@@ -0,0 +1,217 @@
+package in.codefarm.saga.eventsourcing;
+
+import in.codefarm.saga.event.EventWrapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Local Event Store - Optional on-disk tier of order-events used by the replay paths.
+ * 
+ * A background tail consumer copies every order-events partition into a LocalPartitionLog
+ * (segmented, memory-mapped files with sparse offset and orderId indexes). Replays that fall
+ * inside what has been copied are served locally: only the records of the requested orders are
+ * JSON-decoded, and nothing is fetched from the broker. Anything else falls back to the broker.
+ * 
+ * The local copy is tied to the topic id, so a recreated topic starts a fresh copy.
+ */
+@Component
+public class LocalEventStore {
+    
+    private static final Logger log = LoggerFactory.getLogger(LocalEventStore.class);
+    private static final String EVENT_STORE_TOPIC = "order-events";
+    private static final String TOPIC_ID_FILE = "topic-id";
+    
+    /**
+     * A record of one of the requested orders, served from the local copy.
+     */
+    public record LocalRecord(long offset, String orderId, EventWrapper<?> event) {
+    }
+    
+    private final boolean enabled;
+    private final Path dir;
+    private final long segmentBytes;
+    private final int indexIntervalBytes;
+    private final ConsumerFactory<String, byte[]> tailConsumerFactory;
+    private final KafkaAdmin kafkaAdmin;
+    private final JsonMapper jsonMapper;
+    private final Map<Integer, LocalPartitionLog> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong localReads = new AtomicLong();
+    private volatile boolean running;
+    private volatile Consumer<String, byte[]> tailConsumer;
+    private Thread tailThread;
+    
+    public LocalEventStore(
+        @Value("${event-store.local-cache.enabled:false}") boolean enabled,
+        @Value("${event-store.local-cache.dir:${java.io.tmpdir}/order-events-cache}") String dir,
+        @Value("${event-store.local-cache.segment-bytes:67108864}") long segmentBytes,
+        @Value("${event-store.local-cache.index-interval-bytes:4096}") int indexIntervalBytes,
+        @Qualifier("localEventStoreConsumerFactory") ConsumerFactory<String, byte[]> tailConsumerFactory,
+        KafkaAdmin kafkaAdmin,
+        @Qualifier("consumerJsonMapper") JsonMapper jsonMapper
+    ) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentBytes = segmentBytes;
+        this.indexIntervalBytes = indexIntervalBytes;
+        this.tailConsumerFactory = tailConsumerFactory;
+        this.kafkaAdmin = kafkaAdmin;
+        this.jsonMapper = jsonMapper;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Number of replays served from the local copy.
+     */
+    public long localReads() {
+        return localReads.get();
+    }
+    
+    /**
+     * Offset the local copy of a partition has reached (-1 if nothing was copied yet).
+     */
+    public long localEndOffset(int partition) {
+        LocalPartitionLog partitionLog = partitions.get(partition);
+        return partitionLog == null ? -1 : partitionLog.nextOffset();
+    }
+    
+    /**
+     * Visit the events of the given orders with fromOffset <= offset < untilOffset (fromOffset -1 = from the start)
+     * from the local copy. The action returns false to stop early.
+     * 
+     * @return bytes scanned locally, or -1 if the local copy doesn't cover the range yet (read from the broker instead)
+     */
+    public long read(int partition, long fromOffset, long untilOffset, Set<String> orderIds, Predicate<LocalRecord> action) {
+        LocalPartitionLog partitionLog = running ? partitions.get(partition) : null;
+        if (partitionLog == null) {
+            return -1;
+        }
+        long bytesScanned = partitionLog.read(fromOffset, untilOffset, orderIds,
+            (offset, key, value) -> !value.hasRemaining() || action.test(new LocalRecord(offset, key, decode(value))));
+        if (bytesScanned >= 0) {
+            localReads.incrementAndGet();
+        }
+        return bytesScanned;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(dir);
+        String topicId = topicId();
+        Path topicIdFile = dir.resolve(TOPIC_ID_FILE);
+        boolean sameTopic = Files.exists(topicIdFile) && Files.readString(topicIdFile).equals(topicId);
+        
+        tailConsumer = tailConsumerFactory.createConsumer();
+        List<TopicPartition> topicPartitions = tailConsumer.partitionsFor(EVENT_STORE_TOPIC).stream()
+            .map(p -> new TopicPartition(EVENT_STORE_TOPIC, p.partition()))
+            .toList();
+        Map<TopicPartition, Long> beginningOffsets = tailConsumer.beginningOffsets(topicPartitions);
+        Map<TopicPartition, Long> endOffsets = tailConsumer.endOffsets(topicPartitions);
+        tailConsumer.assign(topicPartitions);
+        
+        for (TopicPartition tp : topicPartitions) {
+            LocalPartitionLog partitionLog = LocalPartitionLog.open(
+                dir.resolve(EVENT_STORE_TOPIC + "-" + tp.partition()), segmentBytes, indexIntervalBytes);
+            long next = partitionLog.nextOffset();
+            if (!sameTopic || next > endOffsets.get(tp) || next >= 0 && next < beginningOffsets.get(tp)) {
+                partitionLog.clear();
+                next = -1;
+            }
+            if (next >= 0) {
+                tailConsumer.seek(tp, next);
+            } else {
+                tailConsumer.seekToBeginning(List.of(tp));
+            }
+            partitions.put(tp.partition(), partitionLog);
+            log.info("Local event store partition {} - resuming at offset {}", tp.partition(), next);
+        }
+        Files.writeString(topicIdFile, topicId);
+        
+        running = true;
+        tailThread = new Thread(this::tail, "local-event-store-tail");
+        tailThread.setDaemon(true);
+        tailThread.start();
+    }
+    
+    private void tail() {
+        while (running) {
+            try {
+                ConsumerRecords<String, byte[]> records = tailConsumer.poll(Duration.ofMillis(500));
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    partitions.get(record.partition()).append(record.offset(), record.timestamp(), record.key(), record.value());
+                }
+                // Covers offsets without records too (e.g. transaction markers)
+                for (TopicPartition tp : tailConsumer.assignment()) {
+                    partitions.get(tp.partition()).advanceTo(tailConsumer.position(tp));
+                }
+            } catch (WakeupException e) {
+                // stop() was called
+            } catch (IOException e) {
+                log.error("Local event store append failed - replays fall back to the broker", e);
+                running = false;
+            } catch (Exception e) {
+                log.error("Local event store tail consumer error", e);
+            }
+        }
+    }
+    
+    private EventWrapper<?> decode(ByteBuffer value) {
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return jsonMapper.readValue(bytes, EventWrapper.class);
+    }
+    
+    private String topicId() throws Exception {
+        try (Admin admin = Admin.create(kafkaAdmin.getConfigurationProperties())) {
+            return admin.describeTopics(List.of(EVENT_STORE_TOPIC)).allTopicNames()
+                .get(30, TimeUnit.SECONDS).get(EVENT_STORE_TOPIC).topicId().toString();
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws Exception {
+        if (tailThread == null) {
+            return;
+        }
+        running = false;
+        tailConsumer.wakeup();
+        tailThread.join(TimeUnit.SECONDS.toMillis(10));
+        tailConsumer.close();
+        for (LocalPartitionLog partitionLog : partitions.values()) {
+            partitionLog.close();
+        }
+    }
+}
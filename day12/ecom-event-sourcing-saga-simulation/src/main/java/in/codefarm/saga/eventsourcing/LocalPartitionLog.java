@@ -0,0 +1,263 @@
+package in.codefarm.saga.eventsourcing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, segmented local copy of one order-events partition.
+ * 
+ * Segment files are named by their base offset and hold records as
+ * [offset:8][timestamp:8][keyLength:4][key][valueLength:4][value] with the value bytes exactly as on the broker.
+ * Reads go through read-only memory maps, so hot segments are served from the page cache.
+ * 
+ * Two sparse indexes keep reads short:
+ * - per segment, offset -> file position every indexIntervalBytes
+ * - per orderId, the offset of its first event (events of an order are clustered, so a read starts there)
+ */
+final class LocalPartitionLog implements Closeable {
+    
+    private static final int HEADER_BYTES = 8 + 8 + 4;
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    /**
+     * Visits a record of a requested order; the value buffer is only valid during the call. Return false to stop.
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        boolean visit(long offset, String key, ByteBuffer value);
+    }
+    
+    private final Path dir;
+    private final long segmentBytes;
+    private final int indexIntervalBytes;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> firstOffsetByKey = new ConcurrentHashMap<>();
+    private volatile long nextOffset = -1;
+    
+    private LocalPartitionLog(Path dir, long segmentBytes, int indexIntervalBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.indexIntervalBytes = indexIntervalBytes;
+    }
+    
+    /**
+     * Open (or create) the log in dir, rebuilding the indexes and dropping a torn trailing record.
+     */
+    static LocalPartitionLog open(Path dir, long segmentBytes, int indexIntervalBytes) throws IOException {
+        Files.createDirectories(dir);
+        var log = new LocalPartitionLog(dir, segmentBytes, indexIntervalBytes);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                String name = file.getFileName().toString();
+                long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                Segment segment = new Segment(file);
+                log.recover(segment);
+                log.segments.put(baseOffset, segment);
+            }
+        }
+        return log;
+    }
+    
+    /**
+     * Offset of the next record expected from the broker, -1 if nothing was consumed yet.
+     */
+    long nextOffset() {
+        return nextOffset;
+    }
+    
+    void advanceTo(long position) {
+        if (position > nextOffset) {
+            nextOffset = position;
+        }
+    }
+    
+    long firstOffset() {
+        return segments.isEmpty() ? nextOffset : segments.firstKey();
+    }
+    
+    synchronized void append(long offset, long timestamp, String key, byte[] value) throws IOException {
+        if (offset < nextOffset) {
+            return; // already stored
+        }
+        byte[] keyBytes = key == null ? new byte[0] : key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = value == null ? 0 : value.length;
+        int recordBytes = HEADER_BYTES + keyBytes.length + 4 + valueLength;
+        
+        Segment active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        if (active == null || active.size + recordBytes > segmentBytes && active.size > 0) {
+            active = new Segment(dir.resolve(String.format("%020d%s", offset, SEGMENT_SUFFIX)));
+            segments.put(offset, active);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(recordBytes);
+        buffer.putLong(offset).putLong(timestamp).putInt(keyBytes.length).put(keyBytes).putInt(valueLength);
+        if (value != null) {
+            buffer.put(value);
+        }
+        buffer.flip();
+        int position = active.size;
+        while (buffer.hasRemaining()) {
+            active.channel.write(buffer, position + buffer.position());
+        }
+        index(active, offset, position, key);
+        active.size = position + recordBytes;  // publish to readers
+        nextOffset = offset + 1;
+    }
+    
+    /**
+     * Visit the records of the given orders with fromOffset <= offset < untilOffset (fromOffset -1 = log start).
+     * 
+     * @return bytes scanned, or -1 if the local log does not cover the range (caller reads from the broker)
+     */
+    long read(long fromOffset, long untilOffset, Set<String> keys, RecordVisitor visitor) {
+        if (nextOffset < untilOffset || fromOffset >= 0 && fromOffset < firstOffset()) {
+            return -1;
+        }
+        long from = Math.max(fromOffset, firstOffset());
+        long firstKeyOffset = keys.stream()
+            .map(firstOffsetByKey::get)
+            .filter(o -> o != null)
+            .mapToLong(Long::longValue)
+            .min()
+            .orElse(Long.MAX_VALUE);
+        from = Math.max(from, firstKeyOffset);
+        if (from >= untilOffset) {
+            return 0;
+        }
+        
+        long bytesScanned = 0;
+        Long segmentBase = segments.floorKey(from);
+        for (Segment segment : segments.tailMap(segmentBase == null ? from : segmentBase, true).values()) {
+            ByteBuffer buffer = segment.view();
+            var indexEntry = segment.offsetIndex.floorEntry(from);
+            int position = indexEntry == null ? 0 : indexEntry.getValue();
+            while (position + HEADER_BYTES <= buffer.limit()) {
+                long offset = buffer.getLong(position);
+                if (offset >= untilOffset) {
+                    return bytesScanned;
+                }
+                int keyLength = buffer.getInt(position + 16);
+                int valueLength = buffer.getInt(position + HEADER_BYTES + keyLength);
+                int recordBytes = HEADER_BYTES + keyLength + 4 + valueLength;
+                bytesScanned += recordBytes;
+                
+                if (offset >= from) {
+                    byte[] keyBytes = new byte[keyLength];
+                    buffer.get(position + HEADER_BYTES, keyBytes);
+                    String key = new String(keyBytes, StandardCharsets.UTF_8);
+                    if (keys.contains(key)) {
+                        ByteBuffer value = buffer.slice(position + HEADER_BYTES + keyLength + 4, valueLength);
+                        if (!visitor.visit(offset, key, value)) {
+                            return bytesScanned;
+                        }
+                    }
+                }
+                position += recordBytes;
+            }
+        }
+        return bytesScanned;
+    }
+    
+    /**
+     * Drop every segment, e.g. when the topic was recreated or the broker no longer has our offsets.
+     */
+    synchronized void clear() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+            Files.deleteIfExists(segment.file);
+        }
+        segments.clear();
+        firstOffsetByKey.clear();
+        nextOffset = -1;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+    
+    private void recover(Segment segment) throws IOException {
+        long fileSize = segment.channel.size();
+        ByteBuffer buffer = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        int position = 0;
+        while (position + HEADER_BYTES <= fileSize) {
+            long offset = buffer.getLong(position);
+            int keyLength = buffer.getInt(position + 16);
+            if (position + HEADER_BYTES + keyLength + 4 > fileSize) {
+                break;
+            }
+            int valueLength = buffer.getInt(position + HEADER_BYTES + keyLength);
+            int recordBytes = HEADER_BYTES + keyLength + 4 + valueLength;
+            if (position + recordBytes > fileSize) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(position + HEADER_BYTES, keyBytes);
+            index(segment, offset, position, new String(keyBytes, StandardCharsets.UTF_8));
+            nextOffset = offset + 1;
+            position += recordBytes;
+        }
+        if (position < fileSize) {
+            segment.channel.truncate(position);  // torn write from a crash
+        }
+        segment.size = position;
+    }
+    
+    private void index(Segment segment, long offset, int position, String key) {
+        if (segment.offsetIndex.isEmpty() || position - segment.lastIndexedPosition >= indexIntervalBytes) {
+            segment.offsetIndex.put(offset, position);
+            segment.lastIndexedPosition = position;
+        }
+        if (key != null) {
+            firstOffsetByKey.putIfAbsent(key, offset);
+        }
+    }
+    
+    private static final class Segment {
+        
+        private final Path file;
+        private final FileChannel channel;
+        private final NavigableMap<Long, Integer> offsetIndex = new ConcurrentSkipListMap<>();
+        private int lastIndexedPosition;
+        private volatile int size;
+        private MappedByteBuffer mapped;
+        private int mappedSize = -1;
+        
+        Segment(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        
+        /**
+         * Read-only view of the published part of the segment; remapped only when the segment has grown.
+         */
+        synchronized ByteBuffer view() {
+            int currentSize = size;
+            if (mappedSize != currentSize) {
+                try {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, currentSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                mappedSize = currentSize;
+            }
+            return mapped.duplicate();
+        }
+    }
+}
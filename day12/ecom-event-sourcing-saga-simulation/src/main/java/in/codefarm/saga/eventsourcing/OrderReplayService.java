@@ -1,22 +1,32 @@
 package in.codefarm.saga.eventsourcing;
 
+import in.codefarm.saga.event.EventPartitions;
 import in.codefarm.saga.event.EventWrapper;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
 import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import tools.jackson.databind.json.JsonMapper;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Order Replay Service - Replays events from event store to reconstruct order state.
- * Supports full replay, partial replay by orderId, and time-based replay.
+ * Supports full replay, partial replay by orderId, and time-based replay (single or many timestamps).
  */
 @Service
 public class OrderReplayService {
@@ -28,22 +38,29 @@ public class OrderReplayService {
     private final JsonMapper jsonMapper;
     private final OrderSnapshotRepository snapshotRepository;
     private final OrderSnapshotService snapshotService;
+    private final LocalEventStore localEventStore;
+    private final long clockSkewMs;
     
     public OrderReplayService(
         @Qualifier("replayKafkaConsumer") KafkaConsumer<String, EventWrapper<?>> replayConsumer,
         JsonMapper jsonMapper,
         OrderSnapshotRepository snapshotRepository,
-        OrderSnapshotService snapshotService
+        OrderSnapshotService snapshotService,
+        LocalEventStore localEventStore,
+        @Value("${replay.time-travel.clock-skew-ms:5000}") long clockSkewMs
     ) {
         this.replayConsumer = replayConsumer;
         this.jsonMapper = jsonMapper;
         this.snapshotRepository = snapshotRepository;
         this.snapshotService = snapshotService;
+        this.localEventStore = localEventStore;
+        this.clockSkewMs = clockSkewMs;
     }
     
     /**
      * Reconstruct order state by replaying all events for a specific order.
-     * Uses snapshot if available for faster replay.
+     * Starts from the latest snapshot if available, and lets the snapshot policy decide
+     * whether the replayed state becomes a new snapshot.
      * 
      * @param orderId The order ID to replay events for
      * @return Reconstructed order state
@@ -51,8 +68,11 @@ public class OrderReplayService {
     public OrderState replayOrder(String orderId) {
         log.info("Replaying events for order: {}", orderId);
         
+        OrderState state = null;
+        long startOffset = -1;
+        
         // Check for snapshot
-        var snapshotOpt = snapshotRepository.findFirstByOrderIdOrderByCreatedAtDesc(orderId);
+        var snapshotOpt = snapshotRepository.findFirstByOrderIdOrderByEventOffsetDesc(orderId);
         
         if (snapshotOpt.isPresent()) {
             OrderSnapshot snapshot = snapshotOpt.get();
@@ -61,105 +81,85 @@ public class OrderReplayService {
             
             // Start from snapshot state
             try {
-                OrderState state = jsonMapper.readValue(snapshot.getStateJson(), OrderState.class);
+                state = jsonMapper.readValue(snapshot.getStateJson(), OrderState.class);
                 // Restore jsonMapper after deserialization (it's transient)
                 state.setJsonMapper(jsonMapper);
-                
-                // Replay events after snapshot
-                replayEventsAfterOffset(orderId, snapshot.getEventOffset(), state);
-                
-                log.info("Replayed from snapshot + remaining events for order: {}", orderId);
-                return state;
+                startOffset = snapshot.getEventOffset() + 1;
             } catch (Exception e) {
                 log.warn("Failed to deserialize snapshot for order: {}, falling back to full replay", orderId, e);
+                state = null;
                 // Fall through to full replay
             }
         }
         
         // No snapshot or snapshot deserialization failed - full replay
-        return replayAllEvents(orderId);
+        if (state == null) {
+            state = new OrderState(orderId, jsonMapper);
+        }
+        
+        ReplayProgress progress = replayPartition(orderId, startOffset, state);
+        log.info("Replayed {} events for order: {} ({}), scanned {} bytes", progress.eventsApplied(), orderId, 
+            startOffset >= 0 ? "from snapshot offset " + (startOffset - 1) : "full replay", progress.bytesScanned());
+        
+        snapshotService.snapshotIfDue(orderId, state, progress.lastOffset(), progress.eventsApplied(), progress.bytesScanned());
+        return state;
     }
     
     /**
-     * Replay all events from beginning (no snapshot).
+     * Replay the order's events from its owning partition, from startOffset (-1 = beginning) to the current log end.
+     * Served from the local event store when it has caught up to the log end, otherwise from the broker.
      */
-    private OrderState replayAllEvents(String orderId) {
-        OrderState state = new OrderState(orderId, jsonMapper);
-        
+    private ReplayProgress replayPartition(String orderId, long startOffset, OrderState state) {
         synchronized (replayConsumer) {
             var partitions = replayConsumer.partitionsFor(EVENT_STORE_TOPIC);
             if (partitions == null || partitions.isEmpty()) {
                 log.warn("No partitions found for topic: {}", EVENT_STORE_TOPIC);
-                return state;
+                return new ReplayProgress(0, -1, 0);
             }
             
-            var topicPartitions = partitions.stream()
-                .map(p -> new TopicPartition(EVENT_STORE_TOPIC, p.partition()))
-                .toList();
-            replayConsumer.assign(topicPartitions);
-            replayConsumer.seekToBeginning(topicPartitions);
+            var partition = new TopicPartition(EVENT_STORE_TOPIC, EventPartitions.partitionFor(orderId, partitions.size()));
+            long endOffset = replayConsumer.endOffsets(List.of(partition)).get(partition);
             
-            int eventsProcessed = 0;
-            long lastOffset = -1;
-            while (true) {
-                ConsumerRecords<String, EventWrapper<?>> records = replayConsumer.poll(Duration.ofSeconds(1));
-                if (records.isEmpty()) {
-                    break;
-                }
-                
-                for (ConsumerRecord<String, EventWrapper<?>> record : records) {
-                    if (record.key().equals(orderId)) {
-                        applyEventToState(record.value(), state);
-                        eventsProcessed++;
-                        lastOffset = record.offset();
-                    }
+            if (localEventStore.isEnabled()) {
+                int[] applied = {0};
+                long[] last = {-1};
+                long localBytes = localEventStore.read(partition.partition(), startOffset, endOffset, Set.of(orderId), record -> {
+                    state.apply(record.event());
+                    applied[0]++;
+                    last[0] = record.offset();
+                    return true;
+                });
+                if (localBytes >= 0) {
+                    return new ReplayProgress(applied[0], last[0], localBytes);
                 }
             }
             
-            // Create snapshot on-demand if it doesn't exist (for future faster replays)
-            if (lastOffset >= 0) {
-                snapshotService.createSnapshotIfNeeded(orderId, lastOffset);
+            replayConsumer.assign(List.of(partition));
+            if (startOffset >= 0) {
+                replayConsumer.seek(partition, startOffset);
+            } else {
+                replayConsumer.seekToBeginning(List.of(partition));
             }
             
-            log.info("Replayed {} events for order: {} (full replay)", eventsProcessed, orderId);
-        }
-        
-        return state;
-    }
-    
-    /**
-     * Replay events after a specific offset (for snapshot-based replay).
-     */
-    private void replayEventsAfterOffset(String orderId, long snapshotOffset, OrderState state) {
-        synchronized (replayConsumer) {
-            var partitions = replayConsumer.partitionsFor(EVENT_STORE_TOPIC);
-            if (partitions == null || partitions.isEmpty()) {
-                return;
-            }
-            
-            var topicPartitions = partitions.stream()
-                .map(p -> new TopicPartition(EVENT_STORE_TOPIC, p.partition()))
-                .toList();
-            replayConsumer.assign(topicPartitions);
-            replayConsumer.seekToBeginning(topicPartitions);
-            
-            int eventsProcessed = 0;
-            while (true) {
+            int eventsApplied = 0;
+            long lastOffset = -1;
+            long bytesScanned = 0;
+            while (replayConsumer.position(partition) < endOffset) {
                 ConsumerRecords<String, EventWrapper<?>> records = replayConsumer.poll(Duration.ofSeconds(1));
                 if (records.isEmpty()) {
                     break;
                 }
                 
                 for (ConsumerRecord<String, EventWrapper<?>> record : records) {
-                    if (record.key().equals(orderId) && record.offset() > snapshotOffset) {
-                        applyEventToState(record.value(), state);
-                        eventsProcessed++;
+                    bytesScanned += Math.max(record.serializedKeySize(), 0) + Math.max(record.serializedValueSize(), 0);
+                    if (record.key().equals(orderId)) {
+                        state.apply(record.value());
+                        eventsApplied++;
+                        lastOffset = record.offset();
                     }
                 }
             }
-            
-            log.info("Replayed {} events after snapshot offset {} for order: {}", 
-                eventsProcessed, snapshotOffset, orderId);
+            return new ReplayProgress(eventsApplied, lastOffset, bytesScanned);
         }
     }
     
@@ -171,67 +171,168 @@ public class OrderReplayService {
      * @return Order state at that point in time
      */
     public OrderState replayToTimestamp(String orderId, LocalDateTime timestamp) {
-        log.info("Replaying events for order: {} up to timestamp: {}", orderId, timestamp);
+        return replayAtTimestamps(orderId, List.of(timestamp)).get(timestamp);
+    }
+    
+    /**
+     * Time-travel replay - state of an order at each of the given timestamps, in one pass.
+     * 
+     * Only the slice of the event store that can matter is read:
+     * 1. Start from the newest snapshot taken at or before the earliest timestamp (or the partition start)
+     * 2. Read only the owning partition of the order (events are keyed by orderId)
+     * 3. Stop at the first offset whose record timestamp is past the latest timestamp (offsetsForTimes),
+     *    plus clock-skew-ms since record timestamps are set at send time, after the event timestamp
+     * The event timestamp still decides which events belong to which point in time.
+     * The slice is read from the local event store when it covers it, otherwise from the broker.
+     * 
+     * @param orderId The order ID
+     * @param timestamps Points in time to reconstruct the state at
+     * @return State per timestamp, ordered by timestamp
+     */
+    public NavigableMap<LocalDateTime, OrderState> replayAtTimestamps(String orderId, Collection<LocalDateTime> timestamps) {
+        NavigableMap<LocalDateTime, OrderState> states = new TreeMap<>();
+        if (timestamps.isEmpty()) {
+            return states;
+        }
+        List<LocalDateTime> pending = timestamps.stream().distinct().sorted().toList();
+        LocalDateTime earliest = pending.get(0);
+        LocalDateTime latest = pending.get(pending.size() - 1);
+        log.info("Replaying events for order: {} at {} timestamps between {} and {}", 
+            orderId, pending.size(), earliest, latest);
         
-        OrderState state = new OrderState(orderId, jsonMapper);
+        OrderState state = null;
+        long startOffset = -1;
+        var snapshotOpt = snapshotRepository.findFirstByOrderIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(orderId, earliest);
+        if (snapshotOpt.isPresent()) {
+            OrderSnapshot snapshot = snapshotOpt.get();
+            try {
+                state = jsonMapper.readValue(snapshot.getStateJson(), OrderState.class);
+                state.setJsonMapper(jsonMapper);
+                startOffset = snapshot.getEventOffset() + 1;
+                log.info("Time-travel replay for order: {} starts from snapshot at offset: {}", orderId, snapshot.getEventOffset());
+            } catch (Exception e) {
+                log.warn("Failed to deserialize snapshot for order: {}, replaying from the beginning", orderId, e);
+                state = null;
+            }
+        }
+        if (state == null) {
+            state = new OrderState(orderId, jsonMapper);
+        }
         
+        Timeline timeline = new Timeline(pending, state, states);
         synchronized (replayConsumer) {
             var partitions = replayConsumer.partitionsFor(EVENT_STORE_TOPIC);
-            if (partitions == null || partitions.isEmpty()) {
-                return state;
-            }
-            
-            var topicPartitions = partitions.stream()
-                .map(p -> new TopicPartition(EVENT_STORE_TOPIC, p.partition()))
-                .toList();
-            replayConsumer.assign(topicPartitions);
-            replayConsumer.seekToBeginning(topicPartitions);
-            
-            while (true) {
-                ConsumerRecords<String, EventWrapper<?>> records = replayConsumer.poll(Duration.ofSeconds(1));
-                if (records.isEmpty()) {
-                    break;
-                }
+            if (partitions != null && !partitions.isEmpty()) {
+                var partition = new TopicPartition(EVENT_STORE_TOPIC, EventPartitions.partitionFor(orderId, partitions.size()));
+                long endOffset = endOffsetFor(partition, latest);
                 
-                for (ConsumerRecord<String, EventWrapper<?>> record : records) {
-                    if (record.key().equals(orderId)) {
-                        // Check if event happened before or at target time
-                        LocalDateTime eventTime = record.value().metadata().timestamp();
-                        if (eventTime.isAfter(timestamp)) {
-                            return state; // Stop replaying
+                boolean servedLocally = localEventStore.isEnabled() && localEventStore.read(
+                    partition.partition(), startOffset, endOffset, Set.of(orderId), record -> timeline.apply(record.event())) >= 0;
+                if (!servedLocally) {
+                    replayConsumer.assign(List.of(partition));
+                    if (startOffset >= 0) {
+                        replayConsumer.seek(partition, startOffset);
+                    } else {
+                        replayConsumer.seekToBeginning(List.of(partition));
+                    }
+                    boolean more = true;
+                    while (more && replayConsumer.position(partition) < endOffset) {
+                        ConsumerRecords<String, EventWrapper<?>> records = replayConsumer.poll(Duration.ofSeconds(1));
+                        if (records.isEmpty()) {
+                            break;
+                        }
+                        for (ConsumerRecord<String, EventWrapper<?>> record : records) {
+                            if (record.offset() >= endOffset) {
+                                more = false;
+                                break;
+                            }
+                            if (record.key().equals(orderId) && !timeline.apply(record.value())) {
+                                more = false;
+                                break;
+                            }
                         }
-                        
-                        applyEventToState(record.value(), state);
                     }
                 }
+                
+                log.info("Replayed {} events from partition {} (offsets {} to {}, {}) for order: {}", 
+                    timeline.eventsProcessed, partition.partition(), startOffset, endOffset, 
+                    servedLocally ? "local" : "broker", orderId);
             }
         }
         
-        return state;
+        timeline.finish();
+        return states;
     }
     
-    private void applyEventToState(EventWrapper<?> event, OrderState state) {
-        String eventType = event.metadata().eventType();
+    /**
+     * Walks the requested timestamps while events are applied in order:
+     * before an event newer than a pending timestamp is applied, the state at that timestamp is captured.
+     */
+    private final class Timeline {
         
-        switch (eventType) {
-            case "OrderPlaced":
-                state.applyOrderPlaced(event);
-                break;
-            case "PaymentProcessed":
-                state.applyPaymentProcessed(event);
-                break;
-            case "InventoryReserved":
-                state.applyInventoryReserved(event);
-                break;
-            case "OrderCancelled":
-                state.applyOrderCancelled(event);
-                break;
-            case "PaymentRefunded":
-                state.applyPaymentRefunded(event);
-                break;
-            default:
-                log.debug("Unknown event type: {}", eventType);
+        private final List<LocalDateTime> pending;
+        private final OrderState state;
+        private final NavigableMap<LocalDateTime, OrderState> states;
+        private int next;
+        private int eventsProcessed;
+        
+        Timeline(List<LocalDateTime> pending, OrderState state, NavigableMap<LocalDateTime, OrderState> states) {
+            this.pending = pending;
+            this.state = state;
+            this.states = states;
+        }
+        
+        /**
+         * @return false once every timestamp has its state (no need to read further)
+         */
+        boolean apply(EventWrapper<?> event) {
+            LocalDateTime eventTime = event.metadata().timestamp();
+            while (next < pending.size() && eventTime.isAfter(pending.get(next))) {
+                capture();
+            }
+            if (next == pending.size()) {
+                return false;
+            }
+            state.apply(event);
+            eventsProcessed++;
+            return true;
+        }
+        
+        /**
+         * Timestamps after the last relevant event share the final state.
+         */
+        void finish() {
+            while (next < pending.size()) {
+                capture();
+            }
+        }
+        
+        private void capture() {
+            states.put(pending.get(next), next == pending.size() - 1 ? state : copyOf(state));
+            next++;
+        }
+    }
+    
+    /**
+     * First offset whose record timestamp is past the target (+ clock skew), or the log end.
+     */
+    private long endOffsetFor(TopicPartition partition, LocalDateTime target) {
+        long targetMs = target.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + clockSkewMs + 1;
+        OffsetAndTimestamp bound = replayConsumer.offsetsForTimes(Map.of(partition, targetMs)).get(partition);
+        if (bound != null) {
+            return bound.offset();
         }
+        return replayConsumer.endOffsets(List.of(partition)).get(partition);
+    }
+    
+    
+    private OrderState copyOf(OrderState state) {
+        OrderState copy = jsonMapper.readValue(jsonMapper.writeValueAsString(state), OrderState.class);
+        copy.setJsonMapper(jsonMapper);
+        return copy;
+    }
+    
+    
+    private record ReplayProgress(int eventsApplied, long lastOffset, long bytesScanned) {
     }
 }
-
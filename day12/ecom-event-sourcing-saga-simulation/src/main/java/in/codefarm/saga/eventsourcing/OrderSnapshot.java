@@ -5,11 +5,11 @@ import java.time.LocalDateTime;
 
 /**
  * Order Snapshot Entity - Stores periodic snapshots of order state for faster replay.
- * Snapshots are created periodically (e.g., every 100 events) to optimize replay performance.
+ * Snapshots are created by the snapshot policy to optimize replay performance; the last few per order are kept.
  */
 @Entity
 @Table(name = "order_snapshots", indexes = {
-    @Index(name = "idx_order_snapshot_order_id", columnList = "orderId"),
+    @Index(name = "idx_order_snapshot_order_offset", columnList = "orderId, eventOffset"),
     @Index(name = "idx_order_snapshot_created", columnList = "createdAt")
 })
 public class OrderSnapshot {
@@ -1,8 +1,14 @@
 package in.codefarm.saga.eventsourcing;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,8 +18,30 @@ import java.util.Optional;
 public interface OrderSnapshotRepository extends JpaRepository<OrderSnapshot, Long> {
     
     /**
-     * Find the latest snapshot for a specific order.
+     * Find the latest snapshot for a specific order (highest event offset - events of an order share one partition).
      */
-    Optional<OrderSnapshot> findFirstByOrderIdOrderByCreatedAtDesc(String orderId);
+    Optional<OrderSnapshot> findFirstByOrderIdOrderByEventOffsetDesc(String orderId);
+    
+    boolean existsByOrderId(String orderId);
+    
+    /**
+     * Find the newest snapshot of an order taken at or before the given time (time-travel replay).
+     */
+    Optional<OrderSnapshot> findFirstByOrderIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(String orderId, LocalDateTime createdAt);
+    
+    /**
+     * Ids of snapshots ranked below the newest {@code keep} of their order. Snapshots are ranked by
+     * (eventOffset, id) newest first in one window pass, so snapshots tied on an offset are pruned too.
+     */
+    @Query("select r.id from (select s.id as id, row_number() over (partition by s.orderId " +
+           "order by s.eventOffset desc, s.id desc) as position from OrderSnapshot s) r " +
+           "where r.position > :keep order by r.id")
+    List<Long> findIdsBeyondRetention(@Param("keep") long keep, Limit limit);
+    
+    /**
+     * Latest snapshot (highest event offset) of each of the given orders.
+     */
+    @Query("select s from OrderSnapshot s where s.orderId in :orderIds and s.eventOffset = " +
+           "(select max(n.eventOffset) from OrderSnapshot n where n.orderId = s.orderId)")
+    List<OrderSnapshot> findLatestByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
 }
-
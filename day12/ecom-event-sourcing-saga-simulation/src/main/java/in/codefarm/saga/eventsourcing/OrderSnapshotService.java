@@ -1,5 +1,6 @@
 package in.codefarm.saga.eventsourcing;
 
+import in.codefarm.saga.order.entity.OrderEntity;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -7,20 +8,25 @@ import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import tools.jackson.databind.json.JsonMapper;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Order Snapshot Service - Creates periodic snapshots of order state for faster replay.
  * 
  * Snapshot Strategy:
  * 1. Time-based: Create snapshots for orders older than X days (scheduled task)
- * 2. On-demand: Create snapshot after replay if it doesn't exist
+ * 2. Policy-based: After a replay, snapshot the replayed state when enough events were applied
+ *    since the last snapshot or the replay scanned too many bytes
+ * 3. Retention: Keep the last K snapshots per order, prune older ones in batches (scheduled task)
  * 
- * Note: Event-count-based snapshots don't work well since each order has limited events (5-6).
+ * Replay always starts from the snapshot with the highest event offset (index on orderId, eventOffset).
  */
 @Service
 public class OrderSnapshotService {
@@ -28,42 +34,84 @@ public class OrderSnapshotService {
     private static final Logger log = LoggerFactory.getLogger(OrderSnapshotService.class);
     private static final String EVENT_STORE_TOPIC = "order-events";
     private static final int SNAPSHOT_AGE_DAYS = 1;  // Create snapshot for orders older than 1 day
+    private static final int SCAN_PAGE_SIZE = 500;
     
     private final KafkaConsumer<String, in.codefarm.saga.event.EventWrapper<?>> snapshotConsumer;
     private final OrderSnapshotRepository snapshotRepository;
     private final JsonMapper jsonMapper;
     private final in.codefarm.saga.order.repository.OrderRepository orderRepository;
+    private final int minEventsSinceSnapshot;
+    private final long maxReplayBytes;
+    private final int keepPerOrder;
+    private final int pruneBatchSize;
     
     public OrderSnapshotService(
         @Qualifier("replayKafkaConsumer") KafkaConsumer<String, in.codefarm.saga.event.EventWrapper<?>> snapshotConsumer,
         OrderSnapshotRepository snapshotRepository,
         JsonMapper jsonMapper,
-        in.codefarm.saga.order.repository.OrderRepository orderRepository
+        in.codefarm.saga.order.repository.OrderRepository orderRepository,
+        @Value("${snapshot.policy.min-events-since-snapshot:3}") int minEventsSinceSnapshot,
+        @Value("${snapshot.policy.max-replay-bytes:1048576}") long maxReplayBytes,
+        @Value("${snapshot.retention.keep-per-order:3}") int keepPerOrder,
+        @Value("${snapshot.retention.prune-batch-size:500}") int pruneBatchSize
     ) {
         this.snapshotConsumer = snapshotConsumer;
         this.snapshotRepository = snapshotRepository;
         this.jsonMapper = jsonMapper;
         this.orderRepository = orderRepository;
+        this.minEventsSinceSnapshot = minEventsSinceSnapshot;
+        this.maxReplayBytes = maxReplayBytes;
+        this.keepPerOrder = keepPerOrder;
+        this.pruneBatchSize = pruneBatchSize;
     }
     
     /**
-     * Create snapshot for an order if it doesn't exist.
-     * Called on-demand after replay operations.
+     * Snapshot policy - save the replayed state as a new snapshot when replaying it again would be costly.
+     * Called after replay operations.
+     * 
+     * Triggers (either one):
+     * 1. Events since last snapshot: at least minEventsSinceSnapshot events were applied on top of the previous snapshot
+     * 2. Replay cost: the replay had to scan at least maxReplayBytes of the event store
      * 
      * @param orderId The order ID
-     * @param eventOffset The last event offset processed
+     * @param state The replayed state (already includes every event up to eventOffset)
+     * @param eventOffset The last event offset applied
+     * @param eventsSinceSnapshot Events applied on top of the previous snapshot (or from the beginning)
+     * @param bytesScanned Bytes read from the event store by the replay
      */
-    public void createSnapshotIfNeeded(String orderId, long eventOffset) {
-        // Check if snapshot already exists for this order
-        var existingSnapshot = snapshotRepository.findFirstByOrderIdOrderByCreatedAtDesc(orderId);
-        if (existingSnapshot.isPresent()) {
-            log.debug("Snapshot already exists for order: {}, skipping", orderId);
+    public void snapshotIfDue(String orderId, OrderState state, long eventOffset, int eventsSinceSnapshot, long bytesScanned) {
+        if (eventOffset < 0 || eventsSinceSnapshot == 0) {
+            return;
+        }
+        if (eventsSinceSnapshot < minEventsSinceSnapshot && bytesScanned < maxReplayBytes) {
+            log.debug("Snapshot not due for order: {} - events since snapshot: {}, bytes scanned: {}", 
+                orderId, eventsSinceSnapshot, bytesScanned);
             return;
         }
         
-        // Create snapshot on-demand
-        log.info("Creating on-demand snapshot for order: {} at offset: {}", orderId, eventOffset);
-        createSnapshot(orderId, eventOffset);
+        log.info("Creating snapshot for order: {} at offset: {} - events since snapshot: {}, bytes scanned: {}", 
+            orderId, eventOffset, eventsSinceSnapshot, bytesScanned);
+        saveSnapshot(orderId, eventOffset, state);
+    }
+    
+    /**
+     * Retention - keep the last keepPerOrder snapshots of every order, delete older ones in batches.
+     */
+    @Scheduled(fixedDelayString = "${snapshot.retention.prune-interval-ms:60000}")
+    public void pruneSnapshots() {
+        try {
+            int deleted = 0;
+            List<Long> ids;
+            while (!(ids = snapshotRepository.findIdsBeyondRetention(keepPerOrder, Limit.of(pruneBatchSize))).isEmpty()) {
+                snapshotRepository.deleteAllByIdInBatch(ids);
+                deleted += ids.size();
+            }
+            if (deleted > 0) {
+                log.info("Pruned {} snapshots beyond the last {} per order", deleted, keepPerOrder);
+            }
+        } catch (Exception e) {
+            log.error("Error during snapshot pruning", e);
+        }
     }
     
     /**
@@ -74,6 +122,15 @@ public class OrderSnapshotService {
             // Reconstruct state up to this point
             OrderState state = reconstructStateUpToOffset(orderId, eventOffset);
             
+            saveSnapshot(orderId, eventOffset, state);
+            
+        } catch (Exception e) {
+            log.error("Failed to create snapshot for order: {}", orderId, e);
+        }
+    }
+    
+    private void saveSnapshot(String orderId, long eventOffset, OrderState state) {
+        try {
             // Serialize state to JSON
             String stateJson = jsonMapper.writeValueAsString(state);
             
@@ -88,7 +145,7 @@ public class OrderSnapshotService {
                 orderId, eventOffset, eventCount);
             
         } catch (Exception e) {
-            log.error("Failed to create snapshot for order: {}", orderId, e);
+            log.error("Failed to save snapshot for order: {}", orderId, e);
         }
     }
     
@@ -122,7 +179,7 @@ public class OrderSnapshotService {
                         if (record.offset() > targetOffset) {
                             return state; // Stop at target offset
                         }
-                        applyEventToState(record.value(), state);
+                        state.apply(record.value());
                     }
                 }
             }
@@ -131,27 +188,6 @@ public class OrderSnapshotService {
         return state;
     }
     
-    private void applyEventToState(in.codefarm.saga.event.EventWrapper<?> event, OrderState state) {
-        String eventType = event.metadata().eventType();
-        
-        switch (eventType) {
-            case "OrderPlaced":
-                state.applyOrderPlaced(event);
-                break;
-            case "PaymentProcessed":
-                state.applyPaymentProcessed(event);
-                break;
-            case "InventoryReserved":
-                state.applyInventoryReserved(event);
-                break;
-            case "OrderCancelled":
-                state.applyOrderCancelled(event);
-                break;
-            case "PaymentRefunded":
-                state.applyPaymentRefunded(event);
-                break;
-        }
-    }
     
     /**
      * Scheduled task to create snapshots for orders older than SNAPSHOT_AGE_DAYS.
@@ -165,23 +201,27 @@ public class OrderSnapshotService {
         log.info("Running scheduled snapshot creation for old orders");
         
         try {
-            // Get all orders from database
-            var orders = orderRepository.findAll();
+            // Walk the orders table page by page (keyset) instead of loading it at once
             int snapshotsCreated = 0;
+            long afterId = 0;
+            List<OrderEntity> orders;
             
-            for (var order : orders) {
-                String orderId = order.getOrderId();
+            while (!(orders = orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(SCAN_PAGE_SIZE))).isEmpty()) {
+                afterId = orders.get(orders.size() - 1).getId();
                 
-                // Check if order is old enough (older than SNAPSHOT_AGE_DAYS)
-                if (order.getCreatedAt().isBefore(java.time.LocalDateTime.now().minusDays(SNAPSHOT_AGE_DAYS))) {
-                    // Check if snapshot already exists
-                    var existingSnapshot = snapshotRepository.findFirstByOrderIdOrderByCreatedAtDesc(orderId);
-                    if (existingSnapshot.isEmpty()) {
-                        // Find the last event offset for this order
-                        long lastOffset = findLastEventOffset(orderId);
-                        if (lastOffset >= 0) {
-                            createSnapshot(orderId, lastOffset);
-                            snapshotsCreated++;
+                for (var order : orders) {
+                    String orderId = order.getOrderId();
+                    
+                    // Check if order is old enough (older than SNAPSHOT_AGE_DAYS)
+                    if (order.getCreatedAt().isBefore(java.time.LocalDateTime.now().minusDays(SNAPSHOT_AGE_DAYS))) {
+                        // Check if snapshot already exists
+                        if (!snapshotRepository.existsByOrderId(orderId)) {
+                            // Find the last event offset for this order
+                            long lastOffset = findLastEventOffset(orderId);
+                            if (lastOffset >= 0) {
+                                createSnapshot(orderId, lastOffset);
+                                snapshotsCreated++;
+                            }
                         }
                     }
                 }
@@ -86,6 +86,21 @@ public class OrderState {
         this.eventHistory.add(event.metadata().eventType());
     }
     
+    /**
+     * Apply an order-events record by its event type - other event types are ignored.
+     */
+    public void apply(EventWrapper<?> event) {
+        switch (event.metadata().eventType()) {
+            case "OrderPlaced" -> applyOrderPlaced(event);
+            case "PaymentProcessed" -> applyPaymentProcessed(event);
+            case "InventoryReserved" -> applyInventoryReserved(event);
+            case "OrderCancelled" -> applyOrderCancelled(event);
+            case "PaymentRefunded" -> applyPaymentRefunded(event);
+            default -> {
+            }
+        }
+    }
+    
     public void applyPaymentRefunded(EventWrapper<?> event) {
         // Update payment status to reflect refund
         this.paymentStatus = "REFUNDED";
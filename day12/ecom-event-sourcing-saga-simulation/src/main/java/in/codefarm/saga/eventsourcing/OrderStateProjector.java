@@ -0,0 +1,177 @@
+package in.codefarm.saga.eventsourcing;
+
+import in.codefarm.saga.event.EventWrapper;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order State Projector - Maintains the compacted order-state topic and an in-memory current-state view.
+ * 
+ * 1. On startup the view is loaded from order-state (one record per order after compaction) up to the
+ *    end offsets seen at start, instead of replaying the whole order-events history
+ * 2. Then a listener on order-events applies every new event and publishes the resulting
+ *    OrderState to order-state, keyed by orderId
+ * 
+ * Each state carries the offset of the last applied event, so events redelivered after a restart are skipped.
+ * The listener waits for the order-state send before its record is committed: a failed send fails the record,
+ * and its redelivery publishes the already-applied state again.
+ */
+@Component
+public class OrderStateProjector {
+    
+    private static final Logger log = LoggerFactory.getLogger(OrderStateProjector.class);
+    private static final String ORDER_STATE_TOPIC = "order-state";
+    private static final String LISTENER_ID = "order-state-projector";
+    // Consecutive empty polls below the end offsets before the bootstrap gives up on the rest (1 s each)
+    private static final int MAX_IDLE_POLLS = 5;
+    
+    private final ConsumerFactory<String, String> orderStateConsumerFactory;
+    private final KafkaTemplate<String, OrderStateRecord> orderStateKafkaTemplate;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final Map<String, OrderStateRecord> view = new ConcurrentHashMap<>();
+    
+    public OrderStateProjector(
+        @Qualifier("orderStateConsumerFactory") ConsumerFactory<String, String> orderStateConsumerFactory,
+        KafkaTemplate<String, OrderStateRecord> orderStateKafkaTemplate,
+        KafkaListenerEndpointRegistry listenerRegistry,
+        JsonMapper jsonMapper,
+        @Value("${order-state.enabled:true}") boolean enabled
+    ) {
+        this.orderStateConsumerFactory = orderStateConsumerFactory;
+        this.orderStateKafkaTemplate = orderStateKafkaTemplate;
+        this.listenerRegistry = listenerRegistry;
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Current state of an order from the view, if known.
+     */
+    public Optional<OrderState> currentState(String orderId) {
+        return Optional.ofNullable(view.get(orderId)).map(OrderStateRecord::state);
+    }
+    
+    public int size() {
+        return view.size();
+    }
+    
+    /**
+     * Bootstrap the view from order-state, then start applying order-events.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!enabled) {
+            log.info("Order state projection disabled");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int recordsRead = 0;
+        
+        try (Consumer<String, String> consumer = orderStateConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(ORDER_STATE_TOPIC).stream()
+                .map(p -> new TopicPartition(ORDER_STATE_TOPIC, p.partition()))
+                .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            
+            int idlePolls = 0;
+            while (partitions.stream().anyMatch(tp -> consumer.position(tp) < endOffsets.get(tp))) {
+                ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(1));
+                if (records.isEmpty()) {
+                    // Offsets below the end that are never returned (e.g. an open transaction)
+                    if (++idlePolls >= MAX_IDLE_POLLS) {
+                        log.warn("Order state bootstrap idle below the end offsets {} - starting with the view read so far", endOffsets);
+                        break;
+                    }
+                    continue;
+                }
+                idlePolls = 0;
+                for (ConsumerRecord<String, String> record : records) {
+                    recordsRead++;
+                    if (record.value() == null) {
+                        view.remove(record.key());
+                        continue;
+                    }
+                    OrderStateRecord stateRecord = jsonMapper.readValue(record.value(), OrderStateRecord.class);
+                    stateRecord.state().setJsonMapper(jsonMapper);
+                    view.put(record.key(), stateRecord);
+                }
+            }
+        }
+        
+        log.info("Order state view bootstrapped from {} - orders: {}, records read: {}, took {} ms", 
+            ORDER_STATE_TOPIC, view.size(), recordsRead, System.currentTimeMillis() - started);
+        listenerRegistry.getListenerContainer(LISTENER_ID).start();
+    }
+    
+    @KafkaListener(
+        id = LISTENER_ID,
+        topics = "order-events",
+        groupId = "order-state-projector-group",
+        containerFactory = "eventWrapperKafkaListenerContainerFactory",
+        autoStartup = "false"
+    )
+    public void onEvent(ConsumerRecord<String, EventWrapper<?>> record) {
+        String orderId = record.key();
+        OrderStateRecord current = view.get(orderId);
+        if (current != null && record.offset() < current.eventOffset()) {
+            log.debug("Event at offset {} already in the state of order: {} - skipping", record.offset(), orderId);
+            return;
+        }
+        if (current != null && record.offset() == current.eventOffset()) {
+            // Redelivered after a failed send or an aborted transaction - the state may never have reached order-state
+            publish(orderId, current);
+            return;
+        }
+        
+        // Copy on write - readers of the view never see a half-applied event
+        OrderState state = current != null ? copyOf(current.state()) : new OrderState(orderId, jsonMapper);
+        state.apply(record.value());
+        OrderStateRecord updated = new OrderStateRecord(record.offset(), state);
+        view.put(orderId, updated);
+        publish(orderId, updated);
+    }
+    
+    /**
+     * Send the state to order-state and wait for it, so a failure reaches the container error handler
+     * and the record is retried instead of committed.
+     */
+    private void publish(String orderId, OrderStateRecord stateRecord) {
+        try {
+            orderStateKafkaTemplate.send(ORDER_STATE_TOPIC, orderId, stateRecord).join();
+        } catch (CompletionException e) {
+            log.error("Failed to publish state of order: {} to {}", orderId, ORDER_STATE_TOPIC, e.getCause());
+            throw e;
+        }
+    }
+    
+    private OrderState copyOf(OrderState state) {
+        OrderState copy = jsonMapper.readValue(jsonMapper.writeValueAsString(state), OrderState.class);
+        copy.setJsonMapper(jsonMapper);
+        return copy;
+    }
+}
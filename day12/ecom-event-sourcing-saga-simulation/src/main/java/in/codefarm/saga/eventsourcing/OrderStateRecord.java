@@ -0,0 +1,10 @@
+package in.codefarm.saga.eventsourcing;
+
+/**
+ * Value of the compacted order-state topic - the state of an order after the order-events record at eventOffset.
+ */
+public record OrderStateRecord(
+    long eventOffset,
+    OrderState state
+) {
+}
@@ -0,0 +1,22 @@
+package in.codefarm.saga.eventsourcing;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO for time-travel replay at many timestamps (audit timeline).
+ */
+public record OrderTimelineResponse(
+    String orderId,
+    List<OrderReplayAtTimestampResponse> timeline
+) {
+    public static OrderTimelineResponse from(String orderId, Map<LocalDateTime, OrderState> states) {
+        return new OrderTimelineResponse(
+            orderId,
+            states.entrySet().stream()
+                .map(e -> OrderReplayAtTimestampResponse.from(e.getValue(), e.getKey().toString()))
+                .toList()
+        );
+    }
+}
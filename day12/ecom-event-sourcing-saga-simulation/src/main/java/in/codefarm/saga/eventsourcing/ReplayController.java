@@ -2,10 +2,17 @@ package in.codefarm.saga.eventsourcing;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 /**
  * REST Controller for Event Replay operations.
@@ -16,11 +23,23 @@ import java.time.LocalDateTime;
 public class ReplayController {
     
     private static final Logger log = LoggerFactory.getLogger(ReplayController.class);
+    private static final int MAX_TIMELINE_POINTS = 1000;
     
     private final OrderReplayService replayService;
+    private final BulkReplayService bulkReplayService;
+    private final OrderStateProjector orderStateProjector;
+    private final JsonMapper jsonMapper;
     
-    public ReplayController(OrderReplayService replayService) {
+    public ReplayController(
+        OrderReplayService replayService,
+        BulkReplayService bulkReplayService,
+        OrderStateProjector orderStateProjector,
+        JsonMapper jsonMapper
+    ) {
         this.replayService = replayService;
+        this.bulkReplayService = bulkReplayService;
+        this.orderStateProjector = orderStateProjector;
+        this.jsonMapper = jsonMapper;
     }
     
     /**
@@ -44,6 +63,25 @@ public class ReplayController {
         }
     }
     
+    /**
+     * Current state of an order from the order-state view (no replay), replaying only if the view doesn't know it.
+     * 
+     * GET /api/replay/order/{orderId}/current
+     */
+    @GetMapping("/order/{orderId}/current")
+    public ResponseEntity<?> currentOrderState(@PathVariable String orderId) {
+        try {
+            OrderState state = orderStateProjector.currentState(orderId)
+                .orElseGet(() -> replayService.replayOrder(orderId));
+            return ResponseEntity.ok(OrderReplayResponse.from(state));
+            
+        } catch (Exception e) {
+            log.error("Error reading current state of order: {}", orderId, e);
+            ErrorResponse error = new ErrorResponse("Failed to read order state: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+    
     /**
      * Replay events up to a specific timestamp and return state at that point.
      * 
@@ -68,5 +106,72 @@ public class ReplayController {
             return ResponseEntity.internalServerError().body(error);
         }
     }
+    
+    /**
+     * Replay an order once and return its state at each of the given timestamps (audit timeline).
+     * 
+     * GET /api/replay/order/{orderId}/timeline?timestamps=2024-01-15T10:30:00,2024-01-15T11:00:00
+     */
+    @GetMapping("/order/{orderId}/timeline")
+    public ResponseEntity<?> replayOrderTimeline(
+        @PathVariable String orderId,
+        @RequestParam List<String> timestamps
+    ) {
+        log.info("Timeline replay request received for order: {} at {} timestamps", orderId, timestamps.size());
+        
+        if (timestamps.isEmpty() || timestamps.size() > MAX_TIMELINE_POINTS) {
+            return ResponseEntity.badRequest()
+                .body(new ErrorResponse("Between 1 and " + MAX_TIMELINE_POINTS + " timestamps are supported"));
+        }
+        
+        try {
+            List<LocalDateTime> targetTimes = timestamps.stream().map(LocalDateTime::parse).toList();
+            var states = replayService.replayAtTimestamps(orderId, targetTimes);
+            return ResponseEntity.ok(OrderTimelineResponse.from(orderId, states));
+            
+        } catch (Exception e) {
+            log.error("Error replaying order timeline: {}", orderId, e);
+            ErrorResponse error = new ErrorResponse("Failed to replay order: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+    
+    /**
+     * Replay many orders in one pass over the event store, streamed back as newline-delimited JSON
+     * (one OrderReplayResponse per line, a partition at a time as scans complete).
+     * 
+     * POST /api/replay/orders
+     * {"orderIds": ["order-1", "order-2"]} or {"customerId": "customer-123", "from": "2024-01-15T00:00:00", "to": "2024-01-16T00:00:00"}
+     */
+    @PostMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> replayOrders(@RequestBody BulkReplayRequest request) {
+        if (!request.hasOrderIds() && !request.hasFilter()) {
+            return streamingError("orderIds or a customerId/from/to filter is required");
+        }
+        
+        Set<String> orderIds = bulkReplayService.resolveOrderIds(request);
+        if (orderIds.size() > bulkReplayService.getMaxOrders()) {
+            return streamingError("At most " + bulkReplayService.getMaxOrders() + " orders can be replayed per request");
+        }
+        log.info("Bulk replay request received for {} orders", orderIds.size());
+        
+        StreamingResponseBody body = out -> bulkReplayService.replayOrders(orderIds, states -> {
+            try {
+                for (OrderState state : states) {
+                    out.write(jsonMapper.writeValueAsBytes(OrderReplayResponse.from(state)));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+    
+    // Streaming endpoints must return ResponseEntity<StreamingResponseBody>, so errors are streamed too
+    private ResponseEntity<StreamingResponseBody> streamingError(String message) {
+        byte[] error = jsonMapper.writeValueAsBytes(new ErrorResponse(message));
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(out -> out.write(error));
+    }
 }
-
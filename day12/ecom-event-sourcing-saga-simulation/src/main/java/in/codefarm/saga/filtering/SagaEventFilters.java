@@ -0,0 +1,34 @@
+package in.codefarm.saga.filtering;
+
+import java.util.Map;
+
+/**
+ * Header filters per saga consumer group (keys must match the @KafkaListener groupId).
+ * Groups not listed here (saga tracking, projections) receive every event.
+ */
+public final class SagaEventFilters {
+
+    private static final Map<String, SagaEventFilter> BY_GROUP = Map.of(
+        // orders: OrderCancelled is not a payment trigger
+        "payment-service-group", SagaEventFilter.accept("OrderPlaced"),
+        // payments: only successful payments reserve stock (no FAILED, no PaymentRefunded)
+        "inventory-service-group", SagaEventFilter.accept("PaymentProcessed", "SUCCESS"),
+        // payments: failed payments and refunds cancel the order
+        "order-service-compensation-group", SagaEventFilter.accept("PaymentProcessed", "FAILED")
+            .or("PaymentRefunded"),
+        // inventory: only unavailable stock triggers a refund
+        "payment-service-compensation-group", SagaEventFilter.accept("InventoryReserved", "UNAVAILABLE"),
+        // inventory: only reserved orders get a confirmation email
+        "email-service-group", SagaEventFilter.accept("InventoryReserved", "RESERVED")
+    );
+
+    private SagaEventFilters() {
+    }
+
+    /**
+     * @return the group's filter, or null if the group receives every event
+     */
+    public static SagaEventFilter forGroup(String groupId) {
+        return groupId == null ? null : BY_GROUP.get(groupId);
+    }
+}
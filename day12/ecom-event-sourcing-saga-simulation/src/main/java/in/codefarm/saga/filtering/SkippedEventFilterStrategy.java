@@ -0,0 +1,18 @@
+package in.codefarm.saga.filtering;
+
+import in.codefarm.saga.event.EventHeaders;
+import in.codefarm.saga.event.EventWrapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+
+/**
+ * Discards the records SagaEventDeserializer skipped for this group (null value on a tagged saga event),
+ * so listeners only see events they handle. The offsets of discarded records are still committed.
+ */
+public class SkippedEventFilterStrategy implements RecordFilterStrategy<String, EventWrapper<?>> {
+
+    @Override
+    public boolean filter(ConsumerRecord<String, EventWrapper<?>> record) {
+        return record.value() == null && EventHeaders.read(record.headers(), EventHeaders.EVENT_TYPE) != null;
+    }
+}
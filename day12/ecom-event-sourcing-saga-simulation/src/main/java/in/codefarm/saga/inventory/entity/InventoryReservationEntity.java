@@ -4,11 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory_reservations")
+@Table(name = "inventory_reservations", indexes = {
+    @Index(name = "idx_inventory_reservations_order_id", columnList = "orderId", unique = true),
+    @Index(name = "idx_inventory_reservations_reservation_id", columnList = "reservationId", unique = true)
+})
 public class InventoryReservationEntity {
     
+    // Pooled sequence (one round trip per 50 ids) - IDENTITY would disable JDBC insert batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_reservations_seq")
+    @SequenceGenerator(name = "inventory_reservations_seq", sequenceName = "inventory_reservations_seq", allocationSize = 50)
     private Long id;
     
     private String reservationId;
@@ -2,13 +2,27 @@ package in.codefarm.saga.inventory.repository;
 
 import in.codefarm.saga.inventory.entity.InventoryReservationEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventoryReservationRepository extends JpaRepository<InventoryReservationEntity, Long> {
     Optional<InventoryReservationEntity> findByReservationId(String reservationId);
     Optional<InventoryReservationEntity> findByOrderId(String orderId);
+    
+    @Query("select r.orderId from InventoryReservationEntity r")
+    List<String> findAllOrderIds();
+    
+    @Query("select r.productId as productId, sum(r.quantity) as quantity from InventoryReservationEntity r " +
+        "where r.status = 'RESERVED' and r.productId is not null group by r.productId")
+    List<ReservedQuantity> sumReservedQuantityByProduct();
+    
+    interface ReservedQuantity {
+        String getProductId();
+        Long getQuantity();
+    }
 }
 
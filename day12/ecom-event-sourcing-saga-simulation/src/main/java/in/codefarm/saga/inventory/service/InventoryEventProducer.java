@@ -6,8 +6,6 @@ import in.codefarm.saga.event.InventoryReservedEvent;
 import in.codefarm.saga.eventsourcing.EventStoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -19,18 +17,13 @@ public class InventoryEventProducer {
     private static final Logger log = LoggerFactory.getLogger(InventoryEventProducer.class);
     private static final String TOPIC_NAME = "inventory";
     
-    private final KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
     private final EventStoreService eventStoreService;
     
-    public InventoryEventProducer(
-        KafkaTemplate<String, EventWrapper<?>> kafkaTemplate,
-        EventStoreService eventStoreService
-    ) {
-        this.kafkaTemplate = kafkaTemplate;
+    public InventoryEventProducer(EventStoreService eventStoreService) {
         this.eventStoreService = eventStoreService;
     }
     
-    public void sendInventoryReservedEvent(InventoryReservedEvent payload, String transactionId) {
+    public CompletableFuture<Void> sendInventoryReservedEvent(InventoryReservedEvent payload, String transactionId) {
         var metadata = new EventMetadata(
             "InventoryReserved",
             "1.0",
@@ -44,22 +37,15 @@ public class InventoryEventProducer {
         log.info("Publishing InventoryReservedEvent - OrderId: {}, Status: {}, TransactionId: {}", 
             payload.orderId(), payload.status(), transactionId);
         
-        CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(TOPIC_NAME, payload.orderId(), event);
-        
-        future.thenAccept(result -> {
-            var recordMetadata = result.getRecordMetadata();
-            log.info("Inventory event sent - OrderId: {}, Partition: {}, Offset: {}", 
-                payload.orderId(), recordMetadata.partition(), recordMetadata.offset());
-        });
-        
-        future.exceptionally(ex -> {
-            log.error("Failed to send inventory event: {}", ex.getMessage(), ex);
-            return null;
-        });
-        
-        // Also append to event store for event sourcing
-        eventStoreService.appendEvent(payload.orderId(), event);
+        // Saga topic + event store append as one pipelined operation
+        return eventStoreService.publish(TOPIC_NAME, payload.orderId(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.info("Inventory event sent - OrderId: {}", payload.orderId());
+                } else {
+                    log.error("Failed to send inventory event: {}", ex.getMessage(), ex);
+                }
+            });
     }
 }
 
@@ -4,6 +4,7 @@ import in.codefarm.saga.event.EventWrapper;
 import in.codefarm.saga.event.PaymentProcessedEvent;
 import in.codefarm.saga.event.PaymentRefundedEvent;
 import in.codefarm.saga.event.OrderCancelledEvent;
+import in.codefarm.saga.fanout.SagaFanOut;
 import in.codefarm.saga.order.service.OrderService;
 import in.codefarm.saga.order.service.OrderEventProducer;
 import org.slf4j.Logger;
@@ -28,17 +29,21 @@ public class OrderServiceConsumer {
     public OrderServiceConsumer(
         OrderService orderService, 
         OrderEventProducer orderEventProducer,
-        @Qualifier("consumerJsonMapper") JsonMapper jsonMapper
+        @Qualifier("consumerJsonMapper") JsonMapper jsonMapper,
+        SagaFanOut sagaFanOut
     ) {
         this.orderService = orderService;
         this.orderEventProducer = orderEventProducer;
         this.jsonMapper = jsonMapper;
+        sagaFanOut.register("payments", "order-service-compensation-group",
+            (wrapper, partition) -> handlePaymentEvents(wrapper));
     }
     
     @KafkaListener(
         topics = "payments",
         groupId = "order-service-compensation-group",
-        containerFactory = "eventWrapperKafkaListenerContainerFactory"
+        containerFactory = "eventWrapperKafkaListenerContainerFactory",
+        autoStartup = "#{!@sagaFanOut.enabled}"
     )
     public void handlePaymentEvents(@Payload EventWrapper<?> wrapper) {
         try {
@@ -83,7 +88,7 @@ public class OrderServiceConsumer {
                     LocalDateTime.now()
                 );
                 
-                orderEventProducer.sendOrderCancelledEvent(cancelledEvent, transactionId);
+                orderEventProducer.sendOrderCancelledEvent(cancelledEvent, transactionId).join();
                 
                 log.info("Order Service: Order cancelled - OrderId: {}, TransactionId: {}", 
                     event.orderId(), transactionId);
@@ -92,7 +97,9 @@ public class OrderServiceConsumer {
             
             log.debug("Order Service: Ignoring event type: {}", eventType);
         } catch (Exception e) {
+            // Rethrown so the container error handler retries the record
             log.error("Order Service: Error handling payment event", e);
+            throw e;
         }
     }
 }
@@ -4,36 +4,53 @@ import in.codefarm.saga.order.entity.OrderEntity;
 import in.codefarm.saga.order.service.OrderService;
 import in.codefarm.saga.order.service.OrderEventProducer;
 import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.eventsourcing.EventAppendRejectedException;
+import in.codefarm.saga.id.TimeOrderedIds;
+import in.codefarm.saga.projection.ProjectionWriteFence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
     
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
+    private static final int MAX_PAGE_SIZE = 500;
     
     private final OrderService orderService;
     private final OrderEventProducer orderEventProducer;
+    private final JsonMapper jsonMapper;
+    private final ProjectionWriteFence writeFence;
     
-    public OrderController(OrderService orderService, OrderEventProducer orderEventProducer) {
+    public OrderController(OrderService orderService, OrderEventProducer orderEventProducer, JsonMapper jsonMapper,
+                           ProjectionWriteFence writeFence) {
         this.orderService = orderService;
         this.orderEventProducer = orderEventProducer;
+        this.jsonMapper = jsonMapper;
+        this.writeFence = writeFence;
     }
     
     @PostMapping
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest request) {
+    public CompletableFuture<ResponseEntity<OrderResponse>> placeOrder(@RequestBody OrderRequest request) {
+        // Row and OrderPlaced append must not straddle a projection swap
+        writeFence.enter();
         try {
-            String orderId = UUID.randomUUID().toString();
-            String transactionId = UUID.randomUUID().toString();
+            String orderId = TimeOrderedIds.newId();
+            String transactionId = TimeOrderedIds.newId();
             
             // Create order in database
             var order = orderService.createOrder(
@@ -55,23 +72,84 @@ public class OrderController {
                 LocalDateTime.now()
             );
             
-            orderEventProducer.sendOrderPlacedEvent(event, transactionId);
-            
-            log.info("Order placed - OrderId: {}, TransactionId: {}", orderId, transactionId);
-            
-            return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new OrderResponse("success", "Order placed successfully", orderId, transactionId));
+            // Respond once the broker acknowledged OrderPlaced (a lost one would leave the order stuck in
+            // PENDING) - the request thread is released while the send is in flight
+            return orderEventProducer.sendOrderPlacedEvent(event, transactionId)
+                .whenComplete((ignored, ex) -> writeFence.leave())
+                .thenApply(ignored -> {
+                    log.info("Order placed - OrderId: {}, TransactionId: {}", orderId, transactionId);
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(new OrderResponse("success", "Order placed successfully", orderId, transactionId));
+                })
+                .exceptionally(this::errorResponse);
                 
         } catch (Exception e) {
-            log.error("Error placing order", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new OrderResponse("error", "Failed to place order: " + e.getMessage(), null, null));
+            writeFence.leave();
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+    }
+    
+    private ResponseEntity<OrderResponse> errorResponse(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof EventAppendRejectedException) {
+            log.warn("Order event rejected by event store backpressure: {}", cause.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new OrderResponse("error", "Failed to place order: " + cause.getMessage(), null, null));
+        }
+        log.error("Error placing order", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(new OrderResponse("error", "Failed to place order: " + cause.getMessage(), null, null));
+    }
+    
+    // Every order as a JSON array (unchanged response shape), streamed from a DB cursor instead of findAll
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllOrders() {
+        StreamingResponseBody body = out -> {
+            out.write('[');
+            boolean[] first = {true};
+            orderService.forEachOrder(order -> {
+                try {
+                    if (!first[0]) {
+                        out.write(',');
+                    }
+                    out.write(jsonMapper.writeValueAsBytes(order));
+                    first[0] = false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.write(']');
+        };
+        return ResponseEntity.ok(body);
+    }
+    
+    // Keyset pagination: pass nextAfterId of the previous page to continue, null means last page
+    @GetMapping("/page")
+    public ResponseEntity<OrderPage> getOrderPage(
+        @RequestParam(defaultValue = "0") long afterId,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        if (limit <= 0) {
+            return ResponseEntity.badRequest().build();
         }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        List<OrderEntity> orders = orderService.findPage(afterId, pageSize);
+        Long nextAfterId = orders.size() == pageSize ? orders.get(orders.size() - 1).getId() : null;
+        return ResponseEntity.ok(new OrderPage(orders, nextAfterId));
     }
     
-    @GetMapping
-    public ResponseEntity<List<OrderEntity>> getAllOrders() {
-        return ResponseEntity.ok(orderService.findAll());
+    // Full export as newline-delimited JSON, streamed from a DB cursor (constant memory)
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        StreamingResponseBody body = out -> orderService.forEachOrder(order -> {
+            try {
+                out.write(jsonMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok(body);
     }
     
     @GetMapping("/{orderId}")
@@ -89,6 +167,12 @@ public class OrderController {
     ) {
     }
     
+    public record OrderPage(
+        List<OrderEntity> orders,
+        Long nextAfterId
+    ) {
+    }
+    
     public record OrderResponse(
         String status,
         String message,
@@ -1,13 +1,38 @@
 package in.codefarm.saga.order.repository;
 
 import in.codefarm.saga.order.entity.OrderEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
     Optional<OrderEntity> findByOrderId(String orderId);
+    
+    // Keyset pagination - seeks past the last seen id instead of scanning OFFSET rows
+    List<OrderEntity> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    // Cursor-backed stream for exports - rows are fetched in chunks, never materialized as a list
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from OrderEntity o order by o.id")
+    Stream<OrderEntity> streamAllByOrderByIdAsc();
+    
+    // Order ids by customer and/or creation time (null = no filter), for bulk replay
+    @Query("select o.orderId from OrderEntity o where (:customerId is null or o.customerId = :customerId) " +
+           "and (:from is null or o.createdAt >= :from) and (:to is null or o.createdAt < :to) order by o.id")
+    List<String> findOrderIds(@Param("customerId") String customerId, @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to, Limit limit);
 }
-
@@ -7,8 +7,6 @@ import in.codefarm.saga.event.OrderCancelledEvent;
 import in.codefarm.saga.eventsourcing.EventStoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,18 +18,13 @@ public class OrderEventProducer {
     private static final Logger log = LoggerFactory.getLogger(OrderEventProducer.class);
     private static final String ORDERS_TOPIC = "orders";
     
-    private final KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
     private final EventStoreService eventStoreService;
     
-    public OrderEventProducer(
-        KafkaTemplate<String, EventWrapper<?>> kafkaTemplate,
-        EventStoreService eventStoreService
-    ) {
-        this.kafkaTemplate = kafkaTemplate;
+    public OrderEventProducer(EventStoreService eventStoreService) {
         this.eventStoreService = eventStoreService;
     }
     
-    public void sendOrderPlacedEvent(OrderPlacedEvent payload, String transactionId) {
+    public CompletableFuture<Void> sendOrderPlacedEvent(OrderPlacedEvent payload, String transactionId) {
         var metadata = new EventMetadata(
             "OrderPlaced",
             "1.0",
@@ -45,25 +38,18 @@ public class OrderEventProducer {
         log.info("Publishing OrderPlacedEvent - OrderId: {}, TransactionId: {}", 
             payload.orderId(), transactionId);
         
-        CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(ORDERS_TOPIC, payload.orderId(), event);
-        
-        future.thenAccept(result -> {
-            var recordMetadata = result.getRecordMetadata();
-            log.info("Order event sent - OrderId: {}, Partition: {}, Offset: {}", 
-                payload.orderId(), recordMetadata.partition(), recordMetadata.offset());
-        });
-        
-        future.exceptionally(ex -> {
-            log.error("Failed to send order event: {}", ex.getMessage(), ex);
-            return null;
-        });
-        
-        // Also append to event store for event sourcing
-        eventStoreService.appendEvent(payload.orderId(), event);
+        // Saga topic + event store append as one pipelined operation
+        return eventStoreService.publish(ORDERS_TOPIC, payload.orderId(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.info("Order event sent - OrderId: {}", payload.orderId());
+                } else {
+                    log.error("Failed to send order event: {}", ex.getMessage(), ex);
+                }
+            });
     }
     
-    public void sendOrderCancelledEvent(OrderCancelledEvent payload, String transactionId) {
+    public CompletableFuture<Void> sendOrderCancelledEvent(OrderCancelledEvent payload, String transactionId) {
         var metadata = new EventMetadata(
             "OrderCancelled",
             "1.0",
@@ -77,22 +63,15 @@ public class OrderEventProducer {
         log.info("Publishing OrderCancelledEvent - OrderId: {}, TransactionId: {}", 
             payload.orderId(), transactionId);
         
-        CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(ORDERS_TOPIC, payload.orderId(), event);
-        
-        future.thenAccept(result -> {
-            var recordMetadata = result.getRecordMetadata();
-            log.info("Order cancelled event sent - OrderId: {}, Partition: {}, Offset: {}", 
-                payload.orderId(), recordMetadata.partition(), recordMetadata.offset());
-        });
-        
-        future.exceptionally(ex -> {
-            log.error("Failed to send order cancelled event: {}", ex.getMessage(), ex);
-            return null;
-        });
-        
-        // Also append to event store for event sourcing
-        eventStoreService.appendEvent(payload.orderId(), event);
+        // Saga topic + event store append as one pipelined operation
+        return eventStoreService.publish(ORDERS_TOPIC, payload.orderId(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.info("Order cancelled event sent - OrderId: {}", payload.orderId());
+                } else {
+                    log.error("Failed to send order cancelled event: {}", ex.getMessage(), ex);
+                }
+            });
     }
 }
 
@@ -2,13 +2,17 @@ package in.codefarm.saga.order.service;
 
 import in.codefarm.saga.order.entity.OrderEntity;
 import in.codefarm.saga.order.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class OrderService {
@@ -17,6 +21,9 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public OrderService(OrderRepository orderRepository) {
         this.orderRepository = orderRepository;
     }
@@ -42,8 +49,26 @@ public class OrderService {
         return orderRepository.findByOrderId(orderId);
     }
     
-    public List<OrderEntity> findAll() {
-        return orderRepository.findAll();
+    /**
+     * One page of orders with id greater than afterId, in id order.
+     * Pass the last id of a page as afterId to get the next one.
+     */
+    public List<OrderEntity> findPage(long afterId, int limit) {
+        return orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+    
+    /**
+     * Visit every order in id order without loading the table into memory.
+     * Each entity is detached after the action so the persistence context stays small.
+     */
+    @Transactional(readOnly = true)
+    public void forEachOrder(Consumer<OrderEntity> action) {
+        try (var orders = orderRepository.streamAllByOrderByIdAsc()) {
+            orders.forEach(order -> {
+                action.accept(order);
+                entityManager.detach(order);
+            });
+        }
     }
     
     @Transactional
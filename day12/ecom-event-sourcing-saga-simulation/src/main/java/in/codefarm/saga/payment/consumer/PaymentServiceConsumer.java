@@ -5,36 +5,49 @@ import in.codefarm.saga.event.OrderPlacedEvent;
 import in.codefarm.saga.event.InventoryReservedEvent;
 import in.codefarm.saga.event.PaymentProcessedEvent;
 import in.codefarm.saga.event.PaymentRefundedEvent;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import in.codefarm.saga.fanout.SagaFanOut;
 import in.codefarm.saga.payment.service.PaymentService;
 import in.codefarm.saga.payment.service.PaymentEventProducer;
+import in.codefarm.saga.id.TimeOrderedIds;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import tools.jackson.databind.json.JsonMapper;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 @Component
 public class PaymentServiceConsumer {
     
     private static final Logger log = LoggerFactory.getLogger(PaymentServiceConsumer.class);
+    private static final String DEDUP_STORE = "payment-service-group";
     
     private final PaymentService paymentService;
     private final PaymentEventProducer paymentEventProducer;
     private final JsonMapper jsonMapper;
+    private final ProcessedEventStore processedEventStore;
     
     public PaymentServiceConsumer(
         PaymentService paymentService,
         PaymentEventProducer paymentEventProducer,
-        @Qualifier("consumerJsonMapper") JsonMapper jsonMapper
+        @Qualifier("consumerJsonMapper") JsonMapper jsonMapper,
+        ProcessedEventStore processedEventStore,
+        SagaFanOut sagaFanOut
     ) {
         this.paymentService = paymentService;
         this.paymentEventProducer = paymentEventProducer;
         this.jsonMapper = jsonMapper;
+        this.processedEventStore = processedEventStore;
+        processedEventStore.register(DEDUP_STORE, "orders", ProcessedEventStore.byRecordKey(paymentService::findAllOrderIds));
+        sagaFanOut.register("inventory", "payment-service-compensation-group",
+            (wrapper, partition) -> handleInventoryUnavailable(wrapper));
     }
     
     @KafkaListener(
@@ -42,7 +55,10 @@ public class PaymentServiceConsumer {
         groupId = "payment-service-group",
         containerFactory = "eventWrapperKafkaListenerContainerFactory"
     )
-    public void handleOrderPlaced(@Payload EventWrapper<?> wrapper) {
+    public void handleOrderPlaced(
+        @Payload EventWrapper<?> wrapper,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition
+    ) {
         try {
             String eventType = wrapper.metadata().eventType();
             
@@ -60,14 +76,14 @@ public class PaymentServiceConsumer {
                 event.orderId(), transactionId);
             
             // Idempotency check
-            var existingPayment = paymentService.findByOrderId(event.orderId());
-            if (existingPayment.isPresent()) {
-                log.warn("Payment already processed for order: {} - skipping (idempotency)", event.orderId());
+            if (isAlreadyProcessed(partition, event.orderId())) {
+                log.warn("Payment already processed for order: {} - republishing the stored result (idempotency)", event.orderId());
+                republishStoredResult(event, transactionId);
                 return;
             }
             
             boolean paymentSuccess = processPayment(event);
-            String paymentId = UUID.randomUUID().toString();
+            String paymentId = TimeOrderedIds.newId();
             
             // Save payment to database
             paymentService.processPayment(
@@ -78,6 +94,7 @@ public class PaymentServiceConsumer {
                 paymentSuccess ? "SUCCESS" : "FAILED",
                 transactionId
             );
+            processedEventStore.markProcessed(DEDUP_STORE, partition, event.orderId());
             
             // Publish result
             var paymentEvent = new PaymentProcessedEvent(
@@ -86,14 +103,20 @@ public class PaymentServiceConsumer {
                 event.customerId(),
                 event.totalAmount(),
                 paymentSuccess ? "SUCCESS" : "FAILED",
-                LocalDateTime.now()
+                LocalDateTime.now(),
+                event.productId(),
+                event.quantity()
             );
             
-            paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId);
+            paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId).join();
             
             log.info("Payment Service: Payment processed - OrderId: {}, Status: {}, TransactionId: {}", 
                 event.orderId(), paymentEvent.status(), transactionId);
             
+        } catch (CompletionException e) {
+            // The payment result was not acknowledged - retry the record rather than report a failed payment
+            log.error("Payment Service: Failed to publish payment result", e);
+            throw e;
         } catch (Exception e) {
             log.error("Payment Service: Error processing payment", e);
             
@@ -103,17 +126,21 @@ public class PaymentServiceConsumer {
                 String transactionId = wrapper.metadata().transactionId();
                 
                 var failureEvent = new PaymentProcessedEvent(
-                    UUID.randomUUID().toString(),
+                    TimeOrderedIds.newId(),
                     event.orderId(),
                     event.customerId(),
                     event.totalAmount(),
                     "FAILED",
-                    LocalDateTime.now()
+                    LocalDateTime.now(),
+                    event.productId(),
+                    event.quantity()
                 );
                 
-                paymentEventProducer.sendPaymentProcessedEvent(failureEvent, transactionId);
+                paymentEventProducer.sendPaymentProcessedEvent(failureEvent, transactionId).join();
             } catch (Exception ex) {
                 log.error("Failed to send failure event", ex);
+                e.addSuppressed(ex);
+                throw e;
             }
         }
     }
@@ -121,7 +148,8 @@ public class PaymentServiceConsumer {
     @KafkaListener(
         topics = "inventory",
         groupId = "payment-service-compensation-group",
-        containerFactory = "eventWrapperKafkaListenerContainerFactory"
+        containerFactory = "eventWrapperKafkaListenerContainerFactory",
+        autoStartup = "#{!@sagaFanOut.enabled}"
     )
     public void handleInventoryUnavailable(@Payload EventWrapper<?> wrapper) {
         try {
@@ -145,12 +173,49 @@ public class PaymentServiceConsumer {
                         LocalDateTime.now()
                     );
                     
-                    paymentEventProducer.sendPaymentRefundedEvent(refundEvent, transactionId);
+                    paymentEventProducer.sendPaymentRefundedEvent(refundEvent, transactionId).join();
                 }
             }
         } catch (Exception e) {
+            // Rethrown so the container error handler retries the record
             log.error("Payment Service: Error handling inventory unavailable", e);
+            throw e;
+        }
+    }
+    
+    /**
+     * The payment row is committed before its result is published, so a redelivery after a failed publish
+     * (or a crash in between) lands here: publish the result again from the stored payment instead of
+     * leaving the saga waiting. A refunded payment is past that point and is not republished.
+     */
+    private void republishStoredResult(OrderPlacedEvent event, String transactionId) {
+        var payment = paymentService.findByOrderId(event.orderId());
+        if (payment.isEmpty() || "REFUNDED".equals(payment.get().getStatus())) {
+            return;
+        }
+        var stored = payment.get();
+        var paymentEvent = new PaymentProcessedEvent(
+            stored.getPaymentId(),
+            stored.getOrderId(),
+            stored.getCustomerId(),
+            stored.getAmount(),
+            stored.getStatus(),
+            stored.getProcessedAt(),
+            event.productId(),
+            event.quantity()
+        );
+        paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId).join();
+    }
+    
+    /**
+     * Ask the local dedup store first; only hit the database when it cannot answer.
+     */
+    private boolean isAlreadyProcessed(int partition, String orderId) {
+        var status = processedEventStore.lookup(DEDUP_STORE, partition, orderId);
+        if (status != ProcessedEventStore.Status.UNKNOWN) {
+            return status == ProcessedEventStore.Status.PROCESSED;
         }
+        return paymentService.findByOrderId(orderId).isPresent();
     }
     
     private boolean processPayment(OrderPlacedEvent event) {
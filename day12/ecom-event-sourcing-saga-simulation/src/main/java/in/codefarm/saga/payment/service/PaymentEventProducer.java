@@ -7,8 +7,6 @@ import in.codefarm.saga.event.PaymentRefundedEvent;
 import in.codefarm.saga.eventsourcing.EventStoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,18 +18,13 @@ public class PaymentEventProducer {
     private static final Logger log = LoggerFactory.getLogger(PaymentEventProducer.class);
     private static final String PAYMENT_TOPIC = "payments";
     
-    private final KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
     private final EventStoreService eventStoreService;
     
-    public PaymentEventProducer(
-        KafkaTemplate<String, EventWrapper<?>> kafkaTemplate,
-        EventStoreService eventStoreService
-    ) {
-        this.kafkaTemplate = kafkaTemplate;
+    public PaymentEventProducer(EventStoreService eventStoreService) {
         this.eventStoreService = eventStoreService;
     }
     
-    public void sendPaymentProcessedEvent(PaymentProcessedEvent payload, String transactionId) {
+    public CompletableFuture<Void> sendPaymentProcessedEvent(PaymentProcessedEvent payload, String transactionId) {
         var metadata = new EventMetadata(
             "PaymentProcessed",
             "1.0",
@@ -45,25 +38,18 @@ public class PaymentEventProducer {
         log.info("Publishing PaymentProcessedEvent - OrderId: {}, Status: {}, TransactionId: {}", 
             payload.orderId(), payload.status(), transactionId);
         
-        CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(PAYMENT_TOPIC, payload.orderId(), event);
-        
-        future.thenAccept(result -> {
-            var recordMetadata = result.getRecordMetadata();
-            log.info("Payment event sent - OrderId: {}, Partition: {}, Offset: {}", 
-                payload.orderId(), recordMetadata.partition(), recordMetadata.offset());
-        });
-        
-        future.exceptionally(ex -> {
-            log.error("Failed to send payment event: {}", ex.getMessage(), ex);
-            return null;
-        });
-        
-        // Also append to event store for event sourcing
-        eventStoreService.appendEvent(payload.orderId(), event);
+        // Saga topic + event store append as one pipelined operation
+        return eventStoreService.publish(PAYMENT_TOPIC, payload.orderId(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.info("Payment event sent - OrderId: {}", payload.orderId());
+                } else {
+                    log.error("Failed to send payment event: {}", ex.getMessage(), ex);
+                }
+            });
     }
     
-    public void sendPaymentRefundedEvent(PaymentRefundedEvent payload, String transactionId) {
+    public CompletableFuture<Void> sendPaymentRefundedEvent(PaymentRefundedEvent payload, String transactionId) {
         var metadata = new EventMetadata(
             "PaymentRefunded",
             "1.0",
@@ -77,22 +63,15 @@ public class PaymentEventProducer {
         log.info("Publishing PaymentRefundedEvent - OrderId: {}, TransactionId: {}", 
             payload.orderId(), transactionId);
         
-        CompletableFuture<SendResult<String, EventWrapper<?>>> future = 
-            kafkaTemplate.send(PAYMENT_TOPIC, payload.orderId(), event);
-        
-        future.thenAccept(result -> {
-            var recordMetadata = result.getRecordMetadata();
-            log.info("Payment refund event sent - OrderId: {}, Partition: {}, Offset: {}", 
-                payload.orderId(), recordMetadata.partition(), recordMetadata.offset());
-        });
-        
-        future.exceptionally(ex -> {
-            log.error("Failed to send payment refund event: {}", ex.getMessage(), ex);
-            return null;
-        });
-        
-        // Also append to event store for event sourcing
-        eventStoreService.appendEvent(payload.orderId(), event);
+        // Saga topic + event store append as one pipelined operation
+        return eventStoreService.publish(PAYMENT_TOPIC, payload.orderId(), event)
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    log.info("Payment refund event sent - OrderId: {}", payload.orderId());
+                } else {
+                    log.error("Failed to send payment refund event: {}", ex.getMessage(), ex);
+                }
+            });
     }
 }
 
@@ -0,0 +1,320 @@
+package in.codefarm.saga.projection;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.InventoryReservedEvent;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.event.PaymentProcessedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes order-events into the shadow tables of a projection rebuild with plain JDBC batches.
+ * 
+ * Shadow tables are copied from the live JPA tables (orders, payments, inventory_reservations) under a
+ * _rebuild suffix - same columns and types, and on swap the same indexes - so they cannot drift from the entities.
+ * Their ids are drawn from the entities' sequences, so after the swap they never collide with ids
+ * Hibernate has already allocated (including blocks still cached by the pooled optimizer).
+ * Per batch, all inserts run before the status updates - an update always refers to a row inserted
+ * by an earlier event of the same order, either in this batch or a previous one.
+ * The partition checkpoint is written in the same transaction as the rows, so a resumed rebuild
+ * never applies an event twice.
+ * 
+ * H2 commits every DDL statement on its own, so the swap is a sequence of renames that can be re-run
+ * from any point: live tables move aside to _old, shadow tables take their names, and the _old tables
+ * are only dropped once every table was swapped (see recoverSwap).
+ */
+class ProjectionBatchWriter {
+    
+    static final String SHADOW_SUFFIX = "_rebuild";
+    static final String OLD_SUFFIX = "_old";
+    
+    private static final List<String> TABLES = List.of("orders", "payments", "inventory_reservations");
+    
+    private static final String INSERT_ORDER = "insert into orders_rebuild " +
+        "(order_id, customer_id, product_id, quantity, total_amount, status, order_date, created_at, transaction_id) " +
+        "values (?, ?, ?, ?, ?, 'PENDING', ?, ?, ?)";
+    private static final String INSERT_PAYMENT = "insert into payments_rebuild " +
+        "(payment_id, order_id, customer_id, amount, status, processed_at, created_at, transaction_id) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_RESERVATION = "insert into inventory_reservations_rebuild " +
+        "(reservation_id, order_id, product_id, quantity, status, reserved_at, created_at, transaction_id) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CANCEL_ORDER = "update orders_rebuild set status = 'CANCELLED' where order_id = ?";
+    private static final String REFUND_PAYMENT = "update payments_rebuild set status = 'REFUNDED' where order_id = ?";
+    
+    private static final String CREATE_CHECKPOINTS = "create table if not exists projection_rebuild_checkpoints " +
+        "(partition_id integer primary key, next_offset bigint not null)";
+    private static final String SAVE_CHECKPOINT = "merge into projection_rebuild_checkpoints " +
+        "(partition_id, next_offset) key (partition_id) values (?, ?)";
+    
+    private final JsonMapper jsonMapper;
+    
+    ProjectionBatchWriter(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+    
+    /**
+     * Drop any previous shadow tables and checkpoints and create empty shadow tables.
+     */
+    void createShadowTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_CHECKPOINTS);
+            statement.execute("delete from projection_rebuild_checkpoints");
+            for (String table : TABLES) {
+                String shadow = table + SHADOW_SUFFIX;
+                statement.execute("drop table if exists " + shadow);
+                // Columns and types of the live table; primary key and id sequence like the entity
+                statement.execute("create table " + shadow + " as select * from " + table + " where 1 = 0");
+                statement.execute("alter table " + shadow + " alter column id set not null");
+                statement.execute("alter table " + shadow + " alter column id set default next value for " + table + "_seq");
+                statement.execute("alter table " + shadow + " add primary key (id)");
+            }
+        }
+    }
+    
+    /**
+     * Whether all shadow tables exist, i.e. checkpoints can be resumed.
+     */
+    boolean shadowTablesExist(Connection connection) throws SQLException {
+        for (String table : TABLES) {
+            if (!tableExists(connection, table + SHADOW_SUFFIX)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Checkpoint (next offset to apply) per partition from a previous, unfinished rebuild.
+     */
+    Map<Integer, Long> loadCheckpoints(Connection connection) throws SQLException {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_CHECKPOINTS);
+            try (var rs = statement.executeQuery("select partition_id, next_offset from projection_rebuild_checkpoints")) {
+                while (rs.next()) {
+                    checkpoints.put(rs.getInt(1), rs.getLong(2));
+                }
+            }
+        }
+        return checkpoints;
+    }
+    
+    /**
+     * Apply one batch of a partition and advance its checkpoint, in the caller's transaction.
+     * 
+     * @return number of events applied to the shadow tables
+     */
+    int writeBatch(Connection connection, int partition, List<ConsumerRecord<String, EventWrapper<?>>> records,
+                   long nextOffset) throws SQLException {
+        int applied = 0;
+        try (PreparedStatement insertOrder = connection.prepareStatement(INSERT_ORDER);
+             PreparedStatement insertPayment = connection.prepareStatement(INSERT_PAYMENT);
+             PreparedStatement insertReservation = connection.prepareStatement(INSERT_RESERVATION);
+             PreparedStatement cancelOrder = connection.prepareStatement(CANCEL_ORDER);
+             PreparedStatement refundPayment = connection.prepareStatement(REFUND_PAYMENT);
+             PreparedStatement checkpoint = connection.prepareStatement(SAVE_CHECKPOINT)) {
+            
+            for (ConsumerRecord<String, EventWrapper<?>> record : records) {
+                EventWrapper<?> event = record.value();
+                Timestamp createdAt = Timestamp.valueOf(event.metadata().timestamp());
+                String transactionId = event.metadata().transactionId();
+                
+                switch (event.metadata().eventType()) {
+                    case "OrderPlaced" -> {
+                        var order = jsonMapper.convertValue(event.payload(), OrderPlacedEvent.class);
+                        insertOrder.setString(1, order.orderId());
+                        insertOrder.setString(2, order.customerId());
+                        insertOrder.setString(3, order.productId());
+                        insertOrder.setObject(4, order.quantity());
+                        insertOrder.setBigDecimal(5, order.totalAmount());
+                        insertOrder.setTimestamp(6, order.orderDate() == null ? null : Timestamp.valueOf(order.orderDate()));
+                        insertOrder.setTimestamp(7, createdAt);
+                        insertOrder.setString(8, transactionId);
+                        insertOrder.addBatch();
+                    }
+                    case "PaymentProcessed" -> {
+                        var payment = jsonMapper.convertValue(event.payload(), PaymentProcessedEvent.class);
+                        insertPayment.setString(1, payment.paymentId());
+                        insertPayment.setString(2, payment.orderId());
+                        insertPayment.setString(3, payment.customerId());
+                        insertPayment.setBigDecimal(4, payment.amount());
+                        insertPayment.setString(5, payment.status());
+                        insertPayment.setTimestamp(6, payment.processedAt() == null ? null : Timestamp.valueOf(payment.processedAt()));
+                        insertPayment.setTimestamp(7, createdAt);
+                        insertPayment.setString(8, transactionId);
+                        insertPayment.addBatch();
+                    }
+                    case "InventoryReserved" -> {
+                        var reservation = jsonMapper.convertValue(event.payload(), InventoryReservedEvent.class);
+                        insertReservation.setString(1, reservation.reservationId());
+                        insertReservation.setString(2, reservation.orderId());
+                        insertReservation.setString(3, reservation.productId());
+                        insertReservation.setObject(4, reservation.quantity());
+                        insertReservation.setString(5, reservation.status());
+                        insertReservation.setTimestamp(6, reservation.reservedAt() == null ? null : Timestamp.valueOf(reservation.reservedAt()));
+                        insertReservation.setTimestamp(7, createdAt);
+                        insertReservation.setString(8, transactionId);
+                        insertReservation.addBatch();
+                    }
+                    case "OrderCancelled" -> {
+                        cancelOrder.setString(1, record.key());
+                        cancelOrder.addBatch();
+                    }
+                    case "PaymentRefunded" -> {
+                        refundPayment.setString(1, record.key());
+                        refundPayment.addBatch();
+                    }
+                    default -> {
+                        continue;
+                    }
+                }
+                applied++;
+            }
+            
+            insertOrder.executeBatch();
+            insertPayment.executeBatch();
+            insertReservation.executeBatch();
+            cancelOrder.executeBatch();
+            refundPayment.executeBatch();
+            
+            checkpoint.setInt(1, partition);
+            checkpoint.setLong(2, nextOffset);
+            checkpoint.executeUpdate();
+        }
+        return applied;
+    }
+    
+    /**
+     * Index the shadow tables like the live ones and swap them in place of the live tables, then clear the checkpoints.
+     * Unique indexes fail here on a duplicate business key in the event log, before anything is renamed.
+     */
+    void swap(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : TABLES) {
+                for (IndexDefinition index : indexes(connection, table)) {
+                    statement.execute("create " + (index.unique() ? "unique " : "") + "index if not exists " +
+                        index.name() + SHADOW_SUFFIX + " on " + table + SHADOW_SUFFIX + " (" + String.join(", ", index.columns()) + ")");
+                }
+            }
+        }
+        finishSwap(connection);
+    }
+    
+    /**
+     * Complete a swap that was interrupted after the first live table was moved aside (lost connection).
+     * Runs at the start of the next rebuild, before it creates its shadow tables.
+     * 
+     * @return true if an interrupted swap was found and completed
+     */
+    static boolean recoverSwap(Connection connection) throws SQLException {
+        for (String table : TABLES) {
+            if (tableExists(connection, table + OLD_SUFFIX)) {
+                finishSwap(connection);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The renames of a swap. Every step is skipped when already done, so this can be re-run after a crash
+     * at any point: _old tables exist from the first rename until the last drop.
+     */
+    private static void finishSwap(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // 1. Move every live table aside, with its indexes (index names are schema-wide)
+            for (String table : TABLES) {
+                String old = table + OLD_SUFFIX;
+                if (tableExists(connection, table) && tableExists(connection, table + SHADOW_SUFFIX) && !tableExists(connection, old)) {
+                    statement.execute("alter table " + table + " rename to " + old);
+                }
+                if (tableExists(connection, old)) {
+                    renameIndexes(connection, statement, old, "", OLD_SUFFIX);
+                }
+            }
+            // 2. Shadow tables take the live names
+            for (String table : TABLES) {
+                if (tableExists(connection, table + SHADOW_SUFFIX) && !tableExists(connection, table)) {
+                    statement.execute("alter table " + table + SHADOW_SUFFIX + " rename to " + table);
+                }
+                renameIndexes(connection, statement, table, SHADOW_SUFFIX, "");
+            }
+            // 3. Only now is the old data dispensable
+            statement.execute(CREATE_CHECKPOINTS);
+            statement.execute("delete from projection_rebuild_checkpoints");
+            for (String table : TABLES) {
+                statement.execute("drop table if exists " + table + OLD_SUFFIX);
+            }
+        }
+    }
+    
+    /**
+     * Rename the secondary indexes of a table from name + fromSuffix to name + toSuffix ("" = no suffix).
+     */
+    private static void renameIndexes(Connection connection, Statement statement, String table,
+                                      String fromSuffix, String toSuffix) throws SQLException {
+        for (IndexDefinition index : indexes(connection, table)) {
+            String name = index.name().toLowerCase(Locale.ROOT);
+            if (!name.endsWith(fromSuffix) || (fromSuffix.isEmpty() && name.endsWith(toSuffix))) {
+                continue;
+            }
+            String base = name.substring(0, name.length() - fromSuffix.length());
+            statement.execute("alter index " + name + " rename to " + base + toSuffix);
+        }
+    }
+    
+    /**
+     * Secondary indexes of a table from the JDBC metadata, without the primary key index.
+     */
+    private static List<IndexDefinition> indexes(Connection connection, String table) throws SQLException {
+        Set<String> primaryKeys = new HashSet<>();
+        try (ResultSet rs = connection.getMetaData().getPrimaryKeys(null, connection.getSchema(), table.toUpperCase(Locale.ROOT))) {
+            while (rs.next()) {
+                primaryKeys.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        Map<String, IndexDefinition> indexes = new LinkedHashMap<>();
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(null, connection.getSchema(), table.toUpperCase(Locale.ROOT), false, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name == null) {
+                    continue;
+                }
+                IndexDefinition index = indexes.get(name);
+                if (index == null) {
+                    index = new IndexDefinition(name, !rs.getBoolean("NON_UNIQUE"), new ArrayList<>());
+                    indexes.put(name, index);
+                }
+                index.columns().add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        return indexes.values().stream()
+            .filter(index -> !primaryKeys.equals(Set.copyOf(index.columns())))
+            .toList();
+    }
+    
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getTables(null, connection.getSchema(), table.toUpperCase(Locale.ROOT), null)) {
+            return rs.next();
+        }
+    }
+    
+    private record IndexDefinition(String name, boolean unique, List<String> columns) {
+    }
+}
@@ -0,0 +1,50 @@
+package in.codefarm.saga.projection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for rebuilding the read tables from the event store.
+ */
+@RestController
+@RequestMapping("/api/projections/rebuild")
+public class ProjectionRebuildController {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuildController.class);
+    
+    private final ProjectionRebuildService rebuildService;
+    
+    public ProjectionRebuildController(ProjectionRebuildService rebuildService) {
+        this.rebuildService = rebuildService;
+    }
+    
+    /**
+     * Start a rebuild (resumes an unfinished one from its checkpoints).
+     * 
+     * POST /api/projections/rebuild
+     */
+    @PostMapping
+    public ResponseEntity<RebuildStatus> startRebuild() {
+        log.info("Projection rebuild requested");
+        if (!rebuildService.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(rebuildService.status());
+        }
+        return ResponseEntity.accepted().body(rebuildService.status());
+    }
+    
+    /**
+     * Progress of the current or last rebuild, including events/s.
+     * 
+     * GET /api/projections/rebuild
+     */
+    @GetMapping
+    public ResponseEntity<RebuildStatus> getStatus() {
+        return ResponseEntity.ok(rebuildService.status());
+    }
+}
@@ -0,0 +1,328 @@
+package in.codefarm.saga.projection;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Projection Rebuild Service - Rebuilds the orders, payments and inventory_reservations tables from order-events.
+ * 
+ * Rebuild steps:
+ * 1. Create empty shadow tables (or resume the shadow tables of an unfinished rebuild from its checkpoints)
+ * 2. Replay every order-events partition in parallel into the shadow tables with JDBC batches,
+ *    one transaction per poll that also advances the partition checkpoint
+ * 3. Once every partition reached the end offset seen at start, catch up with the events appended meanwhile
+ * 4. Pause the Kafka listener containers and close the ProjectionWriteFence, so every live row committed so far
+ *    has its event acknowledged, take the database exclusively for at most max-exclusive-ms, apply the events
+ *    up to the end offsets read now and swap the shadow tables in place of the live ones
+ * 
+ * A rebuild that cannot pause the listeners or drain the live writes in time, or runs out of exclusive time,
+ * fails without touching the live tables and resumes from its checkpoints when started again; a swap
+ * interrupted half-way (lost connection) is completed when the next rebuild starts.
+ * 
+ * Progress, including events/s, is available from status() while the rebuild runs.
+ */
+@Service
+public class ProjectionRebuildService {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuildService.class);
+    private static final String EVENT_STORE_TOPIC = "order-events";
+    // Consecutive empty polls below the end offset before a replay without deadline stops (1 s each)
+    private static final int MAX_IDLE_POLLS = 5;
+    
+    private final ConsumerFactory<String, EventWrapper<?>> replayConsumerFactory;
+    private final DataSource dataSource;
+    private final ProcessedEventStore processedEventStore;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ProjectionWriteFence writeFence;
+    private final ProjectionBatchWriter writer;
+    private final int parallelism;
+    private final long maxExclusiveMs;
+    private final long pauseTimeoutMs;
+    
+    private final Map<Integer, RebuildStatus.PartitionProgress> progress = new ConcurrentHashMap<>();
+    private final AtomicLong eventsApplied = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    
+    public ProjectionRebuildService(
+        @Qualifier("replayConsumerFactory") ConsumerFactory<String, EventWrapper<?>> replayConsumerFactory,
+        DataSource dataSource,
+        ProcessedEventStore processedEventStore,
+        KafkaListenerEndpointRegistry listenerRegistry,
+        ProjectionWriteFence writeFence,
+        JsonMapper jsonMapper,
+        @Value("${projection.rebuild.parallelism:4}") int parallelism,
+        @Value("${projection.rebuild.max-exclusive-ms:5000}") long maxExclusiveMs,
+        @Value("${projection.rebuild.pause-timeout-ms:10000}") long pauseTimeoutMs
+    ) {
+        this.replayConsumerFactory = replayConsumerFactory;
+        this.dataSource = dataSource;
+        this.processedEventStore = processedEventStore;
+        this.listenerRegistry = listenerRegistry;
+        this.writeFence = writeFence;
+        this.writer = new ProjectionBatchWriter(jsonMapper);
+        this.parallelism = parallelism;
+        this.maxExclusiveMs = maxExclusiveMs;
+        this.pauseTimeoutMs = pauseTimeoutMs;
+    }
+    
+    /**
+     * Start a rebuild in the background. Returns false if one is already running.
+     */
+    public synchronized boolean start() {
+        if (isRunning()) {
+            return false;
+        }
+        begin();
+        CompletableFuture.runAsync(this::runSafely);
+        return true;
+    }
+    
+    /**
+     * Run a rebuild on the calling thread and return its final status.
+     */
+    public RebuildStatus rebuild() {
+        synchronized (this) {
+            if (isRunning()) {
+                throw new IllegalStateException("A projection rebuild is already running");
+            }
+            begin();
+        }
+        runSafely();
+        return status();
+    }
+    
+    public RebuildStatus status() {
+        long end = finishedNanos > 0 ? finishedNanos : System.nanoTime();
+        double seconds = startedNanos > 0 ? (end - startedNanos) / 1_000_000_000.0 : 0;
+        long applied = eventsApplied.get();
+        return new RebuildStatus(state, startedAt, applied, seconds > 0 ? applied / seconds : 0,
+            Map.copyOf(progress), error);
+    }
+    
+    private boolean isRunning() {
+        return "REBUILDING".equals(state) || "SWAPPING".equals(state);
+    }
+    
+    private void begin() {
+        progress.clear();
+        eventsApplied.set(0);
+        error = null;
+        startedAt = LocalDateTime.now();
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+        state = "REBUILDING";
+    }
+    
+    private void runSafely() {
+        try {
+            run();
+            state = "COMPLETED";
+        } catch (Exception e) {
+            log.error("Projection rebuild failed - it resumes from its checkpoints when started again", e);
+            error = e.getMessage();
+            state = "FAILED";
+        } finally {
+            finishedNanos = System.nanoTime();
+        }
+        RebuildStatus status = status();
+        log.info("Projection rebuild {} - events applied: {}, events/s: {}", 
+            status.state(), status.eventsApplied(), String.format("%.0f", status.eventsPerSecond()));
+    }
+    
+    private void run() throws Exception {
+        Map<Integer, Long> checkpoints;
+        try (Connection connection = dataSource.getConnection()) {
+            if (ProjectionBatchWriter.recoverSwap(connection)) {
+                log.warn("Completed the swap of a previous projection rebuild that was interrupted half-way");
+            }
+            checkpoints = writer.loadCheckpoints(connection);
+            if (checkpoints.isEmpty() || !writer.shadowTablesExist(connection)) {
+                checkpoints.clear();
+                writer.createShadowTables(connection);
+                log.info("Projection rebuild started with empty shadow tables");
+            } else {
+                log.info("Projection rebuild resuming from checkpoints: {}", checkpoints);
+            }
+        }
+        
+        Map<Integer, Long> endOffsets;
+        try (Consumer<String, EventWrapper<?>> consumer = replayConsumerFactory.createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(EVENT_STORE_TOPIC).stream()
+                .map(p -> new TopicPartition(EVENT_STORE_TOPIC, p.partition()))
+                .toList();
+            endOffsets = consumer.endOffsets(partitions).entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().partition(), Map.Entry::getValue));
+        }
+        endOffsets.forEach((partition, endOffset) -> progress.put(partition,
+            new RebuildStatus.PartitionProgress(checkpoints.getOrDefault(partition, -1L), endOffset)));
+        
+        // Bulk load - partitions in parallel, each with its own consumer and connection
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, endOffsets.size()));
+        try {
+            List<CompletableFuture<Void>> scans = new ArrayList<>();
+            endOffsets.forEach((partition, endOffset) -> scans.add(CompletableFuture.runAsync(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    replayPartition(connection, partition, checkpoints.getOrDefault(partition, -1L), endOffset, 0);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Rebuild of partition " + partition + " failed", e);
+                }
+            }, executor)));
+            CompletableFuture.allOf(scans.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        // Catch up without blocking anyone, so only a short tail is left for the exclusive phase
+        state = "SWAPPING";
+        try (Connection connection = dataSource.getConnection()) {
+            for (Integer partition : endOffsets.keySet()) {
+                replayPartition(connection, partition, progress.get(partition).nextOffset(), -1, 0);
+            }
+        }
+        
+        // Last events and swap - listeners are paused and REST writes held at the fence instead of piling up
+        // on the exclusive lock; once both drained, the end offsets read under the lock cover every live row
+        List<MessageListenerContainer> paused = pauseListeners();
+        try {
+            if (!writeFence.close(pauseTimeoutMs)) {
+                throw new IllegalStateException("Live writes still waiting for their event store append after " +
+                    pauseTimeoutMs + " ms - live tables left unchanged");
+            }
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SET EXCLUSIVE 1");
+                try {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxExclusiveMs);
+                    for (Integer partition : endOffsets.keySet()) {
+                        replayPartition(connection, partition, progress.get(partition).nextOffset(), -1, deadline);
+                    }
+                    writer.swap(connection);
+                } finally {
+                    statement.execute("SET EXCLUSIVE 0");
+                }
+            }
+        } finally {
+            writeFence.open();
+            paused.forEach(MessageListenerContainer::resume);
+        }
+        
+        // The dedup filters were built from the old tables
+        processedEventStore.invalidateAll();
+        log.info("Projection tables swapped");
+    }
+    
+    /**
+     * Pause every running listener container and wait (up to pause-timeout-ms) until they stopped polling.
+     * A container still processing then may have committed rows whose events are not appended yet, so the
+     * rebuild fails instead of swapping.
+     * 
+     * @return the containers paused here, to resume after the swap
+     */
+    private List<MessageListenerContainer> pauseListeners() throws InterruptedException {
+        List<MessageListenerContainer> paused = listenerRegistry.getListenerContainers().stream()
+            .filter(container -> container.isRunning() && !container.isPauseRequested())
+            .toList();
+        paused.forEach(MessageListenerContainer::pause);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseTimeoutMs);
+        while (!paused.stream().allMatch(MessageListenerContainer::isContainerPaused)) {
+            if (System.nanoTime() - deadline > 0) {
+                paused.forEach(MessageListenerContainer::resume);
+                throw new IllegalStateException("Listener containers not paused after " + pauseTimeoutMs +
+                    " ms - live tables left unchanged");
+            }
+            Thread.sleep(10);
+        }
+        return paused;
+    }
+    
+    /**
+     * Replay one partition into the shadow tables from nextOffset (-1 = beginning) up to endOffset (-1 = current end).
+     * With a deadline (System.nanoTime(), 0 = none) the replay fails once it passes - the applied batches stay checkpointed.
+     * Without one it stops after MAX_IDLE_POLLS empty polls in a row (offsets below the end that are never returned,
+     * e.g. an open transaction) and leaves the rest to the next catch-up.
+     */
+    private void replayPartition(Connection connection, int partition, long nextOffset, long endOffset,
+                                 long deadline) throws SQLException {
+        var topicPartition = new TopicPartition(EVENT_STORE_TOPIC, partition);
+        try (Consumer<String, EventWrapper<?>> consumer = replayConsumerFactory.createConsumer()) {
+            consumer.assign(List.of(topicPartition));
+            if (nextOffset >= 0) {
+                consumer.seek(topicPartition, nextOffset);
+            } else {
+                consumer.seekToBeginning(List.of(topicPartition));
+            }
+            long end = endOffset >= 0 ? endOffset : consumer.endOffsets(List.of(topicPartition)).get(topicPartition);
+            
+            connection.setAutoCommit(false);
+            int idlePolls = 0;
+            try {
+                while (consumer.position(topicPartition) < end) {
+                    if (deadline != 0 && System.nanoTime() - deadline > 0) {
+                        throw new IllegalStateException("Catch-up of partition " + partition + " exceeded " +
+                            maxExclusiveMs + " ms under the exclusive lock - live tables left unchanged");
+                    }
+                    ConsumerRecords<String, EventWrapper<?>> records = consumer.poll(Duration.ofSeconds(1));
+                    List<ConsumerRecord<String, EventWrapper<?>>> batch = records.records(topicPartition).stream()
+                        .filter(record -> record.offset() < end)
+                        .toList();
+                    if (batch.isEmpty()) {
+                        if (deadline == 0 && ++idlePolls >= MAX_IDLE_POLLS) {
+                            log.warn("Projection rebuild of partition {} idle at offset {} below {} - left to the next catch-up",
+                                partition, consumer.position(topicPartition), end);
+                            return;
+                        }
+                        continue;
+                    }
+                    idlePolls = 0;
+                    long next = batch.get(batch.size() - 1).offset() + 1;
+                    try {
+                        int applied = writer.writeBatch(connection, partition, batch, next);
+                        connection.commit();
+                        eventsApplied.addAndGet(applied);
+                        progress.put(partition, new RebuildStatus.PartitionProgress(next, end));
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        throw e;
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            log.info("Projection rebuild of partition {} reached offset {}", partition, end);
+        }
+    }
+}
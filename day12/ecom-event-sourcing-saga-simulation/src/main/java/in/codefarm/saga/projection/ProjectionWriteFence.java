@@ -0,0 +1,76 @@
+package in.codefarm.saga.projection;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projection Write Fence - Holds off live writes while a projection rebuild swaps its tables.
+ *
+ * A live write commits its row first and appends its event to order-events afterwards. A row committed
+ * before the swap whose event is appended after the last catch-up would be dropped with the old tables,
+ * so writers outside the (paused) listener containers enter the fence before the row and leave it once
+ * the append is acknowledged. The rebuild closes the fence and waits until every writer left before it
+ * reads the end offsets of its last catch-up.
+ */
+@Component
+public class ProjectionWriteFence {
+
+    private final Object lock = new Object();
+    private boolean closed;
+    private int writers;
+
+    /**
+     * Enter before writing a live row, waits while a swap holds the fence closed. Pair with leave().
+     */
+    public void enter() {
+        synchronized (lock) {
+            while (closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the projection swap", e);
+                }
+            }
+            writers++;
+        }
+    }
+
+    /**
+     * Leave once the write's event is acknowledged by order-events (or failed).
+     */
+    public void leave() {
+        synchronized (lock) {
+            writers--;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stop new writers and wait up to timeoutMs for the ones inside to leave.
+     *
+     * @return false if writers were still inside at the timeout - the fence stays closed, call open()
+     */
+    boolean close(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (lock) {
+            closed = true;
+            while (writers > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    void open() {
+        synchronized (lock) {
+            closed = false;
+            lock.notifyAll();
+        }
+    }
+}
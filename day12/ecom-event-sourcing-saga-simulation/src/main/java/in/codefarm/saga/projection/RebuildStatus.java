@@ -0,0 +1,19 @@
+package in.codefarm.saga.projection;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Progress of a projection rebuild.
+ */
+public record RebuildStatus(
+    String state,            // IDLE, REBUILDING, SWAPPING, COMPLETED, FAILED
+    LocalDateTime startedAt,
+    long eventsApplied,
+    double eventsPerSecond,
+    Map<Integer, PartitionProgress> partitions,
+    String error
+) {
+    public record PartitionProgress(long nextOffset, long endOffset) {
+    }
+}
@@ -0,0 +1,29 @@
+package in.codefarm.saga.tracing;
+
+/**
+ * Saga origin timestamp of the record being processed on this listener thread,
+ * so events sent while handling it carry the same origin.
+ */
+final class SagaTraceContext {
+
+    private static final ThreadLocal<Long> ORIGIN = new ThreadLocal<>();
+
+    private SagaTraceContext() {
+    }
+
+    static void setOrigin(long originMs) {
+        ORIGIN.set(originMs);
+    }
+
+    /**
+     * @return the current origin, or -1 outside a traced listener
+     */
+    static long origin() {
+        Long origin = ORIGIN.get();
+        return origin == null ? -1 : origin;
+    }
+
+    static void clear() {
+        ORIGIN.remove();
+    }
+}
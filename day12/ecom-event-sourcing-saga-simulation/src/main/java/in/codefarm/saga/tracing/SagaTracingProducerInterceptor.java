@@ -0,0 +1,51 @@
+package in.codefarm.saga.tracing;
+
+import in.codefarm.saga.event.EventWrapper;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Stamps outgoing saga events with the latency headers (runs on the sending thread via KafkaTemplate).
+ * An event sent while a traced record is being handled inherits its origin; any other event starts a saga
+ * at its EventMetadata timestamp (creation time), so time spent before the send is counted too.
+ */
+@Component
+public class SagaTracingProducerInterceptor implements ProducerInterceptor<String, EventWrapper<?>> {
+
+    @Override
+    public ProducerRecord<String, EventWrapper<?>> onSend(ProducerRecord<String, EventWrapper<?>> record) {
+        long now = System.currentTimeMillis();
+        long origin = SagaTraceContext.origin();
+        if (origin < 0) {
+            origin = createdAt(record.value(), now);
+        }
+        SagaTraceHeaders.write(record.headers(), SagaTraceHeaders.ORIGIN_TIMESTAMP, origin);
+        SagaTraceHeaders.write(record.headers(), SagaTraceHeaders.HOP_TIMESTAMP, now);
+        return record;
+    }
+
+    private static long createdAt(EventWrapper<?> event, long fallback) {
+        if (event == null || event.metadata() == null || event.metadata().timestamp() == null) {
+            return fallback;
+        }
+        long created = event.metadata().timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.min(created, fallback);
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
@@ -0,0 +1,68 @@
+package in.codefarm.saga.tracing;
+
+import in.codefarm.saga.event.EventWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records saga latency when a listener receives an event, tagged by topic and consumer group:
+ * - saga.hop.latency: send of this record to its delivery (queueing + consumer lag of one hop)
+ * - saga.end-to-end.latency: first event of the saga to this delivery
+ *   (e.g. topic=inventory, group=email-service-group is OrderPlaced to the confirmation email)
+ * The origin is kept for the listener thread so events it sends carry it to the next hop.
+ */
+@Component
+public class SagaTracingRecordInterceptor implements RecordInterceptor<String, EventWrapper<?>> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SagaTracingRecordInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ConsumerRecord<String, EventWrapper<?>> intercept(ConsumerRecord<String, EventWrapper<?>> record,
+                                                             Consumer<String, EventWrapper<?>> consumer) {
+        long now = System.currentTimeMillis();
+        long origin = SagaTraceHeaders.read(record.headers(), SagaTraceHeaders.ORIGIN_TIMESTAMP);
+        long hop = SagaTraceHeaders.read(record.headers(), SagaTraceHeaders.HOP_TIMESTAMP);
+        if (origin < 0) {
+            return record; // not a traced event (sent before tracing or by another producer)
+        }
+        String group = consumer.groupMetadata().groupId();
+        if (hop >= 0) {
+            timer("saga.hop.latency", record.topic(), group).record(Duration.ofMillis(Math.max(now - hop, 0)));
+        }
+        timer("saga.end-to-end.latency", record.topic(), group).record(Duration.ofMillis(Math.max(now - origin, 0)));
+        SagaTraceContext.setOrigin(origin);
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<String, EventWrapper<?>> record, Consumer<String, EventWrapper<?>> consumer) {
+        SagaTraceContext.clear();
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        SagaTraceContext.clear();
+    }
+
+    private Timer timer(String name, String topic, String group) {
+        return timers.computeIfAbsent(name + '|' + topic + '|' + group, key -> Timer.builder(name)
+            .description("Saga event latency")
+            .tag("topic", topic)
+            .tag("group", group)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+}
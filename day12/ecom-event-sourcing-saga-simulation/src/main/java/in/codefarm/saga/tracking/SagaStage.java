@@ -0,0 +1,17 @@
+package in.codefarm.saga.tracking;
+
+/**
+ * What a running saga is waiting for, derived from the steps seen so far.
+ */
+public enum SagaStage {
+    AWAITING_PAYMENT,
+    AWAITING_INVENTORY,
+    AWAITING_REFUND,
+    AWAITING_CANCELLATION,
+    COMPLETED,
+    COMPENSATED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == COMPENSATED;
+    }
+}
@@ -0,0 +1,14 @@
+package in.codefarm.saga.tracking;
+
+/**
+ * Saga events the tracker understands, in the order they normally happen.
+ */
+public enum SagaStep {
+    ORDER_PLACED,
+    PAYMENT_SUCCEEDED,
+    PAYMENT_FAILED,
+    INVENTORY_RESERVED,
+    INVENTORY_UNAVAILABLE,
+    PAYMENT_REFUNDED,
+    ORDER_CANCELLED
+}
@@ -0,0 +1,275 @@
+package in.codefarm.saga.tracking;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saga tracker - follows every choreographed saga by transactionId and notices the ones that get stuck.
+ *
+ * State is in memory and only for running sagas:
+ * 1. One small instance per transactionId with the time of each step seen (event timestamps)
+ * 2. Every step moves the saga's deadline to now + step-timeout-ms on a timer wheel,
+ *    so finding stuck sagas costs one wheel slot per tick - no table scans
+ * 3. When a deadline fires the SagaTimeoutHandler compensates or alerts, and the saga is dropped
+ * 4. Step latencies (payment, inventory, compensation, end-to-end) go into histograms as steps arrive
+ *
+ * Finished and timed out transactionIds are remembered (bounded) so late or out-of-order events
+ * don't start a new saga. Sagas running across a restart are not tracked, and sagas of revoked
+ * partitions are dropped - the instance that now owns the partition tracks (and times out) them.
+ */
+@Component
+public class SagaTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaTracker.class);
+
+    /**
+     * Step latency: from the first of the start steps to the first of the end steps.
+     */
+    private record StepLatency(String name, Set<SagaStep> from, Set<SagaStep> to) {
+    }
+
+    private static final List<StepLatency> STEP_LATENCIES = List.of(
+        new StepLatency("payment", EnumSet.of(SagaStep.ORDER_PLACED),
+            EnumSet.of(SagaStep.PAYMENT_SUCCEEDED, SagaStep.PAYMENT_FAILED)),
+        new StepLatency("inventory", EnumSet.of(SagaStep.PAYMENT_SUCCEEDED),
+            EnumSet.of(SagaStep.INVENTORY_RESERVED, SagaStep.INVENTORY_UNAVAILABLE)),
+        new StepLatency("compensation", EnumSet.of(SagaStep.INVENTORY_UNAVAILABLE),
+            EnumSet.of(SagaStep.ORDER_CANCELLED)),
+        new StepLatency("end-to-end", EnumSet.of(SagaStep.ORDER_PLACED),
+            EnumSet.of(SagaStep.INVENTORY_RESERVED, SagaStep.PAYMENT_FAILED, SagaStep.ORDER_CANCELLED))
+    );
+
+    private final SagaTimeoutHandler timeoutHandler;
+    private final long stepTimeoutMs;
+    private final Map<String, SagaInstance> running = new HashMap<>();
+    private final LinkedHashMap<String, SagaStage> finished;
+    private final TimerWheel<Deadline> deadlines;
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final ScheduledExecutorService sweeper;
+    private long completed;
+    private long compensated;
+    private long timedOut;
+    private long lateEvents;
+
+    public SagaTracker(
+        SagaTimeoutHandler timeoutHandler,
+        @Value("${saga.tracking.step-timeout-ms:60000}") long stepTimeoutMs,
+        @Value("${saga.tracking.tick-ms:100}") long tickMs,
+        @Value("${saga.tracking.wheel-size:1024}") int wheelSize,
+        @Value("${saga.tracking.finished-capacity:10000}") int finishedCapacity
+    ) {
+        this.timeoutHandler = timeoutHandler;
+        this.stepTimeoutMs = stepTimeoutMs;
+        this.deadlines = new TimerWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        this.finished = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SagaStage> eldest) {
+                return size() > finishedCapacity;
+            }
+        };
+        STEP_LATENCIES.forEach(latency -> histograms.put(latency.name(), new LatencyHistogram()));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "saga-timeout-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(this::sweepSafely, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        log.info("Saga tracker started - stepTimeoutMs: {}, tickMs: {}, wheelSize: {}", stepTimeoutMs, tickMs, wheelSize);
+    }
+
+    /**
+     * Record a saga step.
+     *
+     * @param eventTimeMs the event's own timestamp, used for step latencies
+     */
+    public synchronized void record(String transactionId, String orderId, int partition, SagaStep step, long eventTimeMs) {
+        SagaStage finishedStage = finished.get(transactionId);
+        if (finishedStage != null) {
+            lateEvents++;
+            log.debug("Saga {} already {} - ignoring late {}", transactionId, finishedStage, step);
+            return;
+        }
+        SagaInstance saga = running.computeIfAbsent(transactionId, id -> new SagaInstance(id, orderId, partition));
+        if (saga.stepTimes[step.ordinal()] != 0) {
+            return; // redelivered event
+        }
+        saga.stepTimes[step.ordinal()] = eventTimeMs;
+        recordLatencies(saga);
+
+        SagaStage stage = saga.stage();
+        if (stage.isTerminal()) {
+            running.remove(transactionId);
+            finished.put(transactionId, stage);
+            if (stage == SagaStage.COMPLETED) {
+                completed++;
+            } else {
+                compensated++;
+            }
+            return;
+        }
+        saga.generation++;
+        deadlines.schedule(new Deadline(saga, saga.generation), System.currentTimeMillis() + stepTimeoutMs);
+    }
+
+    /**
+     * Stop tracking the sagas of partitions this instance no longer consumes; their pending deadlines go stale.
+     */
+    public synchronized void forgetPartitions(Collection<Integer> partitions) {
+        int before = running.size();
+        running.values().removeIf(saga -> partitions.contains(saga.partition));
+        if (running.size() < before) {
+            log.info("Stopped tracking {} saga(s) of revoked partitions {}", before - running.size(), partitions);
+        }
+    }
+
+    public synchronized Optional<SagaStage> stageOf(String transactionId) {
+        SagaInstance saga = running.get(transactionId);
+        return saga != null ? Optional.of(saga.stage()) : Optional.ofNullable(finished.get(transactionId));
+    }
+
+    public synchronized SagaStats stats() {
+        Map<String, LatencyHistogram.Snapshot> latencies = new LinkedHashMap<>();
+        histograms.forEach((name, histogram) -> latencies.put(name, histogram.snapshot()));
+        return new SagaStats(running.size(), completed, compensated, timedOut, lateEvents, latencies);
+    }
+
+    /**
+     * Fire every deadline due at now - compensations run outside the lock.
+     */
+    public void sweep(long now) {
+        List<SagaTimeout> expired = new ArrayList<>();
+        synchronized (this) {
+            deadlines.advance(now, deadline -> {
+                SagaInstance saga = deadline.saga();
+                if (deadline.generation() != saga.generation || running.get(saga.transactionId) != saga) {
+                    return; // progressed or finished since this deadline was set
+                }
+                SagaStage stage = saga.stage();
+                running.remove(saga.transactionId);
+                finished.put(saga.transactionId, stage);
+                timedOut++;
+                expired.add(new SagaTimeout(saga.transactionId, saga.orderId, stage, saga.startedAt(), now));
+            });
+        }
+        for (SagaTimeout timeout : expired) {
+            log.warn("Saga timed out - TransactionId: {}, OrderId: {}, Stage: {}, running for {} ms",
+                timeout.transactionId(), timeout.orderId(), timeout.stage(), now - timeout.startedAtMs());
+            timeoutHandler.onTimeout(timeout);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("Saga timeout sweep failed", e);
+        }
+    }
+
+    private void recordLatencies(SagaInstance saga) {
+        for (int i = 0; i < STEP_LATENCIES.size(); i++) {
+            if ((saga.recordedLatencies & (1 << i)) != 0) {
+                continue;
+            }
+            StepLatency latency = STEP_LATENCIES.get(i);
+            long from = saga.firstOf(latency.from());
+            long to = saga.firstOf(latency.to());
+            if (from != 0 && to != 0) {
+                histograms.get(latency.name()).record(to - from);
+                saga.recordedLatencies |= 1 << i;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Tracker counters and step latency histograms.
+     */
+    public record SagaStats(
+        int running,
+        long completed,
+        long compensated,
+        long timedOut,
+        long lateEvents,
+        Map<String, LatencyHistogram.Snapshot> stepLatencies
+    ) {
+    }
+
+    private record Deadline(SagaInstance saga, int generation) {
+    }
+
+    private static final class SagaInstance {
+
+        private final String transactionId;
+        private final String orderId;
+        private final int partition;
+        // Event time (epoch ms) per SagaStep ordinal, 0 = not seen
+        private final long[] stepTimes = new long[SagaStep.values().length];
+        private int recordedLatencies;
+        private int generation;
+
+        SagaInstance(String transactionId, String orderId, int partition) {
+            this.transactionId = transactionId;
+            this.orderId = orderId;
+            this.partition = partition;
+        }
+
+        boolean seen(SagaStep step) {
+            return stepTimes[step.ordinal()] != 0;
+        }
+
+        long firstOf(Set<SagaStep> steps) {
+            long first = 0;
+            for (SagaStep step : steps) {
+                long time = stepTimes[step.ordinal()];
+                if (time != 0 && (first == 0 || time < first)) {
+                    first = time;
+                }
+            }
+            return first;
+        }
+
+        long startedAt() {
+            return firstOf(EnumSet.allOf(SagaStep.class));
+        }
+
+        SagaStage stage() {
+            if (seen(SagaStep.INVENTORY_RESERVED)) {
+                return SagaStage.COMPLETED;
+            }
+            if (seen(SagaStep.PAYMENT_FAILED) || seen(SagaStep.ORDER_CANCELLED)) {
+                return SagaStage.COMPENSATED;
+            }
+            if (seen(SagaStep.PAYMENT_REFUNDED)) {
+                return SagaStage.AWAITING_CANCELLATION;
+            }
+            if (seen(SagaStep.INVENTORY_UNAVAILABLE)) {
+                return SagaStage.AWAITING_REFUND;
+            }
+            if (seen(SagaStep.PAYMENT_SUCCEEDED)) {
+                return SagaStage.AWAITING_INVENTORY;
+            }
+            return SagaStage.AWAITING_PAYMENT;
+        }
+    }
+}
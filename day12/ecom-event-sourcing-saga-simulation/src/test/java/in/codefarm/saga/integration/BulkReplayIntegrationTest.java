@@ -0,0 +1,145 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.eventsourcing.OrderReplayResponse;
+import in.codefarm.saga.eventsourcing.OrderSnapshot;
+import in.codefarm.saga.eventsourcing.OrderSnapshotRepository;
+import in.codefarm.saga.eventsourcing.OrderState;
+import in.codefarm.saga.order.service.OrderService;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk replay: many orders, one scan per order-events partition, streamed back as NDJSON.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Bulk Replay Integration Tests")
+class BulkReplayIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private final List<String> orderIds = new ArrayList<>();
+    private final Map<String, Long> orderPlacedOffsets = new HashMap<>();
+    private String customerId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        snapshotRepository.deleteAll();
+        orderIds.clear();
+        orderPlacedOffsets.clear();
+        customerId = "customer-" + UUID.randomUUID();
+        for (int i = 0; i < 6; i++) {
+            String orderId = "order-" + UUID.randomUUID();
+            String transactionId = TestEventBuilder.generateTransactionId();
+            orderService.createOrder(orderId, customerId, "product-456", 2, BigDecimal.valueOf(99.99), transactionId);
+            long placedOffset = kafkaTemplate.send("order-events", orderId,
+                TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), transactionId))
+                .get().getRecordMetadata().offset();
+            orderPlacedOffsets.put(orderId, placedOffset);
+            var payment = TestEventBuilder.paymentProcessedSuccess(orderId, customerId, BigDecimal.valueOf(99.99));
+            kafkaTemplate.send("order-events", orderId, TestEventBuilder.wrapPaymentProcessed(payment, transactionId)).get();
+            orderIds.add(orderId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay every requested order in one response")
+    void shouldReplayOrdersById() throws Exception {
+        Map<String, OrderReplayResponse> replayed = replay(Map.of("orderIds", orderIds));
+
+        assertThat(replayed).containsOnlyKeys(orderIds);
+        assertThat(replayed.values()).allSatisfy(state -> {
+            assertThat(state.status()).isEqualTo("PAYMENT_COMPLETED");
+            assertThat(state.eventHistory()).containsExactly("OrderPlaced", "PaymentProcessed");
+        });
+    }
+
+    @Test
+    @DisplayName("Should resolve orders by customer and continue from their snapshots")
+    void shouldReplayOrdersByCustomerFromSnapshots() throws Exception {
+        String snapshotted = orderIds.get(0);
+        OrderState snapshotState = new OrderState();
+        snapshotState.setOrderId(snapshotted);
+        snapshotState.setStatus("PLACED");
+        snapshotState.setEventHistory(new ArrayList<>(List.of("from-snapshot")));
+        snapshotRepository.save(new OrderSnapshot(snapshotted, orderPlacedOffsets.get(snapshotted),
+            jsonMapper.writeValueAsString(snapshotState), 1));
+
+        Map<String, OrderReplayResponse> replayed = replay(Map.of("customerId", customerId));
+
+        assertThat(replayed).containsOnlyKeys(orderIds);
+        assertThat(replayed.get(snapshotted).eventHistory()).containsExactly("from-snapshot", "PaymentProcessed");
+        assertThat(replayed.get(orderIds.get(1)).eventHistory()).containsExactly("OrderPlaced", "PaymentProcessed");
+    }
+
+    @Test
+    @DisplayName("Should reject a request without orderIds or filter")
+    void shouldRejectEmptyRequest() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/replay/orders").contentType(MediaType.APPLICATION_JSON).content("{}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").exists());
+    }
+
+    private Map<String, OrderReplayResponse> replay(Map<String, Object> request) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/replay/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonMapper.writeValueAsString(request)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        return body.lines()
+            .map(line -> jsonMapper.readValue(line, OrderReplayResponse.class))
+            .collect(Collectors.toMap(OrderReplayResponse::orderId, state -> state));
+    }
+}
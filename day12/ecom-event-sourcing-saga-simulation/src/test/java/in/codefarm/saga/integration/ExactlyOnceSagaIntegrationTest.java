@@ -0,0 +1,142 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.exactlyonce.ProcessedEventStore;
+import in.codefarm.saga.inventory.repository.InventoryReservationRepository;
+import in.codefarm.saga.order.repository.OrderRepository;
+import in.codefarm.saga.order.service.OrderEventProducer;
+import in.codefarm.saga.order.service.OrderService;
+import in.codefarm.saga.payment.repository.PaymentRepository;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Saga flow with exactly-once processing enabled.
+ *
+ * <p>Listener containers run every record in a Kafka transaction (consumed offset + produced events
+ * commit together), consumers read with {@code read_committed}, and the local dedup store answers
+ * the idempotency check without a DB round trip for new and recently processed orders.
+ */
+@SpringBootTest(properties = {
+    "saga.exactly-once.enabled=true",
+    "saga.exactly-once.local-dedup.enabled=true"
+})
+@EmbeddedKafka(
+    partitions = 1,
+    topics = {"orders", "payments", "inventory"},
+    brokerProperties = {
+        "transaction.state.log.replication.factor=1",
+        "transaction.state.log.min.isr=1"
+    }
+)
+@DirtiesContext
+@DisplayName("Exactly-Once Saga Integration Tests")
+class ExactlyOnceSagaIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderEventProducer orderEventProducer;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InventoryReservationRepository inventoryReservationRepository;
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @BeforeEach
+    void setUp() {
+        inventoryReservationRepository.deleteAll();
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        processedEventStore.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Should complete saga with transactional listeners")
+    void shouldCompleteSagaTransactionally() {
+        String orderId = UUID.randomUUID().toString();
+        String transactionId = TestEventBuilder.generateTransactionId();
+        BigDecimal amount = BigDecimal.valueOf(99.99);
+
+        orderService.createOrder(orderId, "customer-123", "product-456", 2, amount, transactionId);
+        orderEventProducer.sendOrderPlacedEvent(orderPlaced(orderId, amount), transactionId);
+
+        await().atMost(Duration.ofSeconds(15))
+            .untilAsserted(() -> {
+                var payment = paymentRepository.findByOrderId(orderId);
+                assertThat(payment).isPresent();
+                assertThat(payment.get().getStatus()).isEqualTo("SUCCESS");
+
+                var reservation = inventoryReservationRepository.findByOrderId(orderId);
+                assertThat(reservation).isPresent();
+                assertThat(reservation.get().getStatus()).isEqualTo("RESERVED");
+            });
+
+        // Partition the default partitioner picked for the orderId key
+        int partition = Utils.toPositive(Utils.murmur2(orderId.getBytes(StandardCharsets.UTF_8)))
+            % kafkaTemplate.partitionsFor("orders").size();
+        assertThat(processedEventStore.lookup("payment-service-group", partition, orderId))
+            .isEqualTo(ProcessedEventStore.Status.PROCESSED);
+    }
+
+    @Test
+    @DisplayName("Should drop duplicate OrderPlacedEvent using the local dedup store")
+    void shouldDropDuplicateOrderPlacedEvent() {
+        String orderId = UUID.randomUUID().toString();
+        String transactionId = TestEventBuilder.generateTransactionId();
+        BigDecimal amount = BigDecimal.valueOf(99.99);
+
+        orderService.createOrder(orderId, "customer-123", "product-456", 2, amount, transactionId);
+        orderEventProducer.sendOrderPlacedEvent(orderPlaced(orderId, amount), transactionId);
+
+        await().atMost(Duration.ofSeconds(15))
+            .until(() -> paymentRepository.findByOrderId(orderId).isPresent());
+
+        long droppedBefore = processedEventStore.stats("payment-service-group").processed();
+        kafkaTemplate.send("orders", orderId,
+            TestEventBuilder.wrapOrderPlaced(orderPlaced(orderId, amount), TestEventBuilder.generateTransactionId()));
+        kafkaTemplate.flush();
+
+        // The duplicate is answered PROCESSED by the store, without reaching the payments table
+        await().atMost(Duration.ofSeconds(15))
+            .until(() -> processedEventStore.stats("payment-service-group").processed() > droppedBefore);
+
+        long paymentsForOrder = paymentRepository.findAll().stream()
+            .filter(p -> orderId.equals(p.getOrderId()))
+            .count();
+        assertThat(paymentsForOrder).isEqualTo(1);
+    }
+
+    private OrderPlacedEvent orderPlaced(String orderId, BigDecimal amount) {
+        return new OrderPlacedEvent(orderId, "customer-123", "product-456", 2, amount, LocalDateTime.now());
+    }
+}
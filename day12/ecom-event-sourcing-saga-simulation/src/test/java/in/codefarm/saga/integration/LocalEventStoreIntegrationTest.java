@@ -0,0 +1,108 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.eventsourcing.LocalEventStore;
+import in.codefarm.saga.eventsourcing.OrderReplayService;
+import in.codefarm.saga.eventsourcing.OrderState;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Local event store tier: tail consumer copy of order-events, used by the replay paths once caught up.
+ */
+@SpringBootTest(properties = {
+    "event-store.local-cache.enabled=true",
+    "event-store.local-cache.dir=build/tmp/local-event-store-test",
+    "event-store.local-cache.segment-bytes=2048",
+    "event-store.local-cache.index-interval-bytes=256",
+    "replay.time-travel.clock-skew-ms=0"
+})
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Local Event Store Integration Tests")
+class LocalEventStoreIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private LocalEventStore localEventStore;
+
+    @Autowired
+    private OrderReplayService replayService;
+
+    @Test
+    @DisplayName("Should replay from the local copy across segment rolls and match the broker log")
+    void shouldReplayFromLocalCopy() throws Exception {
+        String orderId = "order-" + UUID.randomUUID();
+        String transactionId = TestEventBuilder.generateTransactionId();
+        RecordMetadata last = append(orderId, TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), transactionId));
+        // Other orders interleaved so segments roll and the key filter matters
+        for (int i = 0; i < 20; i++) {
+            append("other-" + i, TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), transactionId));
+            var payment = TestEventBuilder.paymentProcessedSuccess(orderId, "customer-123", BigDecimal.valueOf(i));
+            last = append(orderId, TestEventBuilder.wrapPaymentProcessed(payment, transactionId));
+        }
+        awaitCaughtUp(last);
+        long localReads = localEventStore.localReads();
+
+        OrderState state = replayService.replayOrder(orderId);
+
+        assertThat(state.getEventHistory()).hasSize(21);
+        assertThat(localEventStore.localReads()).isEqualTo(localReads + 1);
+    }
+
+    @Test
+    @DisplayName("Should serve time-travel replays from the local copy")
+    void shouldTimeTravelFromLocalCopy() throws Exception {
+        String orderId = "order-" + UUID.randomUUID();
+        String transactionId = TestEventBuilder.generateTransactionId();
+        List<LocalDateTime> eventTimes = new ArrayList<>();
+        EventWrapper<OrderPlacedEvent> placed = TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), transactionId);
+        eventTimes.add(placed.metadata().timestamp());
+        RecordMetadata last = append(orderId, placed);
+        for (int i = 0; i < 3; i++) {
+            Thread.sleep(5);
+            var payment = TestEventBuilder.wrapPaymentProcessed(
+                TestEventBuilder.paymentProcessedSuccess(orderId, "customer-123", BigDecimal.TEN), transactionId);
+            eventTimes.add(payment.metadata().timestamp());
+            last = append(orderId, payment);
+        }
+        awaitCaughtUp(last);
+        long localReads = localEventStore.localReads();
+
+        var states = replayService.replayAtTimestamps(orderId, Set.of(eventTimes.get(1), LocalDateTime.now()));
+
+        assertThat(states.get(eventTimes.get(1)).getEventHistory()).hasSize(2);
+        assertThat(states.lastEntry().getValue().getEventHistory()).hasSize(4);
+        assertThat(localEventStore.localReads()).isEqualTo(localReads + 1);
+    }
+
+    private RecordMetadata append(String key, EventWrapper<?> event) throws Exception {
+        return kafkaTemplate.send("order-events", key, event).get().getRecordMetadata();
+    }
+
+    private void awaitCaughtUp(RecordMetadata last) {
+        await().atMost(Duration.ofSeconds(20))
+            .until(() -> localEventStore.localEndOffset(last.partition()) > last.offset());
+    }
+}
@@ -0,0 +1,98 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.order.repository.OrderRepository;
+import in.codefarm.saga.order.service.OrderService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Order read APIs: the streamed full listing, keyset pagination and the streaming NDJSON export.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EmbeddedKafka(partitions = 1, topics = {"orders", "payments", "inventory"})
+@DirtiesContext
+@DisplayName("Order Query Integration Tests")
+class OrderQueryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            orderService.createOrder(UUID.randomUUID().toString(), "customer-" + i, "product-456", 1,
+                BigDecimal.TEN, UUID.randomUUID().toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should page through orders with an afterId cursor")
+    void shouldPageWithKeysetCursor() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/orders/page").param("limit", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders", hasSize(3)))
+            .andReturn();
+        String nextAfterId = JsonPath.read(first.getResponse().getContentAsString(), "$.nextAfterId").toString();
+
+        mockMvc.perform(get("/api/orders/page").param("afterId", nextAfterId).param("limit", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders", hasSize(2)))
+            .andExpect(jsonPath("$.nextAfterId", nullValue()));
+    }
+
+    @Test
+    @DisplayName("Should still list every order as a JSON array")
+    void shouldListAllOrdersAsArray() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(5)))
+            .andExpect(jsonPath("$[0].orderId").exists());
+    }
+
+    @Test
+    @DisplayName("Should export every order as one JSON line")
+    void shouldStreamNdjsonExport() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/orders/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(5).allMatch(line -> line.startsWith("{") && line.contains("\"orderId\""));
+    }
+}
@@ -0,0 +1,128 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.eventsourcing.OrderReplayService;
+import in.codefarm.saga.eventsourcing.OrderSnapshot;
+import in.codefarm.saga.eventsourcing.OrderSnapshotRepository;
+import in.codefarm.saga.eventsourcing.OrderSnapshotService;
+import in.codefarm.saga.eventsourcing.OrderState;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Snapshot policy (events since last snapshot) and last-K retention.
+ */
+@SpringBootTest(properties = {
+    "snapshot.policy.min-events-since-snapshot=2",
+    "snapshot.retention.keep-per-order=2",
+    "snapshot.retention.prune-batch-size=1",
+    "snapshot.retention.prune-interval-ms=3600000"
+})
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Order Snapshot Policy Integration Tests")
+class OrderSnapshotPolicyIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private OrderReplayService replayService;
+
+    @Autowired
+    private OrderSnapshotService snapshotService;
+
+    @Autowired
+    private OrderSnapshotRepository snapshotRepository;
+
+    private String orderId;
+    private String transactionId;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository.deleteAll();
+        orderId = "order-" + UUID.randomUUID();
+        transactionId = TestEventBuilder.generateTransactionId();
+    }
+
+    @Test
+    @DisplayName("Should snapshot again once enough events accumulate after the last snapshot")
+    void shouldSnapshotOnEventsSinceLastSnapshot() throws Exception {
+        appendOrderPlaced();
+        appendPayment();
+        replayService.replayOrder(orderId);
+        long firstOffset = latestSnapshot().getEventOffset();
+
+        appendPayment();
+        replayService.replayOrder(orderId);
+        assertThat(snapshotRepository.count()).as("one event since the snapshot is below the threshold").isEqualTo(1);
+
+        appendPayment();
+        OrderState state = replayService.replayOrder(orderId);
+
+        assertThat(snapshotRepository.count()).isEqualTo(2);
+        assertThat(latestSnapshot().getEventOffset()).isGreaterThan(firstOffset);
+        assertThat(latestSnapshot().getEventCount()).isEqualTo(4);
+        assertThat(state.getEventHistory()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should keep only the last K snapshots per order")
+    void shouldPruneSnapshotsBeyondRetention() {
+        for (long offset = 0; offset < 5; offset++) {
+            snapshotRepository.save(new OrderSnapshot(orderId, offset, "{}", (int) offset));
+        }
+        snapshotRepository.save(new OrderSnapshot("other-order", 0L, "{}", 1));
+
+        snapshotService.pruneSnapshots();
+
+        assertThat(snapshotRepository.findAll())
+            .filteredOn(s -> s.getOrderId().equals(orderId))
+            .extracting(OrderSnapshot::getEventOffset)
+            .containsExactlyInAnyOrder(3L, 4L);
+        assertThat(snapshotRepository.existsByOrderId("other-order")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should prune snapshots tied on the same event offset")
+    void shouldPruneSnapshotsTiedOnOffset() {
+        for (int i = 0; i < 4; i++) {
+            snapshotRepository.save(new OrderSnapshot(orderId, 7L, "{}", i));
+        }
+
+        snapshotService.pruneSnapshots();
+
+        // Ties are ranked by id - the two newest rows stay
+        assertThat(snapshotRepository.findAll())
+            .filteredOn(s -> s.getOrderId().equals(orderId))
+            .extracting(OrderSnapshot::getEventCount)
+            .containsExactlyInAnyOrder(2, 3);
+    }
+
+    private OrderSnapshot latestSnapshot() {
+        return snapshotRepository.findFirstByOrderIdOrderByEventOffsetDesc(orderId).orElseThrow();
+    }
+
+    private void appendOrderPlaced() throws Exception {
+        OrderPlacedEvent order = TestEventBuilder.defaultOrderPlacedEvent();
+        kafkaTemplate.send("order-events", orderId, TestEventBuilder.wrapOrderPlaced(order, transactionId)).get();
+    }
+
+    private void appendPayment() throws Exception {
+        var payment = TestEventBuilder.paymentProcessedSuccess(orderId, "customer-123", BigDecimal.valueOf(99.99));
+        kafkaTemplate.send("order-events", orderId, TestEventBuilder.wrapPaymentProcessed(payment, transactionId)).get();
+    }
+}
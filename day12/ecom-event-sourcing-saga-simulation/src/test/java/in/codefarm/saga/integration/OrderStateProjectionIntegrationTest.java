@@ -0,0 +1,81 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.eventsourcing.OrderState;
+import in.codefarm.saga.eventsourcing.OrderStateProjector;
+import in.codefarm.saga.eventsourcing.OrderStateRecord;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Compacted order-state topic: the projector publishes the latest state per order,
+ * and a fresh instance bootstraps its view from that topic alone.
+ */
+@SpringBootTest
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Order State Projection Integration Tests")
+class OrderStateProjectionIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private OrderStateProjector orderStateProjector;
+
+    @Autowired
+    @Qualifier("orderStateConsumerFactory")
+    private ConsumerFactory<String, String> orderStateConsumerFactory;
+
+    @Autowired
+    private KafkaTemplate<String, OrderStateRecord> orderStateKafkaTemplate;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    @DisplayName("Should keep the latest state per order and bootstrap a new view from order-state")
+    void shouldProjectAndBootstrapFromCompactedTopic() throws Exception {
+        String transactionId = TestEventBuilder.generateTransactionId();
+        OrderPlacedEvent order = TestEventBuilder.defaultOrderPlacedEvent();
+        String orderId = order.orderId();
+        kafkaTemplate.send("order-events", orderId, TestEventBuilder.wrapOrderPlaced(order, transactionId)).get();
+        kafkaTemplate.send("order-events", orderId, TestEventBuilder.wrapPaymentProcessed(
+            TestEventBuilder.paymentProcessedSuccess(orderId, order.customerId(), order.totalAmount()), transactionId)).get();
+
+        await().atMost(Duration.ofSeconds(20)).untilAsserted(() ->
+            assertThat(orderStateProjector.currentState(orderId))
+                .get().extracting(OrderState::getStatus).isEqualTo("PAYMENT_COMPLETED"));
+        orderStateKafkaTemplate.flush();
+
+        // A new instance: empty view, loaded only from the compacted topic
+        var freshProjector = new OrderStateProjector(
+            orderStateConsumerFactory, orderStateKafkaTemplate, listenerRegistry, jsonMapper, true);
+        freshProjector.bootstrap();
+
+        assertThat(freshProjector.currentState(orderId)).get().satisfies(state -> {
+            assertThat(state.getStatus()).isEqualTo("PAYMENT_COMPLETED");
+            assertThat(state.getCustomerId()).isEqualTo(order.customerId());
+            assertThat(state.getEventHistory()).containsExactly("OrderPlaced", "PaymentProcessed");
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventMetadata;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.eventsourcing.OrderReplayService;
+import in.codefarm.saga.eventsourcing.OrderSnapshot;
+import in.codefarm.saga.eventsourcing.OrderSnapshotRepository;
+import in.codefarm.saga.eventsourcing.OrderState;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time-travel replay: snapshot + offsetsForTimes bounded read of the owning order-events partition.
+ *
+ * <p>Events are written with record timestamps equal to their event timestamps and no clock skew
+ * allowance, so the offset bound alone decides where the read stops.
+ */
+@SpringBootTest(properties = "replay.time-travel.clock-skew-ms=0")
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Order Time-Travel Replay Integration Tests")
+class OrderTimeTravelReplayIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private OrderReplayService replayService;
+
+    @Autowired
+    private OrderSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private final LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private String orderId;
+    private long paymentOffset;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        snapshotRepository.deleteAll();
+        orderId = "order-" + UUID.randomUUID();
+        String transactionId = TestEventBuilder.generateTransactionId();
+
+        var order = TestEventBuilder.defaultOrderPlacedEvent();
+        append("OrderPlaced", base.minusMinutes(30), transactionId, order);
+        paymentOffset = append("PaymentProcessed", base.minusMinutes(20), transactionId,
+            TestEventBuilder.paymentProcessedSuccess(orderId, order.customerId(), BigDecimal.valueOf(99.99)));
+        append("InventoryReserved", base.minusMinutes(10), transactionId,
+            TestEventBuilder.inventoryReserved(orderId, order.productId(), order.quantity()));
+    }
+
+    @Test
+    @DisplayName("Should return the state at every timestamp from a single pass")
+    void shouldReplayTimelineInOnePass() {
+        var states = replayService.replayAtTimestamps(orderId, List.of(
+            base, base.minusMinutes(25), base.minusMinutes(35), base.minusMinutes(15)));
+
+        assertThat(states.keySet()).containsExactly(
+            base.minusMinutes(35), base.minusMinutes(25), base.minusMinutes(15), base);
+        assertThat(states.values()).extracting(OrderState::getStatus)
+            .containsExactly("UNKNOWN", "PLACED", "PAYMENT_COMPLETED", "INVENTORY_RESERVED");
+        assertThat(states.get(base.minusMinutes(25)).getEventHistory()).containsExactly("OrderPlaced");
+        assertThat(states.get(base).getEventHistory())
+            .containsExactly("OrderPlaced", "PaymentProcessed", "InventoryReserved");
+    }
+
+    @Test
+    @DisplayName("Should start from the newest snapshot taken before the target time")
+    void shouldStartFromSnapshotBeforeTarget() {
+        OrderState snapshotState = new OrderState();
+        snapshotState.setOrderId(orderId);
+        snapshotState.setStatus("PAYMENT_COMPLETED");
+        snapshotState.setEventHistory(new ArrayList<>(List.of("OrderPlaced", "PaymentProcessed", "from-snapshot")));
+        OrderSnapshot snapshot = new OrderSnapshot(orderId, paymentOffset, jsonMapper.writeValueAsString(snapshotState), 2);
+        snapshot.setCreatedAt(base.minusMinutes(18));
+        snapshotRepository.save(snapshot);
+
+        OrderState beforeSnapshot = replayService.replayToTimestamp(orderId, base.minusMinutes(25));
+        OrderState afterSnapshot = replayService.replayToTimestamp(orderId, base.minusMinutes(15));
+        OrderState latest = replayService.replayToTimestamp(orderId, base);
+
+        assertThat(beforeSnapshot.getEventHistory()).containsExactly("OrderPlaced");
+        assertThat(afterSnapshot.getEventHistory()).containsExactly("OrderPlaced", "PaymentProcessed", "from-snapshot");
+        assertThat(latest.getStatus()).isEqualTo("INVENTORY_RESERVED");
+        assertThat(latest.getEventHistory()).endsWith("from-snapshot", "InventoryReserved");
+    }
+
+    private long append(String eventType, LocalDateTime timestamp, String transactionId, Object payload) throws Exception {
+        var event = new EventWrapper<>(new EventMetadata(eventType, "1.0", "test", transactionId, timestamp), payload);
+        long recordTimestamp = timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return kafkaTemplate.send(new ProducerRecord<>("order-events", null, recordTimestamp, orderId, event))
+            .get().getRecordMetadata().offset();
+    }
+}
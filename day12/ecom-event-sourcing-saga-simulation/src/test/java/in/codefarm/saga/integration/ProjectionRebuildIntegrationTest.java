@@ -0,0 +1,185 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventMetadata;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.inventory.repository.InventoryReservationRepository;
+import in.codefarm.saga.order.entity.OrderEntity;
+import in.codefarm.saga.order.repository.OrderRepository;
+import in.codefarm.saga.order.service.OrderService;
+import in.codefarm.saga.payment.repository.PaymentRepository;
+import in.codefarm.saga.projection.ProjectionRebuildService;
+import in.codefarm.saga.projection.ProjectionWriteFence;
+import in.codefarm.saga.projection.RebuildStatus;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Projection rebuild: order-events replayed into shadow tables and swapped with the live JPA tables.
+ */
+@SpringBootTest
+@EmbeddedKafka(partitions = 3, topics = {"orders", "payments", "inventory", "order-events"})
+@DirtiesContext
+@DisplayName("Projection Rebuild Integration Tests")
+class ProjectionRebuildIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private ProjectionRebuildService rebuildService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InventoryReservationRepository inventoryReservationRepository;
+
+    @Autowired
+    private ProjectionWriteFence writeFence;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<String> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        orderIds.clear();
+        for (int i = 0; i < 10; i++) {
+            String transactionId = TestEventBuilder.generateTransactionId();
+            OrderPlacedEvent order = TestEventBuilder.defaultOrderPlacedEvent();
+            String orderId = order.orderId();
+            append(orderId, TestEventBuilder.wrapOrderPlaced(order, transactionId));
+            append(orderId, TestEventBuilder.wrapPaymentProcessed(
+                TestEventBuilder.paymentProcessedSuccess(orderId, order.customerId(), order.totalAmount()), transactionId));
+            if (i % 2 == 0) {
+                append(orderId, TestEventBuilder.wrapInventoryReserved(
+                    TestEventBuilder.inventoryReserved(orderId, order.productId(), order.quantity()), transactionId));
+            } else {
+                append(orderId, new EventWrapper<>(
+                    new EventMetadata("PaymentRefunded", "1.0", "payment-service", transactionId, LocalDateTime.now()),
+                    TestEventBuilder.paymentRefunded(orderId, order.customerId(), order.totalAmount())));
+                append(orderId, new EventWrapper<>(
+                    new EventMetadata("OrderCancelled", "1.0", "order-service", transactionId, LocalDateTime.now()),
+                    TestEventBuilder.orderCancelled(orderId, "Inventory unavailable")));
+            }
+            orderIds.add(orderId);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild orders, payments and reservations from the event store")
+    void shouldRebuildTablesFromEventStore() {
+        // Lost/wrong projection state that the rebuild must replace
+        inventoryReservationRepository.deleteAll();
+        paymentRepository.deleteAll();
+        orderRepository.deleteAll();
+        orderService.createOrder("stale-order", "customer-x", "product-x", 1, BigDecimal.ONE, "stale");
+
+        RebuildStatus status = rebuildService.rebuild();
+
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.eventsApplied()).isGreaterThanOrEqualTo(35);
+        assertThat(orderRepository.findByOrderId("stale-order")).isEmpty();
+        assertThat(orderIds).allSatisfy(orderId -> {
+            assertThat(orderRepository.findByOrderId(orderId)).isPresent();
+            assertThat(paymentRepository.findByOrderId(orderId)).isPresent();
+        });
+        assertThat(orderRepository.findByOrderId(orderIds.get(0))).get()
+            .extracting(OrderEntity::getStatus).isEqualTo("PENDING");
+        assertThat(orderRepository.findByOrderId(orderIds.get(1))).get()
+            .extracting(OrderEntity::getStatus).isEqualTo("CANCELLED");
+        assertThat(paymentRepository.findByOrderId(orderIds.get(1))).get()
+            .satisfies(payment -> assertThat(payment.getStatus()).isEqualTo("REFUNDED"));
+        assertThat(inventoryReservationRepository.findByOrderId(orderIds.get(0))).isPresent();
+        assertThat(inventoryReservationRepository.findByOrderId(orderIds.get(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the swapped tables writable through JPA")
+    void shouldAcceptWritesAfterSwap() {
+        rebuildService.rebuild();
+        long rebuilt = orderRepository.count();
+
+        orderService.createOrder(UUID.randomUUID().toString(), "customer-y", "product-y", 1, BigDecimal.TEN, "after-swap");
+
+        assertThat(orderRepository.count()).isEqualTo(rebuilt + 1);
+        assertThat(rebuildService.rebuild().state()).as("a second rebuild starts from fresh shadow tables").isEqualTo("COMPLETED");
+    }
+
+    @Test
+    @DisplayName("Should complete a swap interrupted after the live table was renamed when the next rebuild starts")
+    void shouldRecoverInterruptedSwap() throws Exception {
+        rebuildService.rebuild();
+        long rebuilt = orderRepository.count();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table orders_rebuild as select * from orders");
+        jdbc.execute("alter table orders_rebuild alter column id set not null");
+        jdbc.execute("alter table orders_rebuild add primary key (id)");
+        jdbc.execute("create unique index idx_orders_order_id_rebuild on orders_rebuild (order_id)");
+        jdbc.execute("alter table orders rename to orders_old");
+
+        assertThat(rebuildService.rebuild().state()).isEqualTo("COMPLETED");
+
+        assertThat(orderRepository.count()).isEqualTo(rebuilt);
+        assertThat(jdbc.queryForObject("select count(*) from information_schema.tables " +
+            "where lower(table_name) in ('orders_old', 'orders_rebuild')", Long.class)).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from information_schema.indexes " +
+            "where lower(index_name) = 'idx_orders_order_id'", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep a live order whose event is appended while the swap waits at the write fence")
+    void shouldKeepLiveWriteAppendedDuringSwap() throws Exception {
+        String transactionId = TestEventBuilder.generateTransactionId();
+        OrderPlacedEvent order = TestEventBuilder.defaultOrderPlacedEvent();
+        CompletableFuture<RebuildStatus> rebuild;
+        writeFence.enter();
+        try {
+            orderService.createOrder(order.orderId(), order.customerId(), order.productId(), order.quantity(),
+                order.totalAmount(), transactionId);
+            rebuild = CompletableFuture.supplyAsync(rebuildService::rebuild);
+            await().atMost(Duration.ofSeconds(30)).until(() -> "SWAPPING".equals(rebuildService.status().state()));
+            await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(2)).until(() -> !rebuild.isDone());
+
+            append(order.orderId(), TestEventBuilder.wrapOrderPlaced(order, transactionId));
+        } finally {
+            writeFence.leave();
+        }
+
+        assertThat(rebuild.get(30, TimeUnit.SECONDS).state()).isEqualTo("COMPLETED");
+        assertThat(orderRepository.findByOrderId(order.orderId())).isPresent();
+    }
+
+    private void append(String orderId, EventWrapper<?> event) throws Exception {
+        kafkaTemplate.send("order-events", orderId, event).get();
+    }
+}
@@ -217,9 +217,9 @@ class SagaFlowIntegrationTest {
     @DisplayName("Should handle inventory failure and trigger payment refund and order cancellation")
     void shouldHandleInventoryFailureAndTriggerCompensation() {
         String customerId = "customer-123";
-        String productId = "product-456";
+        String productId = "product-sold-out";  // 0 units in inventory.stock.initial
         Integer quantity = 2;
-        BigDecimal amount = BigDecimal.valueOf(600.00);  // Will pass payment but fail inventory (> 500)
+        BigDecimal amount = BigDecimal.valueOf(600.00);  // Will pass payment but fail inventory (no stock)
         String orderId = java.util.UUID.randomUUID().toString();
         String transactionId = TestEventBuilder.generateTransactionId();
         
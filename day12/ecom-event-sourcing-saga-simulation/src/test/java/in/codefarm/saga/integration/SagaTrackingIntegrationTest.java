@@ -0,0 +1,88 @@
+package in.codefarm.saga.integration;
+
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.event.OrderPlacedEvent;
+import in.codefarm.saga.order.service.OrderEventProducer;
+import in.codefarm.saga.order.service.OrderService;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import in.codefarm.saga.tracking.SagaStage;
+import in.codefarm.saga.tracking.SagaTimeoutHandler;
+import in.codefarm.saga.tracking.SagaTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Saga tracking: completed sagas feed the step latency histograms, stuck sagas time out.
+ */
+@SpringBootTest(properties = {
+    "saga.tracking.step-timeout-ms=1500",
+    "saga.tracking.tick-ms=50"
+})
+@EmbeddedKafka(partitions = 1, topics = {"orders", "payments", "inventory"})
+@DirtiesContext
+@DisplayName("Saga Tracking Integration Tests")
+class SagaTrackingIntegrationTest {
+
+    @Autowired
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderEventProducer orderEventProducer;
+
+    @Autowired
+    private SagaTracker sagaTracker;
+
+    @Autowired
+    private SagaTimeoutHandler timeoutHandler;
+
+    @Test
+    @DisplayName("Should track a saga through to completion and record its latencies")
+    void shouldTrackCompletedSaga() {
+        String orderId = UUID.randomUUID().toString();
+        String transactionId = TestEventBuilder.generateTransactionId();
+        BigDecimal amount = BigDecimal.valueOf(99.99);
+
+        orderService.createOrder(orderId, "customer-123", "product-456", 1, amount, transactionId);
+        orderEventProducer.sendOrderPlacedEvent(
+            new OrderPlacedEvent(orderId, "customer-123", "product-456", 1, amount, LocalDateTime.now()), transactionId);
+
+        await().atMost(Duration.ofSeconds(10))
+            .until(() -> sagaTracker.stageOf(transactionId).filter(SagaStage.COMPLETED::equals).isPresent());
+        assertThat(sagaTracker.stats().stepLatencies().get("end-to-end").count()).isPositive();
+        assertThat(sagaTracker.stats().stepLatencies().get("inventory").count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should time out a saga whose compensation never arrives")
+    void shouldTimeOutStuckSaga() throws Exception {
+        String orderId = UUID.randomUUID().toString();
+        String transactionId = TestEventBuilder.generateTransactionId();
+        // No payment exists for this order, so the refund (next compensation step) is never published
+        var unavailable = TestEventBuilder.inventoryUnavailable(orderId, "product-456", 1);
+        kafkaTemplate.send("inventory", orderId, TestEventBuilder.wrapInventoryReserved(unavailable, transactionId)).get();
+
+        await().atMost(Duration.ofSeconds(15))
+            .until(() -> timeoutHandler.recentTimeouts(100).stream().anyMatch(t -> t.transactionId().equals(transactionId)));
+        var timeout = timeoutHandler.recentTimeouts(100).stream()
+            .filter(t -> t.transactionId().equals(transactionId))
+            .findFirst().orElseThrow();
+        assertThat(timeout.stage()).isEqualTo(SagaStage.AWAITING_REFUND);
+        assertThat(timeout.orderId()).isEqualTo(orderId);
+    }
+}
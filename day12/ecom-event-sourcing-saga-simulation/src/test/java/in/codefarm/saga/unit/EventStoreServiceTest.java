@@ -0,0 +1,133 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.event.EventHeaders;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.eventsourcing.EventAppendRejectedException;
+import in.codefarm.saga.eventsourcing.EventStoreService;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatcher;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Event Store Service Unit Tests")
+class EventStoreServiceTest {
+
+    @Mock
+    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+
+    private EventStoreService eventStoreService;
+    private EventWrapper<?> event;
+
+    @BeforeEach
+    void setUp() {
+        eventStoreService = new EventStoreService(kafkaTemplate, 1, 10);
+        event = TestEventBuilder.wrapOrderPlaced(TestEventBuilder.defaultOrderPlacedEvent(), TestEventBuilder.generateTransactionId());
+    }
+
+    @Test
+    @DisplayName("Should send to the saga topic and the event store, completing when both are acknowledged")
+    void shouldCompleteWhenBothSendsAcknowledged() {
+        CompletableFuture<SendResult<String, EventWrapper<?>>> sagaSend = new CompletableFuture<>();
+        CompletableFuture<SendResult<String, EventWrapper<?>>> storeSend = new CompletableFuture<>();
+        when(kafkaTemplate.send(argThat(toTopic("orders")))).thenReturn(sagaSend);
+        when(kafkaTemplate.send(argThat(toTopic("order-events")))).thenReturn(storeSend);
+
+        CompletableFuture<Void> published = eventStoreService.publish("orders", "order-1", event);
+
+        verify(kafkaTemplate).send(argThat(record(new ProducerRecord<>("orders", "order-1", event))));
+        verify(kafkaTemplate).send(argThat(record(new ProducerRecord<>("order-events", "order-1", event))));
+        sagaSend.complete(sendResult());
+        assertThat(published).isNotDone();
+        assertThat(eventStoreService.inFlight()).isEqualTo(1);
+
+        storeSend.complete(sendResult());
+        assertThat(published).isCompleted();
+        assertThat(eventStoreService.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject callers once max in-flight appends are unacknowledged")
+    void shouldRejectWhenInFlightLimitReached() {
+        CompletableFuture<SendResult<String, EventWrapper<?>>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, EventWrapper<?>>>any())).thenReturn(pending);
+        eventStoreService.publish("orders", "order-1", event);
+
+        assertThatThrownBy(() -> eventStoreService.publish("orders", "order-2", event))
+            .isInstanceOf(EventAppendRejectedException.class);
+        assertThat(eventStoreService.rejectedAppends()).isEqualTo(1);
+
+        pending.complete(sendResult());
+        assertThat(eventStoreService.publish("orders", "order-2", event)).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Should surface and count a failed event store append")
+    void shouldSurfaceFailedAppend() {
+        when(kafkaTemplate.send(argThat(toTopic("orders"))))
+            .thenReturn(CompletableFuture.completedFuture(sendResult()));
+        when(kafkaTemplate.send(argThat(toTopic("order-events"))))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker unavailable")));
+
+        CompletableFuture<Void> published = eventStoreService.publish("orders", "order-1", event);
+
+        assertThat(published).isCompletedExceptionally();
+        assertThat(eventStoreService.failedAppends()).isEqualTo(1);
+        assertThat(eventStoreService.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should tag both records with the event type header")
+    void shouldTagRecordsWithEventType() {
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, EventWrapper<?>>>any()))
+            .thenReturn(CompletableFuture.completedFuture(sendResult()));
+
+        eventStoreService.publish("orders", "order-1", event);
+
+        verify(kafkaTemplate).send(argThat(toTopic("orders").and(record ->
+            "OrderPlaced".equals(EventHeaders.read(record.headers(), EventHeaders.EVENT_TYPE)))));
+        verify(kafkaTemplate).send(argThat(toTopic("order-events").and(record ->
+            "OrderPlaced".equals(EventHeaders.read(record.headers(), EventHeaders.EVENT_TYPE)))));
+    }
+
+    private static RecordMatcher toTopic(String topic) {
+        return record -> record != null && topic.equals(record.topic());
+    }
+
+    private static RecordMatcher record(ProducerRecord<String, EventWrapper<?>> expected) {
+        return record -> record != null
+            && expected.topic().equals(record.topic())
+            && expected.key().equals(record.key())
+            && expected.value() == record.value();
+    }
+
+    @FunctionalInterface
+    private interface RecordMatcher extends ArgumentMatcher<ProducerRecord<String, EventWrapper<?>>> {
+
+        default RecordMatcher and(RecordMatcher other) {
+            return record -> matches(record) && other.matches(record);
+        }
+    }
+
+    private static SendResult<String, EventWrapper<?>> sendResult() {
+        return new SendResult<>(null, new RecordMetadata(new TopicPartition("orders", 0), 0, 0, 0, 0, 0));
+    }
+}
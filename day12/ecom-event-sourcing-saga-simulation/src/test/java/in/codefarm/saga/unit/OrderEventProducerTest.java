@@ -1,6 +1,7 @@
 package in.codefarm.saga.unit;
 
 import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.eventsourcing.EventStoreService;
 import in.codefarm.saga.event.OrderPlacedEvent;
 import in.codefarm.saga.order.service.OrderEventProducer;
 import in.codefarm.saga.testutil.TestEventBuilder;
@@ -12,8 +13,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 
 import java.math.BigDecimal;
 import java.util.concurrent.CompletableFuture;
@@ -27,7 +26,7 @@ import static org.mockito.Mockito.*;
 class OrderEventProducerTest {
     
     @Mock
-    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+    private EventStoreService eventStoreService;
     
     @InjectMocks
     private OrderEventProducer orderEventProducer;
@@ -42,9 +41,8 @@ class OrderEventProducerTest {
         topicCaptor = ArgumentCaptor.forClass(String.class);
         keyCaptor = ArgumentCaptor.forClass(String.class);
         
-        SendResult<String, EventWrapper<?>> sendResult = new SendResult<>(null, null);
-        lenient().when(kafkaTemplate.send(anyString(), anyString(), any(EventWrapper.class)))
-            .thenReturn(CompletableFuture.completedFuture(sendResult));
+        lenient().when(eventStoreService.publish(anyString(), anyString(), any(EventWrapper.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
     }
     
     @Test
@@ -55,7 +53,7 @@ class OrderEventProducerTest {
         
         orderEventProducer.sendOrderPlacedEvent(orderEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(
+        verify(eventStoreService, times(1)).publish(
             topicCaptor.capture(),
             keyCaptor.capture(),
             eventWrapperCaptor.capture()
@@ -73,17 +71,18 @@ class OrderEventProducerTest {
     }
     
     @Test
-    @DisplayName("Should handle Kafka send failure gracefully")
-    void shouldHandleSendFailureGracefully() {
-        when(kafkaTemplate.send(anyString(), anyString(), any(EventWrapper.class)))
+    @DisplayName("Should surface a failed publish to the caller")
+    void shouldFailWhenPublishFails() {
+        when(eventStoreService.publish(anyString(), anyString(), any(EventWrapper.class)))
             .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka send failed")));
         
         String transactionId = TestEventBuilder.generateTransactionId();
         OrderPlacedEvent orderEvent = TestEventBuilder.defaultOrderPlacedEvent();
         
-        orderEventProducer.sendOrderPlacedEvent(orderEvent, transactionId);
+        var result = orderEventProducer.sendOrderPlacedEvent(orderEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any(EventWrapper.class));
+        assertThat(result).isCompletedExceptionally();
+        verify(eventStoreService, times(1)).publish(anyString(), anyString(), any(EventWrapper.class));
     }
     
     @Test
@@ -98,7 +97,7 @@ class OrderEventProducerTest {
             transactionId
         );
         
-        verify(kafkaTemplate, times(1)).send(
+        verify(eventStoreService, times(1)).publish(
             topicCaptor.capture(),
             keyCaptor.capture(),
             eventWrapperCaptor.capture()
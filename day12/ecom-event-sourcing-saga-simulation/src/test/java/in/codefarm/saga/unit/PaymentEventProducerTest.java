@@ -1,6 +1,7 @@
 package in.codefarm.saga.unit;
 
 import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.eventsourcing.EventStoreService;
 import in.codefarm.saga.event.PaymentProcessedEvent;
 import in.codefarm.saga.event.PaymentRefundedEvent;
 import in.codefarm.saga.payment.service.PaymentEventProducer;
@@ -13,8 +14,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 
 import java.math.BigDecimal;
 import java.util.concurrent.CompletableFuture;
@@ -30,7 +29,7 @@ class PaymentEventProducerTest {
     private static final String TEST_CUSTOMER_ID = "customer-456";
     
     @Mock
-    private KafkaTemplate<String, EventWrapper<?>> kafkaTemplate;
+    private EventStoreService eventStoreService;
     
     @InjectMocks
     private PaymentEventProducer paymentEventProducer;
@@ -43,9 +42,8 @@ class PaymentEventProducerTest {
         eventWrapperCaptor = ArgumentCaptor.forClass(EventWrapper.class);
         topicCaptor = ArgumentCaptor.forClass(String.class);
         
-        SendResult<String, EventWrapper<?>> sendResult = new SendResult<>(null, null);
-        when(kafkaTemplate.send(anyString(), anyString(), any(EventWrapper.class)))
-            .thenReturn(CompletableFuture.completedFuture(sendResult));
+        when(eventStoreService.publish(anyString(), anyString(), any(EventWrapper.class)))
+            .thenReturn(CompletableFuture.completedFuture(null));
     }
     
     @Test
@@ -60,7 +58,7 @@ class PaymentEventProducerTest {
         
         paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(
+        verify(eventStoreService, times(1)).publish(
             topicCaptor.capture(),
             anyString(),
             eventWrapperCaptor.capture()
@@ -86,7 +84,7 @@ class PaymentEventProducerTest {
         
         paymentEventProducer.sendPaymentProcessedEvent(paymentEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), eventWrapperCaptor.capture());
+        verify(eventStoreService, times(1)).publish(anyString(), anyString(), eventWrapperCaptor.capture());
         
         EventWrapper<?> capturedWrapper = eventWrapperCaptor.getValue();
         assertThat(capturedWrapper.metadata().eventType()).isEqualTo("PaymentProcessed");
@@ -107,7 +105,7 @@ class PaymentEventProducerTest {
         
         paymentEventProducer.sendPaymentRefundedEvent(refundEvent, transactionId);
         
-        verify(kafkaTemplate, times(1)).send(
+        verify(eventStoreService, times(1)).publish(
             topicCaptor.capture(),
             anyString(),
             eventWrapperCaptor.capture()
@@ -0,0 +1,133 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.event.EventMetadata;
+import in.codefarm.saga.event.EventWrapper;
+import in.codefarm.saga.testutil.TestEventBuilder;
+import in.codefarm.saga.tracing.SagaTracingProducerInterceptor;
+import in.codefarm.saga.tracing.SagaTracingRecordInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Saga Tracing Interceptor Unit Tests")
+class SagaTracingInterceptorTest {
+
+    private static final String ORIGIN_HEADER = "saga-origin-ts";
+    private static final String HOP_HEADER = "saga-hop-ts";
+
+    @Mock
+    private Consumer<String, EventWrapper<?>> consumer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SagaTracingProducerInterceptor producerInterceptor;
+    private SagaTracingRecordInterceptor recordInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        producerInterceptor = new SagaTracingProducerInterceptor();
+        recordInterceptor = new SagaTracingRecordInterceptor(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should start a saga at the event's creation time")
+    void shouldStampOriginFromEventMetadata() {
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(5);
+        var sent = producerInterceptor.onSend(new ProducerRecord<>("orders", "order-1", orderPlacedAt(createdAt)));
+
+        long expectedOrigin = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertThat(readHeader(sent.headers().lastHeader(ORIGIN_HEADER))).isEqualTo(expectedOrigin);
+        assertThat(readHeader(sent.headers().lastHeader(HOP_HEADER))).isGreaterThan(expectedOrigin);
+    }
+
+    @Test
+    @DisplayName("Should record hop and end-to-end latency tagged by topic and group")
+    void shouldRecordLatencies() {
+        when(consumer.groupMetadata()).thenReturn(new ConsumerGroupMetadata("payment-service-group"));
+        var sent = producerInterceptor.onSend(
+            new ProducerRecord<>("orders", "order-1", orderPlacedAt(LocalDateTime.now().minusSeconds(5))));
+
+        recordInterceptor.intercept(received(sent), consumer);
+        recordInterceptor.afterRecord(received(sent), consumer);
+
+        var hop = meterRegistry.get("saga.hop.latency")
+            .tag("topic", "orders").tag("group", "payment-service-group").timer();
+        var endToEnd = meterRegistry.get("saga.end-to-end.latency")
+            .tag("topic", "orders").tag("group", "payment-service-group").timer();
+        assertThat(hop.count()).isEqualTo(1);
+        assertThat(endToEnd.count()).isEqualTo(1);
+        assertThat(endToEnd.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5_000);
+        assertThat(hop.max(TimeUnit.MILLISECONDS)).isLessThan(5_000);
+    }
+
+    @Test
+    @DisplayName("Should carry the origin to events sent while handling a record")
+    void shouldPropagateOriginToNextHop() {
+        when(consumer.groupMetadata()).thenReturn(new ConsumerGroupMetadata("payment-service-group"));
+        var orderPlaced = producerInterceptor.onSend(
+            new ProducerRecord<>("orders", "order-1", orderPlacedAt(LocalDateTime.now().minusSeconds(5))));
+        long origin = readHeader(orderPlaced.headers().lastHeader(ORIGIN_HEADER));
+
+        recordInterceptor.intercept(received(orderPlaced), consumer);
+        var paymentProcessed = producerInterceptor.onSend(
+            new ProducerRecord<>("payments", "order-1", paymentProcessed()));
+        recordInterceptor.afterRecord(received(orderPlaced), consumer);
+        var unrelated = producerInterceptor.onSend(
+            new ProducerRecord<>("payments", "order-2", paymentProcessed()));
+
+        assertThat(readHeader(paymentProcessed.headers().lastHeader(ORIGIN_HEADER))).isEqualTo(origin);
+        assertThat(readHeader(unrelated.headers().lastHeader(ORIGIN_HEADER))).isGreaterThan(origin);
+    }
+
+    @Test
+    @DisplayName("Should ignore records without tracing headers")
+    void shouldIgnoreUntracedRecords() {
+        var record = new ConsumerRecord<String, EventWrapper<?>>("orders", 0, 0L, "order-1",
+            orderPlacedAt(LocalDateTime.now()));
+
+        recordInterceptor.intercept(record, consumer);
+
+        assertThat(meterRegistry.find("saga.end-to-end.latency").timer()).isNull();
+    }
+
+    private static EventWrapper<?> orderPlacedAt(LocalDateTime createdAt) {
+        var metadata = new EventMetadata("OrderPlaced", "1.0", "order-service",
+            TestEventBuilder.generateTransactionId(), createdAt);
+        return new EventWrapper<>(metadata, TestEventBuilder.defaultOrderPlacedEvent());
+    }
+
+    private static EventWrapper<?> paymentProcessed() {
+        return TestEventBuilder.wrapPaymentProcessed(
+            TestEventBuilder.paymentProcessedSuccess("order-1", "customer-1", BigDecimal.TEN),
+            TestEventBuilder.generateTransactionId());
+    }
+
+    private static ConsumerRecord<String, EventWrapper<?>> received(ProducerRecord<String, EventWrapper<?>> sent) {
+        var record = new ConsumerRecord<String, EventWrapper<?>>(sent.topic(), 0, 0L, sent.key(), sent.value());
+        sent.headers().forEach(header -> record.headers().add(header));
+        return record;
+    }
+
+    private static long readHeader(Header header) {
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+}
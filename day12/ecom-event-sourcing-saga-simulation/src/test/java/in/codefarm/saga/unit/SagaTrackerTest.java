@@ -0,0 +1,119 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.tracking.SagaStage;
+import in.codefarm.saga.tracking.SagaStep;
+import in.codefarm.saga.tracking.SagaTimeout;
+import in.codefarm.saga.tracking.SagaTimeoutHandler;
+import in.codefarm.saga.tracking.SagaTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Saga Tracker Unit Tests")
+class SagaTrackerTest {
+
+    private static final long STEP_TIMEOUT_MS = 60_000;
+
+    @Mock
+    private SagaTimeoutHandler timeoutHandler;
+
+    private SagaTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new SagaTracker(timeoutHandler, STEP_TIMEOUT_MS, 100, 64, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracker.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should complete a saga and record its step latencies")
+    void shouldRecordStepLatencies() {
+        tracker.record("tx-1", "order-1", 0, SagaStep.ORDER_PLACED, 1_000);
+        tracker.record("tx-1", "order-1", 0, SagaStep.PAYMENT_SUCCEEDED, 1_040);
+        tracker.record("tx-1", "order-1", 0, SagaStep.INVENTORY_RESERVED, 1_100);
+
+        var stats = tracker.stats();
+        assertThat(stats.running()).isZero();
+        assertThat(stats.completed()).isEqualTo(1);
+        assertThat(stats.stepLatencies().get("payment").count()).isEqualTo(1);
+        assertThat(stats.stepLatencies().get("payment").maxMs()).isEqualTo(40);
+        assertThat(stats.stepLatencies().get("end-to-end").maxMs()).isEqualTo(100);
+        assertThat(tracker.stageOf("tx-1")).contains(SagaStage.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("Should measure latencies when steps arrive out of order")
+    void shouldHandleOutOfOrderSteps() {
+        tracker.record("tx-1", "order-1", 0, SagaStep.PAYMENT_SUCCEEDED, 1_040);
+        tracker.record("tx-1", "order-1", 0, SagaStep.ORDER_PLACED, 1_000);
+
+        assertThat(tracker.stageOf("tx-1")).contains(SagaStage.AWAITING_INVENTORY);
+        assertThat(tracker.stats().stepLatencies().get("payment").maxMs()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Should hand a stuck saga to the timeout handler once its deadline passes")
+    void shouldTimeOutStuckSaga() {
+        tracker.record("tx-1", "order-1", 0, SagaStep.ORDER_PLACED, 1_000);
+        tracker.record("tx-1", "order-1", 0, SagaStep.PAYMENT_SUCCEEDED, 1_040);
+
+        tracker.sweep(System.currentTimeMillis() + STEP_TIMEOUT_MS / 2);
+        verify(timeoutHandler, never()).onTimeout(any());
+
+        tracker.sweep(System.currentTimeMillis() + STEP_TIMEOUT_MS + 1_000);
+
+        ArgumentCaptor<SagaTimeout> timeout = ArgumentCaptor.forClass(SagaTimeout.class);
+        verify(timeoutHandler).onTimeout(timeout.capture());
+        assertThat(timeout.getValue().orderId()).isEqualTo("order-1");
+        assertThat(timeout.getValue().stage()).isEqualTo(SagaStage.AWAITING_INVENTORY);
+        assertThat(tracker.stats().timedOut()).isEqualTo(1);
+        assertThat(tracker.stats().running()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not time out a saga that finished before its deadline, and ignore late events")
+    void shouldIgnoreFinishedSagas() {
+        tracker.record("tx-1", "order-1", 0, SagaStep.ORDER_PLACED, 1_000);
+        tracker.record("tx-1", "order-1", 0, SagaStep.PAYMENT_FAILED, 1_040);
+        tracker.record("tx-1", "order-1", 0, SagaStep.ORDER_CANCELLED, 1_080);
+
+        tracker.sweep(System.currentTimeMillis() + STEP_TIMEOUT_MS + 1_000);
+
+        verify(timeoutHandler, never()).onTimeout(any());
+        assertThat(tracker.stats().compensated()).isEqualTo(1);
+        assertThat(tracker.stats().lateEvents()).isEqualTo(1);
+        assertThat(tracker.stats().running()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop the sagas of revoked partitions without timing them out")
+    void shouldForgetRevokedPartitions() {
+        tracker.record("tx-1", "order-1", 0, SagaStep.ORDER_PLACED, 1_000);
+        tracker.record("tx-2", "order-2", 1, SagaStep.ORDER_PLACED, 1_000);
+
+        tracker.forgetPartitions(List.of(0));
+        tracker.sweep(System.currentTimeMillis() + STEP_TIMEOUT_MS + 1_000);
+
+        ArgumentCaptor<SagaTimeout> timeout = ArgumentCaptor.forClass(SagaTimeout.class);
+        verify(timeoutHandler).onTimeout(timeout.capture());
+        assertThat(timeout.getValue().transactionId()).isEqualTo("tx-2");
+        assertThat(tracker.stageOf("tx-1")).isEmpty();
+    }
+}
@@ -0,0 +1,160 @@
+package in.codefarm.saga.unit;
+
+import in.codefarm.saga.inventory.ledger.StockLedger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Stock Ledger Unit Tests")
+class StockLedgerTest {
+
+    private final StockLedger ledger = new StockLedger(16, 100, "product-sold-out:0, product-low:5");
+
+    @Test
+    @DisplayName("Should start products at the configured or default stock")
+    void shouldUseInitialStock() {
+        assertThat(ledger.available("product-sold-out")).isZero();
+        assertThat(ledger.available("product-low")).isEqualTo(5);
+        assertThat(ledger.available("product-any")).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should reserve while stock lasts and never go below zero")
+    void shouldNotOversell() {
+        assertThat(ledger.reserve("product-low", 3)).isTrue();
+        assertThat(ledger.reserve("product-low", 3)).isFalse();
+        assertThat(ledger.reserve("product-low", 2)).isTrue();
+        assertThat(ledger.reserve("product-sold-out", 1)).isFalse();
+
+        assertThat(ledger.available("product-low")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not oversell under concurrent reservations")
+    void shouldNotOversellConcurrently() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < 1_000; i++) {
+                    if (ledger.reserve("product-any", 1)) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(total).isEqualTo(100);
+        assertThat(ledger.available("product-any")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give released units back")
+    void shouldRelease() {
+        ledger.reserve("product-low", 5);
+        ledger.release("product-low", 5);
+
+        assertThat(ledger.available("product-low")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should restore stock from committed reservations")
+    void shouldRestore() {
+        ledger.restore("product-any", 40);
+
+        assertThat(ledger.available("product-any")).isEqualTo(60);
+    }
+
+    @Test
+    @DisplayName("Should take units back only after two reconciliation rounds agree")
+    void shouldApplyPersistentNegativeDrift() {
+        // DB agrees: no drift
+        assertThat(reconcile("product-any", 0)).isZero();
+
+        // 10 units reserved in the DB the ledger never saw
+        assertThat(reconcile("product-any", 10)).isZero();
+        assertThat(reconcile("product-any", 10)).isEqualTo(-10);
+        assertThat(ledger.available("product-any")).isEqualTo(90);
+
+        // Corrected - the next round sees no drift
+        assertThat(reconcile("product-any", 10)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should give units back only after two reconciliation rounds agree")
+    void shouldApplyPersistentPositiveDrift() {
+        ledger.reserve("product-any", 10);
+        ledger.confirm("product-any", 10);
+
+        // DB agrees: no drift
+        assertThat(reconcile("product-any", 10)).isZero();
+
+        // Reservation rows deleted behind the ledger's back
+        assertThat(reconcile("product-any", 0)).isZero();
+        assertThat(reconcile("product-any", 0)).isEqualTo(10);
+        assertThat(ledger.available("product-any")).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should skip products with a reservation committed but not yet confirmed")
+    void shouldSkipInFlightReservations() {
+        ledger.reserve("product-any", 10);
+
+        // The row is already in the DB, confirm() has not run yet
+        assertThat(ledger.beginReconcile("product-any")).isEqualTo(StockLedger.UNSETTLED);
+        assertThat(reconcile("product-any", 10)).isZero();
+        assertThat(reconcile("product-any", 10)).isZero();
+        assertThat(ledger.available("product-any")).isEqualTo(90);
+    }
+
+    @Test
+    @DisplayName("Should skip a round when the product moved during the DB read")
+    void shouldSkipRoundWhenLedgerChangesDuringRead() {
+        for (int round = 0; round < 2; round++) {
+            long version = ledger.beginReconcile("product-any");
+            // Reserved, committed and confirmed after the DB query took its snapshot
+            ledger.reserve("product-any", 10);
+            ledger.confirm("product-any", 10);
+
+            assertThat(ledger.reconcile("product-any", 10L * round, version)).isZero();
+        }
+        assertThat(ledger.available("product-any")).isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("Should reject non-positive quantities and a full ledger")
+    void shouldRejectInvalidUse() {
+        assertThatThrownBy(() -> ledger.reserve("product-any", 0))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        var tiny = new StockLedger(1, 10, "");
+        tiny.reserve("product-a", 1);
+        assertThatThrownBy(() -> tiny.reserve("product-b", 1))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private long reconcile(String productId, long reservedUnits) {
+        return ledger.reconcile(productId, reservedUnits, ledger.beginReconcile(productId));
+    }
+}
@@ -0,0 +1,44 @@
+package in.codefarm.kafka.lag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+
+/**
+ * Adds the ConsumerLagMonitor (and /api/lag in servlet applications) to every application that
+ * includes this build - the applications only set kafka.lag.interval-ms.
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.kafka.autoconfigure.KafkaAutoConfiguration")
+@ConditionalOnClass({KafkaAdmin.class, MeterRegistry.class})
+public class ConsumerLagAutoConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public ConsumerLagMonitor consumerLagMonitor(
+        @Value("${kafka.lag.interval-ms:10000}") long intervalMs,
+        KafkaAdmin kafkaAdmin,
+        ObjectProvider<KafkaListenerEndpointRegistry> registry,
+        MeterRegistry meterRegistry
+    ) {
+        return new ConsumerLagMonitor(intervalMs, kafkaAdmin, registry, meterRegistry);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class LagEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public LagController lagController(ConsumerLagMonitor consumerLagMonitor) {
+            return new LagController(consumerLagMonitor);
+        }
+    }
+}
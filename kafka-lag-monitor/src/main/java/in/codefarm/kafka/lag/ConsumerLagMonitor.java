@@ -0,0 +1,244 @@
+package in.codefarm.kafka.lag;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Consumer lag, consume rate and estimated time-to-drain for every consumer group of the
+ * @KafkaListener containers in this application (retry-topic containers included).
+ *
+ * Every interval-ms one Admin round trip fetches the committed offsets of all groups and one more
+ * the log-end offsets of their partitions:
+ * - lag = log-end offset - committed offset, per partition
+ * - consume rate = committed offset delta / interval, produce rate = log-end offset delta / interval
+ * - time to drain = lag / (consume rate - produce rate), -1 while the lag is not shrinking
+ *
+ * Exported as gauges (kafka.consumer.lag per partition; kafka.consumer.lag.total, kafka.consumer.consume.rate,
+ * kafka.consumer.time-to-drain per group) and served at /api/lag. Partitions the group never committed
+ * are not reported.
+ *
+ * Registered by ConsumerLagAutoConfiguration in every application that has this jar on its classpath.
+ */
+public class ConsumerLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerLagMonitor.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 30;
+
+    public record PartitionLag(String topic, int partition, long committedOffset, long endOffset, long lag,
+                               double consumeRatePerSec, double produceRatePerSec) {
+    }
+
+    public record GroupLag(String groupId, long totalLag, double consumeRatePerSec, double produceRatePerSec,
+                           double timeToDrainSeconds, long sampledAt, List<PartitionLag> partitions) {
+    }
+
+    private record Sample(long committedOffset, long endOffset, long sampledAt) {
+    }
+
+    private final KafkaAdmin kafkaAdmin;
+    private final ObjectProvider<KafkaListenerEndpointRegistry> registry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<TopicPartition, Sample>> previousSamples = new HashMap<>();
+    private final Map<String, GroupLag> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> registeredGauges = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sampler;
+    private Admin admin;
+
+    public ConsumerLagMonitor(
+        long intervalMs,
+        KafkaAdmin kafkaAdmin,
+        ObjectProvider<KafkaListenerEndpointRegistry> registry,
+        MeterRegistry meterRegistry
+    ) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+        this.sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "consumer-lag-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sampler.scheduleWithFixedDelay(this::sampleSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public List<GroupLag> snapshot() {
+        return snapshots.values().stream()
+            .sorted(Comparator.comparing(GroupLag::groupId))
+            .toList();
+    }
+
+    public Optional<GroupLag> snapshot(String groupId) {
+        return Optional.ofNullable(snapshots.get(groupId));
+    }
+
+    /**
+     * Group ids of the listener containers registered in the application context.
+     */
+    Set<String> listenerGroups() {
+        KafkaListenerEndpointRegistry endpointRegistry = registry.getIfAvailable();
+        if (endpointRegistry == null) {
+            return Set.of();
+        }
+        return endpointRegistry.getListenerContainers().stream()
+            .map(MessageListenerContainer::getGroupId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    synchronized void sample() throws Exception {
+        Set<String> groupIds = listenerGroups();
+        if (groupIds.isEmpty()) {
+            return;
+        }
+        Map<String, ListConsumerGroupOffsetsSpec> specs = groupIds.stream()
+            .collect(Collectors.toMap(groupId -> groupId, groupId -> new ListConsumerGroupOffsetsSpec()));
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = admin().listConsumerGroupOffsets(specs)
+            .all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        committed.values().forEach(offsets -> offsets.keySet().forEach(tp -> latest.put(tp, OffsetSpec.latest())));
+        Map<TopicPartition, ListOffsetsResultInfo> endOffsets = latest.isEmpty()
+            ? Map.of()
+            : admin().listOffsets(latest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        long now = System.currentTimeMillis();
+        for (String groupId : groupIds) {
+            Map<TopicPartition, Sample> previous = previousSamples.getOrDefault(groupId, Map.of());
+            Map<TopicPartition, Sample> current = new HashMap<>();
+            List<PartitionLag> partitions = new ArrayList<>();
+            committed.getOrDefault(groupId, Map.of()).forEach((tp, offset) -> {
+                ListOffsetsResultInfo end = endOffsets.get(tp);
+                if (offset == null || end == null) {
+                    return;
+                }
+                Sample sample = new Sample(offset.offset(), end.offset(), now);
+                Sample before = previous.get(tp);
+                double consumeRate = before == null ? 0 : rate(before.committedOffset(), sample.committedOffset(), before.sampledAt(), now);
+                double produceRate = before == null ? 0 : rate(before.endOffset(), sample.endOffset(), before.sampledAt(), now);
+                partitions.add(new PartitionLag(tp.topic(), tp.partition(), sample.committedOffset(), sample.endOffset(),
+                    Math.max(sample.endOffset() - sample.committedOffset(), 0), consumeRate, produceRate));
+                current.put(tp, sample);
+            });
+            partitions.sort(Comparator.comparing(PartitionLag::topic).thenComparingInt(PartitionLag::partition));
+            previousSamples.put(groupId, current);
+
+            long totalLag = partitions.stream().mapToLong(PartitionLag::lag).sum();
+            double consumeRate = partitions.stream().mapToDouble(PartitionLag::consumeRatePerSec).sum();
+            double produceRate = partitions.stream().mapToDouble(PartitionLag::produceRatePerSec).sum();
+            snapshots.put(groupId, new GroupLag(groupId, totalLag, consumeRate, produceRate,
+                timeToDrain(totalLag, consumeRate, produceRate), now, List.copyOf(partitions)));
+            registerGauges(groupId, partitions);
+        }
+        snapshots.keySet().retainAll(groupIds);
+    }
+
+    public static double rate(long before, long after, long beforeAt, long afterAt) {
+        long elapsedMs = afterAt - beforeAt;
+        return elapsedMs <= 0 ? 0 : Math.max(after - before, 0) * 1000.0 / elapsedMs;
+    }
+
+    public static double timeToDrain(long lag, double consumeRate, double produceRate) {
+        if (lag == 0) {
+            return 0;
+        }
+        double drainRate = consumeRate - produceRate;
+        return drainRate > 0 ? lag / drainRate : -1;
+    }
+
+    // Gauges read the latest snapshot, so they are registered once per group / partition
+    private void registerGauges(String groupId, List<PartitionLag> partitions) {
+        if (registeredGauges.add(groupId)) {
+            Gauge.builder("kafka.consumer.lag.total", this, monitor -> monitor.groupValue(groupId, GroupLag::totalLag))
+                .description("Consumer lag of the group over all its partitions")
+                .tag("group", groupId)
+                .register(meterRegistry);
+            Gauge.builder("kafka.consumer.consume.rate", this, monitor -> monitor.groupValue(groupId, GroupLag::consumeRatePerSec))
+                .description("Committed records per second")
+                .tag("group", groupId)
+                .register(meterRegistry);
+            Gauge.builder("kafka.consumer.time-to-drain", this, monitor -> monitor.groupValue(groupId, GroupLag::timeToDrainSeconds))
+                .description("Estimated seconds until the lag is consumed, -1 while it is not shrinking")
+                .tag("group", groupId)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+        for (PartitionLag partition : partitions) {
+            if (registeredGauges.add(groupId + '|' + partition.topic() + '|' + partition.partition())) {
+                Gauge.builder("kafka.consumer.lag", this,
+                        monitor -> monitor.partitionLag(groupId, partition.topic(), partition.partition()))
+                    .description("Consumer lag of the group on one partition")
+                    .tag("group", groupId)
+                    .tag("topic", partition.topic())
+                    .tag("partition", String.valueOf(partition.partition()))
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    private double groupValue(String groupId, ToDoubleFunction<GroupLag> value) {
+        GroupLag lag = snapshots.get(groupId);
+        return lag == null ? Double.NaN : value.applyAsDouble(lag);
+    }
+
+    private double partitionLag(String groupId, String topic, int partition) {
+        GroupLag lag = snapshots.get(groupId);
+        if (lag == null) {
+            return Double.NaN;
+        }
+        return lag.partitions().stream()
+            .filter(p -> p.partition() == partition && p.topic().equals(topic))
+            .mapToDouble(PartitionLag::lag)
+            .findFirst()
+            .orElse(Double.NaN);
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (Exception e) {
+            log.warn("Consumer lag sampling failed - retried on the next interval: {}", e.getMessage());
+        }
+    }
+
+    private synchronized Admin admin() {
+        if (admin == null) {
+            admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        }
+        return admin;
+    }
+
+    public synchronized void shutdown() {
+        sampler.shutdownNow();
+        if (admin != null) {
+            admin.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package in.codefarm.kafka.lag;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Latest lag sample of the listener groups: per-partition lag, consume rate and time to drain.
+ */
+@RestController
+@RequestMapping("/api/lag")
+public class LagController {
+
+    private final ConsumerLagMonitor lagMonitor;
+
+    public LagController(ConsumerLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ConsumerLagMonitor.GroupLag>> lag() {
+        return ResponseEntity.ok(lagMonitor.snapshot());
+    }
+
+    @GetMapping("/{groupId}")
+    public ResponseEntity<ConsumerLagMonitor.GroupLag> lag(@PathVariable String groupId) {
+        return lagMonitor.snapshot(groupId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,39 @@
+package in.codefarm.kafka.lag;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("Consumer Lag Monitor Unit Tests")
+class ConsumerLagMonitorTest {
+
+    @Test
+    @DisplayName("Should compute the offset rate per second between two samples")
+    void shouldComputeRatePerSecond() {
+        assertThat(ConsumerLagMonitor.rate(100, 600, 0, 10_000)).isCloseTo(50.0, within(0.001));
+    }
+
+    @Test
+    @DisplayName("Should report no rate for an unchanged sample time or a rewound offset")
+    void shouldIgnoreInvalidIntervals() {
+        assertThat(ConsumerLagMonitor.rate(100, 600, 5_000, 5_000)).isZero();
+        assertThat(ConsumerLagMonitor.rate(600, 100, 0, 10_000)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should estimate the time to drain from the net consume rate")
+    void shouldEstimateTimeToDrain() {
+        // 1000 records behind, consuming 150/s while 50/s are produced: 10 seconds
+        assertThat(ConsumerLagMonitor.timeToDrain(1000, 150, 50)).isCloseTo(10.0, within(0.001));
+        assertThat(ConsumerLagMonitor.timeToDrain(0, 0, 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should report -1 while the lag is not shrinking")
+    void shouldFlagGrowingLag() {
+        assertThat(ConsumerLagMonitor.timeToDrain(1000, 50, 50)).isEqualTo(-1);
+        assertThat(ConsumerLagMonitor.timeToDrain(1000, 10, 50)).isEqualTo(-1);
+    }
+}